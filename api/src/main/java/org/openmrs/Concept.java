@@ -22,6 +22,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -41,10 +42,8 @@ import org.openmrs.api.db.hibernate.search.TermsFilterFactory;
 import org.openmrs.customdatatype.CustomValueDescriptor;
 import org.openmrs.customdatatype.Customizable;
 import org.openmrs.util.LocaleUtility;
-import org.openmrs.util.OpenmrsUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.util.ObjectUtils;
 
 /**
  * A Concept object can represent either a question or an answer to a data point. That data point is
@@ -127,6 +126,12 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 	 */
 	private Map<Locale, List<ConceptName>> compatibleCache;
 
+	/**
+	 * The non-voided names by locale, language and country. Built on-the-fly by the name lookups and
+	 * dropped whenever the names or one of their locales, types or preferred flags change.
+	 */
+	private transient volatile NameIndex nameIndex;
+
 	private Set<ConceptAttribute> attributes = new LinkedHashSet<>();
 
 	/** default constructor */
@@ -447,7 +452,7 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 	 * <strong>Should</strong> return name in broader locale in case none is found in specific one
 	 */
 	public ConceptName getName() {
-		if (getNames().isEmpty()) {
+		if (getNameIndex().isEmpty()) {
 			log.debug("there are no names defined for: {}", conceptId);
 			return null;
 		}
@@ -588,11 +593,11 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 	public ConceptName getName(Locale locale, boolean exact) {
 		
 		// fail early if this concept has no names defined
-		if (getNames().isEmpty()) {
+		if (getNameIndex().isEmpty()) {
 			log.debug("there are no names defined for: {}", conceptId);
 			return null;
 		}
-		
+
 		log.debug("Getting conceptName for locale: {}", locale);
 		
 		ConceptName exactName = getNameInLocale(locale);
@@ -624,10 +629,13 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 		ConceptName fullySpecifiedName = getFullySpecifiedName(locale);
 		if (fullySpecifiedName != null) {
 			return fullySpecifiedName;
-		} else if (!getSynonyms(locale).isEmpty()) {
-			return getSynonyms(locale).iterator().next();
 		}
-		
+
+		LocaleNames namesInLocale = getNameIndex().getNames(locale);
+		if (namesInLocale != null && !namesInLocale.synonyms.isEmpty()) {
+			return namesInLocale.synonyms.get(0);
+		}
+
 		return null;
 	}
 	
@@ -645,39 +653,21 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 			log.debug("Getting preferred conceptName for locale: " + forLocale);
 		}
 		// fail early if this concept has no names defined
-		if (getNames(forLocale).isEmpty()) {
+		NameIndex index = getNameIndex();
+		if (index.getNames(forLocale) == null) {
 			log.debug("there are no names defined for concept with id: {} in the locale: {}", conceptId, forLocale);
 			return null;
 		} else if (forLocale == null) {
 			log.warn("Locale cannot be null");
 			return null;
 		}
-		
-		for (ConceptName nameInLocale : getNames(forLocale)) {
-			if (ObjectUtils.nullSafeEquals(nameInLocale.getLocalePreferred(), true)) {
-				return nameInLocale;
-			}
-		}
-		
+
 		// look for partially locale match - any language matches takes precedence over country matches.
-		ConceptName bestMatch = null;
-		
-		for (ConceptName nameInLocale : getPartiallyCompatibleNames(forLocale)) {
-			if (ObjectUtils.nullSafeEquals(nameInLocale.getLocalePreferred(), true)) {
-				Locale nameLocale = nameInLocale.getLocale();
-				if (forLocale.getLanguage().equals(nameLocale.getLanguage())) {
-					return nameInLocale;
-				} else {
-					bestMatch = nameInLocale;
-				}
-				
-			}
-		}
-		
+		ConceptName bestMatch = index.getBestMatch(forLocale, LocaleNames::getPreferredName);
 		if (bestMatch != null) {
 			return bestMatch;
 		}
-		
+
 		return getFullySpecifiedName(forLocale);
 	}
 	
@@ -689,61 +679,26 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 	 * <strong>Should</strong> return the name marked as fully specified for the given locale
 	 */
 	public ConceptName getFullySpecifiedName(Locale locale) {
-		if (locale != null && !getNames(locale).isEmpty()) {
-			//get the first fully specified name, since every concept must have a fully specified name,
-			//then, this loop will have to return a name
-			for (ConceptName conceptName : getNames(locale)) {
-				if (ObjectUtils.nullSafeEquals(conceptName.isFullySpecifiedName(), true)) {
-					return conceptName;
-				}
-			}
-			
-			// look for partially locale match - any language matches takes precedence over country matches.
-			ConceptName bestMatch = null;
-			for (ConceptName conceptName : getPartiallyCompatibleNames(locale)) {
-				if (ObjectUtils.nullSafeEquals(conceptName.isFullySpecifiedName(), true)) {
-					Locale nameLocale = conceptName.getLocale();
-					if (locale.getLanguage().equals(nameLocale.getLanguage())) {
-						return conceptName;
-					}
-					bestMatch = conceptName;
-				}
-			}
-			return bestMatch;
-			
+		NameIndex index = getNameIndex();
+		if (locale != null && index.getNames(locale) != null) {
+			// look for the name in the locale first, then for partially locale match - any language
+			// matches takes precedence over country matches.
+			return index.getBestMatch(locale, LocaleNames::getFullySpecifiedName);
 		}
 		return null;
 	}
-	
+
 	/**
 	 * Returns all names available in a specific locale. <br>
 	 * <br>
 	 * This is recommended when managing the concept dictionary.
-	 * 
+	 *
 	 * @param locale locale for which names should be returned
 	 * @return Collection of ConceptNames with the given locale
 	 */
 	public Collection<ConceptName> getNames(Locale locale) {
-		return getNames().stream()
-				.filter(n -> n.getLocale().equals(locale))
-				.collect(Collectors.toSet());
-	}
-	
-	/**
-	 * Returns all names available for locale language "or" country. <br>
-	 * <br>
-	 * 
-	 * @param locale locale for which names should be returned
-	 * @return Collection of ConceptNames with the given locale language or country
-	 */
-	private Collection<ConceptName> getPartiallyCompatibleNames(Locale locale) {
-		String language = locale.getLanguage();
-		String country = locale.getCountry();
-		
-		return getNames().stream()
-				.filter(n -> language.equals(n.getLocale().getLanguage()) || 
-							StringUtils.isNotBlank(country) && country.equals(n.getLocale().getCountry()))
-				.collect(Collectors.toSet());
+		LocaleNames namesInLocale = getNameIndex().getNames(locale);
+		return namesInLocale == null ? new HashSet<>() : new HashSet<>(namesInLocale.names);
 	}
 	
 	/**
@@ -842,23 +797,11 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 	 * @return the short name, or null if none has been explicitly set
 	 */
 	public ConceptName getShortNameInLocale(Locale locale) {
-		ConceptName bestMatch = null;
-		if (locale != null && !getShortNames().isEmpty()) {
-			for (ConceptName shortName : getShortNames()) {
-				Locale nameLocale = shortName.getLocale();
-				if (nameLocale.equals(locale)) {
-					return shortName;
-				}
-				// test for partially locale match - any language matches takes precedence over country matches.
-				if (OpenmrsUtil.nullSafeEquals(locale.getLanguage(), nameLocale.getLanguage())) {
-					bestMatch = shortName;
-				} else if (bestMatch == null && StringUtils.isNotBlank(locale.getCountry())
-				        && locale.getCountry().equals(nameLocale.getCountry())) {
-					bestMatch = shortName;
-				}
-			}
+		if (locale == null) {
+			return null;
 		}
-		return bestMatch;
+		// test for partially locale match - any language matches takes precedence over country matches.
+		return getNameIndex().getBestMatch(locale, LocaleNames::getShortName);
 	}
 	
 	/**
@@ -989,6 +932,7 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 	 */
 	public void setNames(Collection<ConceptName> names) {
 		this.names = names;
+		invalidateNameIndex();
 	}
 	
 	/**
@@ -1030,27 +974,55 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 					}
 				}
 				names.add(conceptName);
-				if (compatibleCache != null) {
-					// clear the locale cache, forcing it to be rebuilt
-					compatibleCache.clear();
-				}
+				// clear the locale caches, forcing them to be rebuilt
+				invalidateNameIndex();
 			}
 		}
 	}
-	
+
 	/**
 	 * Remove the given name from the list of names for this Concept
-	 * 
+	 *
 	 * @param conceptName
 	 * @return true if the entity was removed, false otherwise
 	 */
 	public boolean removeName(ConceptName conceptName) {
 		if (names != null) {
+			invalidateNameIndex();
 			return names.remove(conceptName);
 		} else {
 			return false;
 		}
 	}
+
+	/**
+	 * Drops the name lookup caches, forcing them to be rebuilt from the current names. Called by
+	 * {@link ConceptName} when a property the lookups depend on changes. This method is final so
+	 * that calling it on an uninitialized Hibernate proxy does not load the concept, the call then
+	 * only reaches the proxy and the name index notices the change through the modification counts
+	 * of the names instead.
+	 */
+	final void invalidateNameIndex() {
+		nameIndex = null;
+		if (compatibleCache != null) {
+			compatibleCache.clear();
+		}
+	}
+
+	/**
+	 * @return the name index, built from the current names if they changed since it was last built
+	 */
+	private NameIndex getNameIndex() {
+		if (names == null) {
+			names = new HashSet<>();
+		}
+		NameIndex index = nameIndex;
+		if (index == null || !index.isFor(names)) {
+			index = new NameIndex(names);
+			nameIndex = index;
+		}
+		return index;
+	}
 	
 	/**
 	 * Finds the description of the concept using the current locale in Context.getLocale(). Returns
@@ -1259,24 +1231,11 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 	 * @return Collection of ConceptNames which are synonyms for the Concept in the given locale
 	 */
 	public Collection<ConceptName> getSynonyms(Locale locale) {
-		
-		List<ConceptName> syns = new ArrayList<>();
-		ConceptName preferredConceptName = null;
-		for (ConceptName possibleSynonymInLoc : getSynonyms()) {
-			if (locale.equals(possibleSynonymInLoc.getLocale())) {
-				if (possibleSynonymInLoc.isPreferred()) {
-					preferredConceptName = possibleSynonymInLoc;
-				} else {
-					syns.add(possibleSynonymInLoc);
-				}
-			}
-		}
-		
-		// Add preferred name first in the list.
-		if (preferredConceptName != null) {
-			syns.add(0, preferredConceptName);
-		}
-		log.debug("returning: " + syns);
+
+		// the index keeps the preferred name first in the list.
+		LocaleNames namesInLocale = getNameIndex().getNames(locale);
+		List<ConceptName> syns = namesInLocale == null ? new ArrayList<>() : new ArrayList<>(namesInLocale.synonyms);
+		log.debug("returning: {}", syns);
 		return syns;
 	}
 	
@@ -1679,4 +1638,151 @@ public class Concept extends BaseOpenmrsObject implements Auditable, Retireable,
 		attribute.setOwner(this);
 	}
 
+	/**
+	 * The non-voided names of a concept grouped by locale, language and country, so that the name
+	 * lookups neither scan nor copy all the names of the concept.
+	 */
+	private static final class NameIndex {
+
+		private final Collection<ConceptName> source;
+
+		private final int sourceSize;
+
+		private final long sourceModificationCount;
+
+		private final Map<Locale, LocaleNames> byLocale = new HashMap<>();
+
+		private final Map<String, LocaleNames> byLanguage = new HashMap<>();
+
+		private final Map<String, LocaleNames> byCountry = new HashMap<>();
+
+		NameIndex(Collection<ConceptName> source) {
+			this.source = source;
+			this.sourceSize = source.size();
+			this.sourceModificationCount = getModificationCount(source);
+			for (ConceptName name : source) {
+				if (name.getVoided()) {
+					continue;
+				}
+				Locale locale = name.getLocale();
+				byLocale.computeIfAbsent(locale, l -> new LocaleNames()).add(name);
+				if (locale != null) {
+					byLanguage.computeIfAbsent(locale.getLanguage(), l -> new LocaleNames()).addBestMatch(name);
+					if (StringUtils.isNotBlank(locale.getCountry())) {
+						byCountry.computeIfAbsent(locale.getCountry(), c -> new LocaleNames()).addBestMatch(name);
+					}
+				}
+			}
+		}
+
+		/**
+		 * @param names the current names of the concept
+		 * @return true if this index was built from the given names, none were added or removed
+		 *         through the collection itself and none of them changed since
+		 */
+		boolean isFor(Collection<ConceptName> names) {
+			return names == source && names.size() == sourceSize
+			        && getModificationCount(names) == sourceModificationCount;
+		}
+
+		private static long getModificationCount(Collection<ConceptName> names) {
+			long modificationCount = 0;
+			for (ConceptName name : names) {
+				modificationCount += name.getModificationCount();
+			}
+			return modificationCount;
+		}
+
+		boolean isEmpty() {
+			return byLocale.isEmpty();
+		}
+
+		/**
+		 * @param locale the locale
+		 * @return the names in exactly the given locale or null if there are none
+		 */
+		LocaleNames getNames(Locale locale) {
+			return byLocale.get(locale);
+		}
+
+		/**
+		 * Looks for a name of some type in the given locale, then in the language of the locale and
+		 * finally in its country.
+		 *
+		 * @param locale the locale
+		 * @param type returns the name of the type from the names in a locale, language or country
+		 * @return the best matching name or null if there is none
+		 */
+		ConceptName getBestMatch(Locale locale, Function<LocaleNames, ConceptName> type) {
+			ConceptName match = getName(byLocale.get(locale), type);
+			if (match == null) {
+				match = getName(byLanguage.get(locale.getLanguage()), type);
+			}
+			if (match == null && StringUtils.isNotBlank(locale.getCountry())) {
+				match = getName(byCountry.get(locale.getCountry()), type);
+			}
+			return match;
+		}
+
+		private static ConceptName getName(LocaleNames names, Function<LocaleNames, ConceptName> type) {
+			return names == null ? null : type.apply(names);
+		}
+	}
+
+	/**
+	 * The names of a concept in one locale, language or country.
+	 */
+	private static final class LocaleNames {
+
+		/**
+		 * All names, only kept for an exact locale
+		 */
+		private final List<ConceptName> names = new ArrayList<>();
+
+		/**
+		 * The synonyms with the preferred one first, only kept for an exact locale
+		 */
+		private final List<ConceptName> synonyms = new ArrayList<>();
+
+		private ConceptName preferredName;
+
+		private ConceptName fullySpecifiedName;
+
+		private ConceptName shortName;
+
+		void add(ConceptName name) {
+			names.add(name);
+			if (name.isSynonym()) {
+				if (Boolean.TRUE.equals(name.getLocalePreferred())) {
+					synonyms.add(0, name);
+				} else {
+					synonyms.add(name);
+				}
+			}
+			addBestMatch(name);
+		}
+
+		void addBestMatch(ConceptName name) {
+			if (preferredName == null && Boolean.TRUE.equals(name.getLocalePreferred())) {
+				preferredName = name;
+			}
+			if (fullySpecifiedName == null && name.isFullySpecifiedName()) {
+				fullySpecifiedName = name;
+			} else if (shortName == null && name.isShort()) {
+				shortName = name;
+			}
+		}
+
+		ConceptName getPreferredName() {
+			return preferredName;
+		}
+
+		ConceptName getFullySpecifiedName() {
+			return fullySpecifiedName;
+		}
+
+		ConceptName getShortName() {
+			return shortName;
+		}
+	}
 }
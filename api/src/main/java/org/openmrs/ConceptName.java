@@ -30,13 +30,14 @@ import org.hibernate.search.annotations.IndexedEmbedded;
 import org.hibernate.search.annotations.TokenFilterDef;
 import org.hibernate.search.annotations.TokenizerDef;
 import org.openmrs.api.ConceptNameType;
+import org.openmrs.api.db.hibernate.search.DeferrableIndexingInterceptor;
 import org.openmrs.api.db.hibernate.search.bridge.LocaleFieldBridge;
 
 /**
  * ConceptName is the real world term used to express a Concept within the idiom of a particular
  * locale.
  */
-@Indexed
+@Indexed(interceptor = DeferrableIndexingInterceptor.class)
 @AnalyzerDef(name = "ConceptNameAnalyzer", tokenizer = @TokenizerDef(factory = StandardTokenizerFactory.class), filters = {
         @TokenFilterDef(factory = StandardFilterFactory.class), @TokenFilterDef(factory = LowerCaseFilterFactory.class) })
 @Analyzer(definition = "ConceptNameAnalyzer")
@@ -83,6 +84,11 @@ public class ConceptName extends BaseOpenmrsObject implements Auditable, Voidabl
 	
 	private Date dateChanged;
 	
+	/**
+	 * Counts the changes to the properties the name lookups of the concept depend on
+	 */
+	private transient int modificationCount;
+	
 	// Constructors
 	
 	/** default constructor */
@@ -144,6 +150,7 @@ public class ConceptName extends BaseOpenmrsObject implements Auditable, Voidabl
 	
 	public void setLocale(Locale locale) {
 		this.locale = locale;
+		nameChanged();
 	}
 
 	/**
@@ -210,6 +217,7 @@ public class ConceptName extends BaseOpenmrsObject implements Auditable, Voidabl
 	@Override
 	public void setVoided(Boolean voided) {
 		this.voided = voided;
+		nameChanged();
 	}
 	
 	/**
@@ -305,6 +313,7 @@ public class ConceptName extends BaseOpenmrsObject implements Auditable, Voidabl
 	 */
 	public void setConceptNameType(ConceptNameType conceptNameType) {
 		this.conceptNameType = conceptNameType;
+		nameChanged();
 	}
 	
 	/**
@@ -333,6 +342,27 @@ public class ConceptName extends BaseOpenmrsObject implements Auditable, Voidabl
 	 */
 	public void setLocalePreferred(Boolean localePreferred) {
 		this.localePreferred = localePreferred;
+		nameChanged();
+	}
+	
+	/**
+	 * @return the number of changes to the locale, voided status, name type and preferred flag of
+	 *         this name, lets a concept tell whether the name lookups it built are still current
+	 */
+	int getModificationCount() {
+		return modificationCount;
+	}
+	
+	/**
+	 * Lets the concept drop its name lookup caches after a property they depend on changed. The
+	 * modification count is bumped as well, since the concept may be a Hibernate proxy which does not
+	 * pass the call on to the loaded concept.
+	 */
+	private void nameChanged() {
+		modificationCount++;
+		if (concept != null) {
+			concept.invalidateNameIndex();
+		}
 	}
 	
 	/**
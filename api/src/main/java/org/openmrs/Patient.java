@@ -16,7 +16,10 @@ import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
+import org.hibernate.search.annotations.ClassBridge;
 import org.hibernate.search.annotations.ContainedIn;
+import org.hibernate.search.annotations.Indexed;
+import org.openmrs.api.db.hibernate.search.bridge.PatientSearchBridge;
 
 /**
  * Defines a Patient in the system. A patient is simply an extension of a person and all that that
@@ -24,6 +27,8 @@ import org.hibernate.search.annotations.ContainedIn;
  * 
  * @version 2.0
  */
+@Indexed
+@ClassBridge(name = PatientSearchBridge.NAME, impl = PatientSearchBridge.class)
 public class Patient extends Person {
 	
 	public static final long serialVersionUID = 93123L;
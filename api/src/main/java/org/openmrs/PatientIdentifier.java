@@ -17,6 +17,7 @@ import java.util.Comparator;
 import org.codehaus.jackson.annotate.JsonIgnore;
 import org.hibernate.search.annotations.Analyzer;
 import org.hibernate.search.annotations.Boost;
+import org.hibernate.search.annotations.ContainedIn;
 import org.hibernate.search.annotations.DocumentId;
 import org.hibernate.search.annotations.Field;
 import org.hibernate.search.annotations.Fields;
@@ -51,6 +52,7 @@ public class PatientIdentifier extends BaseChangeableOpenmrsData implements java
 	private Integer patientIdentifierId;
 
 	@IndexedEmbedded(includeEmbeddedObjectId = true)
+	@ContainedIn
 	private Patient patient;
 
 	@Fields({
@@ -0,0 +1,120 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A patient as stored in the patient search index, it holds enough to display a patient in a list
+ * of search results without loading it from the database.
+ *
+ * @see org.openmrs.api.PatientService#getPatientSearchDocuments(String, boolean, Integer, Integer)
+ * @since 2.5.0
+ */
+public class PatientSearchDocument {
+
+	private final Integer patientId;
+
+	private final String uuid;
+
+	private final String gender;
+
+	private final String birthdate;
+
+	private final boolean birthdateEstimated;
+
+	private final boolean dead;
+
+	private final boolean voided;
+
+	private final List<String> names;
+
+	private final List<String> identifiers;
+
+	private final List<Integer> identifierTypeIds;
+
+	/**
+	 * @param birthdate the birthdate formatted as yyyy-MM-dd or null if unknown
+	 * @param names the full names of the patient, the preferred name first
+	 * @param identifiers the identifiers of the patient, the preferred identifier first
+	 * @param identifierTypeIds the ids of the types of the identifiers, in the same order
+	 */
+	public PatientSearchDocument(Integer patientId, String uuid, String gender, String birthdate,
+	    boolean birthdateEstimated, boolean dead, boolean voided, List<String> names, List<String> identifiers,
+	    List<Integer> identifierTypeIds) {
+		this.patientId = patientId;
+		this.uuid = uuid;
+		this.gender = gender;
+		this.birthdate = birthdate;
+		this.birthdateEstimated = birthdateEstimated;
+		this.dead = dead;
+		this.voided = voided;
+		this.names = Collections.unmodifiableList(new ArrayList<>(names));
+		this.identifiers = Collections.unmodifiableList(new ArrayList<>(identifiers));
+		this.identifierTypeIds = Collections.unmodifiableList(new ArrayList<>(identifierTypeIds));
+	}
+
+	/**
+	 * @return the id of the {@link Patient}
+	 */
+	public Integer getPatientId() {
+		return patientId;
+	}
+
+	public String getUuid() {
+		return uuid;
+	}
+
+	public String getGender() {
+		return gender;
+	}
+
+	/**
+	 * @return the birthdate formatted as yyyy-MM-dd or null if unknown
+	 */
+	public String getBirthdate() {
+		return birthdate;
+	}
+
+	public boolean getBirthdateEstimated() {
+		return birthdateEstimated;
+	}
+
+	public boolean getDead() {
+		return dead;
+	}
+
+	public boolean getVoided() {
+		return voided;
+	}
+
+	/**
+	 * @return the full names of the patient, the preferred name first
+	 */
+	public List<String> getNames() {
+		return names;
+	}
+
+	/**
+	 * @return the identifiers of the patient, the preferred identifier first
+	 */
+	public List<String> getIdentifiers() {
+		return identifiers;
+	}
+
+	/**
+	 * @return the ids of the types of the identifiers, in the order of {@link #getIdentifiers()}
+	 */
+	public List<Integer> getIdentifierTypeIds() {
+		return identifierTypeIds;
+	}
+}
@@ -18,6 +18,7 @@ import java.util.Date;
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.search.annotations.Analyzer;
 import org.hibernate.search.annotations.Boost;
+import org.hibernate.search.annotations.ContainedIn;
 import org.hibernate.search.annotations.DocumentId;
 import org.hibernate.search.annotations.Field;
 import org.hibernate.search.annotations.Fields;
@@ -53,6 +54,7 @@ public class PersonAttribute extends BaseChangeableOpenmrsData implements java.i
 	private Integer personAttributeId;
 
 	@IndexedEmbedded(includeEmbeddedObjectId = true)
+	@ContainedIn
 	private Person person;
 
 	@IndexedEmbedded
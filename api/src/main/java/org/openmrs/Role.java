@@ -13,6 +13,8 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.openmrs.util.PrivilegeIndex;
+import org.openmrs.util.PrivilegeIndex.PrivilegeSet;
 import org.openmrs.util.RoleConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +43,11 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 	
 	private Set<Role> childRoles;
 	
+	/**
+	 * The privileges of this role and of the roles it inherits, computed on first use
+	 */
+	private transient volatile PrivilegeSet effectivePrivileges;
+	
 	// Constructors
 	
 	/** default constructor */
@@ -70,6 +77,7 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 	 */
 	public void setPrivileges(Set<Privilege> privileges) {
 		this.privileges = privileges;
+		this.effectivePrivileges = null;
 	}
 	
 	@Override
@@ -88,6 +96,8 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 		}
 		if (privilege != null && !containsPrivilege(privileges, privilege.getPrivilege())) {
 			privileges.add(privilege);
+			// users and child roles holding this role need to pick up the change as well
+			PrivilegeIndex.invalidate();
 		}
 	}
 	
@@ -106,8 +116,8 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 	 * @param privilege Privilege to remove
 	 */
 	public void removePrivilege(Privilege privilege) {
-		if (privileges != null) {
-			privileges.remove(privilege);
+		if (privileges != null && privileges.remove(privilege)) {
+			PrivilegeIndex.invalidate();
 		}
 	}
 	
@@ -123,6 +133,7 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 	 */
 	public void setRole(String role) {
 		this.role = role;
+		this.effectivePrivileges = null;
 	}
 	
 	/**
@@ -161,6 +172,24 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 		return false;
 	}
 	
+	/**
+	 * Gets the privileges of this role and of all roles it inherits. The set is computed once and
+	 * kept until a role or privilege is saved, see {@link PrivilegeIndex#invalidate()}.
+	 *
+	 * @return the effective privileges of this role
+	 * @since 2.5.0
+	 * <strong>Should</strong> contain the privileges of inherited roles
+	 * <strong>Should</strong> contain added privileges
+	 */
+	public PrivilegeSet getEffectivePrivileges() {
+		PrivilegeSet current = effectivePrivileges;
+		if (current == null || !current.isCurrent()) {
+			current = PrivilegeIndex.createPrivilegeSet(this);
+			effectivePrivileges = current;
+		}
+		return current;
+	}
+	
 	/**
 	 * @return Returns the inheritedRoles.
 	 */
@@ -176,6 +205,7 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 	 */
 	public void setInheritedRoles(Set<Role> inheritedRoles) {
 		this.inheritedRoles = inheritedRoles;
+		this.effectivePrivileges = null;
 	}
 	
 	/**
@@ -25,6 +25,8 @@ import org.openmrs.api.context.Context;
 import org.openmrs.util.LocaleUtility;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
+import org.openmrs.util.PrivilegeIndex;
+import org.openmrs.util.PrivilegeIndex.PrivilegeSet;
 import org.openmrs.util.RoleConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,6 +57,11 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 	
 	private Set<Role> roles;
 	
+	/**
+	 * The privileges granted by the roles of this user, computed on first use
+	 */
+	private transient volatile PrivilegeSet effectivePrivileges;
+	
 	private Map<String, String> userProperties;
 	
 	private List<Locale> proficientLocales = null;
@@ -117,20 +124,31 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 			return true;
 		}
 		
-		if (isSuperUser()) {
-			return true;
-		}
-		
-		Set<Role> tmproles = getAllRoles();
-		
-		// loop over the roles and check each for the privilege
-		for (Role tmprole : tmproles) {
-			if (tmprole.hasPrivilege(privilege)) {
-				return true;
+		return getEffectivePrivileges().contains(privilege);
+	}
+	
+	/**
+	 * Gets the privileges granted by all roles of this user, including the inherited ones. The set
+	 * is computed once and kept until the roles of this user change or a role or privilege is saved,
+	 * see {@link PrivilegeIndex#invalidate()}.
+	 * 
+	 * @return the effective privileges of this user
+	 * @since 2.5.0
+	 */
+	private PrivilegeSet getEffectivePrivileges() {
+		PrivilegeSet current = effectivePrivileges;
+		if (current == null || !current.isCurrent()) {
+			long version = PrivilegeIndex.getVersion();
+			List<PrivilegeSet> rolePrivileges = new ArrayList<>();
+			if (roles != null) {
+				for (Role role : roles) {
+					rolePrivileges.add(role.getEffectivePrivileges());
+				}
 			}
+			current = PrivilegeIndex.union(version, rolePrivileges);
+			effectivePrivileges = current;
 		}
-		
-		return false;
+		return current;
 	}
 	
 	/**
@@ -258,6 +276,7 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 	 */
 	public void setRoles(Set<Role> roles) {
 		this.roles = roles;
+		this.effectivePrivileges = null;
 	}
 	
 	/**
@@ -272,6 +291,7 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 		}
 		if (!roles.contains(role) && role != null) {
 			roles.add(role);
+			effectivePrivileges = null;
 		}
 		
 		return this;
@@ -284,8 +304,8 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 	 * @return this user with the given role removed
 	 */
 	public User removeRole(Role role) {
-		if (roles != null) {
-			roles.remove(role);
+		if (roles != null && roles.remove(role)) {
+			effectivePrivileges = null;
 		}
 		
 		return this;
@@ -11,6 +11,9 @@ package org.openmrs.aop;
 
 import java.lang.reflect.Method;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.openmrs.User;
@@ -33,6 +36,13 @@ public class AuthorizationAdvice implements MethodBeforeAdvice {
 	private static final Logger log = LoggerFactory.getLogger(AuthorizationAdvice.class);
         private static final String USER_IS_NOT_AUTHORIZED_TO_ACCESS = "User {} is not authorized to access {}";
 	
+	/**
+	 * The resolved {@link org.openmrs.annotation.Authorized} annotations of the methods called so
+	 * far, this advice is created again when the context is refreshed so methods of unloaded modules
+	 * are not held on to
+	 */
+	private final Map<Method, AuthorizedMethod> authorizedMethods = new ConcurrentHashMap<>();
+	
 	/**
 	 * Allows us to check whether a user is authorized to access a particular method.
 	 * 
@@ -55,24 +65,27 @@ public class AuthorizationAdvice implements MethodBeforeAdvice {
 			}
 		}
 		
-		AuthorizedAnnotationAttributes attributes = new AuthorizedAnnotationAttributes();
-		Collection<String> privileges = attributes.getAttributes(method);
-		boolean requireAll = attributes.getRequireAll(method);
+		AuthorizedMethod authorizedMethod = authorizedMethods.get(method);
+		if (authorizedMethod == null) {
+			authorizedMethod = authorizedMethods.computeIfAbsent(method, AuthorizedMethod::new);
+		}
+		boolean requireAll = authorizedMethod.requireAll;
 		
 		// Only execute if the "secure" method has authorization attributes
 		// Iterate through required privileges and return only if the user has
 		// one of them
-		if (!privileges.isEmpty()) {
-			for (String privilege : privileges) {
+		if (authorizedMethod.privilegeArray.length > 0) {
+			for (String privilege : authorizedMethod.privilegeArray) {
 				
 				// skip null privileges
 				if (privilege == null || privilege.isEmpty()) {
 					return;
 				}
 				
-				log.debug("User has privilege {}? {}", privilege, Context.hasPrivilege(privilege));
+				boolean hasPrivilege = Context.hasPrivilege(privilege);
+				log.debug("User has privilege {}? {}", privilege, hasPrivilege);
 				
-				if (Context.hasPrivilege(privilege)) {
+				if (hasPrivilege) {
 					if (!requireAll) {
 						// if not all required, the first one that they have
 						// causes them to "pass"
@@ -91,10 +104,10 @@ public class AuthorizationAdvice implements MethodBeforeAdvice {
 				// If there's no match, then we know there are privileges and
 				// that the user didn't have any of them. The user is not
 				// authorized to access the method
-				throwUnauthorized(Context.getAuthenticatedUser(), method, privileges);
+				throwUnauthorized(Context.getAuthenticatedUser(), method, authorizedMethod.privileges);
 			}
 			
-		} else if (attributes.hasAuthorizedAnnotation(method) && !Context.isAuthenticated()) {
+		} else if (authorizedMethod.annotated && !Context.isAuthenticated()) {
 			throwUnauthorized(Context.getAuthenticatedUser(), method);
 		}
 	}
@@ -135,4 +148,27 @@ public class AuthorizationAdvice implements MethodBeforeAdvice {
 		log.debug(USER_IS_NOT_AUTHORIZED_TO_ACCESS, user, method.getName());
 		throw new APIAuthenticationException(Context.getMessageSourceService().getMessage("error.aunthenticationRequired"));
 	}
+	
+	/**
+	 * The {@link org.openmrs.annotation.Authorized} annotation of a method as resolved by
+	 * {@link AuthorizedAnnotationAttributes}
+	 */
+	private static class AuthorizedMethod {
+		
+		private final Collection<String> privileges;
+		
+		private final String[] privilegeArray;
+		
+		private final boolean requireAll;
+		
+		private final boolean annotated;
+		
+		AuthorizedMethod(Method method) {
+			AuthorizedAnnotationAttributes attributes = new AuthorizedAnnotationAttributes();
+			privileges = Collections.unmodifiableCollection(attributes.getAttributes(method));
+			privilegeArray = privileges.toArray(new String[0]);
+			requireAll = attributes.getRequireAll(method);
+			annotated = attributes.hasAuthorizedAnnotation(method);
+		}
+	}
 }
@@ -9,12 +9,16 @@
  */
 package org.openmrs.aop;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Set;
 
@@ -80,6 +84,18 @@ public class RequiredDataAdvice implements MethodBeforeAdvice {
 	
 	private static final String UNABLE_GETTER_METHOD = "unable.getter.method";
 	
+	/**
+	 * The child collections to recurse into for each class handled so far. Kept with the class
+	 * itself so that the classes of unloaded modules can be garbage collected.
+	 */
+	private static final ClassValue<List<ChildCollection>> childCollections = new ClassValue<List<ChildCollection>>() {
+		
+		@Override
+		protected List<ChildCollection> computeValue(Class<?> type) {
+			return createChildCollections(type);
+		}
+	};
+	
 	/**
 	 * @see org.springframework.aop.MethodBeforeAdvice#before(java.lang.reflect.Method,
 	 *      java.lang.Object[], java.lang.Object)
@@ -109,9 +125,7 @@ public class RequiredDataAdvice implements MethodBeforeAdvice {
 		if (methodName.startsWith("save") || methodName.startsWith("create")) {
 			
 			// if the first argument is an OpenmrsObject, handle it now
-			Reflect reflect = new Reflect(OpenmrsObject.class);
-			
-			if (reflect.isSuperClass(mainArgument)) {
+			if (mainArgument instanceof OpenmrsObject) {
 				// fail early if the method name is not like saveXyz(Xyz)
 				if (!methodNameEndsWithClassName(method, mainArgument.getClass())) {
 					return;
@@ -241,19 +255,26 @@ public class RequiredDataAdvice implements MethodBeforeAdvice {
 	 *            not be processed again. this is intended to prevent infinite recursion when
 	 *            handling collection properties.
 	 * @see HandlerUtil#getHandlersForType(Class, Class)
+	 * <strong>Should</strong> handle each object only once
 	 */
-	@SuppressWarnings("unchecked")
 	public static <H extends RequiredDataHandler> void recursivelyHandle(Class<H> handlerType, OpenmrsObject openmrsObject,
 	        User currentUser, Date currentDate, String other, List<OpenmrsObject> alreadyHandled) {
 		if (openmrsObject == null) {
 			return;
 		}
 		
-		Class<? extends OpenmrsObject> openmrsObjectClass = openmrsObject.getClass();
-		
-		if (alreadyHandled == null) {
-			alreadyHandled = new ArrayList<>();
+		// compare by identity, equals() would make this quadratic for large object graphs
+		Set<OpenmrsObject> handled = Collections.newSetFromMap(new IdentityHashMap<>());
+		if (alreadyHandled != null) {
+			handled.addAll(alreadyHandled);
 		}
+		recursivelyHandle(handlerType, openmrsObject, currentUser, currentDate, other, handled, alreadyHandled);
+	}
+	
+	private static <H extends RequiredDataHandler> void recursivelyHandle(Class<H> handlerType,
+	        OpenmrsObject openmrsObject, User currentUser, Date currentDate, String other, Set<OpenmrsObject> handled,
+	        List<OpenmrsObject> alreadyHandled) {
+		Class<? extends OpenmrsObject> openmrsObjectClass = openmrsObject.getClass();
 		
 		// fetch all handlers for the object being saved
 		List<H> handlers = HandlerUtil.getHandlersForType(handlerType, openmrsObjectClass);
@@ -262,35 +283,44 @@ public class RequiredDataAdvice implements MethodBeforeAdvice {
 		for (H handler : handlers) {
 			handler.handle(openmrsObject, currentUser, currentDate, other);
 		}
-		alreadyHandled.add(openmrsObject);
-		
-		Reflect reflect = new Reflect(OpenmrsObject.class);
-		List<Field> allInheritedFields = reflect.getInheritedFields(openmrsObjectClass);
+		handled.add(openmrsObject);
+		if (alreadyHandled != null) {
+			alreadyHandled.add(openmrsObject);
+		}
 		
 		// loop over all child collections of OpenmrsObjects and recursively save on those
-		for (Field field : allInheritedFields) {
-			
-			// skip field if it's declared independent
-			if (Reflect.isAnnotationPresent(openmrsObjectClass, field.getName(), Independent.class)) {
+		for (ChildCollection childCollection : childCollections.get(openmrsObjectClass)) {
+			if (childCollection.isHandlerDisabled(handlerType)) {
 				continue;
 			}
 			
-			if (reflect.isCollectionField(field) && !isHandlerMarkedAsDisabled(handlerType, field)) {
-				
-				// the collection we'll be looping over
-				Collection<OpenmrsObject> childCollection = getChildCollection(openmrsObject, field);
-				
-				if (childCollection != null) {
-					for (Object collectionElement : childCollection) {
-						if (!alreadyHandled.contains(collectionElement)) {
-							recursivelyHandle(handlerType, (OpenmrsObject) collectionElement, currentUser, currentDate,
-							    other, alreadyHandled);
-						}
+			Collection<OpenmrsObject> children = childCollection.get(openmrsObject);
+			if (children != null) {
+				for (Object collectionElement : children) {
+					if (!handled.contains(collectionElement)) {
+						recursivelyHandle(handlerType, (OpenmrsObject) collectionElement, currentUser, currentDate,
+						    other, handled, alreadyHandled);
 					}
 				}
 			}
 		}
-		
+	}
+	
+	/**
+	 * Finds the fields of the given class that are collections of OpenmrsObjects and not declared
+	 * {@link Independent}
+	 */
+	private static List<ChildCollection> createChildCollections(Class<?> openmrsObjectClass) {
+		Reflect reflect = new Reflect(OpenmrsObject.class);
+		List<ChildCollection> result = new ArrayList<>();
+		for (Field field : reflect.getInheritedFields(openmrsObjectClass)) {
+			// skip field if it's declared independent
+			if (reflect.isCollectionField(field)
+			        && !Reflect.isAnnotationPresent(openmrsObjectClass, field.getName(), Independent.class)) {
+				result.add(new ChildCollection(openmrsObjectClass, field));
+			}
+		}
+		return Collections.unmodifiableList(result);
 	}
 	
 	/**
@@ -305,47 +335,21 @@ public class RequiredDataAdvice implements MethodBeforeAdvice {
 	 * <strong>Should</strong> should be able to get annotated private fields
 	 * <strong>Should</strong> throw APIException if getter method not found
 	 */
-	@SuppressWarnings("unchecked")
 	protected static Collection<OpenmrsObject> getChildCollection(OpenmrsObject openmrsObject, Field field) {
-		String fieldName = field.getName();
-		String getterName = "get" + StringUtils.capitalize(fieldName);
-		
-		try {
-			
-			// checks if direct access is allowed
-			if (field.isAnnotationPresent(AllowDirectAccess.class)) {
-				
-				boolean previousFieldAccessibility = field.isAccessible();
-				field.setAccessible(true);
-				Collection<OpenmrsObject> childCollection = (Collection<OpenmrsObject>) field.get(openmrsObject);
-				field.setAccessible(previousFieldAccessibility);
+		return getChildCollection(openmrsObject.getClass(), field).get(openmrsObject);
+	}
+	
+	/**
+	 * Gets the cached child collection of the given class held by the given field, fields that are
+	 * not cached, e.g. because they are declared {@link Independent}, are resolved on every call
+	 */
+	private static ChildCollection getChildCollection(Class<?> openmrsObjectClass, Field field) {
+		for (ChildCollection childCollection : childCollections.get(openmrsObjectClass)) {
+			if (childCollection.field.equals(field)) {
 				return childCollection;
-				
-			} else {
-				// access the field via its getter method
-				Class<? extends OpenmrsObject> openmrsObjectClass = openmrsObject.getClass();
-				
-				Method getterMethod = openmrsObjectClass.getMethod(getterName, (Class[]) null);
-				return (Collection<OpenmrsObject>) getterMethod.invoke(openmrsObject, new Object[] {});
-				
-			}
-		}
-		catch (IllegalAccessException e) {
-			if (field.isAnnotationPresent(AllowDirectAccess.class)) {
-				throw new APIException("unable.get.field", new Object[] { fieldName, openmrsObject.getClass() });
-			} else {
-				throw new APIException(UNABLE_GETTER_METHOD, new Object[] { "use", getterName, fieldName,
-				        openmrsObject.getClass() });
 			}
 		}
-		catch (InvocationTargetException e) {
-			throw new APIException(UNABLE_GETTER_METHOD, new Object[] { "run", getterName, fieldName,
-			        openmrsObject.getClass() });
-		}
-		catch (NoSuchMethodException e) {
-			throw new APIException(UNABLE_GETTER_METHOD, new Object[] { "find", getterName, fieldName,
-			        openmrsObject.getClass() });
-		}
+		return new ChildCollection(openmrsObjectClass, field);
 	}
 	
 	/**
@@ -376,19 +380,89 @@ public class RequiredDataAdvice implements MethodBeforeAdvice {
 	 * @return true if the handlerType has been marked as disabled, false otherwise
 	 */
 	protected static boolean isHandlerMarkedAsDisabled(Class<? extends RequiredDataHandler> handlerType, Field field) {
+		return getChildCollection(field.getDeclaringClass(), field).isHandlerDisabled(handlerType);
+	}
+	
+	/**
+	 * A collection of OpenmrsObjects held by a field of a class, with the accessor and the handlers
+	 * disabled by {@link DisableHandlers} resolved once. The accessor is the getter of the field or
+	 * the field itself if it allows direct access.
+	 */
+	private static class ChildCollection {
 		
-		// if the annotation isn't present, return false
-		if (!field.isAnnotationPresent(DisableHandlers.class)) {
-			return false;
-		} else {
-			// otherwise we need to see if the handler type is one of the types specified in the annotation
-			for (Class<? extends RequiredDataHandler> h : field.getAnnotation(DisableHandlers.class).handlerTypes()) {
-				if (h.isAssignableFrom(handlerType)) {
+		private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+		
+		private final Class<?> openmrsObjectClass;
+		
+		private final Field field;
+		
+		private final String getterName;
+		
+		private final Class<? extends RequiredDataHandler>[] disabledHandlers;
+		
+		private final MethodHandle accessor;
+		
+		private final String accessorError;
+		
+		@SuppressWarnings("unchecked")
+		ChildCollection(Class<?> openmrsObjectClass, Field field) {
+			this.openmrsObjectClass = openmrsObjectClass;
+			this.field = field;
+			this.getterName = "get" + StringUtils.capitalize(field.getName());
+			DisableHandlers disableHandlers = field.getAnnotation(DisableHandlers.class);
+			this.disabledHandlers = (disableHandlers == null) ? new Class[0] : disableHandlers.handlerTypes();
+			
+			MethodHandle handle = null;
+			String error = null;
+			try {
+				if (field.isAnnotationPresent(AllowDirectAccess.class)) {
+					field.setAccessible(true);
+					handle = MethodHandles.lookup().unreflectGetter(field);
+				} else {
+					handle = MethodHandles.lookup().unreflect(openmrsObjectClass.getMethod(getterName));
+				}
+				handle = handle.asType(ACCESSOR_TYPE);
+			}
+			catch (NoSuchMethodException e) {
+				error = "find";
+			}
+			catch (IllegalAccessException | SecurityException e) {
+				error = "use";
+			}
+			this.accessor = handle;
+			this.accessorError = error;
+		}
+		
+		boolean isHandlerDisabled(Class<? extends RequiredDataHandler> handlerType) {
+			for (Class<? extends RequiredDataHandler> disabledHandler : disabledHandlers) {
+				if (disabledHandler.isAssignableFrom(handlerType)) {
 					return true;
 				}
 			}
+			return false;
 		}
 		
-		return false;
+		@SuppressWarnings("unchecked")
+		Collection<OpenmrsObject> get(OpenmrsObject openmrsObject) {
+			if (accessor == null) {
+				if (field.isAnnotationPresent(AllowDirectAccess.class)) {
+					throw new APIException("unable.get.field", new Object[] { field.getName(), openmrsObjectClass });
+				}
+				throw new APIException(UNABLE_GETTER_METHOD, new Object[] { accessorError, getterName, field.getName(),
+				        openmrsObjectClass });
+			}
+			
+			try {
+				Object childCollection = accessor.invokeExact((Object) openmrsObject);
+				return (Collection<OpenmrsObject>) childCollection;
+			}
+			catch (Error e) {
+				throw e;
+			}
+			catch (Throwable e) {
+				throw new APIException(UNABLE_GETTER_METHOD, new Object[] { "run", getterName, field.getName(),
+				        openmrsObjectClass }, e);
+			}
+		}
 	}
 }
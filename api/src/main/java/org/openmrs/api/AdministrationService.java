@@ -14,6 +14,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.concurrent.Future;
 
 import org.openmrs.GlobalProperty;
 import org.openmrs.ImplementationId;
@@ -21,6 +22,8 @@ import org.openmrs.OpenmrsObject;
 import org.openmrs.User;
 import org.openmrs.annotation.Authorized;
 import org.openmrs.api.db.AdministrationDAO;
+import org.openmrs.api.db.SearchIndexOptions;
+import org.openmrs.api.db.SearchIndexProgress;
 import org.openmrs.util.HttpClient;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.PrivilegeConstants;
@@ -234,6 +237,29 @@ public interface AdministrationService extends OpenmrsService {
 	 * @param listener
 	 */
 	public void removeGlobalPropertyListener(GlobalPropertyListener listener);
+
+	/**
+	 * Makes {@link #getGlobalProperty(String)} read the given property from the database again the
+	 * next time it is asked for it. Global property values are kept in memory and are only evicted
+	 * when they are saved or purged through this service, so this needs to be called after a
+	 * property was changed some other way, e.g. when another node of a cluster reports that it
+	 * saved the property. Such a node can find out about its own changes by registering a
+	 * {@link GlobalPropertyListener}.
+	 *
+	 * @param propertyName the name of the property to evict
+	 * @since 2.5.0
+	 * <strong>Should</strong> read the evicted property from the database again
+	 */
+	public void evictCachedGlobalProperty(String propertyName);
+
+	/**
+	 * Makes {@link #getGlobalProperty(String)} read all global properties from the database again
+	 *
+	 * @since 2.5.0
+	 * @see #evictCachedGlobalProperty(String)
+	 * <strong>Should</strong> read all properties from the database again
+	 */
+	public void evictCachedGlobalProperties();
 	
 	/**
 	 * Runs the <code>sql</code> on the database. If <code>selectOnly</code> is flagged then any
@@ -392,4 +418,25 @@ public interface AdministrationService extends OpenmrsService {
 	 * @since 2.4
 	 */
 	public void updatePostgresSequence();
+	
+	/**
+	 * Starts rebuilding the search index in the background, replacing the documents one by one so
+	 * that the index can be searched meanwhile.
+	 *
+	 * @param options the batch size, threads and id fetch size to use for each indexed type
+	 * @return object representing the result of the rebuild
+	 * @see #getSearchIndexProgress()
+	 * @since 2.5.0
+	 */
+	@Authorized(PrivilegeConstants.MANAGE_SEARCH_INDEX)
+	public Future<?> updateSearchIndexAsync(SearchIndexOptions options);
+	
+	/**
+	 * @return the progress of the latest rebuild of the search index or null if it was not rebuilt
+	 *         since startup
+	 * @since 2.5.0
+	 * <strong>Should</strong> report the counts of a finished rebuild
+	 */
+	@Authorized(PrivilegeConstants.MANAGE_SEARCH_INDEX)
+	public SearchIndexProgress getSearchIndexProgress();
 }
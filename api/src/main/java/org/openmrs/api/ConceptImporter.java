@@ -0,0 +1,94 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.openmrs.Concept;
+import org.openmrs.api.context.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Imports a stream of concepts, e.g. a reference dictionary, in chunks. Each chunk is handed to
+ * {@link ConceptService#importConceptBatch(List)}, which validates and saves it in its own
+ * transaction without indexing the names, and the session is cleared afterwards, so only one chunk
+ * is held in memory at a time. The names of all imported concepts are added to the search index in
+ * a single pass at the end, also if a chunk failed, so that the concepts which were imported can be
+ * found.
+ *
+ * @since 2.5.0
+ * @see ConceptService#importConcepts(Stream, int)
+ */
+public class ConceptImporter {
+
+	private static final Logger log = LoggerFactory.getLogger(ConceptImporter.class);
+
+	private final int chunkSize;
+
+	/**
+	 * @param chunkSize the number of concepts to save per transaction
+	 */
+	public ConceptImporter(int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("The chunk size must be at least 1");
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Imports all given concepts
+	 *
+	 * @param concepts the concepts to import, in the order to import them
+	 * @return the number of imported concepts
+	 * @throws APIException if a concept is invalid or cannot be saved
+	 * <strong>Should</strong> import all concepts
+	 * <strong>Should</strong> add the names of the imported concepts to the search index
+	 * <strong>Should</strong> keep the chunks imported before a chunk failed
+	 */
+	public int importConcepts(Stream<Concept> concepts) throws APIException {
+		List<Integer> importedConceptIds = new ArrayList<>();
+		log.debug("Importing concepts in chunks of {}", chunkSize);
+		try {
+			List<Concept> chunk = new ArrayList<>(chunkSize);
+			Iterator<Concept> iterator = concepts.iterator();
+			while (iterator.hasNext()) {
+				chunk.add(iterator.next());
+				if (chunk.size() >= chunkSize) {
+					importChunk(chunk, importedConceptIds);
+					chunk.clear();
+				}
+			}
+			if (!chunk.isEmpty()) {
+				importChunk(chunk, importedConceptIds);
+			}
+		}
+		finally {
+			if (!importedConceptIds.isEmpty()) {
+				log.debug("Indexing the names of {} imported concepts", importedConceptIds.size());
+				Context.getConceptService().updateConceptNameSearchIndex(importedConceptIds);
+			}
+		}
+		log.debug("Done importing {} concepts", importedConceptIds.size());
+
+		return importedConceptIds.size();
+	}
+
+	private void importChunk(List<Concept> chunk, List<Integer> importedConceptIds) {
+		for (Concept concept : Context.getConceptService().importConceptBatch(chunk)) {
+			importedConceptIds.add(concept.getConceptId());
+		}
+		// clean up memory after each chunk, a dictionary may have hundreds of thousands of concepts
+		Context.clearSession();
+	}
+}
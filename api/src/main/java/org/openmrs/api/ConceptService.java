@@ -14,6 +14,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.openmrs.Concept;
 import org.openmrs.ConceptAnswer;
@@ -130,6 +132,59 @@ public interface ConceptService extends OpenmrsService {
 	@Authorized({ PrivilegeConstants.MANAGE_CONCEPTS })
 	public Concept saveConcept(Concept concept) throws APIException;
 	
+	/**
+	 * Imports the given concepts in chunks, each saved in its own transaction, which is much faster
+	 * than saving them one by one with {@link #saveConcept(Concept)} when loading a whole reference
+	 * dictionary. The concepts are validated a chunk at a time, with their names checked for
+	 * duplicates against each other and against the stored concepts from memory. Their names are
+	 * added to the search index in a single pass once all chunks are saved. <br>
+	 * <br>
+	 * The answers and set members of a concept must be stored already or be imported in the same or
+	 * an earlier chunk. If a chunk fails to validate or save, the exception is rethrown and the
+	 * earlier chunks stay imported. The bulk import is meant for new concepts, the names of existing
+	 * concepts are saved as given without voiding the changed ones. Validators added by modules for
+	 * concepts are not applied. This method must not be called from within a transaction.
+	 * 
+	 * @param concepts the concepts to import, in the order to import them
+	 * @param chunkSize the number of concepts to save per transaction
+	 * @return the number of imported concepts
+	 * @throws APIException if a concept is invalid or cannot be saved
+	 * @throws ConceptsLockedException if concepts are locked
+	 * @see ConceptImporter
+	 * @since 2.5.0
+	 */
+	@Authorized({ PrivilegeConstants.MANAGE_CONCEPTS })
+	public int importConcepts(Stream<Concept> concepts, int chunkSize) throws APIException;
+	
+	/**
+	 * Validates and saves the given concepts in one transaction, with their names checked for
+	 * duplicates from memory and without adding the names to the search index. This is a chunk of
+	 * {@link #importConcepts(Stream, int)}, which indexes the names once all chunks are saved.
+	 * 
+	 * @param concepts the concepts to save
+	 * @return the saved concepts
+	 * @throws APIException if a concept is invalid or cannot be saved
+	 * @throws ConceptsLockedException if concepts are locked
+	 * <strong>Should</strong> save the concepts with their names mappings answers and set members
+	 * <strong>Should</strong> save concepts before the concepts of the batch that reference them
+	 * <strong>Should</strong> fail if a name duplicates the name of a stored concept
+	 * <strong>Should</strong> fail if a name duplicates the name of another concept in the batch
+	 * <strong>Should</strong> fail if a concept is invalid
+	 * @since 2.5.0
+	 */
+	@Authorized({ PrivilegeConstants.MANAGE_CONCEPTS })
+	public List<Concept> importConceptBatch(List<Concept> concepts) throws APIException;
+	
+	/**
+	 * Adds the names of the given concepts to the search index, which is the final pass of
+	 * {@link #importConcepts(Stream, int)}
+	 * 
+	 * @param conceptIds the ids of the concepts whose names to index
+	 * @since 2.5.0
+	 */
+	@Authorized({ PrivilegeConstants.MANAGE_CONCEPTS })
+	public void updateConceptNameSearchIndex(Collection<Integer> conceptIds);
+	
 	/**
 	 * Save or update the given <code>Drug</code> in the database. If this is a new drug, the
 	 * returned drug object will have a new {@link Drug#getDrugId()} inserted into it that was
@@ -937,6 +992,40 @@ public interface ConceptService extends OpenmrsService {
 	@Authorized(PrivilegeConstants.GET_CONCEPTS)
 	public Iterator<Concept> conceptIterator();
 	
+	/**
+	 * Returns an iterator for all concepts, including retired and expired, which loads them in
+	 * batches ordered by concept id with their names, mappings and answers. The previous batch is
+	 * evicted from the session when the next one is loaded.
+	 * 
+	 * @param batchSize the number of concepts to load per query
+	 * @return the Iterator
+	 * <strong>Should</strong> iterate over all concepts in the order of their ids
+	 * @since 2.5.0
+	 */
+	@Authorized(PrivilegeConstants.GET_CONCEPTS)
+	public Iterator<Concept> conceptIterator(int batchSize);
+	
+	/**
+	 * Passes all concepts, including retired and expired, to the given consumer. The concepts are
+	 * loaded in batches ordered by concept id with their names, mappings and answers, and each batch
+	 * is evicted from the session once it was consumed. <br>
+	 * <br>
+	 * With more than one thread, the concepts of a batch are consumed in parallel by a pool of that
+	 * many threads. The batch is split into one slice per thread, and every thread loads its slice in
+	 * a session of its own with the user context of the caller, so the consumer may load further data
+	 * of the concepts. The threads only see committed concepts.
+	 * 
+	 * @param batchSize the number of concepts to load per query
+	 * @param threads the number of threads consuming the concepts
+	 * @param consumer called once for each concept
+	 * <strong>Should</strong> pass all concepts to the consumer in the order of their ids
+	 * <strong>Should</strong> pass all concepts to the consumer once if consuming in parallel
+	 * <strong>Should</strong> rethrow the exception thrown by the consumer
+	 * @since 2.5.0
+	 */
+	@Authorized(PrivilegeConstants.GET_CONCEPTS)
+	public void forEachConcept(int batchSize, int threads, Consumer<Concept> consumer);
+	
 	/**
 	 * Looks up a concept via {@link ConceptMap} This will return the {@link Concept} which contains
 	 * a {@link ConceptMap} entry whose <code>sourceCode</code> is equal to the passed
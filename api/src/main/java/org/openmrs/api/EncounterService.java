@@ -13,6 +13,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 import org.openmrs.Cohort;
 import org.openmrs.Encounter;
@@ -443,6 +444,28 @@ public interface EncounterService extends OpenmrsService {
 	 */
 	public Map<Integer, List<Encounter>> getAllEncounters(Cohort patients);
 	
+	/**
+	 * Passes the encounters of each patient of a cohort to the given consumer, without holding the
+	 * encounters of the whole cohort in memory. The patients are queried in chunks and their
+	 * encounters are scrolled through, so that the memory needed does not grow with the size of the
+	 * cohort. The patients are passed in ascending order of their ids. After each chunk the objects
+	 * loaded while processing it, also those loaded by the consumer, are evicted from the session.
+	 * Objects which were attached to the session before the call stay attached.
+	 * 
+	 * @param patients the cohort of patients, null for all patients
+	 * @param chunkSize the number of patients whose encounters are queried at a time
+	 * @param consumer called once for each patient having encounters with the patient id and the
+	 *            non-voided encounters of the patient, the most recent first
+	 * <strong>Should</strong> pass the encounters of each patient of the cohort
+	 * <strong>Should</strong> pass each patient once across chunks
+	 * <strong>Should</strong> pass the encounters of all patients if no cohort is given
+	 * <strong>Should</strong> pass the patients in ascending order
+	 * <strong>Should</strong> keep the objects loaded before attached to the session
+	 * @since 2.5.0
+	 */
+	@Authorized( { PrivilegeConstants.GET_ENCOUNTERS })
+	public void forEachPatientEncounters(Cohort patients, int chunkSize, BiConsumer<Integer, List<Encounter>> consumer);
+	
 	/**
 	 * Return the number of encounters matching a patient name or patient identifier
 	 * 
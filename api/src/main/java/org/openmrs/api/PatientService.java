@@ -20,6 +20,7 @@ import org.openmrs.Location;
 import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
+import org.openmrs.PatientSearchDocument;
 import org.openmrs.annotation.Authorized;
 import org.openmrs.api.db.PatientDAO;
 import org.openmrs.comparator.PatientIdentifierTypeDefaultComparator;
@@ -459,6 +460,28 @@ public interface PatientService extends OpenmrsService {
 	 */
 	@Authorized( { PrivilegeConstants.GET_PATIENTS })
 	public List<Patient> getPatients(String query, boolean includeVoided, Integer start, Integer length) throws APIException;
+	
+	/**
+	 * Searches patients by the words of the given query in their names, identifiers and searchable
+	 * person attributes like {@link #getPatients(String, boolean, Integer, Integer)} does, but
+	 * returns them as stored in the patient search index instead of loading them from the database.
+	 * This is meant for showing lists of search results.
+	 * 
+	 * @param query the words to search for, a word also matches the start of a name or identifier
+	 * @param includeVoided whether voided patients should be included
+	 * @param start the index of the first result to return
+	 * @param length the maximum number of results to return
+	 * @return the matching patients as stored in the index, best matches first
+	 * @throws APIException
+	 * @since 2.5.0
+	 * @see PatientSearchDocument
+	 * <strong>Should</strong> find patients by name and identifier
+	 * <strong>Should</strong> not find voided patients unless asked to
+	 * <strong>Should</strong> return an empty list for a blank query
+	 */
+	@Authorized( { PrivilegeConstants.GET_PATIENTS })
+	public List<PatientSearchDocument> getPatientSearchDocuments(String query, boolean includeVoided, Integer start,
+	        Integer length) throws APIException;
 		
 	/**
 	 * This method tries to find a patient in the database given the attributes on the given
@@ -372,11 +372,47 @@ public interface VisitService extends OpenmrsService {
 	/**
 	 * Stops all active visits started before or on the specified date which match any of the visit
 	 * types specified by the {@link OpenmrsConstants#GP_VISIT_TYPES_TO_AUTO_CLOSE} global property.
-	 * If startDatetime is null, the default will be end of the current day.
+	 * If startDatetime is null, the default will be end of the current day.<br>
+	 * <br>
+	 * The visits are stopped in chunks of {@link OpenmrsConstants#GP_VISIT_AUTO_CLOSE_BATCH_SIZE}
+	 * with bulk updates that set the stop date time and the audit fields without loading the
+	 * visits. Every chunk is committed in a transaction of its own, see
+	 * {@link #stopNextVisits(Integer, Collection, Date, Date, int)}, and registered
+	 * {@link VisitStopListener}s are notified about it once it is committed. Since the chunks do not
+	 * take part in the caller's transaction, changes pending in it are not seen by them.
 	 * 
 	 * @param maximumStartDate Visits started on or before this date time value will get stopped
 	 * <strong>Should</strong> close all unvoided active visit matching the specified visit types
+	 * <strong>Should</strong> set the audit fields of the stopped visits
 	 */
 	@Authorized(PrivilegeConstants.EDIT_VISITS)
 	public void stopVisits(Date maximumStartDate);
+	
+	/**
+	 * Stops the next chunk of active visits in a transaction of its own, this is one step of
+	 * {@link #stopVisits(Date)}
+	 * 
+	 * @param afterVisitId only visits with a greater id are stopped, null to start with the first one
+	 * @param visitTypes the types of the visits to stop
+	 * @param maximumStartDate Visits started on or before this date time value will get stopped
+	 * @param stopDatetime the stop date time to set
+	 * @param batchSize the maximum number of visits to stop
+	 * @return the ids of the stopped visits in ascending order, an empty list if none were left
+	 * @since 2.5.0
+	 * <strong>Should</strong> stop the active visits following the given visit id
+	 */
+	@Authorized(PrivilegeConstants.EDIT_VISITS)
+	public List<Integer> stopNextVisits(Integer afterVisitId, Collection<VisitType> visitTypes, Date maximumStartDate,
+	        Date stopDatetime, int batchSize);
+	
+	/**
+	 * Counts the visits {@link #stopVisits(Date)} would stop without stopping them
+	 * 
+	 * @param maximumStartDate Visits started on or before this date time value are counted
+	 * @return the number of visits
+	 * @since 2.5.0
+	 * <strong>Should</strong> count the unvoided active visits matching the specified visit types
+	 */
+	@Authorized(PrivilegeConstants.GET_VISITS)
+	public long getVisitCountToStop(Date maximumStartDate);
 }
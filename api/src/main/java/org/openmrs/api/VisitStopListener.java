@@ -0,0 +1,31 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Beans implementing this interface are notified about the visits stopped by
+ * {@link VisitService#stopVisits(Date)}. The visits are stopped with bulk updates that bypass the
+ * save handlers and interceptors, so this is the place to react to them, e.g. to publish events.
+ *
+ * @since 2.5.0
+ */
+public interface VisitStopListener {
+	
+	/**
+	 * Called once the transaction stopping a chunk of visits has been committed
+	 * 
+	 * @param visitIds the ids of the stopped visits
+	 * @param stopDatetime the stop date time set on the visits
+	 */
+	public void visitsStopped(List<Integer> visitIds, Date stopDatetime);
+}
@@ -54,6 +54,8 @@ import org.openmrs.api.SerializationService;
 import org.openmrs.api.UserService;
 import org.openmrs.api.VisitService;
 import org.openmrs.api.db.ContextDAO;
+import org.openmrs.api.db.SearchIndexOptions;
+import org.openmrs.api.db.SearchIndexProgress;
 import org.openmrs.hl7.HL7Service;
 import org.openmrs.logic.LogicService;
 import org.openmrs.messagesource.MessageSourceService;
@@ -1352,6 +1354,41 @@ public class Context {
 		return getContextDAO().updateSearchIndexAsync();
 	}
 
+	/**
+	 * Rebuilds the search index like {@link #updateSearchIndex()}, loading and indexing objects as
+	 * tuned by the given options. Documents are replaced one by one and the index can be searched
+	 * while it is rebuilt.
+	 *
+	 * @param options the batch size, threads and id fetch size to use for each indexed type
+	 * @see #getSearchIndexProgress()
+	 * @since 2.5.0
+	 */
+	public static void updateSearchIndex(SearchIndexOptions options) {
+		getContextDAO().updateSearchIndex(options);
+	}
+
+	/**
+	 * Rebuilds the search index like {@link #updateSearchIndex(SearchIndexOptions)}. It is an
+	 * asynchronous operation.
+	 *
+	 * @param options the batch size, threads and id fetch size to use for each indexed type
+	 * @return object representing the result of the started asynchronous operation
+	 * @see #getSearchIndexProgress()
+	 * @since 2.5.0
+	 */
+	public static Future<?> updateSearchIndexAsync(SearchIndexOptions options) {
+		return getContextDAO().updateSearchIndexAsync(options);
+	}
+
+	/**
+	 * @return the progress of the latest rebuild of the search index or null if it was not rebuilt
+	 *         since startup
+	 * @since 2.5.0
+	 */
+	public static SearchIndexProgress getSearchIndexProgress() {
+		return getContextDAO().getSearchIndexProgress();
+	}
+
 	/**
 	 * Updates the search index for objects of the given type.
 	 *
@@ -24,6 +24,7 @@ import org.openmrs.module.Module;
 import org.openmrs.module.ModuleException;
 import org.openmrs.module.ModuleFactory;
 import org.openmrs.scheduler.Task;
+import org.openmrs.scheduler.executor.ExecutorSchedulerTask;
 import org.openmrs.scheduler.timer.TimerSchedulerTask;
 import org.openmrs.util.OpenmrsSecurityManager;
 import org.slf4j.Logger;
@@ -204,19 +205,12 @@ public class Daemon {
 			
 			@Override
 			public void run() {
-				isDaemonThread.set(true);
-				
 				try {
-					Context.openSession();
-					TimerSchedulerTask.execute(task);
+					executeAsDaemon(task);
 				}
 				catch (Exception e) {
 					exceptionThrown = e;
 				}
-				finally {
-					Context.closeSession();
-				}
-				
 			}
 		};
 		
@@ -236,6 +230,50 @@ public class Daemon {
 		
 	}
 	
+	/**
+	 * Executes the given task in the calling thread, which is authenticated as the daemon user for
+	 * the time of the execution. Unlike {@link #executeScheduledTask(Task)} this does not start a
+	 * thread per execution, so that the threads of a scheduler's pool can run the task themselves.
+	 * <br>
+	 * <br>
+	 * This can only be called from {@link ExecutorSchedulerTask} during actual task execution
+	 *
+	 * @param task the task to run
+	 * <strong>Should</strong> not be called from other classes than ExecutorSchedulerTask
+	 * <strong>Should</strong> execute the task in the calling thread as a daemon thread
+	 * @since 2.5.0
+	 */
+	public static void executeScheduledTaskInCurrentThread(Task task) throws Exception {
+		
+		// quick check to make sure we're only being called by ourselves
+		Class<?> callerClass = new OpenmrsSecurityManager().getCallerClass(0);
+		if (!ExecutorSchedulerTask.class.isAssignableFrom(callerClass)) {
+			throw new APIException("Scheduler.executor.task.only", new Object[] { callerClass.getName() });
+		}
+		
+		executeAsDaemon(task);
+	}
+	
+	/**
+	 * Executes the given task in a session of its own with the calling thread marked as a daemon
+	 * thread, which it is no longer afterwards
+	 */
+	private static void executeAsDaemon(Task task) throws Exception {
+		isDaemonThread.set(true);
+		try {
+			Context.openSession();
+			TimerSchedulerTask.execute(task);
+		}
+		finally {
+			try {
+				Context.closeSession();
+			}
+			finally {
+				isDaemonThread.remove();
+			}
+		}
+	}
+	
 	/**
 	 * Call this method if you are inside a Daemon thread (for example in a Module activator or a
 	 * scheduled task) and you want to start up a new parallel Daemon thread. You may only call this
@@ -17,6 +17,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.aopalliance.aop.Advice;
 import org.openmrs.api.APIException;
@@ -77,7 +78,11 @@ public class ServiceContext implements ApplicationContextAware {
 
 	private ApplicationContext applicationContext;
 	
-	private static boolean refreshingContext = false;
+	/**
+	 * Read without locking by {@link #getService(Class)}, which only synchronizes on
+	 * {@link #refreshingContextLock} to wait while a refresh is in progress
+	 */
+	private static volatile boolean refreshingContext = false;
 	
 	private static final Object refreshingContextLock = new Object();
 	
@@ -87,8 +92,8 @@ public class ServiceContext implements ApplicationContextAware {
 	 */
 	private boolean useSystemClassLoader = false;
 	
-	// Cached service objects
-	Map<Class, Object> services = new HashMap<>();
+	// Cached service objects, read concurrently by all request threads without locking
+	Map<Class, Object> services = new ConcurrentHashMap<>();
 	
 	// Advisors added to services by this service
 	Map<Class, Set<Advisor>> addedAdvisors = new HashMap<>();
@@ -655,6 +660,19 @@ public class ServiceContext implements ApplicationContextAware {
 		
 		// if the context is refreshing, wait until it is
 		// done -- otherwise a null service might be returned
+		if (refreshingContext) {
+			waitForRefreshingContext(cls);
+		}
+		
+		Object service = (cls == null) ? null : services.get(cls);
+		if (service == null) {
+			throw new APIException("Service not found: " + cls);
+		}
+		
+		return (T) service;
+	}
+	
+	private void waitForRefreshingContext(Class<?> cls) {
 		synchronized (refreshingContextLock) {
 			try {
 				while (refreshingContext) {
@@ -670,13 +688,6 @@ public class ServiceContext implements ApplicationContextAware {
 				log.warn("Refresh lock was interrupted", e);
 			}
 		}
-		
-		Object service = services.get(cls);
-		if (service == null) {
-			throw new APIException("Service not found: " + cls);
-		}
-		
-		return (T) service;
 	}
 	
 	/**
@@ -843,9 +854,7 @@ public class ServiceContext implements ApplicationContextAware {
 	 *         doneRefreshingContext()
 	 */
 	public boolean isRefreshingContext() {
-		synchronized (refreshingContextLock) {
-			return refreshingContext;
-		}
+		return refreshingContext;
 	}
 	
 	/**
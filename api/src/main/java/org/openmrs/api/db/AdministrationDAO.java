@@ -10,6 +10,7 @@
 package org.openmrs.api.db;
 
 import java.util.List;
+import java.util.Map;
 
 import org.openmrs.GlobalProperty;
 import org.openmrs.OpenmrsObject;
@@ -39,6 +40,14 @@ public interface AdministrationDAO {
 	 */
 	public List<GlobalProperty> getAllGlobalProperties() throws DAOException;
 	
+	/**
+	 * Gets the values of all global properties without loading the global properties themselves
+	 * 
+	 * @return a map from property name to property value
+	 * @since 2.5.0
+	 */
+	public Map<String, String> getAllGlobalPropertyValues() throws DAOException;
+	
 	public GlobalProperty getGlobalPropertyByUuid(String uuid) throws DAOException;
 	
 	/**
@@ -15,6 +15,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import org.openmrs.Concept;
 import org.openmrs.ConceptAnswer;
@@ -320,6 +321,93 @@ public interface ConceptDAO {
 	 */
 	public Iterator<Concept> conceptIterator();
 	
+	/**
+	 * @see org.openmrs.api.ConceptService#conceptIterator(int)
+	 * @since 2.5.0
+	 */
+	public Iterator<Concept> conceptIterator(int batchSize);
+	
+	/**
+	 * Gets the next concepts in the order of their ids, with their names, mappings and answers
+	 * loaded. Pass the id of the last concept of a batch to get the next batch.
+	 * 
+	 * @param afterConceptId the id after which to start or null to start with the smallest id
+	 * @param batchSize the maximum number of concepts to return
+	 * @return the concepts ordered by id
+	 * <strong>Should</strong> return the concepts after the given id ordered by id
+	 * <strong>Should</strong> start with the smallest concept id if no id is given
+	 * <strong>Should</strong> load the names mappings and answers of the concepts
+	 * @since 2.5.0
+	 */
+	public List<Concept> getConceptBatch(Integer afterConceptId, int batchSize);
+	
+	/**
+	 * Gets the ids of the concepts {@link #getConceptBatch(Integer, int)} would return, without
+	 * loading the concepts
+	 * 
+	 * @param afterConceptId the id after which to start or null to start with the smallest id
+	 * @param batchSize the maximum number of ids to return
+	 * @return the concept ids in ascending order
+	 * <strong>Should</strong> return the concept ids after the given id in ascending order
+	 * @since 2.5.0
+	 */
+	public List<Integer> getConceptIdBatch(Integer afterConceptId, int batchSize);
+	
+	/**
+	 * Gets the concepts with the given ids, with their names, mappings and answers loaded
+	 * 
+	 * @param conceptIds the ids of the concepts
+	 * @return the concepts ordered by id
+	 * <strong>Should</strong> return the concepts with the given ids ordered by id
+	 * @since 2.5.0
+	 */
+	public List<Concept> getConceptBatch(Collection<Integer> conceptIds);
+	
+	/**
+	 * Loads the concepts with the given ids like {@link #getConceptBatch(Collection)} in a new
+	 * session, which is bound to the calling thread while the concepts are passed to the consumer
+	 * and closed afterwards. Meant for threads which have no session of their own.
+	 * 
+	 * @param conceptIds the ids of the concepts
+	 * @param consumer called once for each concept in the order of their ids
+	 * <strong>Should</strong> pass the concepts to the consumer while their session is open
+	 * @since 2.5.0
+	 */
+	public void forEachConceptInNewSession(Collection<Integer> conceptIds, Consumer<Concept> consumer);
+	
+	/**
+	 * Removes concepts returned by {@link #getConceptBatch(Integer, int)} from the session along with
+	 * their names, mappings and answers, so that walking the dictionary needs bounded memory
+	 * 
+	 * @param concepts the concepts to evict
+	 * @since 2.5.0
+	 */
+	public void evictConceptBatch(List<Concept> concepts);
+	
+	/**
+	 * Gets the non-retired concepts that have a non-voided name equal to one of the given names,
+	 * ignoring case, with their names loaded. This finds the stored concepts that names of new
+	 * concepts may be duplicates of.
+	 * 
+	 * @param names the names to look for
+	 * @return the concepts having one of the names
+	 * <strong>Should</strong> return the concepts having one of the names ignoring case
+	 * <strong>Should</strong> not return retired concepts
+	 * <strong>Should</strong> return an empty list if no names are given
+	 * @since 2.5.0
+	 */
+	public List<Concept> getConceptsHavingAnyName(Collection<String> names);
+	
+	/**
+	 * Adds the names of the given concepts to the search index. This is the bulk index pass for
+	 * names that were saved while their indexing was deferred.
+	 * 
+	 * @param conceptIds the ids of the concepts whose names to index
+	 * @see org.openmrs.api.db.hibernate.search.DeferrableIndexingInterceptor
+	 * @since 2.5.0
+	 */
+	public void updateConceptNameSearchIndex(Collection<Integer> conceptIds);
+	
 	/**
 	 * @see org.openmrs.api.ConceptService#getConceptsByMapping(java.lang.String, java.lang.String)
 	 */
@@ -656,4 +744,13 @@ public interface ConceptDAO {
 	public long getConceptAttributeCount(ConceptAttributeType conceptAttributeType);
 
 	List<Concept> getConceptsByClass(ConceptClass conceptClass);
+
+	/**
+	 * Reads the concept dictionary into a new snapshot, using one query per kind of data instead of
+	 * loading the concepts
+	 *
+	 * @return the snapshot
+	 * @since 2.5.0
+	 */
+	public ConceptDictionarySnapshot createConceptDictionarySnapshot();
 }
@@ -0,0 +1,478 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openmrs.Concept;
+import org.openmrs.ConceptAnswer;
+import org.openmrs.ConceptMap;
+import org.openmrs.ConceptName;
+import org.openmrs.ConceptReferenceTerm;
+import org.openmrs.ConceptSet;
+import org.openmrs.api.ConceptNameType;
+
+/**
+ * An in-memory copy of the parts of the concept dictionary used to look concepts up by uuid, name
+ * or mapping. The lookups return concept ids, the concepts themselves still come from the session
+ * (and usually its second level cache).<br>
+ * <br>
+ * {@link #put(Entry)} and {@link #remove(Integer)} update the snapshot in place, one key at a time.
+ * The indexes are concurrent maps and the id lists under a key are replaced instead of changed, so
+ * readers never need to lock and an update only touches the keys of the concept. Updates are
+ * serialized, readers may see a concept under its new keys a moment before it disappears from its
+ * old ones.
+ *
+ * @since 2.5.0
+ */
+public final class ConceptDictionarySnapshot {
+
+	private static final char KEY_SEPARATOR = '\u0000';
+
+	private final Map<Integer, Entry> entries;
+
+	private final Map<String, Integer> idsByUuid;
+
+	private final Map<String, List<Integer>> idsByMapping;
+
+	private final Map<String, List<Integer>> idsByName;
+
+	private ConceptDictionarySnapshot(int size) {
+		this.entries = new ConcurrentHashMap<>(size * 2);
+		this.idsByUuid = new ConcurrentHashMap<>(size * 2);
+		this.idsByMapping = new ConcurrentHashMap<>();
+		this.idsByName = new ConcurrentHashMap<>(size * 2);
+	}
+
+	/**
+	 * Creates a snapshot of the given concepts
+	 *
+	 * @param entries one entry per concept
+	 * @return the snapshot
+	 */
+	public static ConceptDictionarySnapshot of(Collection<Entry> entries) {
+		// sorted by id, so that the indexes list concepts in a stable order
+		Map<Integer, Entry> sorted = new TreeMap<>();
+		for (Entry entry : entries) {
+			sorted.put(entry.getConceptId(), entry);
+		}
+		ConceptDictionarySnapshot snapshot = new ConceptDictionarySnapshot(sorted.size());
+		for (Entry entry : sorted.values()) {
+			snapshot.put(entry);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Replaces the entry of the concept by the given one, the concept is only removed from the keys
+	 * it no longer has
+	 *
+	 * @param entry the new entry of the concept
+	 * <strong>Should</strong> replace the indexed names and mappings of the concept
+	 * <strong>Should</strong> not change the indexes of other concepts
+	 */
+	public synchronized void put(Entry entry) {
+		Integer conceptId = entry.getConceptId();
+		Entry previous = entries.put(conceptId, entry);
+		if (entry.getUuid() != null) {
+			idsByUuid.put(entry.getUuid(), conceptId);
+		}
+		Set<String> mappingKeys = mappingKeys(entry);
+		for (String key : mappingKeys) {
+			idsByMapping.compute(key, (k, ids) -> with(ids, conceptId));
+		}
+		Set<String> nameKeys = nameKeys(entry);
+		for (String key : nameKeys) {
+			idsByName.compute(key, (k, ids) -> with(ids, conceptId));
+		}
+
+		if (previous != null) {
+			if (previous.getUuid() != null && !previous.getUuid().equals(entry.getUuid())) {
+				idsByUuid.remove(previous.getUuid(), conceptId);
+			}
+			for (String key : mappingKeys(previous)) {
+				if (!mappingKeys.contains(key)) {
+					idsByMapping.computeIfPresent(key, (k, ids) -> without(ids, conceptId));
+				}
+			}
+			for (String key : nameKeys(previous)) {
+				if (!nameKeys.contains(key)) {
+					idsByName.computeIfPresent(key, (k, ids) -> without(ids, conceptId));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes the given concept
+	 *
+	 * @param conceptId the id of the concept to remove
+	 * <strong>Should</strong> remove the concept from all indexes
+	 */
+	public synchronized void remove(Integer conceptId) {
+		Entry entry = entries.remove(conceptId);
+		if (entry == null) {
+			return;
+		}
+		if (entry.getUuid() != null) {
+			idsByUuid.remove(entry.getUuid(), conceptId);
+		}
+		for (String key : mappingKeys(entry)) {
+			idsByMapping.computeIfPresent(key, (k, ids) -> without(ids, conceptId));
+		}
+		for (String key : nameKeys(entry)) {
+			idsByName.computeIfPresent(key, (k, ids) -> without(ids, conceptId));
+		}
+	}
+
+	/**
+	 * @return the number of concepts in the snapshot
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @param conceptId the id of a concept
+	 * @return the entry of the concept or null if it is not in the snapshot
+	 */
+	public Entry getEntry(Integer conceptId) {
+		return entries.get(conceptId);
+	}
+
+	/**
+	 * @param uuid the uuid of a concept
+	 * @return the id of the concept or null if no concept has the uuid
+	 */
+	public Integer getConceptIdByUuid(String uuid) {
+		return uuid == null ? null : idsByUuid.get(uuid);
+	}
+
+	/**
+	 * Looks concepts up like {@link ConceptDAO#getConceptsByMapping(String, String, boolean)}, the
+	 * code and source are compared ignoring case and the source can be given by name or hl7 code.
+	 *
+	 * @param code the code of the reference term
+	 * @param sourceName the name or hl7 code of the concept source
+	 * @param includeRetired whether retired concepts should be returned
+	 * @return the ids of the concepts, retired concepts last
+	 * <strong>Should</strong> find concepts by source name or hl7 code ignoring case
+	 * <strong>Should</strong> put retired concepts last or leave them out
+	 */
+	public List<Integer> getConceptIdsByMapping(String code, String sourceName, boolean includeRetired) {
+		if (code == null || sourceName == null) {
+			return Collections.emptyList();
+		}
+		List<Integer> ids = idsByMapping.get(key(sourceName, code));
+		if (ids == null) {
+			return Collections.emptyList();
+		}
+		List<Integer> result = new ArrayList<>(ids.size());
+		List<Integer> retired = new ArrayList<>();
+		for (Integer id : ids) {
+			Entry entry = entries.get(id);
+			if (entry == null) {
+				continue;
+			}
+			if (!entry.isRetired()) {
+				result.add(id);
+			} else if (includeRetired) {
+				retired.add(id);
+			}
+		}
+		result.addAll(retired);
+		return result;
+	}
+
+	/**
+	 * Looks a concept up like {@link ConceptDAO#getConceptByName(String)}. Names in any locale of
+	 * the language of the given locale match, ignoring case. If several concepts match, the first
+	 * one with the name in exactly the given locale is returned.
+	 *
+	 * @param name the name of the concept
+	 * @param locale the locale to search in
+	 * @return the id of the concept or null if there is no single match
+	 * <strong>Should</strong> find a non retired concept by name in the language of the locale
+	 * <strong>Should</strong> prefer the concept named in the exact locale if several match
+	 */
+	public Integer getConceptIdByName(String name, Locale locale) {
+		if (name == null || locale == null) {
+			return null;
+		}
+		List<Integer> ids = idsByName.get(key(locale.getLanguage(), name));
+		if (ids == null) {
+			return null;
+		}
+		List<Entry> candidates = new ArrayList<>(ids.size());
+		for (Integer id : ids) {
+			Entry entry = entries.get(id);
+			if (entry != null && !entry.isRetired()) {
+				candidates.add(entry);
+			}
+		}
+		if (candidates.size() == 1) {
+			return candidates.get(0).getConceptId();
+		}
+		for (Entry candidate : candidates) {
+			for (Name conceptName : candidate.getNames()) {
+				if (locale.equals(conceptName.getLocale()) && conceptName.getName().equalsIgnoreCase(name)) {
+					return candidate.getConceptId();
+				}
+			}
+		}
+		return null;
+	}
+
+	private static Set<String> nameKeys(Entry entry) {
+		Set<String> keys = new HashSet<>();
+		for (Name name : entry.getNames()) {
+			keys.add(key(name.getLocale().getLanguage(), name.getName()));
+		}
+		return keys;
+	}
+
+	private static Set<String> mappingKeys(Entry entry) {
+		Set<String> keys = new HashSet<>();
+		for (Mapping mapping : entry.getMappings()) {
+			if (mapping.getSourceName() != null) {
+				keys.add(key(mapping.getSourceName(), mapping.getCode()));
+			}
+			if (mapping.getSourceHl7Code() != null) {
+				keys.add(key(mapping.getSourceHl7Code(), mapping.getCode()));
+			}
+		}
+		return keys;
+	}
+
+	private static List<Integer> with(List<Integer> ids, Integer id) {
+		if (ids == null) {
+			return Collections.singletonList(id);
+		}
+		if (ids.contains(id)) {
+			return ids;
+		}
+		List<Integer> result = new ArrayList<>(ids.size() + 1);
+		result.addAll(ids);
+		result.add(id);
+		return Collections.unmodifiableList(result);
+	}
+
+	/**
+	 * @return the given ids without the given one or null if none are left
+	 */
+	private static List<Integer> without(List<Integer> ids, Integer id) {
+		if (!ids.contains(id)) {
+			return ids;
+		}
+		if (ids.size() == 1) {
+			return null;
+		}
+		List<Integer> result = new ArrayList<>(ids);
+		result.remove(id);
+		return Collections.unmodifiableList(result);
+	}
+
+	private static String key(String first, String second) {
+		return first.toLowerCase(Locale.ROOT) + KEY_SEPARATOR + (second == null ? "" : second.toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * What the snapshot holds about a concept
+	 */
+	public static final class Entry {
+
+		private final Integer conceptId;
+
+		private final String uuid;
+
+		private final boolean retired;
+
+		private final Integer datatypeId;
+
+		private final Integer conceptClassId;
+
+		private final List<Name> names;
+
+		private final List<Mapping> mappings;
+
+		private final List<Integer> setMemberIds;
+
+		private final List<Integer> answerIds;
+
+		public Entry(Integer conceptId, String uuid, boolean retired, Integer datatypeId, Integer conceptClassId,
+		    List<Name> names, List<Mapping> mappings, List<Integer> setMemberIds, List<Integer> answerIds) {
+			this.conceptId = conceptId;
+			this.uuid = uuid;
+			this.retired = retired;
+			this.datatypeId = datatypeId;
+			this.conceptClassId = conceptClassId;
+			this.names = Collections.unmodifiableList(new ArrayList<>(names));
+			this.mappings = Collections.unmodifiableList(new ArrayList<>(mappings));
+			this.setMemberIds = Collections.unmodifiableList(new ArrayList<>(setMemberIds));
+			this.answerIds = Collections.unmodifiableList(new ArrayList<>(answerIds));
+		}
+
+		/**
+		 * Creates the entry of a saved concept
+		 *
+		 * @param concept the concept
+		 * @return the entry
+		 * <strong>Should</strong> copy the unvoided names, mappings, set members and answers
+		 */
+		public static Entry of(Concept concept) {
+			List<Name> names = new ArrayList<>();
+			for (ConceptName name : concept.getNames()) {
+				names.add(new Name(name.getName(), name.getLocale(), name.getConceptNameType(), name.getLocalePreferred()));
+			}
+			List<Mapping> mappings = new ArrayList<>();
+			for (ConceptMap map : concept.getConceptMappings()) {
+				ConceptReferenceTerm term = map.getConceptReferenceTerm();
+				if (term != null && term.getConceptSource() != null) {
+					mappings.add(new Mapping(term.getCode(), term.getConceptSource().getName(), term.getConceptSource()
+					        .getHl7Code()));
+				}
+			}
+			List<Integer> setMemberIds = new ArrayList<>();
+			if (concept.getConceptSets() != null) {
+				for (ConceptSet conceptSet : concept.getConceptSets()) {
+					setMemberIds.add(conceptSet.getConcept().getConceptId());
+				}
+			}
+			List<Integer> answerIds = new ArrayList<>();
+			for (ConceptAnswer answer : concept.getAnswers()) {
+				if (answer.getAnswerConcept() != null) {
+					answerIds.add(answer.getAnswerConcept().getConceptId());
+				}
+			}
+			return new Entry(concept.getConceptId(), concept.getUuid(), Boolean.TRUE.equals(concept.getRetired()), concept
+			        .getDatatype() == null ? null : concept.getDatatype().getConceptDatatypeId(),
+			        concept.getConceptClass() == null ? null : concept.getConceptClass().getConceptClassId(), names,
+			        mappings, setMemberIds, answerIds);
+		}
+
+		public Integer getConceptId() {
+			return conceptId;
+		}
+
+		public String getUuid() {
+			return uuid;
+		}
+
+		public boolean isRetired() {
+			return retired;
+		}
+
+		public Integer getDatatypeId() {
+			return datatypeId;
+		}
+
+		public Integer getConceptClassId() {
+			return conceptClassId;
+		}
+
+		/**
+		 * @return the unvoided names of the concept
+		 */
+		public List<Name> getNames() {
+			return names;
+		}
+
+		public List<Mapping> getMappings() {
+			return mappings;
+		}
+
+		public List<Integer> getSetMemberIds() {
+			return setMemberIds;
+		}
+
+		public List<Integer> getAnswerIds() {
+			return answerIds;
+		}
+	}
+
+	/**
+	 * An unvoided name of a concept
+	 */
+	public static final class Name {
+
+		private final String name;
+
+		private final Locale locale;
+
+		private final ConceptNameType type;
+
+		private final boolean localePreferred;
+
+		public Name(String name, Locale locale, ConceptNameType type, Boolean localePreferred) {
+			this.name = name;
+			this.locale = locale;
+			this.type = type;
+			this.localePreferred = Boolean.TRUE.equals(localePreferred);
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Locale getLocale() {
+			return locale;
+		}
+
+		/**
+		 * @return the type of the name, null for synonyms
+		 */
+		public ConceptNameType getType() {
+			return type;
+		}
+
+		public boolean isLocalePreferred() {
+			return localePreferred;
+		}
+	}
+
+	/**
+	 * A mapping of a concept to a reference term
+	 */
+	public static final class Mapping {
+
+		private final String code;
+
+		private final String sourceName;
+
+		private final String sourceHl7Code;
+
+		public Mapping(String code, String sourceName, String sourceHl7Code) {
+			this.code = code;
+			this.sourceName = sourceName;
+			this.sourceHl7Code = sourceHl7Code;
+		}
+
+		public String getCode() {
+			return code;
+		}
+
+		public String getSourceName() {
+			return sourceName;
+		}
+
+		public String getSourceHl7Code() {
+			return sourceHl7Code;
+		}
+	}
+}
@@ -163,11 +163,29 @@ public interface ContextDAO {
 	 */
 	public void updateSearchIndex();
 
+	/**
+	 * @see Context#updateSearchIndex(SearchIndexOptions)
+	 * @since 2.5.0
+	 */
+	public void updateSearchIndex(SearchIndexOptions options);
+
 	/**
 	 * @see Context#updateSearchIndexAsync()
 	 */
 	public Future<?> updateSearchIndexAsync();
 	
+	/**
+	 * @see Context#updateSearchIndexAsync(SearchIndexOptions)
+	 * @since 2.5.0
+	 */
+	public Future<?> updateSearchIndexAsync(SearchIndexOptions options);
+	
+	/**
+	 * @see Context#getSearchIndexProgress()
+	 * @since 2.5.0
+	 */
+	public SearchIndexProgress getSearchIndexProgress();
+	
 	/**
 	 * @see Context#updateSearchIndexForObject(Object)
 	 */
@@ -17,6 +17,7 @@ import org.openmrs.Location;
 import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
+import org.openmrs.PatientSearchDocument;
 import org.openmrs.api.PatientService;
 
 /**
@@ -124,6 +125,13 @@ public interface PatientDAO {
 	 */
 	public List<Patient> getPatients(String query, boolean includeVoided, Integer start, Integer length) throws DAOException;
 	
+	/**
+	 * @see org.openmrs.api.PatientService#getPatientSearchDocuments(String, boolean, Integer, Integer)
+	 * @since 2.5.0
+	 */
+	public List<PatientSearchDocument> getPatientSearchDocuments(String query, boolean includeVoided, Integer start,
+	        Integer length) throws DAOException;
+	
 	/**
 	 * @see PatientService#getPatients(String, String, List, boolean, Integer, Integer)
 	 */
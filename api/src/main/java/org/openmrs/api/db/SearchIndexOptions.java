@@ -0,0 +1,100 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tunes how the search index is rebuilt by {@link ContextDAO#updateSearchIndex(SearchIndexOptions)}.
+ * The values set on an instance apply to all indexed types, unless different options were set for
+ * a type with {@link #setTypeOptions(Class, SearchIndexOptions)}.
+ *
+ * @since 2.5.0
+ */
+public class SearchIndexOptions {
+
+	public static final int DEFAULT_BATCH_SIZE = 100;
+
+	public static final int DEFAULT_THREADS = 4;
+
+	public static final int DEFAULT_ID_FETCH_SIZE = 1000;
+
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	private int threads = DEFAULT_THREADS;
+
+	private int idFetchSize = DEFAULT_ID_FETCH_SIZE;
+
+	private final Map<Class<?>, SearchIndexOptions> typeOptions = new HashMap<>();
+
+	/**
+	 * @return the number of objects loaded and indexed in one transaction
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("The batch size must be at least 1");
+		}
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * @return the number of threads loading and indexing batches of objects
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	public void setThreads(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least 1 thread is needed");
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 * @return the number of ids fetched from the database at a time while listing the objects to
+	 *         index
+	 */
+	public int getIdFetchSize() {
+		return idFetchSize;
+	}
+
+	public void setIdFetchSize(int idFetchSize) {
+		if (idFetchSize < 1) {
+			throw new IllegalArgumentException("The id fetch size must be at least 1");
+		}
+		this.idFetchSize = idFetchSize;
+	}
+
+	/**
+	 * Sets the options to use for the given indexed type instead of these
+	 *
+	 * @param type the indexed type
+	 * @param options the options for the type
+	 */
+	public void setTypeOptions(Class<?> type, SearchIndexOptions options) {
+		typeOptions.put(type, options);
+	}
+
+	/**
+	 * @param type the indexed type
+	 * @return the options set for the type or these options if none were set
+	 * <strong>Should</strong> return the options set for the type
+	 * <strong>Should</strong> return these options for other types
+	 */
+	public SearchIndexOptions getTypeOptions(Class<?> type) {
+		return typeOptions.getOrDefault(type, this);
+	}
+}
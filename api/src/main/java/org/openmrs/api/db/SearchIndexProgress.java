@@ -0,0 +1,69 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The progress of a rebuild of the search index, as returned by
+ * {@link ContextDAO#getSearchIndexProgress()}. The counts are updated while the rebuild runs.
+ *
+ * @since 2.5.0
+ */
+public interface SearchIndexProgress {
+
+	/**
+	 * @return when the rebuild started
+	 */
+	Date getStarted();
+
+	/**
+	 * @return when the rebuild finished or null if it still runs
+	 */
+	Date getFinished();
+
+	/**
+	 * @return true if the rebuild finished, successfully or not
+	 */
+	boolean isDone();
+
+	/**
+	 * @return the exception which stopped the rebuild or null
+	 */
+	Throwable getError();
+
+	/**
+	 * @return the indexed types in the order they are rebuilt
+	 */
+	List<Class<?>> getTypes();
+
+	/**
+	 * @param type one of {@link #getTypes()}
+	 * @return the number of objects of the type to index or -1 if not counted yet
+	 */
+	long getTotalCount(Class<?> type);
+
+	/**
+	 * @param type one of {@link #getTypes()}
+	 * @return the number of objects of the type indexed so far
+	 */
+	long getIndexedCount(Class<?> type);
+
+	/**
+	 * @return the number of objects of all types indexed so far
+	 */
+	long getIndexedCount();
+
+	/**
+	 * @return the average number of documents written per second since the rebuild started
+	 */
+	double getDocumentsPerSecond();
+}
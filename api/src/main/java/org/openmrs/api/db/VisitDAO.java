@@ -17,6 +17,7 @@ import java.util.Map;
 import org.openmrs.Concept;
 import org.openmrs.Location;
 import org.openmrs.Patient;
+import org.openmrs.User;
 import org.openmrs.Visit;
 import org.openmrs.VisitAttribute;
 import org.openmrs.VisitAttributeType;
@@ -156,4 +157,44 @@ public interface VisitDAO {
 	 */
 	public Visit getNextVisit(Visit previousVisit, Collection<VisitType> visitTypes, Date maximumStartDate);
 	
+	/**
+	 * Gets the ids of the next active visits which match the specified visit types, ordered by id so
+	 * that all of them can be paged through by passing the last id of the previous page
+	 * 
+	 * @param afterVisitId only visits with a greater id are returned, null to start from the
+	 *            beginning
+	 * @param visitTypes a collection of visit types to match against
+	 * @param maximumStartDate the visits should have been started before or at this date time
+	 * @param maxResults the maximum number of ids to return
+	 * @return the visit ids
+	 * @since 2.5.0
+	 * <strong>Should</strong> return the ids of unvoided active visits matching the specified types and startDate
+	 */
+	public List<Integer> getActiveVisitIds(Integer afterVisitId, Collection<VisitType> visitTypes, Date maximumStartDate,
+	        int maxResults);
+	
+	/**
+	 * Counts the active visits which match the specified visit types
+	 * 
+	 * @param visitTypes a collection of visit types to match against
+	 * @param maximumStartDate the visits should have been started before or at this date time
+	 * @return the number of visits
+	 * @since 2.5.0
+	 */
+	public long getActiveVisitCount(Collection<VisitType> visitTypes, Date maximumStartDate);
+	
+	/**
+	 * Stops the given visits with a single update statement, bypassing the session, and evicts the
+	 * ones loaded in the session as they no longer match the database. Visits that have been stopped
+	 * in the meantime are left alone.
+	 * 
+	 * @param visitIds the ids of the visits to stop
+	 * @param stopDatetime the stop date time to set
+	 * @param changedBy the user to record as having changed the visits
+	 * @param dateChanged the date to record as the visits' change date
+	 * @return the number of visits stopped
+	 * @since 2.5.0
+	 */
+	public int stopVisits(Collection<Integer> visitIds, Date stopDatetime, User changedBy, Date dateChanged);
+	
 }
@@ -13,7 +13,11 @@ import java.sql.Statement;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.hibernate.Criteria;
 import org.hibernate.FlushMode;
@@ -29,6 +33,7 @@ import org.hibernate.jdbc.Work;
 import org.hibernate.mapping.Column;
 import org.hibernate.mapping.PersistentClass;
 import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.persister.entity.EntityPersister;
 import org.hibernate.type.StringType;
 import org.hibernate.type.TextType;
 import org.hibernate.type.Type;
@@ -67,6 +72,17 @@ public class HibernateAdministrationDAO implements AdministrationDAO, Applicatio
 
 	private Metadata metadata;
 	
+	/**
+	 * The maximum lengths of the properties looked up so far, by entity name and property name
+	 */
+	private final Map<String, Map<String, Integer>> maximumPropertyLengths = new ConcurrentHashMap<>();
+	
+	/**
+	 * The string properties to check the length of when validating instances of a class, empty for
+	 * classes that are not mapped
+	 */
+	private final Map<Class<?>, Optional<StringProperties>> stringProperties = new ConcurrentHashMap<>();
+	
 	public HibernateAdministrationDAO() {
 	}
 	
@@ -125,6 +141,21 @@ public class HibernateAdministrationDAO implements AdministrationDAO, Applicatio
 		return criteria.addOrder(Order.asc(PROPERTY)).list();
 	}
 	
+	/**
+	 * @see org.openmrs.api.db.AdministrationDAO#getAllGlobalPropertyValues()
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public Map<String, String> getAllGlobalPropertyValues() throws DAOException {
+		List<Object[]> rows = sessionFactory.getCurrentSession().createQuery(
+		    "select gp.property, gp.propertyValue from GlobalProperty gp").list();
+		Map<String, String> values = new HashMap<>(rows.size() * 2);
+		for (Object[] row : rows) {
+			values.put((String) row[0], (String) row[1]);
+		}
+		return values;
+	}
+	
 	/**
 	 * @see org.openmrs.api.db.AdministrationDAO#getGlobalPropertiesByPrefix(java.lang.String)
 	 */
@@ -187,20 +218,37 @@ public class HibernateAdministrationDAO implements AdministrationDAO, Applicatio
 	
 	@Override
 	public int getMaximumPropertyLength(Class<? extends OpenmrsObject> aClass, String fieldName) {
-		PersistentClass persistentClass = metadata.getEntityBinding(aClass.getName().split("_")[0]);
-		if (persistentClass == null) {
-			throw new APIException("Couldn't find a class in the hibernate configuration named: " + aClass.getName());
-		} else {
-			int fieldLength;
-			try {
-				fieldLength = ((Column) persistentClass.getProperty(fieldName).getColumnIterator().next()).getLength();
-			}
-			catch (Exception e) {
-				log.debug("Could not determine maximum length", e);
-				return -1;
+		return getCachedMaximumPropertyLength(aClass, fieldName);
+	}
+	
+	private int getCachedMaximumPropertyLength(Class<?> aClass, String fieldName) {
+		String entityName = aClass.getName().split("_")[0];
+		Map<String, Integer> lengths = maximumPropertyLengths.get(entityName);
+		if (lengths == null) {
+			if (metadata.getEntityBinding(entityName) == null) {
+				throw new APIException("Couldn't find a class in the hibernate configuration named: " + aClass.getName());
 			}
-			return fieldLength;
+			lengths = maximumPropertyLengths.computeIfAbsent(entityName, name -> new ConcurrentHashMap<>());
+		}
+		
+		Integer length = lengths.get(fieldName);
+		if (length == null) {
+			length = lengths.computeIfAbsent(fieldName, name -> findMaximumPropertyLength(entityName, name));
 		}
+		return length;
+	}
+	
+	private int findMaximumPropertyLength(String entityName, String fieldName) {
+		PersistentClass persistentClass = metadata.getEntityBinding(entityName);
+		int fieldLength;
+		try {
+			fieldLength = ((Column) persistentClass.getProperty(fieldName).getColumnIterator().next()).getLength();
+		}
+		catch (Exception e) {
+			log.debug("Could not determine maximum length", e);
+			return -1;
+		}
+		return fieldLength;
 	}
 	
 	@Override
@@ -208,6 +256,8 @@ public class HibernateAdministrationDAO implements AdministrationDAO, Applicatio
 		HibernateSessionFactoryBean sessionFactoryBean = (HibernateSessionFactoryBean) applicationContext
 		        .getBean("&sessionFactory");
 		metadata = sessionFactoryBean.getMetadata();
+		maximumPropertyLengths.clear();
+		stringProperties.clear();
 	}
 	
 	/**
@@ -221,46 +271,14 @@ public class HibernateAdministrationDAO implements AdministrationDAO, Applicatio
 	//@SuppressWarnings({ "deprecation", "unchecked", "rawtypes" })
 	@Override
 	public void validate(Object object, Errors errors) throws DAOException {
-		Class entityClass = object.getClass();
-		ClassMetadata metadata = null;
-		try {
-			metadata = sessionFactory.getClassMetadata(entityClass);
+		Optional<StringProperties> properties = stringProperties.get(object.getClass());
+		if (properties == null) {
+			properties = stringProperties.computeIfAbsent(object.getClass(), this::createStringProperties);
 		}
-		catch (MappingException ex) {
-			log.debug(entityClass + " is not a hibernate mapped entity", ex);
-		}
-		if (metadata != null) {
-			String[] propNames = metadata.getPropertyNames();
-			Object identifierType = metadata.getIdentifierType();
-			String identifierName = metadata.getIdentifierPropertyName();
-			if (identifierType instanceof StringType || identifierType instanceof TextType) {
-				int maxLength = getMaximumPropertyLength(entityClass, identifierName);
-				String identifierValue = (String) metadata.getIdentifier(object,
-				    (SessionImplementor) sessionFactory.getCurrentSession());
-				if (identifierValue != null) {
-					int identifierLength = identifierValue.length();
-					if (identifierLength > maxLength) {
-						
-						errors.rejectValue(identifierName, "error.exceededMaxLengthOfField", new Object[] { maxLength },
-						    null);
-					}
-				}
-			}
-			for (String propName : propNames) {
-				Type propType = metadata.getPropertyType(propName);
-				if (propType instanceof StringType || propType instanceof TextType) {
-					String propertyValue = (String) metadata.getPropertyValue(object, propName);
-					if (propertyValue != null) {
-						int maxLength = getMaximumPropertyLength(entityClass, propName);
-						int propertyValueLength = propertyValue.length();
-						if (propertyValueLength > maxLength) {
-							errors.rejectValue(propName, "error.exceededMaxLengthOfField", new Object[] { maxLength },
-									null);
-						}
-					}
-				}
-			}
+		if (properties.isPresent()) {
+			properties.get().validateLengths(object, errors, sessionFactory);
 		}
+		
 		FlushMode previousFlushMode = sessionFactory.getCurrentSession().getHibernateFlushMode();
 		sessionFactory.getCurrentSession().setHibernateFlushMode(FlushMode.MANUAL);
 		try {
@@ -276,6 +294,94 @@ public class HibernateAdministrationDAO implements AdministrationDAO, Applicatio
 		
 	}
 	
+	private Optional<StringProperties> createStringProperties(Class<?> entityClass) {
+		ClassMetadata metadata = null;
+		try {
+			metadata = sessionFactory.getClassMetadata(entityClass);
+		}
+		catch (MappingException ex) {
+			log.debug(entityClass + " is not a hibernate mapped entity", ex);
+		}
+		if (metadata == null) {
+			return Optional.empty();
+		}
+		
+		String identifierName = null;
+		int identifierMaxLength = -1;
+		Type identifierType = metadata.getIdentifierType();
+		if (identifierType instanceof StringType || identifierType instanceof TextType) {
+			identifierName = metadata.getIdentifierPropertyName();
+			identifierMaxLength = getCachedMaximumPropertyLength(entityClass, identifierName);
+		}
+		
+		String[] propNames = metadata.getPropertyNames();
+		List<Integer> indexes = new ArrayList<>();
+		for (int i = 0; i < propNames.length; i++) {
+			Type propType = metadata.getPropertyType(propNames[i]);
+			if (propType instanceof StringType || propType instanceof TextType) {
+				indexes.add(i);
+			}
+		}
+		int[] propertyIndexes = new int[indexes.size()];
+		String[] propertyNames = new String[indexes.size()];
+		int[] maxLengths = new int[indexes.size()];
+		for (int i = 0; i < propertyIndexes.length; i++) {
+			propertyIndexes[i] = indexes.get(i);
+			propertyNames[i] = propNames[propertyIndexes[i]];
+			maxLengths[i] = getCachedMaximumPropertyLength(entityClass, propertyNames[i]);
+		}
+		
+		return Optional.of(new StringProperties((EntityPersister) metadata, identifierName, identifierMaxLength,
+		        propertyIndexes, propertyNames, maxLengths));
+	}
+	
+	/**
+	 * The string properties of a mapped class together with the maximum lengths of their columns,
+	 * resolved once so that validating an object doesn't walk the hibernate mappings
+	 */
+	private static class StringProperties {
+		
+		private final EntityPersister persister;
+		
+		private final String identifierName;
+		
+		private final int identifierMaxLength;
+		
+		private final int[] propertyIndexes;
+		
+		private final String[] propertyNames;
+		
+		private final int[] maxLengths;
+		
+		StringProperties(EntityPersister persister, String identifierName, int identifierMaxLength,
+		    int[] propertyIndexes, String[] propertyNames, int[] maxLengths) {
+			this.persister = persister;
+			this.identifierName = identifierName;
+			this.identifierMaxLength = identifierMaxLength;
+			this.propertyIndexes = propertyIndexes;
+			this.propertyNames = propertyNames;
+			this.maxLengths = maxLengths;
+		}
+		
+		void validateLengths(Object object, Errors errors, SessionFactory sessionFactory) {
+			if (identifierName != null) {
+				String identifierValue = (String) persister.getIdentifier(object,
+				    (SessionImplementor) sessionFactory.getCurrentSession());
+				if (identifierValue != null && identifierValue.length() > identifierMaxLength) {
+					errors.rejectValue(identifierName, "error.exceededMaxLengthOfField",
+					    new Object[] { identifierMaxLength }, null);
+				}
+			}
+			for (int i = 0; i < propertyIndexes.length; i++) {
+				String propertyValue = (String) persister.getPropertyValue(object, propertyIndexes[i]);
+				if (propertyValue != null && propertyValue.length() > maxLengths[i]) {
+					errors.rejectValue(propertyNames[i], "error.exceededMaxLengthOfField", new Object[] { maxLengths[i] },
+					    null);
+				}
+			}
+		}
+	}
+	
 	/**
 	 * Fetches all validators that are registered
 	 *
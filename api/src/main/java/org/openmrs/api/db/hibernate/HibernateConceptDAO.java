@@ -20,14 +20,21 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.CacheMode;
 import org.hibernate.Criteria;
+import org.hibernate.FetchMode;
 import org.hibernate.FlushMode;
 import org.hibernate.Query;
 import org.hibernate.SQLQuery;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.MatchMode;
@@ -35,6 +42,7 @@ import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 import org.hibernate.criterion.SimpleExpression;
+import org.hibernate.search.FullTextSession;
 import org.hibernate.transform.DistinctRootEntityResultTransformer;
 import org.openmrs.Concept;
 import org.openmrs.ConceptAnswer;
@@ -60,16 +68,21 @@ import org.openmrs.Drug;
 import org.openmrs.DrugIngredient;
 import org.openmrs.OpenmrsObject;
 import org.openmrs.api.APIException;
+import org.openmrs.api.ConceptNameType;
 import org.openmrs.api.ConceptService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.ConceptDAO;
+import org.openmrs.api.db.ConceptDictionarySnapshot;
 import org.openmrs.api.db.DAOException;
+import org.openmrs.api.db.FullTextSessionFactory;
 import org.openmrs.api.db.hibernate.search.LuceneQuery;
 import org.openmrs.collection.ListPart;
 import org.openmrs.util.ConceptMapTypeComparator;
 import org.openmrs.util.OpenmrsConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.orm.hibernate5.SessionHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * The Hibernate class for Concepts, Drugs, and related classes. <br>
@@ -82,6 +95,15 @@ public class HibernateConceptDAO implements ConceptDAO {
 	
 	private static final Logger log = LoggerFactory.getLogger(HibernateConceptDAO.class);
 	
+	/**
+	 * The number of concepts {@link #conceptIterator()} loads per query
+	 */
+	private static final int CONCEPT_ITERATOR_BATCH_SIZE = 100;
+	
+	private static final int NAMES_PER_QUERY = 500;
+	
+	private static final int CONCEPT_IDS_PER_INDEX_BATCH = 1000;
+	
 	private SessionFactory sessionFactory;
 	
 	/**
@@ -967,21 +989,214 @@ public class HibernateConceptDAO implements ConceptDAO {
 	 */
 	@Override
 	public Iterator<Concept> conceptIterator() {
-		return new ConceptIterator();
+		return conceptIterator(CONCEPT_ITERATOR_BATCH_SIZE);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.ConceptDAO#conceptIterator(int)
+	 */
+	@Override
+	public Iterator<Concept> conceptIterator(int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("The batch size must be at least 1");
+		}
+		return new ConceptIterator(batchSize);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.ConceptDAO#getConceptBatch(Integer, int)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Concept> getConceptBatch(Integer afterConceptId, int batchSize) {
+		Session session = sessionFactory.getCurrentSession();
+		Criteria criteria = session.createCriteria(Concept.class);
+		criteria.setFetchMode("datatype", FetchMode.JOIN);
+		criteria.setFetchMode("conceptClass", FetchMode.JOIN);
+		if (afterConceptId != null) {
+			criteria.add(Restrictions.gt("conceptId", afterConceptId));
+		}
+		criteria.addOrder(Order.asc("conceptId"));
+		criteria.setMaxResults(batchSize);
+		List<Concept> concepts = criteria.list();
+		if (concepts.isEmpty()) {
+			return concepts;
+		}
+		
+		List<Integer> conceptIds = new ArrayList<>(concepts.size());
+		for (Concept concept : concepts) {
+			conceptIds.add(concept.getConceptId());
+		}
+		fetchConceptBatchCollections(session, conceptIds);
+		return concepts;
 	}
 	
 	/**
-	 * An iterator that loops over all concepts in the dictionary one at a time
+	 * @see org.openmrs.api.db.ConceptDAO#getConceptIdBatch(Integer, int)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Integer> getConceptIdBatch(Integer afterConceptId, int batchSize) {
+		Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Concept.class);
+		criteria.setProjection(Projections.property("conceptId"));
+		if (afterConceptId != null) {
+			criteria.add(Restrictions.gt("conceptId", afterConceptId));
+		}
+		criteria.addOrder(Order.asc("conceptId"));
+		criteria.setMaxResults(batchSize);
+		return criteria.list();
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.ConceptDAO#getConceptBatch(Collection)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Concept> getConceptBatch(Collection<Integer> conceptIds) {
+		if (conceptIds.isEmpty()) {
+			return new ArrayList<>();
+		}
+		Session session = sessionFactory.getCurrentSession();
+		Criteria criteria = session.createCriteria(Concept.class);
+		criteria.setFetchMode("datatype", FetchMode.JOIN);
+		criteria.setFetchMode("conceptClass", FetchMode.JOIN);
+		criteria.add(Restrictions.in("conceptId", conceptIds));
+		criteria.addOrder(Order.asc("conceptId"));
+		List<Concept> concepts = criteria.list();
+		fetchConceptBatchCollections(session, conceptIds);
+		return concepts;
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.ConceptDAO#forEachConceptInNewSession(Collection, Consumer)
+	 */
+	@Override
+	public void forEachConceptInNewSession(Collection<Integer> conceptIds, Consumer<Concept> consumer) {
+		try (Session session = sessionFactory.openSession()) {
+			session.setHibernateFlushMode(FlushMode.MANUAL);
+			session.setDefaultReadOnly(true);
+			TransactionSynchronizationManager.bindResource(sessionFactory, new SessionHolder(session));
+			try {
+				getConceptBatch(conceptIds).forEach(consumer);
+			}
+			finally {
+				TransactionSynchronizationManager.unbindResource(sessionFactory);
+			}
+		}
+	}
+	
+	private void fetchConceptBatchCollections(Session session, Collection<Integer> conceptIds) {
+		// fetch one collection per query, a single query joining them all would multiply the rows
+		session.createQuery("select distinct c from Concept c left join fetch c.names where c.conceptId in (:ids)")
+		        .setParameterList("ids", conceptIds).list();
+		session.createQuery(
+		    "select distinct c from Concept c left join fetch c.conceptMappings m left join fetch m.conceptReferenceTerm t "
+		            + "left join fetch t.conceptSource left join fetch m.conceptMapType where c.conceptId in (:ids)")
+		        .setParameterList("ids", conceptIds).list();
+		session.createQuery("select distinct c from Concept c left join fetch c.answers where c.conceptId in (:ids)")
+		        .setParameterList("ids", conceptIds).list();
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.ConceptDAO#evictConceptBatch(List)
+	 */
+	@Override
+	public void evictConceptBatch(List<Concept> concepts) {
+		Session session = sessionFactory.getCurrentSession();
+		for (Concept concept : concepts) {
+			// the names and mappings are evicted by cascade, the answers and reference terms are not
+			for (ConceptAnswer answer : concept.getAnswers()) {
+				session.evict(answer);
+			}
+			for (ConceptMap mapping : concept.getConceptMappings()) {
+				session.evict(mapping.getConceptReferenceTerm());
+			}
+			session.evict(concept);
+		}
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.ConceptDAO#getConceptsHavingAnyName(Collection)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Concept> getConceptsHavingAnyName(Collection<String> names) {
+		Set<String> uniqueNames = new LinkedHashSet<>();
+		for (String name : names) {
+			uniqueNames.add(name.toLowerCase(Locale.ROOT));
+		}
+		List<String> lowerCaseNames = new ArrayList<>(uniqueNames);
+		String nameProperty = Context.getAdministrationService().isDatabaseStringComparisonCaseSensitive() ? "lower(cn.name)"
+		        : "cn.name";
+		Query query = sessionFactory.getCurrentSession().createQuery(
+		    "select distinct c from Concept c join fetch c.names where c.retired = false and c.conceptId in "
+		            + "(select cn.concept.conceptId from ConceptName cn where cn.voided = false and " + nameProperty
+		            + " in (:names))");
+		
+		Set<Concept> concepts = new LinkedHashSet<>();
+		for (int start = 0; start < lowerCaseNames.size(); start += NAMES_PER_QUERY) {
+			query.setParameterList("names", lowerCaseNames.subList(start, Math.min(start + NAMES_PER_QUERY,
+			    lowerCaseNames.size())));
+			concepts.addAll(query.list());
+		}
+		return new ArrayList<>(concepts);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.ConceptDAO#updateConceptNameSearchIndex(Collection)
+	 */
+	@Override
+	public void updateConceptNameSearchIndex(Collection<Integer> conceptIds) {
+		FullTextSession session = Context.getRegisteredComponent("fullTextSessionFactory", FullTextSessionFactory.class)
+		        .getFullTextSession();
+		session.flush();
+		
+		FlushMode flushMode = session.getHibernateFlushMode();
+		CacheMode cacheMode = session.getCacheMode();
+		try {
+			session.setHibernateFlushMode(FlushMode.MANUAL);
+			session.setCacheMode(CacheMode.IGNORE);
+			
+			List<Integer> ids = new ArrayList<>(conceptIds);
+			Query query = session.createQuery("from ConceptName cn where cn.concept.conceptId in (:ids)");
+			for (int start = 0; start < ids.size(); start += CONCEPT_IDS_PER_INDEX_BATCH) {
+				query.setParameterList("ids", ids.subList(start, Math.min(start + CONCEPT_IDS_PER_INDEX_BATCH, ids.size())));
+				ScrollableResults results = query.setFetchSize(1000).scroll(ScrollMode.FORWARD_ONLY);
+				try {
+					while (results.next()) {
+						session.index(results.get(0));
+					}
+				}
+				finally {
+					results.close();
+				}
+				//apply changes to indexes and free memory since the queue is processed
+				session.flushToIndexes();
+				session.clear();
+			}
+		}
+		finally {
+			session.setHibernateFlushMode(flushMode);
+			session.setCacheMode(cacheMode);
+		}
+	}
+	
+	/**
+	 * An iterator that loops over all concepts in the dictionary, loading them in batches ordered by
+	 * id. The previous batch is evicted from the session when the next one is loaded.
 	 */
 	private class ConceptIterator implements Iterator<Concept> {
 		
-		Concept currentConcept = null;
+		private final int batchSize;
+		
+		private List<Concept> batch = Collections.emptyList();
 		
-		Concept nextConcept;
+		private int position = 0;
 		
-		public ConceptIterator() {
-			final int firstConceptId = getMinConceptId();
-			nextConcept = getConcept(firstConceptId);
+		private boolean lastBatch = false;
+		
+		public ConceptIterator(int batchSize) {
+			this.batchSize = batchSize;
 		}
 		
 		/**
@@ -989,7 +1204,22 @@ public class HibernateConceptDAO implements ConceptDAO {
 		 */
 		@Override
 		public boolean hasNext() {
-			return nextConcept != null;
+			if (position < batch.size()) {
+				return true;
+			}
+			if (lastBatch) {
+				return false;
+			}
+			
+			Integer lastConceptId = null;
+			if (!batch.isEmpty()) {
+				lastConceptId = batch.get(batch.size() - 1).getConceptId();
+				evictConceptBatch(batch);
+			}
+			batch = getConceptBatch(lastConceptId, batchSize);
+			position = 0;
+			lastBatch = batch.size() < batchSize;
+			return !batch.isEmpty();
 		}
 		
 		/**
@@ -997,14 +1227,10 @@ public class HibernateConceptDAO implements ConceptDAO {
 		 */
 		@Override
 		public Concept next() {
-			if (currentConcept != null) {
-				sessionFactory.getCurrentSession().evict(currentConcept);
+			if (!hasNext()) {
+				throw new NoSuchElementException();
 			}
-			
-			currentConcept = nextConcept;
-			nextConcept = getNextConcept(currentConcept);
-			
-			return currentConcept;
+			return batch.get(position++);
 		}
 		
 		/**
@@ -2074,4 +2300,58 @@ public class HibernateConceptDAO implements ConceptDAO {
 		}
 		return searchCriteria;
 	}
+
+	/**
+	 * @see org.openmrs.api.db.ConceptDAO#createConceptDictionarySnapshot()
+	 */
+	@Override
+	public ConceptDictionarySnapshot createConceptDictionarySnapshot() {
+		Session session = sessionFactory.getCurrentSession();
+		
+		Map<Integer, List<ConceptDictionarySnapshot.Name>> names = new HashMap<>();
+		for (Object[] row : listRows(session.createQuery(
+		    "select n.concept.conceptId, n.name, n.locale, n.conceptNameType, n.localePreferred from ConceptName n "
+		            + "where n.voided = false order by n.conceptNameId"))) {
+			names.computeIfAbsent((Integer) row[0], id -> new ArrayList<>()).add(
+			    new ConceptDictionarySnapshot.Name((String) row[1], (Locale) row[2], (ConceptNameType) row[3],
+			            (Boolean) row[4]));
+		}
+		
+		Map<Integer, List<ConceptDictionarySnapshot.Mapping>> mappings = new HashMap<>();
+		for (Object[] row : listRows(session.createQuery(
+		    "select m.concept.conceptId, t.code, s.name, s.hl7Code from ConceptMap m join m.conceptReferenceTerm t "
+		            + "join t.conceptSource s order by m.conceptMapId"))) {
+			mappings.computeIfAbsent((Integer) row[0], id -> new ArrayList<>()).add(
+			    new ConceptDictionarySnapshot.Mapping((String) row[1], (String) row[2], (String) row[3]));
+		}
+		
+		Map<Integer, List<Integer>> setMembers = new HashMap<>();
+		for (Object[] row : listRows(session.createQuery(
+		    "select cs.conceptSet.conceptId, cs.concept.conceptId from ConceptSet cs order by cs.sortWeight, cs.conceptSetId"))) {
+			setMembers.computeIfAbsent((Integer) row[0], id -> new ArrayList<>()).add((Integer) row[1]);
+		}
+		
+		Map<Integer, List<Integer>> answers = new HashMap<>();
+		for (Object[] row : listRows(session.createQuery(
+		    "select a.concept.conceptId, a.answerConcept.conceptId from ConceptAnswer a order by a.sortWeight, a.conceptAnswerId"))) {
+			answers.computeIfAbsent((Integer) row[0], id -> new ArrayList<>()).add((Integer) row[1]);
+		}
+		
+		List<ConceptDictionarySnapshot.Entry> entries = new ArrayList<>();
+		for (Object[] row : listRows(session.createQuery(
+		    "select c.conceptId, c.uuid, c.retired, d.conceptDatatypeId, cc.conceptClassId from Concept c "
+		            + "left join c.datatype d left join c.conceptClass cc"))) {
+			Integer conceptId = (Integer) row[0];
+			entries.add(new ConceptDictionarySnapshot.Entry(conceptId, (String) row[1], Boolean.TRUE.equals(row[2]),
+			        (Integer) row[3], (Integer) row[4], names.getOrDefault(conceptId, Collections.emptyList()), mappings
+			                .getOrDefault(conceptId, Collections.emptyList()), setMembers.getOrDefault(conceptId,
+			                    Collections.emptyList()), answers.getOrDefault(conceptId, Collections.emptyList())));
+		}
+		return ConceptDictionarySnapshot.of(entries);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static List<Object[]> listRows(Query query) {
+		return query.setReadOnly(true).list();
+	}
 }
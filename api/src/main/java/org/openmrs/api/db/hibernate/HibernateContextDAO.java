@@ -10,14 +10,29 @@
 package org.openmrs.api.db.hibernate;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.util.BytesRef;
 import org.hibernate.CacheMode;
 import org.hibernate.FlushMode;
 import org.hibernate.HibernateException;
@@ -25,17 +40,26 @@ import org.hibernate.ScrollMode;
 import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
 import org.hibernate.search.FullTextSession;
+import org.hibernate.search.Search;
+import org.hibernate.search.indexes.IndexReaderAccessor;
 import org.hibernate.stat.QueryStatistics;
 import org.hibernate.stat.Statistics;
 import org.hibernate.type.StandardBasicTypes;
+import org.hibernate.type.StringRepresentableType;
 import org.openmrs.GlobalProperty;
 import org.openmrs.User;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.context.ContextAuthenticationException;
 import org.openmrs.api.context.Daemon;
 import org.openmrs.api.db.ContextDAO;
+import org.openmrs.api.db.DAOException;
 import org.openmrs.api.db.FullTextSessionFactory;
+import org.openmrs.api.db.SearchIndexOptions;
+import org.openmrs.api.db.SearchIndexProgress;
 import org.openmrs.api.db.UserDAO;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
@@ -59,6 +83,11 @@ public class HibernateContextDAO implements ContextDAO {
 	
 	private static final Logger log = LoggerFactory.getLogger(HibernateContextDAO.class);
 	
+	/**
+	 * The number of indexed ids looked up with a single query when purging stale documents
+	 */
+	private static final int STALE_DOCUMENT_IDS_PER_QUERY = 1000;
+	
 	/**
 	 * Hibernate session factory
 	 */
@@ -69,6 +98,11 @@ public class HibernateContextDAO implements ContextDAO {
 	
 	private UserDAO userDao;
 	
+	/**
+	 * The progress of the latest rebuild of the search index
+	 */
+	private volatile HibernateSearchIndexProgress searchIndexProgress;
+	
 	/**
 	 * Session factory to use for this DAO. This is usually injected by spring and its application
 	 * context.
@@ -279,15 +313,17 @@ public class HibernateContextDAO implements ContextDAO {
 	/**
 	 * @see org.openmrs.api.context.Context#openSession()
 	 */
-	private boolean participate = false;
+	// per thread, every thread opens and closes a session of its own
+	private final ThreadLocal<Boolean> participate = ThreadLocal.withInitial(() -> false);
 	
 	@Override
 	public void openSession() {
 		log.debug("HibernateContext: Opening Hibernate Session");
 		if (TransactionSynchronizationManager.hasResource(sessionFactory)) {
 			log.debug("Participating in existing session ({})", sessionFactory.hashCode());
-			participate = true;
+			participate.set(true);
 		} else {
+			participate.set(false);
 			log.debug("Registering session with synchronization manager ({})", sessionFactory.hashCode());
 			Session session = sessionFactory.openSession();
 			session.setHibernateFlushMode(FlushMode.MANUAL);
@@ -301,7 +337,7 @@ public class HibernateContextDAO implements ContextDAO {
 	@Override
 	public void closeSession() {
 		log.debug("HibernateContext: closing Hibernate Session");
-		if (!participate) {
+		if (!participate.get()) {
 			log.debug("Unbinding session from synchronization manager (" + sessionFactory.hashCode() + ")");
 			
 			if (TransactionSynchronizationManager.hasResource(sessionFactory)) {
@@ -319,6 +355,7 @@ public class HibernateContextDAO implements ContextDAO {
 		} else {
 			log.debug("Participating in existing session, so not releasing session through synchronization manager");
 		}
+		participate.remove();
 	}
 	
 	/**
@@ -454,10 +491,11 @@ public class HibernateContextDAO implements ContextDAO {
 	public void updateSearchIndexForType(Class<?> type) {
 		//From http://docs.jboss.org/hibernate/search/3.3/reference/en-US/html/manual-index-changes.html#search-batchindex-flushtoindexes
 		FullTextSession session = fullTextSessionFactory.getFullTextSession();
-		session.purgeAll(type);
 		
 		//Prepare session for batch work
 		session.flush();
+		//index pending changes while the changed objects are still attached to the session
+		session.flushToIndexes();
 		session.clear();
 		
 		FlushMode flushMode = session.getHibernateFlushMode();
@@ -471,7 +509,7 @@ public class HibernateContextDAO implements ContextDAO {
 			int index = 0;
 			while (results.next()) {
 				index++;
-				//index each element
+				//index each element, which replaces its document so the index can be searched meanwhile
 				session.index(results.get(0));
 				if (index % 1000 == 0) {
 					//apply changes to indexes
@@ -482,6 +520,8 @@ public class HibernateContextDAO implements ContextDAO {
 			}
 			session.flushToIndexes();
 			session.clear();
+			
+			purgeStaleDocuments(session, type);
 		}
 		finally {
 			session.setHibernateFlushMode(flushMode);
@@ -489,6 +529,64 @@ public class HibernateContextDAO implements ContextDAO {
 		}
 	}
 	
+	/**
+	 * Removes the documents of objects which no longer exist from the index of the given type. This
+	 * takes the place of purging the whole index before rebuilding it, which would leave the index
+	 * empty until the rebuild finished. The ids are read from the terms of the index, which are sorted
+	 * by id, one page per existence check, so that the ids of a large index are never all held at once.
+	 */
+	private void purgeStaleDocuments(FullTextSession session, Class<?> type) {
+		String idName = sessionFactory.getClassMetadata(type).getIdentifierPropertyName();
+		StringRepresentableType<?> idType = (StringRepresentableType<?>) sessionFactory.getClassMetadata(type)
+		        .getIdentifierType();
+		
+		int purged = 0;
+		IndexReaderAccessor readers = session.getSearchFactory().getIndexReaderAccessor();
+		IndexReader reader = readers.open(type);
+		try {
+			Terms terms = MultiFields.getTerms(reader, idName);
+			TermsEnum indexedIds = terms == null ? TermsEnum.EMPTY : terms.iterator();
+			List<Serializable> ids = new ArrayList<>(STALE_DOCUMENT_IDS_PER_QUERY);
+			for (BytesRef id = indexedIds.next(); id != null; id = indexedIds.next()) {
+				ids.add((Serializable) idType.fromStringValue(id.utf8ToString()));
+				if (ids.size() == STALE_DOCUMENT_IDS_PER_QUERY) {
+					purged += purgeStaleDocuments(session, type, idName, ids);
+					ids.clear();
+				}
+			}
+			purged += purgeStaleDocuments(session, type, idName, ids);
+		}
+		catch (IOException e) {
+			throw new DAOException("Failed to read the search index of " + type.getName(), e);
+		}
+		finally {
+			readers.close(reader);
+		}
+		session.flushToIndexes();
+		if (purged > 0) {
+			log.debug("Purged {} stale documents from the search index of {}", purged, type.getName());
+		}
+	}
+	
+	/**
+	 * @return the number of purged documents
+	 */
+	private int purgeStaleDocuments(FullTextSession session, Class<?> type, String idName, List<Serializable> ids) {
+		if (ids.isEmpty()) {
+			return 0;
+		}
+		Set<Object> existingIds = new HashSet<>(session.createCriteria(type).setProjection(Projections.id()).add(
+		    Restrictions.in(idName, ids)).list());
+		int purged = 0;
+		for (Serializable id : ids) {
+			if (!existingIds.contains(id)) {
+				session.purge(type, id);
+				purged++;
+			}
+		}
+		return purged;
+	}
+	
 	/**
 	 * @see org.openmrs.api.db.ContextDAO#updateSearchIndexForObject(java.lang.Object)
 	 */
@@ -517,9 +615,17 @@ public class HibernateContextDAO implements ContextDAO {
 	 */
 	@Override
 	public void updateSearchIndex() {
+		updateSearchIndex(new SearchIndexOptions());
+	}
+	
+	/**
+	 * @see ContextDAO#updateSearchIndex(SearchIndexOptions)
+	 */
+	@Override
+	public void updateSearchIndex(SearchIndexOptions options) {
 		try {
 			log.info("Updating the search index... It may take a few minutes.");
-			fullTextSessionFactory.getFullTextSession().createIndexer().startAndWait();
+			rebuildSearchIndex(options, startSearchIndexRebuild());
 			GlobalProperty gp = Context.getAdministrationService().getGlobalPropertyObject(
 			    OpenmrsConstants.GP_SEARCH_INDEX_VERSION);
 			if (gp == null) {
@@ -539,12 +645,161 @@ public class HibernateContextDAO implements ContextDAO {
 	 */
 	@Override
 	public Future<?> updateSearchIndexAsync() {
+		return updateSearchIndexAsync(new SearchIndexOptions());
+	}
+	
+	/**
+	 * @see ContextDAO#updateSearchIndexAsync(SearchIndexOptions)
+	 */
+	@Override
+	public Future<?> updateSearchIndexAsync(SearchIndexOptions options) {
 		try {
 			log.info("Started asynchronously updating the search index...");
-			return fullTextSessionFactory.getFullTextSession().createIndexer().start();
+			HibernateSearchIndexProgress progress = startSearchIndexRebuild();
+			ExecutorService executor = Executors.newSingleThreadExecutor();
+			try {
+				return executor.submit(() -> {
+					rebuildSearchIndex(options, progress);
+					return null;
+				});
+			}
+			finally {
+				executor.shutdown();
+			}
 		}
 		catch (Exception e) {
 			throw new RuntimeException("Failed to start asynchronous search index update", e);
 		}
 	}
+	
+	/**
+	 * @see ContextDAO#getSearchIndexProgress()
+	 */
+	@Override
+	public SearchIndexProgress getSearchIndexProgress() {
+		return searchIndexProgress;
+	}
+	
+	/**
+	 * Lists the indexed types and starts tracking the progress of a rebuild of their indexes.
+	 * Subclasses are left out if their parent class is indexed, since they are indexed with it.
+	 */
+	private synchronized HibernateSearchIndexProgress startSearchIndexRebuild() {
+		if (searchIndexProgress != null && !searchIndexProgress.isDone()) {
+			throw new DAOException("The search index is already being updated");
+		}
+		
+		Set<Class<?>> indexedTypes = fullTextSessionFactory.getFullTextSession().getSearchFactory().getIndexedTypes();
+		List<Class<?>> types = new ArrayList<>();
+		for (Class<?> type : indexedTypes) {
+			boolean indexedWithParent = false;
+			for (Class<?> parent = type.getSuperclass(); parent != null; parent = parent.getSuperclass()) {
+				indexedWithParent |= indexedTypes.contains(parent);
+			}
+			if (!indexedWithParent) {
+				types.add(type);
+			}
+		}
+		types.sort(Comparator.comparing(Class::getName));
+		
+		searchIndexProgress = new HibernateSearchIndexProgress(types);
+		return searchIndexProgress;
+	}
+	
+	private void rebuildSearchIndex(SearchIndexOptions options, HibernateSearchIndexProgress progress) throws Exception {
+		try {
+			for (Class<?> type : progress.getTypes()) {
+				rebuildSearchIndex(type, options.getTypeOptions(type), progress);
+			}
+			progress.finish(null);
+			log.info("Indexed {} objects at {} documents per second", progress.getIndexedCount(), String.format("%.1f",
+			    progress.getDocumentsPerSecond()));
+		}
+		catch (Exception | Error e) {
+			progress.finish(e);
+			throw e;
+		}
+	}
+	
+	/**
+	 * Indexes all objects of the given type, replacing their documents one by one. The ids are read
+	 * by the calling thread and handed out in batches to worker threads, which load and index each
+	 * batch in a session and transaction of their own.
+	 */
+	private void rebuildSearchIndex(Class<?> type, SearchIndexOptions options, HibernateSearchIndexProgress progress)
+	        throws Exception {
+		String idName = sessionFactory.getClassMetadata(type).getIdentifierPropertyName();
+		ExecutorService executor = Executors.newFixedThreadPool(options.getThreads());
+		//bounds the number of batches waiting for a thread, so that the ids are not all read up front
+		Semaphore queuedBatches = new Semaphore(options.getThreads() * 2);
+		List<Future<?>> batches = new ArrayList<>();
+		try (Session session = sessionFactory.openSession()) {
+			session.setDefaultReadOnly(true);
+			progress.setTotalCount(type, ((Number) session.createCriteria(type).setProjection(Projections.rowCount())
+			        .uniqueResult()).longValue());
+			
+			ScrollableResults results = session.createCriteria(type).setProjection(Projections.id()).setFetchSize(
+			    options.getIdFetchSize()).scroll(ScrollMode.FORWARD_ONLY);
+			List<Serializable> ids = new ArrayList<>(options.getBatchSize());
+			boolean more = results.next();
+			while (more) {
+				ids.add((Serializable) results.get(0));
+				more = results.next();
+				if (ids.size() == options.getBatchSize() || !more) {
+					List<Serializable> batch = ids;
+					queuedBatches.acquire();
+					batches.add(executor.submit(() -> {
+						try {
+							progress.addIndexed(type, indexBatch(type, idName, batch));
+						}
+						finally {
+							queuedBatches.release();
+						}
+						return null;
+					}));
+					ids = new ArrayList<>(options.getBatchSize());
+				}
+			}
+			
+			for (Future<?> batch : batches) {
+				batch.get();
+			}
+			
+			FullTextSession fullTextSession = Search.getFullTextSession(session);
+			fullTextSession.setCacheMode(CacheMode.IGNORE);
+			purgeStaleDocuments(fullTextSession, type);
+		}
+		catch (ExecutionException e) {
+			throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * @return the number of indexed objects
+	 */
+	private int indexBatch(Class<?> type, String idName, List<Serializable> ids) {
+		try (Session session = sessionFactory.openSession()) {
+			FullTextSession fullTextSession = Search.getFullTextSession(session);
+			fullTextSession.setHibernateFlushMode(FlushMode.MANUAL);
+			fullTextSession.setCacheMode(CacheMode.IGNORE);
+			fullTextSession.setDefaultReadOnly(true);
+			Transaction transaction = fullTextSession.beginTransaction();
+			try {
+				List<?> objects = fullTextSession.createCriteria(type).add(Restrictions.in(idName, ids)).list();
+				for (Object object : objects) {
+					fullTextSession.index(object);
+				}
+				fullTextSession.flushToIndexes();
+				transaction.commit();
+				return objects.size();
+			}
+			catch (RuntimeException e) {
+				transaction.rollback();
+				throw e;
+			}
+		}
+	}
 }
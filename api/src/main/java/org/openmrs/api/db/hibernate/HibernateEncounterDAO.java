@@ -13,13 +13,19 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Criteria;
 import org.hibernate.FlushMode;
 import org.hibernate.SQLQuery;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.Conjunction;
@@ -28,6 +34,9 @@ import org.hibernate.criterion.MatchMode;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.hibernate.sql.JoinType;
 import org.openmrs.Cohort;
 import org.openmrs.Encounter;
@@ -332,6 +341,82 @@ public class HibernateEncounterDAO implements EncounterDAO {
 		return encountersBypatient;
 	}
 	
+	/**
+	 * @see EncounterDAO#forEachPatientEncounters(Cohort, int, BiConsumer)
+	 */
+	@Override
+	public void forEachPatientEncounters(Cohort patients, int chunkSize, BiConsumer<Integer, List<Encounter>> consumer) {
+		Session session = sessionFactory.getCurrentSession();
+		// the objects the caller loaded before stay attached, only those loaded from here on are evicted
+		Set<EntityKey> attachedBefore = getEntityKeys(session);
+		List<Integer> patientIds;
+		if (patients != null) {
+			Set<Integer> memberIds = new TreeSet<>();
+			patients.getMemberships().forEach(m -> memberIds.add(m.getPatientId()));
+			patientIds = new ArrayList<>(memberIds);
+		} else {
+			@SuppressWarnings("unchecked")
+			List<Integer> ids = session.createQuery(
+			    "select distinct e.patient.personId from Encounter e where e.voided = false").list();
+			patientIds = ids;
+			Collections.sort(patientIds);
+		}
+		
+		for (int start = 0; start < patientIds.size(); start += chunkSize) {
+			Criteria criteria = createEncounterCriteria(patientIds.subList(start, Math.min(start + chunkSize, patientIds
+			        .size())));
+			ScrollableResults results = criteria.scroll(ScrollMode.FORWARD_ONLY);
+			try {
+				// the encounters are ordered by patient, so each patient's encounters are adjacent
+				Integer patientId = null;
+				List<Encounter> encounters = new ArrayList<>();
+				while (results.next()) {
+					Encounter encounter = (Encounter) results.get(0);
+					Integer encounterPatientId = encounter.getPatient().getPersonId();
+					if (!encounterPatientId.equals(patientId)) {
+						if (patientId != null) {
+							consumer.accept(patientId, encounters);
+						}
+						patientId = encounterPatientId;
+						encounters = new ArrayList<>();
+					}
+					encounters.add(encounter);
+				}
+				if (patientId != null) {
+					consumer.accept(patientId, encounters);
+				}
+			}
+			finally {
+				results.close();
+			}
+			// free memory since the chunk is processed, a cohort may have hundreds of thousands of patients
+			evictAllExcept(session, attachedBefore);
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private Set<EntityKey> getEntityKeys(Session session) {
+		return new HashSet<>(session.getStatistics().getEntityKeys());
+	}
+	
+	/**
+	 * Evicts the objects which were loaded into the session after the given ones
+	 * 
+	 * @param session the session
+	 * @param keep the keys of the objects to keep in the session
+	 */
+	private void evictAllExcept(Session session, Set<EntityKey> keep) {
+		PersistenceContext persistenceContext = ((SessionImplementor) session).getPersistenceContext();
+		for (EntityKey key : getEntityKeys(session)) {
+			if (!keep.contains(key)) {
+				Object entity = persistenceContext.getEntity(key);
+				if (entity != null) {
+					session.evict(entity);
+				}
+			}
+		}
+	}
+	
 	/**
 	 * Create the criteria for fetching all encounters based on cohort
 	 *
@@ -339,19 +424,33 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	 * @return a map of patient with their encounters
 	 */
 	private Criteria createEncounterCriteria(Cohort patients) {
+		// only include this where clause if patients were passed in
+		if (patients == null) {
+			return createEncounterCriteria((List<Integer>) null);
+		}
+		List<Integer> patientIds = new ArrayList<>();
+		patients.getMemberships().forEach(m -> patientIds.add(m.getPatientId()));
+		return createEncounterCriteria(patientIds);
+	}
+	
+	/**
+	 * Create the criteria for fetching the non-voided encounters of the given patients, ordered by
+	 * ascending patient id and most recent first
+	 *
+	 * @param patientIds the ids of the patients or null for all patients
+	 * @return the criteria
+	 */
+	private Criteria createEncounterCriteria(List<Integer> patientIds) {
 		Criteria criteria = sessionFactory.getCurrentSession().createCriteria(Encounter.class);
 		criteria.setCacheMode(org.hibernate.CacheMode.IGNORE);
 		
-		// only include this where clause if patients were passed in
-		if (patients != null) {
-            ArrayList<Integer> patientIds = new ArrayList<>();
-			patients.getMemberships().forEach(m -> patientIds.add(m.getPatientId()));
+		if (patientIds != null) {
 			criteria.add(Restrictions.in("patient.personId", patientIds));
 		}
 		
 		criteria.add(Restrictions.eq("voided", false));
 		
-		criteria.addOrder(Order.desc("patient.personId"));
+		criteria.addOrder(Order.asc("patient.personId"));
 		criteria.addOrder(Order.desc("encounterDatetime"));
 		return criteria;
 	}
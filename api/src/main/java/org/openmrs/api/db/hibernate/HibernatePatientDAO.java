@@ -18,10 +18,10 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.document.Document;
 import org.hibernate.Criteria;
 import org.hibernate.Query;
 import org.hibernate.SQLQuery;
@@ -29,6 +29,7 @@ import org.hibernate.SessionFactory;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Restrictions;
 import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.search.FullTextQuery;
 import org.openmrs.Allergies;
 import org.openmrs.Allergy;
 import org.openmrs.Location;
@@ -36,14 +37,16 @@ import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
 import org.openmrs.PatientIdentifierType.UniquenessBehavior;
+import org.openmrs.PatientSearchDocument;
 import org.openmrs.Person;
 import org.openmrs.PersonAttribute;
 import org.openmrs.PersonName;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.DAOException;
+import org.openmrs.api.db.FullTextSessionFactory;
 import org.openmrs.api.db.PatientDAO;
 import org.openmrs.api.db.hibernate.search.LuceneQuery;
-import org.openmrs.collection.ListPart;
+import org.openmrs.api.db.hibernate.search.PatientSearchIndex;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.slf4j.Logger;
@@ -60,11 +63,21 @@ public class HibernatePatientDAO implements PatientDAO {
 	
 	private static final Logger log = LoggerFactory.getLogger(HibernatePatientDAO.class);
 	
+	/**
+	 * The number of patients loaded with a single query when materializing search results
+	 */
+	private static final int PATIENT_IDS_PER_QUERY = 1000;
+	
 	/**
 	 * Hibernate session factory
 	 */
 	private SessionFactory sessionFactory;
 	
+	/**
+	 * Turns identifier searches into lucene queries, replaced when the global properties change
+	 */
+	private volatile PatientIdentifierQueryTransformer identifierQueryTransformer;
+	
 	/**
 	 * Set session factory
 	 *
@@ -692,7 +705,9 @@ public class HibernatePatientDAO implements PatientDAO {
 		LuceneQuery<PersonName> nameQuery = personLuceneQuery.getPatientNameQuery(tmpQuery, includeVoided, identifierQuery);
 		LuceneQuery<PersonAttribute> attributeQuery = personLuceneQuery.getPatientAttributeQuery(tmpQuery, includeVoided, nameQuery);
 
-		return identifierQuery.resultSize() + nameQuery.resultSize() + attributeQuery.resultSize();
+		// each query skips the patients matched by the previous ones, so the counts add up
+		return (long) (identifierQuery.listSkipSameValues().size() + nameQuery.listSkipSameValues().size()
+		        + attributeQuery.listSkipSameValues().size());
 	}
 
     private List<Patient> findPatients(String query, boolean includeVoided) {
@@ -713,7 +728,7 @@ public class HibernatePatientDAO implements PatientDAO {
 		}
 		tmpQuery = LuceneQuery.escapeQuery(tmpQuery);
 		
-		List<Patient> patients = new LinkedList<>();
+		List<Integer> patientIds = new ArrayList<>();
 		
 		String minChars = Context.getAdministrationService().getGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_MIN_SEARCH_CHARACTERS);
 		
@@ -721,25 +736,12 @@ public class HibernatePatientDAO implements PatientDAO {
 			minChars = "" + OpenmrsConstants.GLOBAL_PROPERTY_DEFAULT_MIN_SEARCH_CHARACTERS;
 		}
 		if (tmpQuery.length() < Integer.valueOf(minChars)) {
-			return patients;
+			return new LinkedList<>();
 		}
 		LuceneQuery<PatientIdentifier> identifierQuery = getPatientIdentifierLuceneQuery(tmpQuery, identifierTypes, matchExactly);
+		addPatientIds(patientIds, identifierQuery);
 		
-		long identifiersSize = identifierQuery.resultSize();
-		if (identifiersSize > tmpStart) {
-			ListPart<Object[]> patientIdentifiers = identifierQuery.listPartProjection(tmpStart, tmpLength, "patient.personId");
-			patientIdentifiers.getList().forEach(patientIdentifier -> patients.add(getPatient((Integer) patientIdentifier[0])));
-			
-			tmpLength -= patientIdentifiers.getList().size();
-			tmpStart = 0;
-		} else {
-			tmpStart -= (int) identifiersSize;
-		}
-		
-		if (tmpLength == 0) {
-			return patients;
-		}
-		return patients;
+		return getPatientsInOrder(getPart(patientIds, tmpStart, tmpLength));
 	}
 	
 	public List<Patient> findPatients(String query, boolean includeVoided, Integer start, Integer length){
@@ -754,7 +756,7 @@ public class HibernatePatientDAO implements PatientDAO {
 		}
 		query = LuceneQuery.escapeQuery(query);
 
-		List<Patient> patients = new LinkedList<>();
+		List<Integer> patientIds = new ArrayList<>();
 
 		String minChars = Context.getAdministrationService().getGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_MIN_SEARCH_CHARACTERS);
 
@@ -762,51 +764,106 @@ public class HibernatePatientDAO implements PatientDAO {
 			minChars = "" + OpenmrsConstants.GLOBAL_PROPERTY_DEFAULT_MIN_SEARCH_CHARACTERS;
 		}
 		if (query.length() < Integer.valueOf(minChars)) {
-			return patients;
+			return new LinkedList<>();
 		}
 
+		// the person ids each query lists were collected when it skipped the patients matched by the
+		// previous queries, so the results are ranked by concatenating them without running them again
+		int end = tmpStart + tmpLength;
 		LuceneQuery<PatientIdentifier> identifierQuery = getPatientIdentifierLuceneQuery(query, includeVoided, false);
+		addPatientIds(patientIds, identifierQuery);
 
-		long identifiersSize = identifierQuery.resultSize();
-		if (identifiersSize > tmpStart) {
-			ListPart<Object[]> patientIdentifiers = identifierQuery.listPartProjection(tmpStart, tmpLength, "patient.personId");
-			patientIdentifiers.getList().forEach(patientIdentifier -> patients.add(getPatient((Integer) patientIdentifier[0])));
+		if (patientIds.size() < end) {
+			PersonLuceneQuery personLuceneQuery = new PersonLuceneQuery(sessionFactory);
 
-			tmpLength -= patientIdentifiers.getList().size();
-			tmpStart = 0;
-		} else {
-			tmpStart -= (int) identifiersSize;
-		}
+			LuceneQuery<PersonName> nameQuery = personLuceneQuery.getPatientNameQuery(query, includeVoided, identifierQuery);
+			addPatientIds(patientIds, nameQuery);
 
-		if (tmpLength == 0) {
-			return patients;
+			if (patientIds.size() < end) {
+				LuceneQuery<PersonAttribute> attributeQuery = personLuceneQuery.getPatientAttributeQuery(query, includeVoided, nameQuery);
+				addPatientIds(patientIds, attributeQuery);
+			}
 		}
 
-		PersonLuceneQuery personLuceneQuery = new PersonLuceneQuery(sessionFactory);
-
-		LuceneQuery<PersonName> nameQuery = personLuceneQuery.getPatientNameQuery(query, includeVoided, identifierQuery);
-		long namesSize = nameQuery.resultSize();
-		if (namesSize > tmpStart) {
-			ListPart<Object[]> personNames = nameQuery.listPartProjection(tmpStart, tmpLength, "person.personId");
-			personNames.getList().forEach(personName -> patients.add(getPatient((Integer) personName[0])));
-
-			tmpLength -= personNames.getList().size();
-			tmpStart = 0;
-		} else {
-			tmpStart -= (int) namesSize;
+		return getPatientsInOrder(getPart(patientIds, tmpStart, tmpLength));
+	}
+	
+	private void addPatientIds(List<Integer> patientIds, LuceneQuery<?> luceneQuery) {
+		for (Object personId : luceneQuery.listSkipSameValues()) {
+			patientIds.add((Integer) personId);
 		}
-
-		if (tmpLength == 0) {
+	}
+	
+	private List<Integer> getPart(List<Integer> patientIds, int start, int length) {
+		if (start >= patientIds.size()) {
+			return Collections.emptyList();
+		}
+		return patientIds.subList(start, Math.min(start + length, patientIds.size()));
+	}
+	
+	/**
+	 * Searches the denormalized patient search index, the returned documents hold what is needed to
+	 * display the patients so none of them is loaded from the database.
+	 * 
+	 * @see org.openmrs.api.db.PatientDAO#getPatientSearchDocuments(String, boolean, Integer, Integer)
+	 * @see PatientSearchDocument
+	 * <strong>Should</strong> find patients by name and identifier without loading them
+	 * <strong>Should</strong> not find voided patients unless asked to
+	 */
+	@Override
+	public List<PatientSearchDocument> getPatientSearchDocuments(String query, boolean includeVoided, Integer start,
+	        Integer length) throws DAOException {
+		if (PatientSearchIndex.getWords(query).isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		FullTextQuery fullTextQuery = Context.getRegisteredComponent("fullTextSessionFactory", FullTextSessionFactory.class)
+		        .getFullTextSession().createFullTextQuery(PatientSearchIndex.newQuery(query, includeVoided), Patient.class);
+		fullTextQuery.setProjection(FullTextQuery.ID, FullTextQuery.DOCUMENT);
+		fullTextQuery.setFirstResult(start == null || start < 0 ? 0 : start);
+		Integer maxLength = HibernatePersonDAO.getMaximumSearchResults();
+		fullTextQuery.setMaxResults(length == null || length > maxLength ? maxLength : length);
+		
+		List<PatientSearchDocument> documents = new ArrayList<>();
+		for (Object result : fullTextQuery.list()) {
+			Object[] row = (Object[]) result;
+			documents.add(PatientSearchIndex.fromDocument((Integer) row[0], (Document) row[1]));
+		}
+		return documents;
+	}
+	
+	/**
+	 * Loads the patients with the given ids in as few queries as possible, their names, addresses
+	 * and attributes are batch fetched by hibernate.
+	 * 
+	 * @param patientIds the ids of the patients in the order to return them in
+	 * @return the patients in the order of the given ids, leaving out ids of patients that don't
+	 *         exist
+	 */
+	private List<Patient> getPatientsInOrder(List<Integer> patientIds) {
+		List<Patient> patients = new LinkedList<>();
+		if (patientIds.isEmpty()) {
 			return patients;
 		}
-
-		LuceneQuery<PersonAttribute> attributeQuery = personLuceneQuery.getPatientAttributeQuery(query, includeVoided, nameQuery);
-		long attributesSize = attributeQuery.resultSize();
-		if (attributesSize > tmpStart) {
-			ListPart<Object[]> personAttributes = attributeQuery.listPartProjection(tmpStart, tmpLength, "person.personId");
-			personAttributes.getList().forEach(personAttribute -> patients.add(getPatient((Integer) personAttribute[0])));
+		
+		Map<Integer, Patient> patientsById = new HashMap<>();
+		for (int i = 0; i < patientIds.size(); i += PATIENT_IDS_PER_QUERY) {
+			Query query = sessionFactory.getCurrentSession().createQuery(
+			    "from Patient p where p.patientId in (:ids)");
+			query.setParameterList("ids", patientIds.subList(i, Math.min(i + PATIENT_IDS_PER_QUERY, patientIds.size())));
+			for (Object patient : query.list()) {
+				patientsById.put(((Patient) patient).getPatientId(), (Patient) patient);
+			}
+		}
+		
+		for (Integer patientId : patientIds) {
+			Patient patient = patientsById.get(patientId);
+			if (patient != null) {
+				patients.add(patient);
+			} else {
+				log.debug("Skipping patient {} found in the search index but not in the database", patientId);
+			}
 		}
-
 		return patients;
 	}
 	private LuceneQuery<PatientIdentifier> getPatientIdentifierLuceneQuery(String query, List<PatientIdentifierType> identifierTypes, boolean matchExactly) {
@@ -823,9 +880,9 @@ public class HibernatePatientDAO implements PatientDAO {
 	}
 	
 	private LuceneQuery<PatientIdentifier> getPatientIdentifierLuceneQuery(String paramQuery, boolean matchExactly) {
-		String query = removeIdentifierPadding(paramQuery);
-		List<String> tokens = tokenizeIdentifierQuery(query);
-		query = StringUtils.join(tokens, " OR ");
+		PatientIdentifierQueryTransformer transformer = getIdentifierQueryTransformer();
+		List<String> tokens = transformer.tokenize(transformer.removePadding(paramQuery));
+		String query = StringUtils.join(tokens, " OR ");
 		List<String> fields = new ArrayList<>();
 		fields.add("identifierPhrase");
 		fields.add("identifierType");
@@ -857,69 +914,21 @@ public class HibernatePatientDAO implements PatientDAO {
         return luceneQuery;
     }
 
-	private String removeIdentifierPadding(String query) {
-		String regex = Context.getAdministrationService().getGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_PATIENT_IDENTIFIER_REGEX, "");
-		if (Pattern.matches("^\\^.{1}\\*.*$", regex)) {
-			String padding = regex.substring(regex.indexOf("^") + 1, regex.indexOf("*"));
-			Pattern pattern = Pattern.compile("^" + padding + "+");
-			query = pattern.matcher(query).replaceFirst("");
-		}
-		return query;
-	}
-
 	/**
-	 * Copied over from PatientSearchCriteria...
-	 *
-	 * I have no idea how it is supposed to work, but tests pass...
-	 *
-	 * @param query
-	 * @return
-	 * @see PatientSearchCriteria
+	 * Returns the transformer for the current identifier regex and search pattern global properties,
+	 * creating a new one only if they changed since the last search
 	 */
-	private List<String> tokenizeIdentifierQuery(String query) {
-		List<String> searchPatterns = new ArrayList<>();
-
-		String patternSearch = Context.getAdministrationService().getGlobalProperty(
-				OpenmrsConstants.GLOBAL_PROPERTY_PATIENT_IDENTIFIER_SEARCH_PATTERN, "");
-
-		if (StringUtils.isBlank(patternSearch)) {
-			searchPatterns.add(query);
-		} else {
-			// split the pattern before replacing in case the user searched on a comma
-			// replace the @SEARCH@, etc in all elements
-			for (String pattern : patternSearch.split(",")) {
-				searchPatterns.add(replaceSearchString(pattern, query));
-			}
-		}
-		return searchPatterns;
-	}
-
-	/**
-	 * Copied over from PatientSearchCriteria...
-	 *
-	 * I have no idea how it is supposed to work, but tests pass...
-	 *
-	 * Puts @SEARCH@, @SEARCH-1@, and @CHECKDIGIT@ into the search string
-	 *
-	 * @param regex the admin-defined search string containing the @..@'s to be replaced
-	 * @param identifierSearched the user entered search string
-	 * @return substituted search strings.
-	 *
-	 * @see PatientSearchCriteria#replaceSearchString(String, String)
-	 */
-	private String replaceSearchString(String regex, String identifierSearched) {
-		String returnString = regex.replaceAll("@SEARCH@", identifierSearched);
-		if (identifierSearched.length() > 1) {
-			// for 2 or more character searches, we allow regex to use last character as check digit
-			returnString = returnString.replaceAll("@SEARCH-1@", identifierSearched.substring(0,
-					identifierSearched.length() - 1));
-			returnString = returnString.replaceAll("@CHECKDIGIT@", identifierSearched
-					.substring(identifierSearched.length() - 1));
-		} else {
-			returnString = returnString.replaceAll("@SEARCH-1@", "");
-			returnString = returnString.replaceAll("@CHECKDIGIT@", "");
-		}
-		return returnString;
+	private PatientIdentifierQueryTransformer getIdentifierQueryTransformer() {
+		String identifierRegex = Context.getAdministrationService().getGlobalProperty(
+		    OpenmrsConstants.GLOBAL_PROPERTY_PATIENT_IDENTIFIER_REGEX, "");
+		String searchPattern = Context.getAdministrationService().getGlobalProperty(
+		    OpenmrsConstants.GLOBAL_PROPERTY_PATIENT_IDENTIFIER_SEARCH_PATTERN, "");
+		PatientIdentifierQueryTransformer transformer = identifierQueryTransformer;
+		if (transformer == null || !transformer.isFor(identifierRegex, searchPattern)) {
+			transformer = new PatientIdentifierQueryTransformer(identifierRegex, searchPattern);
+			identifierQueryTransformer = transformer;
+		}
+		return transformer;
 	}
 
     /**
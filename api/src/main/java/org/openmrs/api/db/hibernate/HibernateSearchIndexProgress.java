@@ -0,0 +1,113 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openmrs.api.db.SearchIndexProgress;
+
+/**
+ * Counts the objects indexed by {@link HibernateContextDAO#updateSearchIndex(org.openmrs.api.db.SearchIndexOptions)}
+ * while the rebuild runs.
+ *
+ * @since 2.5.0
+ */
+class HibernateSearchIndexProgress implements SearchIndexProgress {
+
+	private final long started = System.currentTimeMillis();
+
+	private volatile long finished;
+
+	private volatile Throwable error;
+
+	private final Map<Class<?>, AtomicLong> totalCounts = new LinkedHashMap<>();
+
+	private final Map<Class<?>, AtomicLong> indexedCounts = new LinkedHashMap<>();
+
+	private final AtomicLong indexedCount = new AtomicLong();
+
+	/**
+	 * @param types the types to rebuild, which cannot change once the rebuild started
+	 */
+	HibernateSearchIndexProgress(List<Class<?>> types) {
+		for (Class<?> type : types) {
+			totalCounts.put(type, new AtomicLong(-1));
+			indexedCounts.put(type, new AtomicLong());
+		}
+	}
+
+	void setTotalCount(Class<?> type, long count) {
+		totalCounts.get(type).set(count);
+	}
+
+	void addIndexed(Class<?> type, int count) {
+		indexedCounts.get(type).addAndGet(count);
+		indexedCount.addAndGet(count);
+	}
+
+	void finish(Throwable error) {
+		this.error = error;
+		this.finished = System.currentTimeMillis();
+	}
+
+	@Override
+	public Date getStarted() {
+		return new Date(started);
+	}
+
+	@Override
+	public Date getFinished() {
+		return finished == 0 ? null : new Date(finished);
+	}
+
+	@Override
+	public boolean isDone() {
+		return finished != 0;
+	}
+
+	@Override
+	public Throwable getError() {
+		return error;
+	}
+
+	@Override
+	public List<Class<?>> getTypes() {
+		return Collections.unmodifiableList(new ArrayList<>(totalCounts.keySet()));
+	}
+
+	@Override
+	public long getTotalCount(Class<?> type) {
+		AtomicLong count = totalCounts.get(type);
+		return count == null ? 0 : count.get();
+	}
+
+	@Override
+	public long getIndexedCount(Class<?> type) {
+		AtomicLong count = indexedCounts.get(type);
+		return count == null ? 0 : count.get();
+	}
+
+	@Override
+	public long getIndexedCount() {
+		return indexedCount.get();
+	}
+
+	@Override
+	public double getDocumentsPerSecond() {
+		long end = finished == 0 ? System.currentTimeMillis() : finished;
+		return indexedCount.get() * 1000.0 / Math.max(end - started, 1);
+	}
+}
@@ -20,10 +20,15 @@ import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.MatchMode;
 import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.openmrs.Concept;
 import org.openmrs.Location;
 import org.openmrs.Patient;
+import org.openmrs.User;
 import org.openmrs.Visit;
 import org.openmrs.VisitAttribute;
 import org.openmrs.VisitAttributeType;
@@ -288,10 +293,70 @@ public class HibernateVisitDAO implements VisitDAO {
 	 */
 	@Override
 	public Visit getNextVisit(Visit previousVisit, Collection<VisitType> visitTypes, Date maximumStartDate) {
+		Criteria criteria = createActiveVisitCriteria((previousVisit != null) ? previousVisit.getVisitId() : null,
+		    visitTypes, maximumStartDate);
+		criteria.addOrder(Order.asc("visitId")).setMaxResults(1);
+		
+		return (Visit) criteria.uniqueResult();
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.VisitDAO#getActiveVisitIds(Integer, Collection, Date, int)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<Integer> getActiveVisitIds(Integer afterVisitId, Collection<VisitType> visitTypes, Date maximumStartDate,
+	        int maxResults) {
+		Criteria criteria = createActiveVisitCriteria(afterVisitId, visitTypes, maximumStartDate);
+		criteria.setProjection(Projections.property("visitId")).addOrder(Order.asc("visitId")).setMaxResults(maxResults);
+		
+		return criteria.list();
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.VisitDAO#getActiveVisitCount(Collection, Date)
+	 */
+	@Override
+	public long getActiveVisitCount(Collection<VisitType> visitTypes, Date maximumStartDate) {
+		Criteria criteria = createActiveVisitCriteria(null, visitTypes, maximumStartDate);
+		criteria.setProjection(Projections.rowCount());
+		
+		return (Long) criteria.uniqueResult();
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.VisitDAO#stopVisits(Collection, Date, User, Date)
+	 */
+	@Override
+	public int stopVisits(Collection<Integer> visitIds, Date stopDatetime, User changedBy, Date dateChanged) {
+		if (visitIds.isEmpty()) {
+			return 0;
+		}
+		Session session = getCurrentSession();
+		int stopped = session.createQuery(
+		    "update Visit set stopDatetime = :stopDatetime, changedBy = :changedBy, dateChanged = :dateChanged "
+		            + "where visitId in (:visitIds) and stopDatetime is null").setParameter("stopDatetime", stopDatetime)
+		        .setParameter("changedBy", changedBy).setParameter("dateChanged", dateChanged).setParameterList("visitIds",
+		            visitIds).executeUpdate();
+		
+		PersistenceContext persistenceContext = ((SessionImplementor) session).getPersistenceContext();
+		for (Object key : session.getStatistics().getEntityKeys()) {
+			EntityKey entityKey = (EntityKey) key;
+			if (Visit.class.getName().equals(entityKey.getEntityName()) && visitIds.contains(entityKey.getIdentifier())) {
+				Object visit = persistenceContext.getEntity(entityKey);
+				if (visit != null) {
+					session.evict(visit);
+				}
+			}
+		}
+		return stopped;
+	}
+	
+	private Criteria createActiveVisitCriteria(Integer afterVisitId, Collection<VisitType> visitTypes,
+	        Date maximumStartDate) {
 		Criteria criteria = getCurrentSession().createCriteria(Visit.class);
 		criteria.add(Restrictions.eq("voided", false)).add(
-		    Restrictions.gt("visitId", (previousVisit != null) ? previousVisit.getVisitId() : 0)).addOrder(
-		    Order.asc("visitId")).add(Restrictions.isNull("stopDatetime")).setMaxResults(1);
+		    Restrictions.gt("visitId", (afterVisitId != null) ? afterVisitId : 0)).add(Restrictions.isNull("stopDatetime"));
 		if (maximumStartDate != null) {
 			criteria.add(Restrictions.le("startDatetime", maximumStartDate));
 		}
@@ -300,6 +365,6 @@ public class HibernateVisitDAO implements VisitDAO {
 			criteria.add(Restrictions.in("visitType", visitTypes));
 		}
 		
-		return (Visit) criteria.uniqueResult();
+		return criteria;
 	}
 }
@@ -0,0 +1,129 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openmrs.util.OpenmrsConstants;
+
+/**
+ * Turns what a user typed into the identifier queries to run, as configured by the
+ * {@link OpenmrsConstants#GLOBAL_PROPERTY_PATIENT_IDENTIFIER_REGEX} and
+ * {@link OpenmrsConstants#GLOBAL_PROPERTY_PATIENT_IDENTIFIER_SEARCH_PATTERN} global properties. All
+ * patterns are compiled when the transformer is created, so a transformer should be kept for as
+ * long as the global properties don't change.
+ *
+ * @since 2.5.0
+ */
+class PatientIdentifierQueryTransformer {
+
+	private static final Pattern PADDING_REGEX = Pattern.compile("^\\^.{1}\\*.*$");
+
+	private static final Pattern SEARCH = Pattern.compile("@SEARCH@", Pattern.LITERAL);
+
+	private static final Pattern SEARCH_MINUS_ONE = Pattern.compile("@SEARCH-1@", Pattern.LITERAL);
+
+	private static final Pattern CHECK_DIGIT = Pattern.compile("@CHECKDIGIT@", Pattern.LITERAL);
+
+	private final String identifierRegex;
+
+	private final String searchPattern;
+
+	private final Pattern padding;
+
+	private final List<String> searchPatterns;
+
+	/**
+	 * @param identifierRegex the value of the identifier regex global property
+	 * @param searchPattern the value of the identifier search pattern global property
+	 */
+	PatientIdentifierQueryTransformer(String identifierRegex, String searchPattern) {
+		this.identifierRegex = identifierRegex;
+		this.searchPattern = searchPattern;
+
+		if (identifierRegex != null && PADDING_REGEX.matcher(identifierRegex).matches()) {
+			String paddingCharacters = identifierRegex.substring(identifierRegex.indexOf('^') + 1, identifierRegex
+			        .indexOf('*'));
+			padding = Pattern.compile("^" + paddingCharacters + "+");
+		} else {
+			padding = null;
+		}
+
+		if (StringUtils.isBlank(searchPattern)) {
+			searchPatterns = Collections.emptyList();
+		} else {
+			List<String> patterns = new ArrayList<>();
+			// split the pattern before replacing in case the user searched on a comma
+			Collections.addAll(patterns, searchPattern.split(","));
+			searchPatterns = Collections.unmodifiableList(patterns);
+		}
+	}
+
+	/**
+	 * @return true if this transformer was created for the given global property values
+	 * <strong>Should</strong> match only the global property values it was created for
+	 */
+	boolean isFor(String identifierRegex, String searchPattern) {
+		return Objects.equals(this.identifierRegex, identifierRegex) && Objects.equals(this.searchPattern, searchPattern);
+	}
+
+	/**
+	 * Removes the padding the identifier regex allows in front of identifiers, e.g. the leading
+	 * zeros for a regex like <code>^0*@SEARCH@$</code>
+	 *
+	 * @param query the query typed by the user
+	 * @return the query without padding
+	 * <strong>Should</strong> remove the padding allowed by the identifier regex
+	 * <strong>Should</strong> leave the query alone if the regex allows no padding
+	 */
+	String removePadding(String query) {
+		if (padding == null) {
+			return query;
+		}
+		return padding.matcher(query).replaceFirst("");
+	}
+
+	/**
+	 * Puts the query into each of the configured search patterns, replacing @SEARCH@, @SEARCH-1@
+	 * and @CHECKDIGIT@
+	 *
+	 * @param query the query without padding
+	 * @return the queries to search for
+	 * <strong>Should</strong> return the query if no search pattern is configured
+	 * <strong>Should</strong> put the query and its check digit into every search pattern
+	 */
+	List<String> tokenize(String query) {
+		if (searchPatterns.isEmpty()) {
+			return Collections.singletonList(query);
+		}
+
+		String searchMinusOne = "";
+		String checkDigit = "";
+		if (query.length() > 1) {
+			// for 2 or more character searches, we allow regex to use last character as check digit
+			searchMinusOne = query.substring(0, query.length() - 1);
+			checkDigit = query.substring(query.length() - 1);
+		}
+
+		List<String> queries = new ArrayList<>(searchPatterns.size());
+		for (String pattern : searchPatterns) {
+			String result = SEARCH.matcher(pattern).replaceAll(query);
+			result = SEARCH_MINUS_ONE.matcher(result).replaceAll(searchMinusOne);
+			result = CHECK_DIGIT.matcher(result).replaceAll(checkDigit);
+			queries.add(result);
+		}
+		return queries;
+	}
+}
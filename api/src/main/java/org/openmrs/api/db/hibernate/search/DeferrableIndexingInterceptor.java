@@ -0,0 +1,69 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import org.hibernate.search.indexes.interceptor.EntityIndexingInterceptor;
+import org.hibernate.search.indexes.interceptor.IndexingOverride;
+
+/**
+ * Skips the automatic indexing of the objects added or updated by the current thread while
+ * indexing is deferred. Bulk writes use this to index everything they wrote in one pass at the end
+ * instead of once per flush. Deletions are always applied so that no stale documents are left
+ * behind. Explicit indexing through a full text session is not affected.
+ *
+ * @since 2.5.0
+ */
+public class DeferrableIndexingInterceptor implements EntityIndexingInterceptor<Object> {
+
+	private static final ThreadLocal<Boolean> indexingDeferred = ThreadLocal.withInitial(() -> false);
+
+	/**
+	 * @param deferred true to skip the automatic indexing of objects written by the current thread,
+	 *            false to go back to indexing them
+	 */
+	public static void setIndexingDeferred(boolean deferred) {
+		if (deferred) {
+			indexingDeferred.set(true);
+		} else {
+			indexingDeferred.remove();
+		}
+	}
+
+	/**
+	 * @return true if the automatic indexing of objects written by the current thread is skipped
+	 */
+	public static boolean isIndexingDeferred() {
+		return indexingDeferred.get();
+	}
+
+	@Override
+	public IndexingOverride onAdd(Object entity) {
+		return getOverride();
+	}
+
+	@Override
+	public IndexingOverride onUpdate(Object entity) {
+		return getOverride();
+	}
+
+	@Override
+	public IndexingOverride onDelete(Object entity) {
+		return IndexingOverride.APPLY_DEFAULT;
+	}
+
+	@Override
+	public IndexingOverride onCollectionUpdate(Object entity) {
+		return getOverride();
+	}
+
+	private IndexingOverride getOverride() {
+		return isIndexingDeferred() ? IndexingOverride.SKIP : IndexingOverride.APPLY_DEFAULT;
+	}
+}
@@ -51,6 +51,8 @@ public abstract class LuceneQuery<T> extends SearchQuery<T> {
 	private boolean noUniqueTerms = false;
 
 	private Set<Object> skipSameValues;
+	
+	private List<Object> uniqueValues;
 
 	boolean useOrQueryParser = false;
 	
@@ -324,11 +326,13 @@ public abstract class LuceneQuery<T> extends SearchQuery<T> {
 		}
 
 		termsFilter = null;
+		uniqueValues = new ArrayList<>();
 		if (!documents.isEmpty()) {
 			List<Term> terms = new ArrayList<>();
 			for (Object[] row : documents) {
 				if (skipSameValues.add(row[1])) {
 					terms.add(new Term(idPropertyName, row[0].toString()));
+					uniqueValues.add(row[1]);
 				}
 			}
 			if (!terms.isEmpty()) {
@@ -341,6 +345,23 @@ public abstract class LuceneQuery<T> extends SearchQuery<T> {
 		return this;
 	}
 	
+	/**
+	 * Gets the values of the field passed to {@link #skipSame(String, LuceneQuery)} in the order of
+	 * the results, leaving out the values skipped. These are collected when skipSame is called, so
+	 * unlike {@link #resultSize()} and {@link #listPartProjection(Long, Long, String...)} this
+	 * doesn't run the query again.
+	 * 
+	 * @return the values, one per result
+	 * @throws IllegalStateException if skipSame has not been called
+	 * @since 2.5.0
+	 */
+	public List<Object> listSkipSameValues() {
+		if (uniqueValues == null) {
+			throw new IllegalStateException("The skipSame method must be called before listing its values.");
+		}
+		return Collections.unmodifiableList(uniqueValues);
+	}
+	
 	@Override
 	public T uniqueResult() {
 		if (noUniqueTerms) {
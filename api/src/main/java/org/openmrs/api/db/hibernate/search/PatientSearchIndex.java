@@ -0,0 +1,162 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.openmrs.PatientSearchDocument;
+import org.openmrs.api.db.hibernate.search.bridge.PatientSearchBridge;
+
+/**
+ * The layout of the denormalized patient search index, which holds one document per patient with
+ * its names, identifiers and searchable attributes. The documents are written by
+ * {@link PatientSearchBridge}, kept up to date by hibernate search whenever a patient or one of its
+ * names, identifiers or attributes is saved, and read back as {@link PatientSearchDocument}s.
+ *
+ * @since 2.5.0
+ */
+public class PatientSearchIndex {
+
+	public static final String PREFIX = PatientSearchBridge.NAME + ".";
+
+	public static final String FIELD_UUID = PREFIX + "uuid";
+
+	public static final String FIELD_GENDER = PREFIX + "gender";
+
+	public static final String FIELD_BIRTHDATE = PREFIX + "birthdate";
+
+	public static final String FIELD_BIRTHDATE_ESTIMATED = PREFIX + "birthdateEstimated";
+
+	public static final String FIELD_DEAD = PREFIX + "dead";
+
+	public static final String FIELD_VOIDED = PREFIX + "voided";
+
+	public static final String FIELD_NAME = PREFIX + "name";
+
+	public static final String FIELD_IDENTIFIER = PREFIX + "identifier";
+
+	public static final String FIELD_IDENTIFIER_TYPE = PREFIX + "identifierType";
+
+	public static final String FIELD_NAME_EXACT = PREFIX + "nameExact";
+
+	public static final String FIELD_NAME_START = PREFIX + "nameStart";
+
+	public static final String FIELD_IDENTIFIER_EXACT = PREFIX + "identifierExact";
+
+	public static final String FIELD_IDENTIFIER_START = PREFIX + "identifierStart";
+
+	public static final String FIELD_ATTRIBUTE_EXACT = PREFIX + "attributeExact";
+
+	/**
+	 * The length of the shortest prefix of a name or identifier that is indexed
+	 */
+	public static final int MIN_PREFIX_LENGTH = 2;
+
+	/**
+	 * The length of the longest prefix of a name or identifier that is indexed
+	 */
+	public static final int MAX_PREFIX_LENGTH = 20;
+
+	private PatientSearchIndex() {
+	}
+
+	/**
+	 * Reads a patient from a document of the patient search index
+	 *
+	 * @param patientId the id of the patient the document belongs to
+	 * @param document the document
+	 * @return the patient as stored in the document
+	 */
+	public static PatientSearchDocument fromDocument(Integer patientId, Document document) {
+		List<Integer> identifierTypeIds = new ArrayList<>();
+		for (String typeId : document.getValues(FIELD_IDENTIFIER_TYPE)) {
+			identifierTypeIds.add(StringUtils.isEmpty(typeId) ? null : Integer.valueOf(typeId));
+		}
+		List<String> names = Arrays.asList(document.getValues(FIELD_NAME));
+		List<String> identifiers = Arrays.asList(document.getValues(FIELD_IDENTIFIER));
+		return new PatientSearchDocument(patientId, document.get(FIELD_UUID), document.get(FIELD_GENDER),
+		        document.get(FIELD_BIRTHDATE), Boolean.parseBoolean(document.get(FIELD_BIRTHDATE_ESTIMATED)),
+		        Boolean.parseBoolean(document.get(FIELD_DEAD)), Boolean.parseBoolean(document.get(FIELD_VOIDED)), names,
+		        identifiers, identifierTypeIds);
+	}
+
+	/**
+	 * Creates a query that matches the patients who have a name, identifier or searchable attribute
+	 * matching every word of the given phrase. Whole words rank higher than words matching the start
+	 * of a name or identifier, and identifiers rank higher than names.
+	 *
+	 * @param phrase the words to search for
+	 * @param includeVoided whether voided patients should match
+	 * @return the query
+	 * <strong>Should</strong> match every word of the phrase
+	 */
+	public static Query newQuery(String phrase, boolean includeVoided) {
+		BooleanQuery.Builder query = new BooleanQuery.Builder();
+		for (String word : getWords(phrase)) {
+			BooleanQuery.Builder wordQuery = new BooleanQuery.Builder();
+			wordQuery.add(new BoostQuery(new TermQuery(new Term(FIELD_IDENTIFIER_EXACT, word)), 8f), Occur.SHOULD);
+			wordQuery.add(new BoostQuery(new TermQuery(new Term(FIELD_NAME_EXACT, word)), 4f), Occur.SHOULD);
+			wordQuery.add(new BoostQuery(new TermQuery(new Term(FIELD_IDENTIFIER_START, word)), 2f), Occur.SHOULD);
+			wordQuery.add(new TermQuery(new Term(FIELD_NAME_START, word)), Occur.SHOULD);
+			wordQuery.add(new TermQuery(new Term(FIELD_ATTRIBUTE_EXACT, word)), Occur.SHOULD);
+			query.add(wordQuery.build(), Occur.MUST);
+		}
+		if (!includeVoided) {
+			query.add(new TermQuery(new Term(FIELD_VOIDED, Boolean.FALSE.toString())), Occur.FILTER);
+		}
+		return query.build();
+	}
+
+	/**
+	 * Splits the given text into lower case words without accents, the way names, identifiers and
+	 * attributes are indexed
+	 *
+	 * @param text the text to split
+	 * @return the words
+	 * <strong>Should</strong> lower case words and remove accents
+	 */
+	public static Set<String> getWords(String text) {
+		Set<String> words = new LinkedHashSet<>();
+		if (StringUtils.isBlank(text)) {
+			return words;
+		}
+		String normalized = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+		for (String word : StringUtils.split(normalized.toLowerCase(Locale.ROOT))) {
+			words.add(word);
+		}
+		return words;
+	}
+
+	/**
+	 * @param word a word as returned by {@link #getWords(String)}
+	 * @return the prefixes of the word that are indexed so that it can be found by typing its start
+	 */
+	public static List<String> getPrefixes(String word) {
+		List<String> prefixes = new ArrayList<>();
+		for (int length = MIN_PREFIX_LENGTH; length <= Math.min(word.length(), MAX_PREFIX_LENGTH); length++) {
+			prefixes.add(word.substring(0, length));
+		}
+		return prefixes;
+	}
+}
@@ -0,0 +1,125 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search.bridge;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.hibernate.search.bridge.FieldBridge;
+import org.hibernate.search.bridge.LuceneOptions;
+import org.openmrs.Patient;
+import org.openmrs.PatientIdentifier;
+import org.openmrs.PersonAttribute;
+import org.openmrs.PersonName;
+import org.openmrs.api.db.hibernate.search.PatientSearchIndex;
+
+/**
+ * Writes the denormalized patient search document described by {@link PatientSearchIndex}.
+ * Voided names and identifiers are left out unless the patient is voided itself.
+ *
+ * @since 2.5.0
+ */
+public class PatientSearchBridge implements FieldBridge {
+
+	/**
+	 * The name of the class bridge, all fields it writes start with it
+	 */
+	public static final String NAME = "patientSearch";
+
+	/**
+	 * @see FieldBridge#set(String, Object, Document, LuceneOptions)
+	 */
+	@Override
+	public void set(String name, Object value, Document document, LuceneOptions luceneOptions) {
+		// patients embedded into the documents of their identifiers don't need the fields
+		if (!NAME.equals(name) || !(value instanceof Patient)) {
+			return;
+		}
+		Patient patient = (Patient) value;
+		boolean voided = Boolean.TRUE.equals(patient.getVoided());
+
+		addStored(document, PatientSearchIndex.FIELD_UUID, patient.getUuid());
+		addStored(document, PatientSearchIndex.FIELD_GENDER, patient.getGender());
+		if (patient.getBirthdate() != null) {
+			addStored(document, PatientSearchIndex.FIELD_BIRTHDATE, new SimpleDateFormat("yyyy-MM-dd").format(patient
+			        .getBirthdate()));
+		}
+		addStored(document, PatientSearchIndex.FIELD_BIRTHDATE_ESTIMATED, String.valueOf(Boolean.TRUE.equals(patient
+		        .getBirthdateEstimated())));
+		addStored(document, PatientSearchIndex.FIELD_DEAD, String.valueOf(Boolean.TRUE.equals(patient.getDead())));
+		document.add(new StringField(PatientSearchIndex.FIELD_VOIDED, String.valueOf(voided), Store.YES));
+
+		for (PersonName personName : getPreferredFirst(patient.getNames(), patient.getPersonName())) {
+			if (voided || !personName.getVoided()) {
+				addStored(document, PatientSearchIndex.FIELD_NAME, personName.getFullName());
+				for (String part : new String[] { personName.getGivenName(), personName.getMiddleName(),
+				        personName.getFamilyName(), personName.getFamilyName2() }) {
+					addWords(document, part, PatientSearchIndex.FIELD_NAME_EXACT, PatientSearchIndex.FIELD_NAME_START);
+				}
+			}
+		}
+
+		for (PatientIdentifier identifier : getPreferredFirst(patient.getIdentifiers(), patient.getPatientIdentifier())) {
+			if ((voided || !identifier.getVoided()) && identifier.getIdentifier() != null) {
+				addStored(document, PatientSearchIndex.FIELD_IDENTIFIER, identifier.getIdentifier());
+				addStored(document, PatientSearchIndex.FIELD_IDENTIFIER_TYPE, identifier.getIdentifierType() == null ? ""
+				        : String.valueOf(identifier.getIdentifierType().getPatientIdentifierTypeId()));
+				addWords(document, identifier.getIdentifier(), PatientSearchIndex.FIELD_IDENTIFIER_EXACT,
+				    PatientSearchIndex.FIELD_IDENTIFIER_START);
+			}
+		}
+
+		if (patient.getAttributes() != null) {
+			for (PersonAttribute attribute : patient.getAttributes()) {
+				if ((voided || !attribute.getVoided()) && attribute.getAttributeType() != null
+				        && Boolean.TRUE.equals(attribute.getAttributeType().getSearchable())) {
+					addWords(document, attribute.getValue(), PatientSearchIndex.FIELD_ATTRIBUTE_EXACT, null);
+				}
+			}
+		}
+	}
+
+	private static <T> List<T> getPreferredFirst(Iterable<T> all, T preferred) {
+		List<T> result = new ArrayList<>();
+		if (preferred != null) {
+			result.add(preferred);
+		}
+		if (all != null) {
+			for (T item : all) {
+				if (item != preferred) {
+					result.add(item);
+				}
+			}
+		}
+		return result;
+	}
+
+	private static void addStored(Document document, String field, String value) {
+		if (value != null) {
+			document.add(new StoredField(field, value));
+		}
+	}
+
+	private static void addWords(Document document, String text, String exactField, String startField) {
+		for (String word : PatientSearchIndex.getWords(text)) {
+			document.add(new StringField(exactField, word, Store.NO));
+			if (startField != null) {
+				for (String prefix : PatientSearchIndex.getPrefixes(word)) {
+					document.add(new StringField(startField, prefix, Store.NO));
+				}
+			}
+		}
+	}
+}
@@ -23,10 +23,14 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang3.StringUtils;
 import org.openmrs.ConceptSource;
@@ -40,6 +44,8 @@ import org.openmrs.api.EventListeners;
 import org.openmrs.api.GlobalPropertyListener;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.AdministrationDAO;
+import org.openmrs.api.db.SearchIndexOptions;
+import org.openmrs.api.db.SearchIndexProgress;
 import org.openmrs.customdatatype.CustomDatatypeUtil;
 import org.openmrs.module.Module;
 import org.openmrs.module.ModuleFactory;
@@ -52,6 +58,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.validation.Errors;
 
 /**
@@ -108,6 +116,25 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 	 */
 	private Set<Locale> presentationLocales;
 	
+	/**
+	 * The values of the global properties keyed by lower case property name, so that looking them
+	 * up doesn't hit the database. Properties that don't exist are kept as empty values. All values
+	 * are loaded in one query the first time a property is looked up.
+	 */
+	private volatile Map<String, Optional<String>> globalPropertyValues = null;
+	
+	/**
+	 * Counts the evictions from {@link #globalPropertyValues}, a value read from the database is
+	 * only cached if nothing was evicted while it was being read
+	 */
+	private final AtomicLong globalPropertyEvictions = new AtomicLong();
+	
+	/**
+	 * The key of the transaction resource marking that global properties were changed in the
+	 * current transaction
+	 */
+	private final Object globalPropertiesChangedKey = new Object();
+	
 	/**
 	 * @see org.openmrs.api.AdministrationService#getSystemVariables()
 	 */
@@ -150,8 +177,87 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 		if (propertyName == null) {
 			return null;
 		}
+		// don't cache values that were changed in this transaction and are not committed yet
+		if (TransactionSynchronizationManager.hasResource(globalPropertiesChangedKey)) {
+			return dao.getGlobalProperty(propertyName);
+		}
+		
+		Map<String, Optional<String>> values = getGlobalPropertyValues();
+		String key = propertyName.toLowerCase();
+		Optional<String> value = values.get(key);
+		if (value == null) {
+			long evictions = globalPropertyEvictions.get();
+			value = Optional.ofNullable(dao.getGlobalProperty(propertyName));
+			if (globalPropertyEvictions.get() == evictions) {
+				values.put(key, value);
+			}
+		}
+		
+		return value.orElse(null);
+	}
+	
+	private Map<String, Optional<String>> getGlobalPropertyValues() {
+		Map<String, Optional<String>> values = globalPropertyValues;
+		if (values == null) {
+			long evictions = globalPropertyEvictions.get();
+			values = new ConcurrentHashMap<>();
+			for (Map.Entry<String, String> entry : dao.getAllGlobalPropertyValues().entrySet()) {
+				values.put(entry.getKey().toLowerCase(), Optional.ofNullable(entry.getValue()));
+			}
+			if (globalPropertyEvictions.get() == evictions) {
+				globalPropertyValues = values;
+			}
+		}
+		return values;
+	}
+	
+	/**
+	 * @see org.openmrs.api.AdministrationService#evictCachedGlobalProperty(java.lang.String)
+	 */
+	@Override
+	public void evictCachedGlobalProperty(String propertyName) {
+		globalPropertyEvictions.incrementAndGet();
+		Map<String, Optional<String>> values = globalPropertyValues;
+		if (values != null && propertyName != null) {
+			values.remove(propertyName.toLowerCase());
+		}
+	}
+	
+	/**
+	 * @see org.openmrs.api.AdministrationService#evictCachedGlobalProperties()
+	 */
+	@Override
+	public void evictCachedGlobalProperties() {
+		globalPropertyEvictions.incrementAndGet();
+		globalPropertyValues = null;
+	}
+	
+	/**
+	 * Evicts a global property that was changed in the current transaction. The cache is evicted
+	 * again once the transaction completes, since other threads may have cached the old value in
+	 * the meantime and the change may be rolled back.
+	 * 
+	 * @param propertyName the name of the changed property or null if any property may have changed
+	 */
+	private void evictChangedGlobalProperty(String propertyName) {
+		if (propertyName == null) {
+			evictCachedGlobalProperties();
+		} else {
+			evictCachedGlobalProperty(propertyName);
+		}
 		
-		return dao.getGlobalProperty(propertyName);
+		if (TransactionSynchronizationManager.isSynchronizationActive()
+		        && !TransactionSynchronizationManager.hasResource(globalPropertiesChangedKey)) {
+			TransactionSynchronizationManager.bindResource(globalPropertiesChangedKey, Boolean.TRUE);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(globalPropertiesChangedKey);
+					evictCachedGlobalProperties();
+				}
+			});
+		}
 	}
 	
 	/**
@@ -204,6 +310,7 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 		}
 		gp.setPropertyValue(propertyValue);
 		dao.saveGlobalProperty(gp);
+		evictChangedGlobalProperty(propertyName);
 	}
 	
 	/**
@@ -313,7 +420,12 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 			return null;
 		}
 		
-		return dao.executeSQL(sql, selectOnly);
+		List<List<Object>> result = dao.executeSQL(sql, selectOnly);
+		if (!selectOnly) {
+			// the statement may have changed global properties behind our back
+			evictChangedGlobalProperty(null);
+		}
+		return result;
 	}
 	
 	/**
@@ -593,6 +705,7 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 	 */
 	@Override
 	public void globalPropertyChanged(GlobalProperty newValue) {
+		evictChangedGlobalProperty(newValue.getProperty());
 		if (newValue.getProperty().equals(OpenmrsConstants.GLOBAL_PROPERTY_LOCALE_ALLOWED_LIST)) {
 			// reset the calculated locale values
 			presentationLocales = null;
@@ -604,8 +717,7 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 	 */
 	@Override
 	public void globalPropertyDeleted(String propertyName) {
-		// TODO Auto-generated method stub
-		
+		evictChangedGlobalProperty(propertyName);
 	}
 	
 	/**
@@ -613,7 +725,8 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 	 */
 	@Override
 	public boolean supportsPropertyName(String propertyName) {
-		return propertyName.equals(OpenmrsConstants.GLOBAL_PROPERTY_LOCALE_ALLOWED_LIST);
+		// all properties, to keep the cached global property values up to date
+		return true;
 	}
 	
 	/**
@@ -859,4 +972,22 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 		dao.updatePostgresSequence();
 	}
 	
+	/**
+	 * @see org.openmrs.api.AdministrationService#updateSearchIndexAsync(SearchIndexOptions)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Future<?> updateSearchIndexAsync(SearchIndexOptions options) {
+		return Context.updateSearchIndexAsync(options);
+	}
+	
+	/**
+	 * @see org.openmrs.api.AdministrationService#getSearchIndexProgress()
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public SearchIndexProgress getSearchIndexProgress() {
+		return Context.getSearchIndexProgress();
+	}
+	
 }
@@ -0,0 +1,92 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.openmrs.Concept;
+import org.openmrs.ConceptName;
+import org.openmrs.api.db.ConceptDAO;
+
+/**
+ * Answers {@link ConceptDAO#isConceptNameDuplicate(ConceptName)} from memory for the concepts of an
+ * import batch. It holds the default names of the stored concepts sharing a name with the batch and
+ * of the batch concepts validated so far, so a batch is checked with one query instead of one per
+ * name.
+ *
+ * @since 2.5.0
+ */
+class ConceptNameDuplicateIndex {
+
+	private final Map<String, List<Concept>> conceptsByDefaultName = new HashMap<>();
+
+	/**
+	 * Adds the default names of the given concept to the index, unless it is retired
+	 *
+	 * @param concept the concept to add
+	 */
+	void add(Concept concept) {
+		if (concept.getRetired()) {
+			return;
+		}
+		for (ConceptName name : concept.getNames()) {
+			if (!name.getVoided() && name.getName() != null && name.getLocale() != null
+			        && name.equals(concept.getName(name.getLocale()))) {
+				conceptsByDefaultName.computeIfAbsent(getKey(name.getName(), name.getLocale()), k -> new ArrayList<>(1))
+				        .add(concept);
+			}
+		}
+	}
+
+	/**
+	 * @param name the name to check
+	 * @return true if the name is the default name of its concept and another non-retired concept
+	 *         in the index has the same default name in the locale of the name or its language
+	 */
+	boolean isDuplicate(ConceptName name) {
+		if (name.getVoided()) {
+			return false;
+		}
+		Concept concept = name.getConcept();
+		if (concept != null) {
+			if (concept.getRetired()) {
+				return false;
+			}
+			if (!name.equals(concept.getName(name.getLocale()))) {
+				return false;
+			}
+		}
+
+		Locale locale = name.getLocale();
+		Locale language = new Locale(locale.getLanguage());
+		return isDuplicate(getKey(name.getName(), locale), concept)
+		        || (!language.equals(locale) && isDuplicate(getKey(name.getName(), language), concept));
+	}
+
+	private boolean isDuplicate(String key, Concept concept) {
+		List<Concept> concepts = conceptsByDefaultName.get(key);
+		if (concepts != null) {
+			for (Concept candidate : concepts) {
+				if (!candidate.equals(concept)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private String getKey(String name, Locale locale) {
+		return name.toLowerCase(Locale.ROOT) + '\0' + locale;
+	}
+}
@@ -18,12 +18,21 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.apache.commons.beanutils.BeanUtils;
 import org.apache.commons.collections.CollectionUtils;
@@ -50,24 +59,37 @@ import org.openmrs.ConceptSource;
 import org.openmrs.ConceptStopWord;
 import org.openmrs.Drug;
 import org.openmrs.DrugIngredient;
+import org.openmrs.GlobalProperty;
 import org.openmrs.Obs;
 import org.openmrs.api.APIException;
 import org.openmrs.api.AdministrationService;
+import org.openmrs.api.ConceptImporter;
 import org.openmrs.api.ConceptInUseException;
 import org.openmrs.api.ConceptNameInUseException;
 import org.openmrs.api.ConceptService;
 import org.openmrs.api.ConceptStopWordException;
 import org.openmrs.api.ConceptsLockedException;
+import org.openmrs.api.GlobalPropertyListener;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.context.UserContext;
 import org.openmrs.api.db.ConceptDAO;
+import org.openmrs.api.db.ConceptDictionarySnapshot;
 import org.openmrs.api.db.DAOException;
+import org.openmrs.api.db.hibernate.search.DeferrableIndexingInterceptor;
+import org.openmrs.api.handler.ConceptNameSaveHandler;
+import org.openmrs.api.handler.ConceptReferenceTermSaveHandler;
+import org.openmrs.api.handler.ConceptSaveHandler;
 import org.openmrs.customdatatype.CustomDatatypeUtil;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
+import org.openmrs.validator.ConceptValidator;
 import org.openmrs.validator.ValidateUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 
 /**
@@ -76,7 +98,7 @@ import org.springframework.util.StringUtils;
  * @see org.openmrs.api.ConceptService to access these methods
  */
 @Transactional
-public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptService {
+public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptService, GlobalPropertyListener {
 	
 	private static final Logger log = LoggerFactory.getLogger(ConceptServiceImpl.class);
 	
@@ -90,6 +112,16 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 
 	private static final String ERROR_MESSAGE = "Error generated";
 	
+	/**
+	 * The snapshot of the concept dictionary if enabled and already read, updated whenever a
+	 * transaction which saved concepts is committed
+	 */
+	private volatile ConceptDictionarySnapshot dictionarySnapshot;
+	
+	private final Object dictionarySnapshotLock = new Object();
+	
+	private final Object dictionarySnapshotChangesKey = new Object();
+	
 	/**
 	 * @see org.openmrs.api.ConceptService#setConceptDAO(org.openmrs.api.db.ConceptDAO)
 	 */
@@ -177,9 +209,136 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 			concept.setSet(true);
 		}
 
-		return dao.saveConcept(concept);
+		Concept savedConcept = dao.saveConcept(concept);
+		updateDictionarySnapshot(savedConcept);
+		return savedConcept;
 	}
 
+	/**
+	 * @see org.openmrs.api.ConceptService#importConcepts(Stream, int)
+	 */
+	@Override
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public int importConcepts(Stream<Concept> concepts, int chunkSize) throws APIException {
+		return new ConceptImporter(chunkSize).importConcepts(concepts);
+	}
+	
+	/**
+	 * @see org.openmrs.api.ConceptService#importConceptBatch(List)
+	 */
+	@Override
+	public List<Concept> importConceptBatch(List<Concept> concepts) throws APIException {
+		checkIfLocked();
+		
+		// load the stored concepts that names of the batch may duplicate once, instead of querying per name
+		Set<String> names = new HashSet<>();
+		for (Concept concept : concepts) {
+			for (ConceptName name : concept.getNames()) {
+				if (name.getName() != null) {
+					names.add(name.getName());
+				}
+			}
+		}
+		ConceptNameDuplicateIndex duplicateIndex = new ConceptNameDuplicateIndex();
+		for (Concept storedConcept : dao.getConceptsHavingAnyName(names)) {
+			duplicateIndex.add(storedConcept);
+			// the batch may hold detached copies of stored concepts, which could not be saved otherwise
+			Context.evictFromSession(storedConcept);
+		}
+		
+		List<ConceptAttributeType> attributeTypes = getAllConceptAttributeTypes();
+		ConceptValidator validator = new ConceptValidator() {
+			
+			@Override
+			protected boolean isConceptNameDuplicate(ConceptName name) {
+				return duplicateIndex.isDuplicate(name);
+			}
+			
+			@Override
+			protected List<ConceptAttributeType> getConceptAttributeTypes() {
+				return attributeTypes;
+			}
+		};
+		for (Concept concept : concepts) {
+			prepareForImport(concept);
+			ValidateUtil.validate(concept, validator);
+			// later concepts of the batch must not duplicate the names of this one either
+			duplicateIndex.add(concept);
+		}
+		
+		Set<Concept> batch = Collections.newSetFromMap(new IdentityHashMap<>());
+		batch.addAll(concepts);
+		Set<Concept> saved = Collections.newSetFromMap(new IdentityHashMap<>());
+		DeferrableIndexingInterceptor.setIndexingDeferred(true);
+		try {
+			for (Concept concept : concepts) {
+				importConcept(concept, batch, saved);
+			}
+			Context.flushSession();
+		}
+		finally {
+			DeferrableIndexingInterceptor.setIndexingDeferred(false);
+		}
+		evictDictionarySnapshot();
+		
+		return concepts;
+	}
+	
+	/**
+	 * Does what the save handlers and {@link #saveConcept(Concept)} do to a concept before it is
+	 * saved
+	 */
+	private void prepareForImport(Concept concept) {
+		new ConceptSaveHandler().handle(concept, null, null, null);
+		ConceptNameSaveHandler nameSaveHandler = new ConceptNameSaveHandler();
+		for (ConceptName name : concept.getNames()) {
+			nameSaveHandler.handle(name, null, null, null);
+		}
+		ConceptReferenceTermSaveHandler termSaveHandler = new ConceptReferenceTermSaveHandler();
+		for (ConceptMap mapping : concept.getConceptMappings()) {
+			if (mapping.getConceptReferenceTerm() != null && mapping.getConceptReferenceTerm().getId() == null) {
+				termSaveHandler.handle(mapping.getConceptReferenceTerm(), null, null, null);
+			}
+		}
+		ensureConceptMapTypeIsSet(concept);
+		CustomDatatypeUtil.saveAttributesIfNecessary(concept);
+		ensurePreferredNameForLocale(concept);
+		
+		// force isSet when concept has members
+		if (!concept.getSet() && (!concept.getSetMembers().isEmpty())) {
+			concept.setSet(true);
+		}
+	}
+	
+	/**
+	 * Saves the given concept after the concepts of the batch it references as answers or set
+	 * members, since a concept can only be referenced once it has an id
+	 */
+	private void importConcept(Concept concept, Set<Concept> batch, Set<Concept> saved) {
+		if (!saved.add(concept)) {
+			return;
+		}
+		for (ConceptAnswer answer : concept.getAnswers(true)) {
+			if (batch.contains(answer.getAnswerConcept())) {
+				importConcept(answer.getAnswerConcept(), batch, saved);
+			}
+		}
+		for (ConceptSet conceptSet : concept.getConceptSets()) {
+			if (batch.contains(conceptSet.getConcept())) {
+				importConcept(conceptSet.getConcept(), batch, saved);
+			}
+		}
+		dao.saveConcept(concept);
+	}
+	
+	/**
+	 * @see org.openmrs.api.ConceptService#updateConceptNameSearchIndex(Collection)
+	 */
+	@Override
+	public void updateConceptNameSearchIndex(Collection<Integer> conceptIds) {
+		dao.updateConceptNameSearchIndex(conceptIds);
+	}
+	
 	private void ensureConceptMapTypeIsSet(Concept concept) {
 		ConceptMapType defaultConceptMapType = null;
 		for (ConceptMap map : concept.getConceptMappings()) {
@@ -274,6 +433,9 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 		}
 		
 		dao.purgeConcept(concept);
+		if (concept.getConceptId() != null) {
+			removeFromDictionarySnapshot(concept.getConceptId());
+		}
 	}
 	
 	/**
@@ -286,16 +448,18 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 		}
 		
 		// only do this if the concept isn't retired already
+		Concept retiredConcept = concept;
 		if (!concept.getRetired()) {
 			checkIfLocked();
 			
 			concept.setRetired(true);
 			concept.setRetireReason(reason);
-			return dao.saveConcept(concept);
-			
+			retiredConcept = dao.saveConcept(concept);
 		}
 		
-		return concept;
+		// the retire handler usually marked the concept retired before this method was called
+		updateDictionarySnapshot(retiredConcept);
+		return retiredConcept;
 	}
 	
 	/**
@@ -416,6 +580,10 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 		if (!StringUtils.hasText(name)) {
 			return null;
 		}
+		ConceptDictionarySnapshot snapshot = getDictionarySnapshot();
+		if (snapshot != null) {
+			return getSnapshotConcept(snapshot.getConceptIdByName(name, Context.getLocale()));
+		}
 		return dao.getConceptByName(name);
 	}
 
@@ -950,7 +1118,7 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 */
 	@Override
 	public ConceptSource purgeConceptSource(ConceptSource cs) throws APIException {
-		
+		evictDictionarySnapshot();
 		return dao.deleteConceptSource(cs);
 	}
 	
@@ -968,6 +1136,7 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 */
 	@Override
 	public ConceptSource saveConceptSource(ConceptSource conceptSource) throws APIException {
+		evictDictionarySnapshot();
 		return dao.saveConceptSource(conceptSource);
 	}
 	
@@ -990,12 +1159,109 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 		return dao.conceptIterator();
 	}
 	
+	/**
+	 * @see org.openmrs.api.ConceptService#conceptIterator(int)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Iterator<Concept> conceptIterator(int batchSize) {
+		return dao.conceptIterator(batchSize);
+	}
+	
+	/**
+	 * @see org.openmrs.api.ConceptService#forEachConcept(int, int, Consumer)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void forEachConcept(int batchSize, int threads, Consumer<Concept> consumer) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("The batch size must be at least 1");
+		}
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least 1 thread is needed");
+		}
+		
+		if (threads == 1) {
+			Integer lastConceptId = null;
+			List<Concept> batch;
+			do {
+				batch = dao.getConceptBatch(lastConceptId, batchSize);
+				batch.forEach(consumer);
+				if (!batch.isEmpty()) {
+					lastConceptId = batch.get(batch.size() - 1).getConceptId();
+				}
+				dao.evictConceptBatch(batch);
+			} while (batch.size() == batchSize);
+			return;
+		}
+		
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			UserContext userContext = Context.getUserContext();
+			Integer lastConceptId = null;
+			List<Integer> conceptIds;
+			do {
+				conceptIds = dao.getConceptIdBatch(lastConceptId, batchSize);
+				consumeInParallel(conceptIds, threads, consumer, executor, userContext);
+				if (!conceptIds.isEmpty()) {
+					lastConceptId = conceptIds.get(conceptIds.size() - 1);
+				}
+			} while (conceptIds.size() == batchSize);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Splits the batch into one part per thread and waits until all parts were consumed, each part
+	 * is loaded and consumed in a session of its own
+	 */
+	private void consumeInParallel(List<Integer> conceptIds, int threads, Consumer<Concept> consumer,
+	        ExecutorService executor, UserContext userContext) {
+		List<Callable<Void>> parts = new ArrayList<>(threads);
+		int partSize = (conceptIds.size() + threads - 1) / threads;
+		for (int from = 0; from < conceptIds.size(); from += partSize) {
+			List<Integer> part = conceptIds.subList(from, Math.min(from + partSize, conceptIds.size()));
+			parts.add(() -> {
+				Context.setUserContext(userContext);
+				try {
+					dao.forEachConceptInNewSession(part, consumer);
+				}
+				finally {
+					Context.clearUserContext();
+				}
+				return null;
+			});
+		}
+		
+		try {
+			for (Future<Void> part : executor.invokeAll(parts)) {
+				part.get();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new APIException("Interrupted while consuming concepts", e);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new APIException("Failed to consume concepts", e.getCause());
+		}
+	}
+	
 	/**
 	 * @see org.openmrs.api.ConceptService#getConceptByUuid(java.lang.String)
 	 */
 	@Override
 	@Transactional(readOnly = true)
 	public Concept getConceptByUuid(String uuid) {
+		ConceptDictionarySnapshot snapshot = getDictionarySnapshot();
+		if (snapshot != null) {
+			return getSnapshotConcept(snapshot.getConceptIdByUuid(uuid));
+		}
 		return dao.getConceptByUuid(uuid);
 	}
 	
@@ -1159,6 +1425,17 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	@Override
 	@Transactional(readOnly = true)
 	public List<Concept> getConceptsByMapping(String code, String sourceName, boolean includeRetired) throws APIException {
+		ConceptDictionarySnapshot snapshot = getDictionarySnapshot();
+		if (snapshot != null) {
+			List<Concept> concepts = new ArrayList<>();
+			for (Integer conceptId : snapshot.getConceptIdsByMapping(code, sourceName, includeRetired)) {
+				Concept concept = getSnapshotConcept(conceptId);
+				if (concept != null) {
+					concepts.add(concept);
+				}
+			}
+			return concepts;
+		}
 		return dao.getConceptsByMapping(code, sourceName, includeRetired);
 	}
 	
@@ -1718,6 +1995,7 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 	 */
 	@Override
 	public ConceptReferenceTerm saveConceptReferenceTerm(ConceptReferenceTerm conceptReferenceTerm) throws APIException {
+		evictDictionarySnapshot();
 		return dao.saveConceptReferenceTerm(conceptReferenceTerm);
 	}
 	
@@ -1751,6 +2029,7 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 		if (dao.isConceptReferenceTermInUse(conceptReferenceTerm)) {
 			throw new APIException("ConceptRefereceTerm.inUse", (Object[]) null);
 		}
+		evictDictionarySnapshot();
 		dao.deleteConceptReferenceTerm(conceptReferenceTerm);
 	}
 	
@@ -1994,4 +2273,201 @@ public class ConceptServiceImpl extends BaseOpenmrsService implements ConceptSer
 		}
 		return mappedClasses;
 	}
+	
+	/**
+	 * Reads the concept dictionary snapshot if it is enabled, so that the first lookups don't have to
+	 * wait for it
+	 *
+	 * @see org.openmrs.api.impl.BaseOpenmrsService#onStartup()
+	 */
+	@Override
+	public void onStartup() {
+		try {
+			getDictionarySnapshot();
+		}
+		catch (Exception e) {
+			log.error("Failed to read the concept dictionary snapshot", e);
+		}
+	}
+	
+	/**
+	 * @see GlobalPropertyListener#supportsPropertyName(String)
+	 */
+	@Override
+	public boolean supportsPropertyName(String propertyName) {
+		return OpenmrsConstants.GP_CONCEPT_DICTIONARY_SNAPSHOT_ENABLED.equals(propertyName);
+	}
+	
+	/**
+	 * @see GlobalPropertyListener#globalPropertyChanged(org.openmrs.GlobalProperty)
+	 */
+	@Override
+	public void globalPropertyChanged(GlobalProperty newValue) {
+		dictionarySnapshot = null;
+	}
+	
+	/**
+	 * @see GlobalPropertyListener#globalPropertyDeleted(String)
+	 */
+	@Override
+	public void globalPropertyDeleted(String propertyName) {
+		dictionarySnapshot = null;
+	}
+	
+	/**
+	 * @return the concept dictionary snapshot or null if it is not enabled
+	 */
+	private ConceptDictionarySnapshot getDictionarySnapshot() {
+		if (!Boolean.parseBoolean(Context.getAdministrationService().getGlobalProperty(
+		    OpenmrsConstants.GP_CONCEPT_DICTIONARY_SNAPSHOT_ENABLED))) {
+			return null;
+		}
+		// the concepts changed by this transaction are only added to the snapshot once it is committed
+		if (TransactionSynchronizationManager.hasResource(dictionarySnapshotChangesKey)) {
+			return null;
+		}
+		ConceptDictionarySnapshot snapshot = dictionarySnapshot;
+		if (snapshot == null) {
+			synchronized (dictionarySnapshotLock) {
+				if (dictionarySnapshot == null) {
+					long start = System.currentTimeMillis();
+					dictionarySnapshot = dao.createConceptDictionarySnapshot();
+					log.info("Read {} concepts into the concept dictionary snapshot in {} ms", dictionarySnapshot.size(),
+					    System.currentTimeMillis() - start);
+				}
+				snapshot = dictionarySnapshot;
+			}
+		}
+		return snapshot;
+	}
+	
+	private Concept getSnapshotConcept(Integer conceptId) {
+		return conceptId == null ? null : dao.getConcept(conceptId);
+	}
+	
+	private void updateDictionarySnapshot(Concept concept) {
+		if (concept.getConceptId() != null) {
+			getDictionarySnapshotChanges().conceptSaved(concept);
+		}
+	}
+	
+	private void removeFromDictionarySnapshot(Integer conceptId) {
+		getDictionarySnapshotChanges().conceptRemoved(conceptId);
+	}
+	
+	/**
+	 * Makes the concept dictionary snapshot be read again from the database the next time it is used
+	 * and once more after the current transaction completed, so that it is not read again before the
+	 * changes of the transaction are committed
+	 */
+	private void evictDictionarySnapshot() {
+		dictionarySnapshot = null;
+		getDictionarySnapshotChanges().evict();
+	}
+	
+	/**
+	 * @return the changes to the concept dictionary snapshot made by the current transaction, they
+	 *         are applied right away if there is no transaction
+	 */
+	private DictionarySnapshotChanges getDictionarySnapshotChanges() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return new DictionarySnapshotChanges(true);
+		}
+		DictionarySnapshotChanges changes = (DictionarySnapshotChanges) TransactionSynchronizationManager
+		        .getResource(dictionarySnapshotChangesKey);
+		if (changes == null) {
+			changes = new DictionarySnapshotChanges(false);
+			TransactionSynchronizationManager.bindResource(dictionarySnapshotChangesKey, changes);
+			TransactionSynchronizationManager.registerSynchronization(changes);
+		}
+		return changes;
+	}
+	
+	/**
+	 * The changes to the concept dictionary snapshot made by a transaction. The snapshot is only
+	 * updated once the transaction is committed, so that other threads never see concepts which may
+	 * still be rolled back. Until then the transaction itself does its lookups in the database.
+	 */
+	class DictionarySnapshotChanges extends TransactionSynchronizationAdapter {
+		
+		private final boolean applyImmediately;
+		
+		/**
+		 * The saved concepts by id, null for removed concepts
+		 */
+		private final Map<Integer, Concept> concepts = new LinkedHashMap<>();
+		
+		private Map<Integer, ConceptDictionarySnapshot.Entry> entries;
+		
+		private boolean evict;
+		
+		DictionarySnapshotChanges(boolean applyImmediately) {
+			this.applyImmediately = applyImmediately;
+		}
+		
+		void conceptSaved(Concept concept) {
+			concepts.put(concept.getConceptId(), concept);
+			if (applyImmediately) {
+				beforeCommit(false);
+				afterCommit();
+			}
+		}
+		
+		void conceptRemoved(Integer conceptId) {
+			concepts.put(conceptId, null);
+			if (applyImmediately) {
+				beforeCommit(false);
+				afterCommit();
+			}
+		}
+		
+		void evict() {
+			evict = true;
+		}
+		
+		/**
+		 * Reads the entries of the saved concepts while their session is still usable
+		 */
+		@Override
+		public void beforeCommit(boolean readOnly) {
+			if (evict || dictionarySnapshot == null) {
+				return;
+			}
+			entries = new LinkedHashMap<>();
+			for (Map.Entry<Integer, Concept> concept : concepts.entrySet()) {
+				entries.put(concept.getKey(), concept.getValue() == null ? null : ConceptDictionarySnapshot.Entry
+				        .of(concept.getValue()));
+			}
+		}
+		
+		@Override
+		public void afterCommit() {
+			synchronized (dictionarySnapshotLock) {
+				ConceptDictionarySnapshot snapshot = dictionarySnapshot;
+				if (snapshot == null || concepts.isEmpty()) {
+					return;
+				}
+				if (entries == null) {
+					// the snapshot was read while this transaction was being committed
+					dictionarySnapshot = null;
+					return;
+				}
+				for (Map.Entry<Integer, ConceptDictionarySnapshot.Entry> entry : entries.entrySet()) {
+					if (entry.getValue() == null) {
+						snapshot.remove(entry.getKey());
+					} else {
+						snapshot.put(entry.getValue());
+					}
+				}
+			}
+		}
+		
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(dictionarySnapshotChangesKey);
+			if (evict) {
+				dictionarySnapshot = null;
+			}
+		}
+	}
 }
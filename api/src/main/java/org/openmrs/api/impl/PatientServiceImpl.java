@@ -35,6 +35,7 @@ import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
 import org.openmrs.PatientProgram;
+import org.openmrs.PatientSearchDocument;
 import org.openmrs.Person;
 import org.openmrs.PersonAddress;
 import org.openmrs.PersonAttribute;
@@ -1603,6 +1604,20 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 		return dao.getPatients(query, includeVoided, start, length);
 	}
 	
+	/**
+	 * @see PatientService#getPatientSearchDocuments(String, boolean, Integer, Integer)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<PatientSearchDocument> getPatientSearchDocuments(String query, boolean includeVoided, Integer start,
+	        Integer length) throws APIException {
+		if (StringUtils.isBlank(query) || (length != null && length < 1)) {
+			return Collections.emptyList();
+		}
+		
+		return dao.getPatientSearchDocuments(query, includeVoided, start, length);
+	}
+	
 	/**
 	 * @see PatientService#getPatients(String, String, List, boolean, Integer, Integer)
 	 */
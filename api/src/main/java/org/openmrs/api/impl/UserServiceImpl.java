@@ -43,6 +43,7 @@ import org.openmrs.patient.impl.LuhnIdentifierValidator;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.util.PrivilegeConstants;
+import org.openmrs.util.PrivilegeIndex;
 import org.openmrs.util.RoleConstants;
 import org.openmrs.util.Security;
 import org.slf4j.Logger;
@@ -112,6 +113,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 		// TODO Check required fields for user!!
 		OpenmrsUtil.validatePassword(user.getUsername(), password, user.getSystemId());
 		
+		PrivilegeIndex.invalidate();
 		return dao.saveUser(user, password);
 	}
 	
@@ -173,6 +175,8 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 			        + " is already in use.");
 		}
 		
+		// the roles of the user may have been changed in place
+		PrivilegeIndex.invalidate();
 		return dao.saveUser(user, null);
 	}
 	
@@ -247,6 +251,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 		}
 		
 		dao.deletePrivilege(privilege);
+		PrivilegeIndex.invalidate();
 	}
 	
 	/**
@@ -254,6 +259,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 	 */
 	@Override
 	public Privilege savePrivilege(Privilege privilege) throws APIException {
+		PrivilegeIndex.invalidate();
 		return dao.savePrivilege(privilege);
 	}
 
@@ -293,6 +299,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 		}
 		
 		dao.deleteRole(role);
+		PrivilegeIndex.invalidate();
 	}
 	
 	/**
@@ -308,6 +315,8 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 		
 		checkPrivileges(role);
 		
+		// the privileges and parents of the role may have been changed in place
+		PrivilegeIndex.invalidate();
 		return dao.saveRole(role);
 	}
 	
@@ -27,12 +27,14 @@ import org.openmrs.VisitAttributeType;
 import org.openmrs.VisitType;
 import org.openmrs.api.APIException;
 import org.openmrs.api.VisitService;
+import org.openmrs.api.VisitStopListener;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.VisitDAO;
 import org.openmrs.customdatatype.CustomDatatypeUtil;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.PrivilegeConstants;
 import org.openmrs.validator.ValidateUtil;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -350,6 +352,7 @@ public class VisitServiceImpl extends BaseOpenmrsService implements VisitService
 	 * @see org.openmrs.api.VisitService#stopVisits(Date)
 	 */
 	@Override
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
 	public void stopVisits(Date maximumStartDate) {
 		
 		final List<VisitType> visitTypesToStop = getVisitTypesToStop();
@@ -362,21 +365,49 @@ public class VisitServiceImpl extends BaseOpenmrsService implements VisitService
 			return;
 		}
 		
-		int counter = 0;
+		int batchSize = Math.max(Context.getAdministrationService().getGlobalPropertyValue(
+		    OpenmrsConstants.GP_VISIT_AUTO_CLOSE_BATCH_SIZE, 1000), 1);
+		List<VisitStopListener> listeners = Context.getRegisteredComponents(VisitStopListener.class);
 		Date stopDate = new Date();
-		Visit nextVisit = dao.getNextVisit(null, visitTypesToStop, maximumStartDate);
-		while (nextVisit != null) {
-			nextVisit.setStopDatetime(stopDate);
-			dao.saveVisit(nextVisit);
-			if (counter++ > 50) {
-				//ensure changes are persisted to DB before reclaiming memory
-				Context.flushSession();
-				Context.clearSession();
-				counter = 0;
+		
+		// each chunk goes through the proxy to be committed on its own
+		VisitService visitService = Context.getVisitService();
+		List<Integer> visitIds = visitService.stopNextVisits(null, visitTypesToStop, maximumStartDate, stopDate,
+		    batchSize);
+		while (!visitIds.isEmpty()) {
+			for (VisitStopListener listener : listeners) {
+				listener.visitsStopped(visitIds, stopDate);
 			}
-					
-		nextVisit = dao.getNextVisit(nextVisit, visitTypesToStop, maximumStartDate);
+			
+			visitIds = visitService.stopNextVisits(visitIds.get(visitIds.size() - 1), visitTypesToStop,
+			    maximumStartDate, stopDate, batchSize);
+		}
+	}
+	
+	/**
+	 * @see org.openmrs.api.VisitService#stopNextVisits(Integer, Collection, Date, Date, int)
+	 */
+	@Override
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public List<Integer> stopNextVisits(Integer afterVisitId, Collection<VisitType> visitTypes, Date maximumStartDate,
+	        Date stopDatetime, int batchSize) {
+		List<Integer> visitIds = dao.getActiveVisitIds(afterVisitId, visitTypes, maximumStartDate, batchSize);
+		dao.stopVisits(visitIds, stopDatetime, Context.getAuthenticatedUser(), stopDatetime);
+		return visitIds;
+	}
+	
+	/**
+	 * @see org.openmrs.api.VisitService#getVisitCountToStop(java.util.Date)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public long getVisitCountToStop(Date maximumStartDate) {
+		List<VisitType> visitTypesToStop = getVisitTypesToStop();
+		if (visitTypesToStop.isEmpty()) {
+			return 0;
 		}
+		
+		return dao.getActiveVisitCount(visitTypesToStop, maximumStartDate == null ? new Date() : maximumStartDate);
 	}
 	
 	private List<VisitType> getVisitTypesToStop() {
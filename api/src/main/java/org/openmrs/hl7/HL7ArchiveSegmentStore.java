@@ -0,0 +1,381 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.hl7;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores migrated hl7 archives in a few large segment files instead of one file per archive, which
+ * on big installations runs the file system out of inodes. Each archive is compressed on its own
+ * and appended to the current segment, a new segment is started once the current one reaches
+ * {@link #MAX_SEGMENT_SIZE} bytes. The returned locator records the segment, offset and length of
+ * the archive and is what gets stored in {@link HL7InArchive#getHL7Data()} in place of the message,
+ * so the archive table doubles as the offset index for looking archives up by uuid. Archives are
+ * read back through memory mapped segments, a mapping is released as soon as it is replaced by a
+ * larger one and all mappings are released when the store is closed.<br>
+ * <br>
+ * A locator looks like <code>hl7segment:segment-000001.dat#1024,377</code>, the segment file name
+ * is relative to the segments directory so the archives directory can be moved.
+ *
+ * @since 2.5.0
+ * @see HL7Service#migrateHl7InArchivesToFileSystem(Map)
+ * @see HL7Service#loadHL7InArchiveData(HL7InArchive)
+ */
+public class HL7ArchiveSegmentStore {
+
+	private static final Logger log = LoggerFactory.getLogger(HL7ArchiveSegmentStore.class);
+
+	/**
+	 * The scheme of the locators handed out by this store
+	 */
+	public static final String LOCATOR_SCHEME = "hl7segment:";
+
+	/**
+	 * The name of the directory below the hl7 archives directory holding the segment files
+	 */
+	public static final String SEGMENTS_DIRECTORY_NAME = "segments";
+
+	/**
+	 * The size in bytes after which a new segment is started
+	 */
+	static final long MAX_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+	private static final String SEGMENT_PREFIX = "segment-";
+
+	private static final String SEGMENT_SUFFIX = ".dat";
+
+	private static final Map<String, HL7ArchiveSegmentStore> instances = new HashMap<>();
+
+	private final File directory;
+
+	private final long maxSegmentSize;
+
+	private final Map<String, MappedByteBuffer> mappedSegments = new ConcurrentHashMap<>();
+	
+	/**
+	 * Guards the mappings, they may only be released while no one is reading from them
+	 */
+	private final ReadWriteLock mappingLock = new ReentrantReadWriteLock();
+
+	private int segmentNumber = 0;
+
+	private FileChannel segment = null;
+
+	/**
+	 * @param directory the directory holding the segment files
+	 * @param maxSegmentSize the size in bytes after which a new segment is started
+	 */
+	HL7ArchiveSegmentStore(File directory, long maxSegmentSize) {
+		this.directory = directory;
+		this.maxSegmentSize = maxSegmentSize;
+	}
+
+	/**
+	 * Gets the store keeping its segments below the given hl7 archives directory, there is one
+	 * store per directory so that appends to the same segments are serialized.
+	 *
+	 * @param archivesDirectory the hl7 archives directory
+	 * @return the store
+	 */
+	public static HL7ArchiveSegmentStore getInstance(File archivesDirectory) {
+		File directory = new File(archivesDirectory, SEGMENTS_DIRECTORY_NAME);
+		synchronized (instances) {
+			return instances.computeIfAbsent(directory.getAbsolutePath(), path -> new HL7ArchiveSegmentStore(directory,
+			    MAX_SEGMENT_SIZE));
+		}
+	}
+
+	/**
+	 * @param data an hl7 archive's data
+	 * @return true if the data is a locator handed out by this store
+	 */
+	public static boolean isLocator(String data) {
+		return data != null && data.startsWith(LOCATOR_SCHEME);
+	}
+
+	/**
+	 * Compresses the given message so that it can be passed to {@link #append(byte[])}. This is
+	 * meant to be called by several threads while appending is serialized.
+	 *
+	 * @param hl7Data the message to compress
+	 * @return the compressed message
+	 */
+	public static byte[] compress(String hl7Data) {
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			byte[] input = hl7Data.getBytes(StandardCharsets.UTF_8);
+			deflater.setInput(input);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(input.length / 2, 64));
+			byte[] buffer = new byte[4096];
+			while (!deflater.finished()) {
+				out.write(buffer, 0, deflater.deflate(buffer));
+			}
+			return out.toByteArray();
+		}
+		finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Appends a compressed message to the current segment
+	 *
+	 * @param compressed the message as returned by {@link #compress(String)}
+	 * @return the locator to read the message back with
+	 * @throws IOException if the segment cannot be written
+	 * <strong>Should</strong> start a new segment once the current one is full
+	 */
+	public synchronized String append(byte[] compressed) throws IOException {
+		if (segment == null || segment.size() + compressed.length > maxSegmentSize) {
+			openNextSegment();
+		}
+		long offset = segment.size();
+		ByteBuffer buffer = ByteBuffer.wrap(compressed);
+		while (buffer.hasRemaining()) {
+			segment.write(buffer);
+		}
+
+		return LOCATOR_SCHEME + segmentName(segmentNumber) + "#" + offset + "," + compressed.length;
+	}
+
+	/**
+	 * Forces everything appended so far to the disk
+	 *
+	 * @throws IOException if the segment cannot be written
+	 */
+	public synchronized void flush() throws IOException {
+		if (segment != null) {
+			segment.force(false);
+		}
+	}
+
+	/**
+	 * Reads back the message stored at the given locator
+	 *
+	 * @param locator a locator handed out by {@link #append(byte[])}
+	 * @return the message
+	 * @throws IOException if the locator is malformed or the segment cannot be read
+	 * <strong>Should</strong> read back appended messages
+	 * <strong>Should</strong> fail for a malformed locator
+	 */
+	public String read(String locator) throws IOException {
+		String[] parts = isLocator(locator) ? StringUtils.split(locator.substring(LOCATOR_SCHEME.length()), "#,") : null;
+		if (parts == null || parts.length != 3 || parts[0].contains("/") || parts[0].contains("\\")) {
+			throw new IOException("Malformed hl7 archive segment locator: " + locator);
+		}
+		int offset;
+		int length;
+		try {
+			offset = Integer.parseInt(parts[1]);
+			length = Integer.parseInt(parts[2]);
+		}
+		catch (NumberFormatException e) {
+			throw new IOException("Malformed hl7 archive segment locator: " + locator, e);
+		}
+
+		byte[] compressed = new byte[length];
+		mappingLock.readLock().lock();
+		try {
+			MappedByteBuffer mapped = mappedSegments.get(parts[0]);
+			if (mapped == null || mapped.capacity() < offset + length) {
+				mappingLock.readLock().unlock();
+				mappingLock.writeLock().lock();
+				try {
+					mapped = mapSegment(parts[0], offset + length);
+				}
+				finally {
+					// downgrade so that the mapping cannot be released before it is read
+					mappingLock.readLock().lock();
+					mappingLock.writeLock().unlock();
+				}
+			}
+			ByteBuffer buffer = mapped.duplicate();
+			buffer.position(offset);
+			buffer.get(compressed);
+		}
+		finally {
+			mappingLock.readLock().unlock();
+		}
+
+		return decompress(compressed);
+	}
+
+	/**
+	 * Releases the memory mappings of all segments and closes the segment currently appended to. The
+	 * store stays usable, segments are mapped and opened again when needed.
+	 *
+	 * @throws IOException if the segment cannot be written
+	 * <strong>Should</strong> keep the store usable
+	 */
+	public synchronized void close() throws IOException {
+		mappingLock.writeLock().lock();
+		try {
+			for (MappedByteBuffer mapped : mappedSegments.values()) {
+				unmap(mapped);
+			}
+			mappedSegments.clear();
+		}
+		finally {
+			mappingLock.writeLock().unlock();
+		}
+
+		if (segment != null) {
+			try {
+				segment.force(false);
+				segment.close();
+			}
+			finally {
+				segment = null;
+			}
+		}
+	}
+
+	/**
+	 * Maps a segment, the segment currently appended to is mapped again once it grew past the end of
+	 * the existing mapping and the existing mapping is released. Must be called holding the write
+	 * lock of the mappings.
+	 */
+	private MappedByteBuffer mapSegment(String segmentName, long minimumSize) throws IOException {
+		MappedByteBuffer previous = mappedSegments.get(segmentName);
+		// another reader may have mapped the segment in the meantime
+		if (previous != null && previous.capacity() >= minimumSize) {
+			return previous;
+		}
+
+		MappedByteBuffer mapped;
+		try (FileChannel channel = FileChannel.open(new File(directory, segmentName).toPath(), StandardOpenOption.READ)) {
+			if (channel.size() < minimumSize) {
+				throw new IOException("The hl7 archive segment " + segmentName + " is shorter than " + minimumSize
+				        + " bytes");
+			}
+			mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		mappedSegments.put(segmentName, mapped);
+		if (previous != null) {
+			unmap(previous);
+		}
+		return mapped;
+	}
+
+	/**
+	 * Releases a mapping right away instead of waiting for it to be garbage collected, which may not
+	 * happen before the address space or the file handles run out. There is no public api for this,
+	 * so the cleaner of the buffer is invoked the way the jdk does it, the mapping is left to the
+	 * garbage collector if that is not possible.
+	 */
+	private static void unmap(MappedByteBuffer mapped) {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Method invokeCleaner;
+			try {
+				invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			}
+			catch (NoSuchMethodException e) {
+				// before java 9 the cleaner has to be fetched from the buffer itself
+				Method cleanerMethod = mapped.getClass().getMethod("cleaner");
+				cleanerMethod.setAccessible(true);
+				Object cleaner = cleanerMethod.invoke(mapped);
+				if (cleaner != null) {
+					cleaner.getClass().getMethod("clean").invoke(cleaner);
+				}
+				return;
+			}
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			invokeCleaner.invoke(theUnsafe.get(null), mapped);
+		}
+		catch (ReflectiveOperationException | RuntimeException e) {
+			log.debug("Unable to release an hl7 archive segment mapping, leaving it to the garbage collector", e);
+		}
+	}
+
+	private String decompress(byte[] compressed) throws IOException {
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(compressed);
+			ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+			byte[] buffer = new byte[4096];
+			while (!inflater.finished()) {
+				int inflated = inflater.inflate(buffer);
+				if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new IOException("Truncated hl7 archive in segment");
+				}
+				out.write(buffer, 0, inflated);
+			}
+			return new String(out.toByteArray(), StandardCharsets.UTF_8);
+		}
+		catch (DataFormatException e) {
+			throw new IOException("Corrupt hl7 archive in segment", e);
+		}
+		finally {
+			inflater.end();
+		}
+	}
+
+	private void openNextSegment() throws IOException {
+		if (segment == null) {
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				throw new IOException("Unable to create the hl7 archive segments directory " + directory);
+			}
+			// continue after the segments written before a restart
+			String[] existing = directory.list((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+			if (existing != null) {
+				for (String name : existing) {
+					try {
+						segmentNumber = Math.max(segmentNumber, Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+						    name.length() - SEGMENT_SUFFIX.length())));
+					}
+					catch (NumberFormatException e) {
+						log.warn("Ignoring unexpected file {} in the hl7 archive segments directory", name);
+					}
+				}
+			}
+		} else {
+			segment.force(false);
+			segment.close();
+		}
+
+		// reuse the last segment unless it is full, the file may not exist yet
+		File file = new File(directory, segmentName(segmentNumber));
+		if (segmentNumber == 0 || file.length() >= maxSegmentSize || segment != null) {
+			segmentNumber++;
+			file = new File(directory, segmentName(segmentNumber));
+		}
+		log.debug("Appending hl7 archives to segment {}", file);
+		segment = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+		    StandardOpenOption.APPEND);
+	}
+
+	private static String segmentName(int number) {
+		return SEGMENT_PREFIX + String.format("%06d", number) + SEGMENT_SUFFIX;
+	}
+}
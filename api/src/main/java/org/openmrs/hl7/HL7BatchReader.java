@@ -0,0 +1,125 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.hl7;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Reads hl7 messages one at a time out of a stream holding any number of them, e.g. an hl7 batch
+ * file. Messages may be wrapped in MLLP frames and the FHS, BHS, BTS and FTS segments of batch
+ * files are skipped. Segments may be terminated by carriage returns, line feeds or both, the
+ * messages handed out always use carriage returns. Only the message currently being read is kept
+ * in memory.
+ *
+ * @since 2.5.0
+ * @see HL7FileImporter
+ */
+public class HL7BatchReader implements Closeable {
+
+	private static final char MLLP_START = '\u000b';
+
+	private static final char MLLP_END = '\u001c';
+
+	private final BufferedReader reader;
+
+	private StringBuilder message = null;
+
+	private String nextMessageHeader = null;
+
+	/**
+	 * @param reader the stream to read the messages from
+	 */
+	public HL7BatchReader(Reader reader) {
+		this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+	}
+
+	/**
+	 * Reads the next message out of the stream
+	 *
+	 * @return the next message or null if the end of the stream is reached
+	 * @throws IOException if reading from the stream fails
+	 * <strong>Should</strong> read consecutive messages
+	 * <strong>Should</strong> skip batch header and trailer segments
+	 * <strong>Should</strong> strip mllp framing characters
+	 * <strong>Should</strong> return null at the end of the stream
+	 */
+	public String nextMessage() throws IOException {
+		if (nextMessageHeader != null) {
+			message = new StringBuilder(nextMessageHeader).append('\r');
+			nextMessageHeader = null;
+		}
+
+		String segment;
+		while ((segment = readSegment()) != null) {
+			if (segment.startsWith("MSH")) {
+				if (message != null) {
+					nextMessageHeader = segment;
+					return completeMessage();
+				}
+				message = new StringBuilder(segment).append('\r');
+			} else if (isBatchSegment(segment)) {
+				if (message != null) {
+					return completeMessage();
+				}
+			} else if (message != null) {
+				message.append(segment).append('\r');
+			}
+		}
+
+		return message == null ? null : completeMessage();
+	}
+
+	private String completeMessage() {
+		String completed = message.toString();
+		message = null;
+		return completed;
+	}
+
+	private boolean isBatchSegment(String segment) {
+		return segment.startsWith("FHS") || segment.startsWith("BHS") || segment.startsWith("BTS")
+		        || segment.startsWith("FTS");
+	}
+
+	/**
+	 * @return the next non blank segment without its terminator and framing characters, null at the
+	 *         end of the stream
+	 */
+	private String readSegment() throws IOException {
+		StringBuilder segment = new StringBuilder();
+		int c;
+		while ((c = reader.read()) != -1) {
+			if (c == '\r' || c == '\n' || c == MLLP_END) {
+				String completed = StringUtils.stripStart(segment.toString(), null);
+				if (!completed.isEmpty()) {
+					return completed;
+				}
+				segment.setLength(0);
+			} else if (c != MLLP_START) {
+				segment.append((char) c);
+			}
+		}
+
+		String completed = StringUtils.stripStart(segment.toString(), null);
+		return completed.isEmpty() ? null : completed;
+	}
+
+	/**
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+}
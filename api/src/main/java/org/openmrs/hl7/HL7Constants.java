@@ -82,6 +82,21 @@ public class HL7Constants {
 	 */
 	public static final String HL7_ARCHIVE_DIRECTORY_NAME = "hl7_archives";
 	
+	/**
+	 * value of the hl7 archive storage global property for storing one file per archive
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String HL7_ARCHIVE_STORAGE_FILE = "file";
+	
+	/**
+	 * value of the hl7 archive storage global property for storing archives in segment files
+	 * 
+	 * @since 2.5.0
+	 * @see HL7ArchiveSegmentStore
+	 */
+	public static final String HL7_ARCHIVE_STORAGE_SEGMENT = "segment";
+	
 	/**
 	 * @since 1.10
 	 */
@@ -103,6 +118,28 @@ public class HL7Constants {
 	 */
 	public static final String NUMBER_OF_FAILED_TRANSFERS_KEY = "failures";
 	
+	/**
+	 * the key to be used for the number of archives left to migrate in the progressStatusMap
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String NUMBER_REMAINING_KEY = "remaining";
+	
+	/**
+	 * the key to be used for the number of archives migrated per second in the progressStatusMap
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String TRANSFERS_PER_SECOND_KEY = "transfersPerSecond";
+	
+	/**
+	 * the key to be used for the estimated number of seconds until the migration completes in the
+	 * progressStatusMap
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String ESTIMATED_SECONDS_REMAINING_KEY = "secondsRemaining";
+	
 	/**
 	 * time taken before static/state properties of an instance of the hl7 in archive migration
 	 * thread are reset
@@ -0,0 +1,53 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.hl7;
+
+/**
+ * The outcome of importing an hl7 file with the {@link HL7FileImporter}
+ *
+ * @since 2.5.0
+ * @see HL7Service#importHL7File(java.io.InputStream, HL7Source, boolean)
+ */
+public class HL7FileImportResult {
+
+	private int messagesImported = 0;
+
+	private int messagesFailed = 0;
+
+	void messagesImported(int count) {
+		messagesImported += count;
+	}
+
+	void messagesFailed(int count) {
+		messagesFailed += count;
+	}
+
+	/**
+	 * @return the number of messages that were processed
+	 */
+	public int getMessagesImported() {
+		return messagesImported;
+	}
+
+	/**
+	 * @return the number of messages that were written to the error table
+	 */
+	public int getMessagesFailed() {
+		return messagesFailed;
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "HL7FileImportResult[imported=" + messagesImported + ", failed=" + messagesFailed + "]";
+	}
+}
@@ -0,0 +1,137 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.hl7;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.openmrs.api.APIException;
+import org.openmrs.api.context.Context;
+import org.openmrs.util.OpenmrsConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Imports the hl7 messages of a file, e.g. an uploaded one, straight into the database, without writing them to the
+ * inbound queue and archive tables. This is meant for backfills where going through the queue
+ * would double the write volume. The file is streamed with a {@link HL7BatchReader} and the
+ * messages are handed to {@link HL7Service#importHL7Messages(List)} in batches of
+ * {@link OpenmrsConstants#GP_HL7_PROCESSOR_BATCH_SIZE}, so only one batch is held in memory at a
+ * time. If a batch fails, its messages are imported again one at a time and the ones that still
+ * fail are written to the error table.
+ *
+ * @since 2.5.0
+ * @see HL7Service#importHL7File(InputStream, HL7Source, boolean)
+ */
+public class HL7FileImporter {
+
+	private static final Logger log = LoggerFactory.getLogger(HL7FileImporter.class);
+
+	/**
+	 * Imports all messages found in the given content, the stream is read to its end but not closed
+	 *
+	 * @param inputStream the UTF-8 encoded content to import
+	 * @param hl7Source the source to record for the messages
+	 * @param archiveToFileSystem whether to write the processed messages to the hl7 archives
+	 *            directory
+	 * @return the number of imported and failed messages
+	 * @throws APIException if the content cannot be read
+	 * <strong>Should</strong> import all messages of a batch file
+	 * <strong>Should</strong> write messages that cannot be processed to the error table
+	 * <strong>Should</strong> write processed messages to the archives directory if requested
+	 */
+	public HL7FileImportResult importFile(InputStream inputStream, HL7Source hl7Source, boolean archiveToFileSystem)
+	        throws APIException {
+		int batchSize = Math.max(Context.getAdministrationService().getGlobalPropertyValue(
+		    OpenmrsConstants.GP_HL7_PROCESSOR_BATCH_SIZE, 100), 1);
+		HL7FileImportResult result = new HL7FileImportResult();
+
+		log.debug("Importing hl7 messages from {} in batches of {}", hl7Source.getName(), batchSize);
+		// the caller owns the stream, so the reader is not closed
+		HL7BatchReader reader = new HL7BatchReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+		try {
+			List<HL7InQueue> batch = new ArrayList<>(batchSize);
+			String hl7Message;
+			while ((hl7Message = reader.nextMessage()) != null) {
+				HL7InQueue hl7InQueue = new HL7InQueue();
+				hl7InQueue.setHL7Source(hl7Source);
+				hl7InQueue.setHL7SourceKey(HL7Util.getMessageControlId(hl7Message));
+				hl7InQueue.setHL7Data(hl7Message);
+				batch.add(hl7InQueue);
+
+				if (batch.size() >= batchSize) {
+					importBatch(batch, archiveToFileSystem, result);
+					batch.clear();
+				}
+			}
+			if (!batch.isEmpty()) {
+				importBatch(batch, archiveToFileSystem, result);
+			}
+		}
+		catch (IOException e) {
+			throw new APIException("Hl7Service.import.read.error", new Object[] { hl7Source.getName() }, e);
+		}
+		log.debug("Done importing hl7 messages from {}: {}", hl7Source.getName(), result);
+
+		return result;
+	}
+
+	private void importBatch(List<HL7InQueue> batch, boolean archiveToFileSystem, HL7FileImportResult result) {
+		HL7Service hl7Service = Context.getHL7Service();
+		List<HL7InArchive> hl7InArchives;
+		try {
+			hl7InArchives = hl7Service.importHL7Messages(batch);
+		}
+		catch (Exception e) {
+			log.warn("Unable to import hl7 batch, falling back to importing its messages one at a time", e);
+			hl7Service.garbageCollect();
+			hl7InArchives = new ArrayList<>(batch.size());
+			for (HL7InQueue hl7InQueue : batch) {
+				hl7InArchives.addAll(importMessage(hl7InQueue));
+			}
+		}
+		result.messagesImported(hl7InArchives.size());
+		result.messagesFailed(batch.size() - hl7InArchives.size());
+
+		if (archiveToFileSystem) {
+			for (HL7InArchive hl7InArchive : hl7InArchives) {
+				try {
+					HL7Util.writeHL7InArchiveToFileSystem(hl7InArchive);
+				}
+				catch (APIException e) {
+					log.warn("Unable to archive imported hl7 message " + hl7InArchive.getHL7SourceKey(), e);
+				}
+			}
+		}
+
+		// clean up memory after each batch, the import may run through millions of messages
+		hl7Service.garbageCollect();
+	}
+
+	private List<HL7InArchive> importMessage(HL7InQueue hl7InQueue) {
+		try {
+			return Context.getHL7Service().importHL7Messages(Collections.singletonList(hl7InQueue));
+		}
+		catch (Exception e) {
+			HL7InError hl7InError = new HL7InError(hl7InQueue);
+			hl7InError.setError("Exception while attempting to import HL7 message (" + hl7InQueue.getHL7SourceKey() + ")");
+			hl7InError.setErrorDetails(ExceptionUtils.getStackTrace(e));
+			Context.getHL7Service().saveHL7InError(hl7InError);
+			log.info(hl7InError.getError(), e);
+			return Collections.emptyList();
+		}
+	}
+}
@@ -0,0 +1,84 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.hl7;
+
+/**
+ * The outcome of processing a batch of {@link HL7InQueue} items
+ *
+ * @since 2.5.0
+ * @see HL7Service#processNextHL7InQueueBatch(Integer, int)
+ */
+public class HL7InQueueBatchResult {
+
+	private final Integer lastHL7InQueueId;
+
+	private final int archived;
+
+	private final int errored;
+
+	private final int ignored;
+
+	/**
+	 * @param lastHL7InQueueId the greatest id of the claimed queue items, null if none were claimed
+	 * @param archived the number of items that were moved to the archive
+	 * @param errored the number of items that were moved to the error table
+	 * @param ignored the number of items that were left in the queue
+	 */
+	public HL7InQueueBatchResult(Integer lastHL7InQueueId, int archived, int errored, int ignored) {
+		this.lastHL7InQueueId = lastHL7InQueueId;
+		this.archived = archived;
+		this.errored = errored;
+		this.ignored = ignored;
+	}
+
+	/**
+	 * @return the greatest id of the claimed queue items, null if none were claimed
+	 */
+	public Integer getLastHL7InQueueId() {
+		return lastHL7InQueueId;
+	}
+
+	/**
+	 * @return the number of items that were processed and moved to the archive
+	 */
+	public int getArchived() {
+		return archived;
+	}
+
+	/**
+	 * @return the number of items that could not be processed and were moved to the error table
+	 */
+	public int getErrored() {
+		return errored;
+	}
+
+	/**
+	 * @return the number of items about missing patients from non-local sources that were left in
+	 *         the queue
+	 */
+	public int getIgnored() {
+		return ignored;
+	}
+
+	/**
+	 * @return the number of claimed queue items
+	 */
+	public int getClaimed() {
+		return archived + errored + ignored;
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "HL7InQueueBatchResult[archived=" + archived + ", errored=" + errored + ", ignored=" + ignored + "]";
+	}
+}
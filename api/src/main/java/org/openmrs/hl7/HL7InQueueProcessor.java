@@ -9,7 +9,22 @@
  */
 package org.openmrs.hl7;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
 import org.openmrs.api.context.Context;
+import org.openmrs.api.context.Daemon;
+import org.openmrs.api.context.UserContext;
+import org.openmrs.util.OpenmrsConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,7 +35,18 @@ import ca.uhn.hl7v2.HL7Exception;
  * Processes message in the HL7 inbound queue. Messages are moved into either the archive or error
  * table depending on success or failure of the processing. You may, however, set a global property
  * that causes the processor to ignore messages regarding unknown patients from a non-local HL7
- * source. (i.e. those messages neither go to the archive or the error table.)
+ * source. (i.e. those messages neither go to the archive or the error table.) <br>
+ * <br>
+ * By default the queue is processed one message at a time. If the
+ * {@link OpenmrsConstants#GP_HL7_PROCESSOR_WORKER_THREADS} global property is greater than one, the
+ * processor instead reads batches of pending entries, partitions each batch by the patient
+ * identifiers found in the PID segment and hands the partitions to a pool of worker threads, so
+ * messages about the same patient are still processed in the order they were received. The workers
+ * claim each entry in the transaction that processes it, see
+ * {@link HL7Service#processPendingHL7InQueue(Integer)}. With a
+ * single thread, {@link OpenmrsConstants#GP_HL7_PROCESSOR_BATCH_TRANSACTIONS} enabled and a
+ * {@link OpenmrsConstants#GP_HL7_PROCESSOR_BATCH_SIZE} greater than one, each batch is processed in
+ * one transaction.
  *
  * @version 1.0
  */
@@ -33,8 +59,26 @@ public class HL7InQueueProcessor /* implements Runnable */{
 
 	private static final Object lock = new Object();
 	
+	/**
+	 * the thread running the processor plus its worker threads, {@link #isRunning} is only cleared
+	 * once all of them have stopped, guarded by {@link #lock}
+	 */
+	private static int activeThreads = 0;
+	
 	private static Integer count = 0;
 	
+	private static final HL7InQueueProcessorMetrics metrics = new HL7InQueueProcessorMetrics();
+	
+	/**
+	 * number of entries a worker thread processes before clearing its session
+	 */
+	private static final int WORKER_SESSION_CLEAR_INTERVAL = 25;
+	
+	/**
+	 * milliseconds to wait for the worker threads to stop once the processor is interrupted
+	 */
+	private static final long WORKER_STOP_TIMEOUT = 30000;
+	
 	// processor per JVM
 	
 	/**
@@ -48,6 +92,15 @@ public class HL7InQueueProcessor /* implements Runnable */{
 		HL7InQueueProcessor.count = count;
 	}
 	
+	/**
+	 * @return the throughput metrics of the processor in this JVM
+	 * @see HL7Service#getHL7InQueueProcessorMetrics()
+	 * @since 2.5.0
+	 */
+	public static HL7InQueueProcessorMetrics getMetrics() {
+		return metrics;
+	}
+	
 	/**
 	 * Process a single queue entry from the inbound HL7 queue
 	 *
@@ -58,10 +111,13 @@ public class HL7InQueueProcessor /* implements Runnable */{
 		log.debug("Processing HL7 inbound queue (id={} ,key={})", hl7InQueue.getHL7InQueueId(),
 		    hl7InQueue.getHL7SourceKey());
 		
+		long start = System.nanoTime();
 		try {
 			Context.getHL7Service().processHL7InQueue(hl7InQueue);
+			metrics.messageProcessed(System.nanoTime() - start);
 		}
 		catch (HL7Exception e) {
+			metrics.messageFailed(System.nanoTime() - start);
 			log.error("Unable to process hl7 in queue", e);
 		}
 		setCount(count + 1);
@@ -70,6 +126,7 @@ public class HL7InQueueProcessor /* implements Runnable */{
 			// memory-intensive process may crash or eat up all our memory)
 			try {
 				Context.getHL7Service().garbageCollect();
+				setCount(0);
 			}
 			catch (Exception e) {
 				log.error("Exception while performing garbagecollect in hl7 inbound processor", e);
@@ -105,16 +162,327 @@ public class HL7InQueueProcessor /* implements Runnable */{
 				return;
 			}
 			isRunning = true;
+			activeThreads = 1;
 		}
+		long start = System.nanoTime();
 		try {
 			log.debug("Start processing hl7 in queue");
-			while (processNextHL7InQueue()) {
-				// loop until queue is empty
+			int workerThreads = Context.getAdministrationService().getGlobalPropertyValue(
+			    OpenmrsConstants.GP_HL7_PROCESSOR_WORKER_THREADS, 1);
+			int batchSize = Math.max(Context.getAdministrationService().getGlobalPropertyValue(
+			    OpenmrsConstants.GP_HL7_PROCESSOR_BATCH_SIZE, 100), 1);
+			boolean batchTransactions = Context.getAdministrationService().getGlobalPropertyValue(
+			    OpenmrsConstants.GP_HL7_PROCESSOR_BATCH_TRANSACTIONS, false);
+			metrics.setWorkerThreads(Math.max(workerThreads, 1));
+			if (workerThreads > 1) {
+				processHL7InQueueInParallel(workerThreads, batchSize);
+			} else if (batchTransactions && batchSize > 1) {
+				processHL7InQueueInBatches(batchSize);
+			} else {
+				while (processNextHL7InQueue()) {
+					// loop until queue is empty
+				}
 			}
 			log.debug("Done processing hl7 in queue");
 		}
 		finally {
-			isRunning = false;
+			metrics.runCompleted(System.nanoTime() - start);
+			threadStopped();
+		}
+	}
+	
+	private static void threadStarting() {
+		synchronized (lock) {
+			activeThreads++;
+		}
+	}
+	
+	/**
+	 * Called when the thread running the processor or one of its workers is done, the last one
+	 * allows the next run to start
+	 */
+	private static void threadStopped() {
+		synchronized (lock) {
+			if (--activeThreads == 0) {
+				isRunning = false;
+			}
+		}
+	}
+	
+	/**
+	 * Works through the pending queue entries a batch at a time, each batch is processed in a single
+	 * transaction. Entries that fail are moved to the error table one by one as part of the batch, if
+	 * the batch as a whole fails, its entries are processed again one at a time.
+	 *
+	 * @param batchSize the number of queue entries to claim at a time
+	 * @see HL7Service#processNextHL7InQueueBatch(Integer, int)
+	 */
+	private void processHL7InQueueInBatches(int batchSize) {
+		HL7Service hl7Service = Context.getHL7Service();
+		Integer lastHL7InQueueId = null;
+		while (true) {
+			long start = System.nanoTime();
+			Integer batchLastHL7InQueueId;
+			try {
+				HL7InQueueBatchResult result = hl7Service.processNextHL7InQueueBatch(lastHL7InQueueId, batchSize);
+				long elapsed = System.nanoTime() - start;
+				// ignored entries stay in the queue and are neither processed nor failed
+				for (int i = 0; i < result.getArchived(); i++) {
+					metrics.messageProcessed(elapsed / result.getClaimed());
+				}
+				for (int i = 0; i < result.getErrored(); i++) {
+					metrics.messageFailed(elapsed / result.getClaimed());
+				}
+				batchLastHL7InQueueId = result.getLastHL7InQueueId();
+			}
+			catch (Exception e) {
+				log.warn("Unable to process hl7 in queue batch, falling back to processing its entries one at a time", e);
+				hl7Service.garbageCollect();
+				List<HL7InQueue> batch = hl7Service.getNextHL7InQueueBatch(lastHL7InQueueId, batchSize);
+				List<Integer> hl7InQueueIds = new ArrayList<>(batch.size());
+				for (HL7InQueue hl7InQueue : batch) {
+					hl7InQueueIds.add(hl7InQueue.getHL7InQueueId());
+				}
+				processPartition(hl7InQueueIds);
+				batchLastHL7InQueueId = batch.isEmpty() ? null : batch.get(batch.size() - 1).getHL7InQueueId();
+			}
+			
+			if (batchLastHL7InQueueId == null) {
+				break;
+			}
+			metrics.batchProcessed();
+			lastHL7InQueueId = batchLastHL7InQueueId;
+			hl7Service.garbageCollect();
+		}
+	}
+	
+	/**
+	 * Works through the pending queue entries a batch at a time. Each batch is partitioned by patient
+	 * and the partitions are processed concurrently, every entry is claimed by the transaction that
+	 * processes it so that no other processor picks it up as well and nothing stays claimed if this
+	 * one stops. The next batch is only read once all partitions of the current one are done so that
+	 * the per patient ordering holds across batches.
+	 *
+	 * @param workerThreads the maximum number of threads to process a batch with
+	 * @param batchSize the number of queue entries to read at a time
+	 */
+	private void processHL7InQueueInParallel(int workerThreads, int batchSize) {
+		HL7Service hl7Service = Context.getHL7Service();
+		Integer lastHL7InQueueId = null;
+		List<HL7InQueue> batch = hl7Service.getNextHL7InQueueBatch(null, batchSize);
+		while (!batch.isEmpty()) {
+			lastHL7InQueueId = batch.get(batch.size() - 1).getHL7InQueueId();
+			Queue<List<Integer>> partitions = new ConcurrentLinkedQueue<>(partitionByPatient(batch));
+			// the workers load the entries in their own sessions
+			hl7Service.garbageCollect();
+			
+			log.debug("Processing {} hl7 in queue entries in {} partitions", batch.size(), partitions.size());
+			if (!processPartitions(partitions, Math.min(workerThreads, partitions.size()))) {
+				return;
+			}
+			metrics.batchProcessed();
+			
+			batch = hl7Service.getNextHL7InQueueBatch(lastHL7InQueueId, batchSize);
+		}
+	}
+	
+	/**
+	 * Starts the worker threads and waits for them to drain the given partitions
+	 *
+	 * @return false if the current thread was interrupted while waiting for the workers
+	 */
+	private boolean processPartitions(Queue<List<Integer>> partitions, int workerThreads) {
+		List<Thread> workers = new ArrayList<>(workerThreads);
+		Runnable worker = () -> {
+			try {
+				List<Integer> partition;
+				while (!Thread.currentThread().isInterrupted() && (partition = partitions.poll()) != null) {
+					processPartition(partition);
+				}
+			}
+			finally {
+				threadStopped();
+			}
+		};
+		
+		// scheduled tasks run as the daemon user, everyone else lends their user context to the workers
+		if (Daemon.isDaemonThread()) {
+			for (int i = 0; i < workerThreads; i++) {
+				threadStarting();
+				workers.add(Daemon.runInNewDaemonThread(worker));
+			}
+		} else {
+			UserContext userContext = Context.getUserContext();
+			for (int i = 0; i < workerThreads; i++) {
+				Thread thread = new Thread(() -> {
+					Context.openSession();
+					Context.setUserContext(userContext);
+					try {
+						worker.run();
+					}
+					finally {
+						Context.closeSession();
+					}
+				}, "HL7InQueueProcessor-worker-" + i);
+				threadStarting();
+				thread.start();
+				workers.add(thread);
+			}
+		}
+		
+		try {
+			for (Thread thread : workers) {
+				thread.join();
+			}
+		}
+		catch (InterruptedException e) {
+			log.warn("Interrupted while waiting for hl7 in queue workers, stopping them", e);
+			// the entries not processed yet are still pending for the next run
+			partitions.clear();
+			stopWorkers(workers);
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Interrupts the given worker threads and waits up to {@link #WORKER_STOP_TIMEOUT} for them to
+	 * finish the entry they are processing, workers still running after that keep the processor
+	 * marked as running until they stop
+	 */
+	private void stopWorkers(List<Thread> workers) {
+		for (Thread thread : workers) {
+			thread.interrupt();
+		}
+		long deadline = System.currentTimeMillis() + WORKER_STOP_TIMEOUT;
+		try {
+			for (Thread thread : workers) {
+				long remaining = deadline - System.currentTimeMillis();
+				if (remaining > 0) {
+					thread.join(remaining);
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			log.warn("Interrupted while waiting for hl7 in queue workers to stop", e);
+		}
+		for (Thread thread : workers) {
+			if (thread.isAlive()) {
+				log.warn("hl7 in queue worker {} is still running, the next run waits until it stops", thread.getName());
+			}
+		}
+	}
+	
+	/**
+	 * Processes the given queue entries one after the other in the calling thread, each in a
+	 * transaction of its own, entries which are no longer pending are skipped and the entries left
+	 * once the thread is interrupted stay pending
+	 *
+	 * @param hl7InQueueIds ids of the queue entries ordered by id
+	 */
+	private void processPartition(List<Integer> hl7InQueueIds) {
+		HL7Service hl7Service = Context.getHL7Service();
+		int processed = 0;
+		for (Integer hl7InQueueId : hl7InQueueIds) {
+			if (Thread.currentThread().isInterrupted()) {
+				// the remaining entries are still pending for the next run
+				break;
+			}
+			long start = System.nanoTime();
+			try {
+				if (hl7Service.processPendingHL7InQueue(hl7InQueueId) != null) {
+					metrics.messageProcessed(System.nanoTime() - start);
+				}
+			}
+			catch (Exception e) {
+				metrics.messageFailed(System.nanoTime() - start);
+				log.error("Unable to process hl7 in queue entry with id " + hl7InQueueId, e);
+			}
+			
+			if (++processed % WORKER_SESSION_CLEAR_INTERVAL == 0) {
+				hl7Service.garbageCollect();
+			}
+		}
+		hl7Service.garbageCollect();
+	}
+	
+	/**
+	 * Groups the given queue entries by the patient identifiers in their PID segment. Entries
+	 * sharing any identifier end up in the same partition, regardless of the order of the identifiers
+	 * and of the other identifiers they list. Entries without patient identifiers share a single
+	 * partition. The order of the entries within a partition is the order of the given list.
+	 *
+	 * @param hl7InQueues the queue entries to partition
+	 * @return lists of queue entry ids, one per patient
+	 * <strong>Should</strong> group entries by patient identifier preserving their order
+	 * <strong>Should</strong> group entries without patient identifiers together
+	 * <strong>Should</strong> group entries listing the identifiers of a patient in a different order
+	 * <strong>Should</strong> merge the partitions of identifiers listed together later
+	 */
+	static List<List<Integer>> partitionByPatient(List<HL7InQueue> hl7InQueues) {
+		List<Partition> partitions = new ArrayList<>();
+		Map<String, Partition> partitionsByIdentifier = new HashMap<>();
+		Partition withoutPatient = null;
+		for (int i = 0; i < hl7InQueues.size(); i++) {
+			Set<String> identifiers = HL7Util.getPatientIdentifiers(hl7InQueues.get(i).getHL7Data());
+			Partition partition = null;
+			if (identifiers.isEmpty()) {
+				if (withoutPatient == null) {
+					withoutPatient = new Partition();
+					partitions.add(withoutPatient);
+				}
+				partition = withoutPatient;
+			} else {
+				// an entry may link the partitions of identifiers seen in separate entries so far
+				for (String identifier : identifiers) {
+					Partition other = partitionsByIdentifier.get(identifier);
+					if (partition == null) {
+						partition = other;
+					} else if (other != null && other != partition) {
+						partition.merge(other, partitionsByIdentifier);
+						partitions.remove(other);
+					}
+				}
+				if (partition == null) {
+					partition = new Partition();
+					partitions.add(partition);
+				}
+				for (String identifier : identifiers) {
+					partition.identifiers.add(identifier);
+					partitionsByIdentifier.put(identifier, partition);
+				}
+			}
+			partition.positions.add(i);
+		}
+		
+		partitions.sort(Comparator.comparing(partition -> partition.positions.first()));
+		List<List<Integer>> result = new ArrayList<>(partitions.size());
+		for (Partition partition : partitions) {
+			List<Integer> hl7InQueueIds = new ArrayList<>(partition.positions.size());
+			for (Integer position : partition.positions) {
+				hl7InQueueIds.add(hl7InQueues.get(position).getHL7InQueueId());
+			}
+			result.add(hl7InQueueIds);
+		}
+		return result;
+	}
+	
+	/**
+	 * The queue entries of one patient, by their position in the batch
+	 */
+	private static class Partition {
+		
+		private final SortedSet<Integer> positions = new TreeSet<>();
+		
+		private final Set<String> identifiers = new HashSet<>();
+		
+		void merge(Partition other, Map<String, Partition> partitionsByIdentifier) {
+			positions.addAll(other.positions);
+			for (String identifier : other.identifiers) {
+				identifiers.add(identifier);
+				partitionsByIdentifier.put(identifier, this);
+			}
 		}
 	}
 	
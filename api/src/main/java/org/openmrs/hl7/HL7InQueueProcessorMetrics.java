@@ -0,0 +1,139 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.hl7;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput counters of the {@link HL7InQueueProcessor}. The counters are updated concurrently by
+ * the processor's worker threads and cover all runs since startup or the last {@link #reset()}.
+ *
+ * @since 2.5.0
+ * @see HL7Service#getHL7InQueueProcessorMetrics()
+ */
+public class HL7InQueueProcessorMetrics {
+	
+	private final AtomicLong messagesProcessed = new AtomicLong();
+	
+	private final AtomicLong messagesFailed = new AtomicLong();
+	
+	private final AtomicLong batchesProcessed = new AtomicLong();
+	
+	private final AtomicLong processingTimeNanos = new AtomicLong();
+	
+	private final AtomicLong runningTimeNanos = new AtomicLong();
+	
+	private volatile int workerThreads = 1;
+	
+	/**
+	 * Records a queue entry handed to the hl7 service. Entries processed one at a time count here
+	 * even if the service moved them to the error table, entries of a batch only if they were
+	 * archived.
+	 *
+	 * @param nanos the time it took to process the entry
+	 */
+	void messageProcessed(long nanos) {
+		messagesProcessed.incrementAndGet();
+		processingTimeNanos.addAndGet(nanos);
+	}
+	
+	/**
+	 * Records a queue entry the hl7 service failed on with an exception or moved to the error table
+	 * as part of a batch
+	 *
+	 * @param nanos the time spent on the entry before it failed
+	 */
+	void messageFailed(long nanos) {
+		messagesFailed.incrementAndGet();
+		processingTimeNanos.addAndGet(nanos);
+	}
+	
+	void batchProcessed() {
+		batchesProcessed.incrementAndGet();
+	}
+	
+	void runCompleted(long nanos) {
+		runningTimeNanos.addAndGet(nanos);
+	}
+	
+	void setWorkerThreads(int workerThreads) {
+		this.workerThreads = workerThreads;
+	}
+	
+	/**
+	 * @return the number of queue entries processed
+	 */
+	public long getMessagesProcessed() {
+		return messagesProcessed.get();
+	}
+	
+	/**
+	 * @return the number of queue entries the hl7 service failed on with an exception or moved to
+	 *         the error table as part of a batch
+	 */
+	public long getMessagesFailed() {
+		return messagesFailed.get();
+	}
+	
+	/**
+	 * @return the number of batches claimed from the queue by the worker pool
+	 */
+	public long getBatchesProcessed() {
+		return batchesProcessed.get();
+	}
+	
+	/**
+	 * @return the number of worker threads used by the last run
+	 */
+	public int getWorkerThreads() {
+		return workerThreads;
+	}
+	
+	/**
+	 * @return the wall clock time in milliseconds the processor has spent draining the queue
+	 */
+	public long getRunningTimeMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(runningTimeNanos.get());
+	}
+	
+	/**
+	 * @return the average time in milliseconds spent on a single queue entry
+	 */
+	public double getAverageProcessingTimeMillis() {
+		long count = messagesProcessed.get() + messagesFailed.get();
+		if (count == 0) {
+			return 0;
+		}
+		return processingTimeNanos.get() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+	
+	/**
+	 * @return the number of queue entries processed per second of running time
+	 */
+	public double getMessagesPerSecond() {
+		long nanos = runningTimeNanos.get();
+		if (nanos == 0) {
+			return 0;
+		}
+		return (messagesProcessed.get() + messagesFailed.get()) / (nanos / (double) TimeUnit.SECONDS.toNanos(1));
+	}
+	
+	/**
+	 * Sets all counters back to zero
+	 */
+	public void reset() {
+		messagesProcessed.set(0);
+		messagesFailed.set(0);
+		batchesProcessed.set(0);
+		processingTimeNanos.set(0);
+		runningTimeNanos.set(0);
+	}
+}
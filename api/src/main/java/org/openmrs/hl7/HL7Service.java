@@ -9,8 +9,10 @@
  */
 package org.openmrs.hl7;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import org.openmrs.Person;
 import org.openmrs.annotation.Authorized;
@@ -18,6 +20,7 @@ import org.openmrs.annotation.Logging;
 import org.openmrs.api.APIException;
 import org.openmrs.api.OpenmrsService;
 import org.openmrs.hl7.db.HL7DAO;
+import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.PrivilegeConstants;
 
 import ca.uhn.hl7v2.HL7Exception;
@@ -218,6 +221,31 @@ public interface HL7Service extends OpenmrsService {
 	@Authorized(PrivilegeConstants.GET_HL7_IN_QUEUE)
 	public HL7InQueue getNextHL7InQueue() throws APIException;
 	
+	/**
+	 * Get the next batch of pending queue items in the order they were received, used by the
+	 * {@link HL7InQueueProcessor} when it works through the queue with several worker threads
+	 * 
+	 * @param afterHL7InQueueId only items with a greater id are returned, null to start from the
+	 *            beginning of the queue
+	 * @param batchSize the maximum number of items to return
+	 * @return the pending queue items ordered by id
+	 * @since 2.5.0
+	 * <strong>Should</strong> return pending queue items ordered by id
+	 * <strong>Should</strong> only return queue items after the given id
+	 * <strong>Should</strong> not return more items than the batch size
+	 */
+	@Authorized(PrivilegeConstants.GET_HL7_IN_QUEUE)
+	public List<HL7InQueue> getNextHL7InQueueBatch(Integer afterHL7InQueueId, int batchSize) throws APIException;
+	
+	/**
+	 * Get the throughput metrics collected by the {@link HL7InQueueProcessor} of this JVM
+	 * 
+	 * @return the processor metrics
+	 * @since 2.5.0
+	 */
+	@Authorized(PrivilegeConstants.GET_HL7_IN_QUEUE)
+	public HL7InQueueProcessorMetrics getHL7InQueueProcessorMetrics() throws APIException;
+	
 	/**
 	 * Completely delete the hl7 in queue item from the database.
 	 * 
@@ -421,6 +449,88 @@ public interface HL7Service extends OpenmrsService {
 	 */
 	public HL7InQueue processHL7InQueue(HL7InQueue inQueue) throws HL7Exception;
 	
+	/**
+	 * Processes the queue item with the given id like {@link #processHL7InQueue(HL7InQueue)} if it is
+	 * still pending. The item is locked and marked as processing in the transaction that processes
+	 * it, so no other processor, e.g. on another node, processes it as well, and an item whose
+	 * processor stopped before the transaction was committed is still pending for the next run. Used
+	 * by the worker threads of the {@link HL7InQueueProcessor}.
+	 * 
+	 * @param hl7InQueueId the id of the queue item to process
+	 * @return the processed queue item or null if there is no pending item with the given id
+	 * @throws HL7Exception
+	 * @since 2.5.0
+	 * <strong>Should</strong> process a pending queue item
+	 * <strong>Should</strong> process a queue item read by a processor that stopped before processing it
+	 * <strong>Should</strong> not process a queue item that is not pending
+	 */
+	public HL7InQueue processPendingHL7InQueue(Integer hl7InQueueId) throws HL7Exception;
+	
+	/**
+	 * Claims the next batch of pending {@link HL7InQueue} items and processes them in a single
+	 * transaction. Every item is parsed and routed first, afterwards the resulting
+	 * {@link HL7InArchive} and {@link HL7InError} items are written and the queue items deleted with
+	 * a few batched statements instead of several round trips per message. Like
+	 * {@link #processHL7InQueue(HL7InQueue)}, every item is marked as processing, items that cannot
+	 * be parsed or routed are moved to the error table one by one, and items about missing patients
+	 * from non-local sources stay in the queue if
+	 * {@link OpenmrsConstants#GLOBAL_PROPERTY_IGNORE_MISSING_NONLOCAL_PATIENTS} is set.<br>
+	 * If the batch cannot be written, it is rolled back and the exception is rethrown, the caller is
+	 * expected to fall back to {@link #processHL7InQueue(HL7InQueue)} for the items of that batch.
+	 * 
+	 * @param afterHL7InQueueId only items with a greater id are claimed, null to start from the
+	 *            beginning of the queue
+	 * @param batchSize the maximum number of items to claim
+	 * @return the numbers of archived, errored and ignored items, none if there are no pending items
+	 *         left
+	 * @throws HL7Exception if one of the messages could not be routed
+	 * @since 2.5.0
+	 * <strong>Should</strong> archive processed items and delete them from the queue
+	 * <strong>Should</strong> move items that cannot be parsed to the error table
+	 * <strong>Should</strong> move items that cannot be routed to the error table
+	 * <strong>Should</strong> claim no items if there are no pending items
+	 */
+	public HL7InQueueBatchResult processNextHL7InQueueBatch(Integer afterHL7InQueueId, int batchSize) throws HL7Exception;
+	
+	/**
+	 * Parses and routes the given messages in a single transaction without storing them in the
+	 * inbound queue first. Messages that cannot be parsed are written to the error table, for the
+	 * others an {@link HL7InArchive} is created but not saved, it is up to the caller whether to keep
+	 * it. If routing any of the messages fails, the whole batch is rolled back and the exception is
+	 * rethrown.
+	 * 
+	 * @param hl7InQueues unsaved queue items holding the messages along with their source and key
+	 * @return the unsaved archive items of the messages that were processed
+	 * @throws HL7Exception if one of the messages could not be routed
+	 * @since 2.5.0
+	 * @see #importHL7File(InputStream, HL7Source, boolean)
+	 * <strong>Should</strong> process the messages without adding them to the queue or archive tables
+	 * <strong>Should</strong> move messages that cannot be parsed to the error table
+	 */
+	public List<HL7InArchive> importHL7Messages(List<HL7InQueue> hl7InQueues) throws HL7Exception;
+	
+	/**
+	 * Imports all hl7 messages found in the given content, e.g. an uploaded MLLP framed stream or
+	 * FHS/BHS batch file, bypassing the inbound queue. The content is streamed and processed in
+	 * batches of
+	 * {@link OpenmrsConstants#GP_HL7_PROCESSOR_BATCH_SIZE} messages, each in its own transaction.
+	 * Only the messages that fail end up in the error table, the processed ones are written to the
+	 * hl7 archives directory if requested and are not kept in the database otherwise. This method
+	 * must not be called from within a transaction. The stream is read to its end but not closed.
+	 * 
+	 * @param inputStream the UTF-8 encoded content to import
+	 * @param hl7Source the source to record for the messages
+	 * @param archiveToFileSystem whether to write the processed messages to the hl7 archives
+	 *            directory
+	 * @return the number of imported and failed messages
+	 * @throws APIException if the content cannot be read
+	 * @since 2.5.0
+	 * @see HL7FileImporter
+	 */
+	@Authorized(PrivilegeConstants.PRIV_ADD_HL7_IN_QUEUE)
+	public HL7FileImportResult importHL7File(InputStream inputStream, HL7Source hl7Source, boolean archiveToFileSystem)
+	        throws APIException;
+	
 	/**
 	 * Parses the given string and returns the resulting {@link Message}
 	 * 
@@ -447,16 +557,77 @@ public interface HL7Service extends OpenmrsService {
 	
 	/**
 	 * Method is called by the archives migration thread to transfer hl7 in archives from the
-	 * hl7_in_archives database table to the file system
+	 * hl7_in_archives database table to the file system. Depending on the
+	 * {@link OpenmrsConstants#GP_HL7_ARCHIVE_STORAGE} global property the archives are written to
+	 * one file each or appended to the segment files of the {@link HL7ArchiveSegmentStore}, using
+	 * {@link OpenmrsConstants#GP_HL7_ARCHIVE_MIGRATION_THREADS} threads. The archives are migrated
+	 * batch by batch with {@link #migrateNextHL7InArchiveBatch(Map, ExecutorService)}, sharing one
+	 * pool of threads, until none are left or the migration is stopped. This method does not run in
+	 * a transaction, every batch is committed on its own.
 	 * 
 	 * @param progressStatusMap the map holding the number of archives transferred and failed
-	 *            transfers
+	 *            transfers, the number remaining and the throughput are updated after every batch
 	 * @throws APIException
+	 * <strong>Should</strong> append archives to segment files if configured to
 	 */
 	@Authorized(requireAll = true, value = { PrivilegeConstants.GET_HL7_IN_ARCHIVE, PrivilegeConstants.PRIV_PURGE_HL7_IN_ARCHIVE,
 			PrivilegeConstants.PRIV_ADD_HL7_IN_QUEUE })
 	public void migrateHl7InArchivesToFileSystem(Map<String, Integer> progressStatusMap) throws APIException;
 	
+	/**
+	 * Migrates the next batch of hl7 in archives to the file system in one transaction. Archives are
+	 * migrated in the order of their ids starting after the
+	 * {@link OpenmrsConstants#GP_HL7_ARCHIVE_MIGRATION_CHECKPOINT} global property, which is advanced
+	 * past the batch in the same transaction so that an interrupted migration resumes where it left
+	 * off instead of scanning the archives that are already done. Archives that cannot be written
+	 * are counted as failed transfers and skipped, they stay in the database until the checkpoint is
+	 * reset. The archives are written with a pool of
+	 * {@link OpenmrsConstants#GP_HL7_ARCHIVE_MIGRATION_THREADS} threads created for this batch.
+	 * 
+	 * @param progressStatusMap the map holding the number of archives transferred and failed
+	 *            transfers, the counts of this batch are added to it
+	 * @return the number of archives in the batch, 0 if there are none left to migrate
+	 * @throws APIException if an archive is not in the processed state
+	 * @since 2.5.0
+	 * @see #migrateNextHL7InArchiveBatch(Map, ExecutorService)
+	 * <strong>Should</strong> migrate archives in the order of their ids and advance the checkpoint
+	 * <strong>Should</strong> resume after the checkpoint
+	 * <strong>Should</strong> skip archives that cannot be written and advance the checkpoint past them
+	 */
+	@Authorized(requireAll = true, value = { PrivilegeConstants.GET_HL7_IN_ARCHIVE, PrivilegeConstants.PRIV_PURGE_HL7_IN_ARCHIVE,
+			PrivilegeConstants.PRIV_ADD_HL7_IN_QUEUE })
+	public int migrateNextHL7InArchiveBatch(Map<String, Integer> progressStatusMap) throws APIException;
+	
+	/**
+	 * Same as {@link #migrateNextHL7InArchiveBatch(Map)} but writes the archives with the given
+	 * executor, so that a migration running through many batches doesn't start new threads for each
+	 * of them
+	 * 
+	 * @param progressStatusMap the map holding the number of archives transferred and failed
+	 *            transfers, the counts of this batch are added to it
+	 * @param executor the executor to write the archives with, null to write them on the calling
+	 *            thread
+	 * @return the number of archives in the batch, 0 if there are none left to migrate
+	 * @throws APIException if an archive is not in the processed state
+	 * @since 2.5.0
+	 */
+	@Authorized(requireAll = true, value = { PrivilegeConstants.GET_HL7_IN_ARCHIVE, PrivilegeConstants.PRIV_PURGE_HL7_IN_ARCHIVE,
+			PrivilegeConstants.PRIV_ADD_HL7_IN_QUEUE })
+	public int migrateNextHL7InArchiveBatch(Map<String, Integer> progressStatusMap, ExecutorService executor)
+	        throws APIException;
+	
+	/**
+	 * Counts the hl7 in archives left to migrate after the
+	 * {@link OpenmrsConstants#GP_HL7_ARCHIVE_MIGRATION_CHECKPOINT} global property
+	 * 
+	 * @return the number of archives
+	 * @throws APIException
+	 * @since 2.5.0
+	 * <strong>Should</strong> only count archives after the checkpoint
+	 */
+	@Authorized(PrivilegeConstants.GET_HL7_IN_ARCHIVE)
+	public Integer countHL7InArchivesToMigrate() throws APIException;
+	
 	/**
 	 * finds a UUID from an array of identifiers
 	 * 
@@ -497,7 +668,8 @@ public interface HL7Service extends OpenmrsService {
 	public void loadHL7InArchiveData(List<HL7InArchive> archives) throws APIException;
 	
 	/**
-	 * Loads HL7 data from the filesystem for an archived HL7InArchive
+	 * Loads HL7 data from the filesystem for an archived HL7InArchive, either from its own file or
+	 * from the {@link HL7ArchiveSegmentStore}
 	 * 
 	 * @since 1.7
 	 * @throws APIException
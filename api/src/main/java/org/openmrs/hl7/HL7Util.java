@@ -10,10 +10,20 @@
 package org.openmrs.hl7;
 
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.commons.lang3.StringUtils;
 import org.openmrs.api.APIException;
@@ -300,4 +310,189 @@ public class HL7Util {
 		
 		return OpenmrsUtil.getDirectoryInApplicationDataDirectory(archiveDir);
 	}
+	
+	/**
+	 * Extracts the raw patient identifier list (PID-3) from an unparsed hl7 message. This is meant
+	 * to be a cheap way of telling which messages concern the same patient without running the
+	 * message through the HAPI parser, e.g. when partitioning the inbound queue.
+	 *
+	 * @param hl7Message the raw hl7 message
+	 * @return the content of the PID-3 field or null if the message has no PID segment or the field
+	 *         is empty
+	 * <strong>Should</strong> return the patient identifier list of the PID segment
+	 * <strong>Should</strong> use the field separator declared in the MSH segment
+	 * <strong>Should</strong> return null if there is no PID segment
+	 * <strong>Should</strong> return null for a blank message
+	 */
+	public static String getPatientIdentifierList(String hl7Message) {
+		return getField(hl7Message, "PID", 3);
+	}
+	
+	/**
+	 * Extracts the patient identifiers (PID-3) from an unparsed hl7 message, each one made up of the
+	 * id, the assigning authority and the identifier type code, so that the identifiers of two
+	 * messages can be compared regardless of the order of the repetitions and of other components.
+	 *
+	 * @param hl7Message the raw hl7 message
+	 * @return the identifiers as id^authority^type, an empty set if the message has no PID segment
+	 *         or no identifiers
+	 * @since 2.5.0
+	 * <strong>Should</strong> return the id, assigning authority and type of each repetition
+	 * <strong>Should</strong> ignore the order of the repetitions and the other components
+	 * <strong>Should</strong> return an empty set if there is no PID segment
+	 */
+	public static Set<String> getPatientIdentifiers(String hl7Message) {
+		String identifierList = getPatientIdentifierList(hl7Message);
+		if (identifierList == null) {
+			return Collections.emptySet();
+		}
+		// MSH-2 holds the component separator followed by the repetition separator
+		String encodingCharacters = getField(hl7Message, "MSH", 1);
+		if (encodingCharacters == null || encodingCharacters.length() < 2) {
+			encodingCharacters = "^~";
+		}
+		char componentSeparator = encodingCharacters.charAt(0);
+		char repetitionSeparator = encodingCharacters.charAt(1);
+		
+		Set<String> identifiers = new TreeSet<>();
+		for (String repetition : StringUtils.split(identifierList, repetitionSeparator)) {
+			String[] components = StringUtils.splitPreserveAllTokens(repetition, componentSeparator);
+			String id = components[0].trim();
+			if (!id.isEmpty()) {
+				String authority = components.length > 3 ? components[3].trim() : "";
+				String type = components.length > 4 ? components[4].trim() : "";
+				identifiers.add(id + '^' + authority + '^' + type);
+			}
+		}
+		return identifiers;
+	}
+	
+	/**
+	 * Extracts the message control id (MSH-10) from an unparsed hl7 message
+	 *
+	 * @param hl7Message the raw hl7 message
+	 * @return the message control id or null if the message has none
+	 * @since 2.5.0
+	 * <strong>Should</strong> return the message control id of the MSH segment
+	 * <strong>Should</strong> return null for a blank message
+	 */
+	public static String getMessageControlId(String hl7Message) {
+		// MSH-1 is the field separator itself, so MSH-10 is the ninth field after the segment name
+		return getField(hl7Message, "MSH", 9);
+	}
+	
+	/**
+	 * Gets a field of the first segment with the given name out of an unparsed hl7 message
+	 *
+	 * @param hl7Message the raw hl7 message
+	 * @param segmentName the name of the segment
+	 * @param fieldIndex the index of the field, counting the segment name as field 0
+	 * @return the trimmed field or null if the segment or field does not exist or is empty
+	 */
+	private static String getField(String hl7Message, String segmentName, int fieldIndex) {
+		if (StringUtils.isBlank(hl7Message) || !hl7Message.startsWith("MSH") || hl7Message.length() < 4) {
+			return null;
+		}
+		
+		char fieldSeparator = hl7Message.charAt(3);
+		for (String segment : StringUtils.split(hl7Message, "\r\n")) {
+			if (segment.length() > 3 && segment.startsWith(segmentName) && segment.charAt(3) == fieldSeparator) {
+				String[] fields = StringUtils.splitPreserveAllTokens(segment, fieldSeparator);
+				if (fields.length > fieldIndex && StringUtils.isNotBlank(fields[fieldIndex])) {
+					return fields[fieldIndex].trim();
+				}
+				return null;
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Writes the given hl7 archive to a file below the {@link #getHl7ArchivesDirectory()}, the
+	 * files are grouped in folders by the year, month and day of month the archive was created
+	 *
+	 * @param hl7InArchive the hl7 archive to write to the file system
+	 * @return the URI of the written file
+	 * @throws APIException if the file cannot be written
+	 * @since 2.5.0
+	 */
+	public static URI writeHL7InArchiveToFileSystem(HL7InArchive hl7InArchive) throws APIException {
+		return writeHL7InArchiveToFileSystem(hl7InArchive, getHl7ArchivesDirectory());
+	}
+	
+	/**
+	 * Writes the given hl7 archive to a file below the given hl7 archives directory. Unlike
+	 * {@link #writeHL7InArchiveToFileSystem(HL7InArchive)} this does not look anything up in the
+	 * database and can be called from threads without a session.
+	 *
+	 * @param hl7InArchive the hl7 archive to write to the file system
+	 * @param destinationDir the hl7 archives directory
+	 * @return the URI of the written file
+	 * @throws APIException if the file cannot be written
+	 * @since 2.5.0
+	 */
+	public static URI writeHL7InArchiveToFileSystem(HL7InArchive hl7InArchive, File destinationDir) throws APIException {
+		
+		PrintWriter writer = null;
+		try {
+			// number formatter used to format month and day with zero padding
+			DecimalFormat df = new DecimalFormat("00");
+			
+			//write the archive to a separate file while grouping them according to
+			//the year, month and date of month when they were stored in the archives table
+			Calendar calendar = Calendar.getInstance(Context.getLocale());
+			calendar.setTime(hl7InArchive.getDateCreated());
+			
+			//resolve the year folder from the date of creation of the archive
+			File yearDir = new File(destinationDir, Integer.toString(calendar.get(Calendar.YEAR)));
+			if (!yearDir.isDirectory()) {
+				yearDir.mkdirs();
+			}
+			
+			//resolve the appropriate month folder
+			File monthDir = new File(yearDir, df.format(calendar.get(Calendar.MONTH) + 1));
+			if (!monthDir.isDirectory()) {
+				monthDir.mkdirs();
+			}
+			
+			//resolve the appropriate day of month folder
+			File dayDir = new File(monthDir, df.format(calendar.get(Calendar.DAY_OF_MONTH)));
+			if (!dayDir.isDirectory()) {
+				dayDir.mkdirs();
+			}
+			
+			//use the uuid, source id and source key(if present) to generate the file name
+			File fileToWriteTo = new File(dayDir, hl7InArchive.getUuid()
+			        + (StringUtils.isBlank(hl7InArchive.getHL7SourceKey()) ? "" : "_" + hl7InArchive.getHL7SourceKey())
+			        + ".txt");
+			
+			//write the hl7 data to the file
+			writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(fileToWriteTo), StandardCharsets.UTF_8));
+			writer.write(hl7InArchive.getHL7Data());
+			
+			//check if there was an error while writing to the current file
+			if (writer.checkError()) {
+				log.warn("An Error occured while writing hl7 archive with id '" + hl7InArchive.getHL7InArchiveId()
+				        + "' to the file system");
+				throw new APIException("Hl7Service.write.no.error", (Object[]) null);
+			}
+			
+			// hand back the URI for the file
+			return fileToWriteTo.toURI();
+			
+		}
+		catch (FileNotFoundException e) {
+			log
+			        .warn("Failed to write hl7 archive with id '" + hl7InArchive.getHL7InArchiveId()
+			                + "' to the file system ", e);
+			throw new APIException("Hl7Service.write.error", null, e);
+			
+		}
+		finally {
+			if (writer != null) {
+				writer.close();
+			}
+		}
+	}
 }
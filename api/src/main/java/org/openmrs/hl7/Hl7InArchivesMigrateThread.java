@@ -9,8 +9,8 @@
  */
 package org.openmrs.hl7;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.openmrs.api.APIException;
 import org.openmrs.api.context.Context;
@@ -28,8 +28,8 @@ public class Hl7InArchivesMigrateThread extends Thread {
 	private static final Logger log = LoggerFactory.getLogger(Hl7InArchivesMigrateThread.class);
 	
 	/**
-	 * Map holds data about the progress of the transfer process, that is numberTransferred and
-	 * numberOfFailedTransfers
+	 * Map holds data about the progress of the transfer process, that is numberTransferred,
+	 * numberOfFailedTransfers, the number of archives remaining and the throughput
 	 */
 	private static Map<String, Integer> progressStatusMap;
 	
@@ -73,7 +73,7 @@ public class Hl7InArchivesMigrateThread extends Thread {
 	 */
 	public Hl7InArchivesMigrateThread() {
 		this.userContext = Context.getUserContext();
-		setProgressStatusMap(new HashMap<>());
+		setProgressStatusMap(new ConcurrentHashMap<>());
 		progressStatusMap.put(HL7Constants.NUMBER_TRANSFERRED_KEY, 0);
 		progressStatusMap.put(HL7Constants.NUMBER_OF_FAILED_TRANSFERS_KEY, 0);
 	}
@@ -123,9 +123,7 @@ public class Hl7InArchivesMigrateThread extends Thread {
 		while (isActive() && transferStatus == Status.RUNNING) {
 			try {
 				// migrate the archives
-				if (isActive()) {
-					Context.getHL7Service().migrateHl7InArchivesToFileSystem(progressStatusMap);
-				}
+				Context.getHL7Service().migrateHl7InArchivesToFileSystem(progressStatusMap);
 				
 				//if transfer is done when user didn't just stop it
 				if (transferStatus != Status.STOPPED) {
@@ -193,6 +191,31 @@ public class Hl7InArchivesMigrateThread extends Thread {
 		return progressStatusMap.get(HL7Constants.NUMBER_OF_FAILED_TRANSFERS_KEY);
 	}
 	
+	/**
+	 * @return the number of archives left to migrate, null until the migration has counted them
+	 * @since 2.5.0
+	 */
+	public static Integer getNumberRemaining() {
+		return progressStatusMap == null ? null : progressStatusMap.get(HL7Constants.NUMBER_REMAINING_KEY);
+	}
+	
+	/**
+	 * @return the number of archives migrated per second so far, null until the first batch is done
+	 * @since 2.5.0
+	 */
+	public static Integer getTransfersPerSecond() {
+		return progressStatusMap == null ? null : progressStatusMap.get(HL7Constants.TRANSFERS_PER_SECOND_KEY);
+	}
+	
+	/**
+	 * @return the estimated number of seconds until the migration completes, null until the first
+	 *         batch is done
+	 * @since 2.5.0
+	 */
+	public static Integer getEstimatedSecondsRemaining() {
+		return progressStatusMap == null ? null : progressStatusMap.get(HL7Constants.ESTIMATED_SECONDS_REMAINING_KEY);
+	}
+	
 	/**
 	 * @return the userContext
 	 */
@@ -65,6 +65,15 @@ public interface HL7DAO {
 	 */
 	public HL7InQueue getHL7InQueue(Integer hl7InQueueId) throws DAOException;
 	
+	/**
+	 * Same as {@link #getHL7InQueue(Integer)} but the row is locked for update until the current
+	 * transaction ends so that no one else can claim it
+	 * 
+	 * @see org.openmrs.hl7.HL7Service#processPendingHL7InQueue(Integer)
+	 * @since 2.5.0
+	 */
+	public HL7InQueue claimHL7InQueue(Integer hl7InQueueId) throws DAOException;
+	
 	/**
 	 * @see HL7Service#getHL7InQueueByUuid(String)
 	 */
@@ -80,6 +89,26 @@ public interface HL7DAO {
 	 */
 	public HL7InQueue getNextHL7InQueue() throws DAOException;
 	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#getNextHL7InQueueBatch(Integer, int)
+	 */
+	public List<HL7InQueue> getNextHL7InQueueBatch(Integer afterHL7InQueueId, int batchSize) throws DAOException;
+	
+	/**
+	 * Same as {@link #getNextHL7InQueueBatch(Integer, int)} but the returned rows are locked for
+	 * update until the current transaction ends so that no one else can claim them
+	 * 
+	 * @see org.openmrs.hl7.HL7Service#processNextHL7InQueueBatch(Integer, int)
+	 */
+	public List<HL7InQueue> claimHL7InQueueBatch(Integer afterHL7InQueueId, int batchSize) throws DAOException;
+	
+	/**
+	 * Deletes the given queue items with a single statement
+	 * 
+	 * @param hl7InQueues the queue items to delete
+	 */
+	public void deleteHL7InQueues(List<HL7InQueue> hl7InQueues) throws DAOException;
+	
 	/**
 	 * @see org.openmrs.hl7.HL7Service#purgeHL7InQueue(org.openmrs.hl7.HL7InQueue)
 	 */
@@ -116,6 +145,14 @@ public interface HL7DAO {
 	 */
 	public HL7InArchive saveHL7InArchive(HL7InArchive hl7InArchive) throws DAOException;
 	
+	/**
+	 * Inserts the given new archive items using jdbc batching, the generated ids are not set on the
+	 * given objects
+	 * 
+	 * @param hl7InArchives the archive items to insert
+	 */
+	public void saveHL7InArchives(List<HL7InArchive> hl7InArchives) throws DAOException;
+	
 	/**
 	 * @see org.openmrs.hl7.HL7Service#getHL7InArchive(Integer)
 	 */
@@ -159,6 +196,27 @@ public interface HL7DAO {
 	 */
 	public List<HL7InArchive> getHL7InArchivesToMigrate();
 	
+	/**
+	 * Gets the next archives to be migrated ordered by their id, so that the archives can be paged
+	 * through by passing the id of the last archive of the previous page
+	 * 
+	 * @param afterHL7InArchiveId only archives with a greater id are returned, null to start from
+	 *            the beginning
+	 * @param batchSize the maximum number of archives to return
+	 * @return the archives
+	 * @since 2.5.0
+	 */
+	public List<HL7InArchive> getHL7InArchivesToMigrate(Integer afterHL7InArchiveId, int batchSize);
+	
+	/**
+	 * Counts the archives still to be migrated
+	 * 
+	 * @param afterHL7InArchiveId only archives with a greater id are counted, null to count all
+	 * @return the number of archives
+	 * @since 2.5.0
+	 */
+	public Long countHL7InArchivesToMigrate(Integer afterHL7InArchiveId);
+	
 	/* HL7InError */
 
 	/**
@@ -166,6 +224,14 @@ public interface HL7DAO {
 	 */
 	public HL7InError saveHL7InError(HL7InError hl7InError) throws DAOException;
 	
+	/**
+	 * Inserts the given new error items using jdbc batching, the generated ids are not set on the
+	 * given objects
+	 * 
+	 * @param hl7InErrors the error items to insert
+	 */
+	public void saveHL7InErrors(List<HL7InError> hl7InErrors) throws DAOException;
+	
 	/**
 	 * @see org.openmrs.hl7.HL7Service#getHL7InError(Integer)
 	 */
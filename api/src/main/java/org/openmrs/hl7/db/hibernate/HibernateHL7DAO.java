@@ -9,11 +9,16 @@
  */
 package org.openmrs.hl7.db.hibernate;
 
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 
 import org.hibernate.Criteria;
+import org.hibernate.LockMode;
 import org.hibernate.Query;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.MatchMode;
 import org.hibernate.criterion.Order;
@@ -117,6 +122,14 @@ public class HibernateHL7DAO implements HL7DAO {
 		return (HL7InQueue) sessionFactory.getCurrentSession().get(HL7InQueue.class, hl7InQueueId);
 	}
 	
+	/**
+	 * @see org.openmrs.hl7.db.HL7DAO#claimHL7InQueue(Integer)
+	 */
+	@Override
+	public HL7InQueue claimHL7InQueue(Integer hl7InQueueId) throws DAOException {
+		return sessionFactory.getCurrentSession().get(HL7InQueue.class, hl7InQueueId, LockMode.PESSIMISTIC_WRITE);
+	}
+	
 	@Override
 	public HL7InQueue getHL7InQueueByUuid(String uuid) throws DAOException {
 		return (HL7InQueue) sessionFactory.getCurrentSession().createCriteria(HL7InQueue.class).add(
@@ -205,6 +218,57 @@ public class HibernateHL7DAO implements HL7DAO {
 		return (HL7InQueue) query.uniqueResult();
 	}
 	
+	/**
+	 * @see org.openmrs.hl7.db.HL7DAO#getNextHL7InQueueBatch(Integer, int)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<HL7InQueue> getNextHL7InQueueBatch(Integer afterHL7InQueueId, int batchSize) throws DAOException {
+		return getNextHL7InQueueBatchCriteria(afterHL7InQueueId, batchSize).list();
+	}
+	
+	/**
+	 * @see org.openmrs.hl7.db.HL7DAO#claimHL7InQueueBatch(Integer, int)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<HL7InQueue> claimHL7InQueueBatch(Integer afterHL7InQueueId, int batchSize) throws DAOException {
+		return getNextHL7InQueueBatchCriteria(afterHL7InQueueId, batchSize).setLockMode(LockMode.PESSIMISTIC_WRITE)
+		        .list();
+	}
+	
+	private Criteria getNextHL7InQueueBatchCriteria(Integer afterHL7InQueueId, int batchSize) {
+		Criteria crit = sessionFactory.getCurrentSession().createCriteria(HL7InQueue.class);
+		crit.add(Restrictions.eq("messageState", HL7Constants.HL7_STATUS_PENDING));
+		if (afterHL7InQueueId != null) {
+			crit.add(Restrictions.gt("HL7InQueueId", afterHL7InQueueId));
+		}
+		crit.addOrder(Order.asc("HL7InQueueId"));
+		crit.setMaxResults(batchSize);
+		return crit;
+	}
+	
+	/**
+	 * @see org.openmrs.hl7.db.HL7DAO#deleteHL7InQueues(List)
+	 */
+	@Override
+	public void deleteHL7InQueues(List<HL7InQueue> hl7InQueues) throws DAOException {
+		if (hl7InQueues.isEmpty()) {
+			return;
+		}
+		Session session = sessionFactory.getCurrentSession();
+		List<Integer> ids = new ArrayList<>(hl7InQueues.size());
+		for (HL7InQueue hl7InQueue : hl7InQueues) {
+			ids.add(hl7InQueue.getHL7InQueueId());
+		}
+		session.createQuery("delete from HL7InQueue where HL7InQueueId in (:ids)").setParameterList("ids", ids)
+		        .executeUpdate();
+		// the bulk delete bypasses the session, make sure it doesn't try to flush the deleted rows later
+		for (HL7InQueue hl7InQueue : hl7InQueues) {
+			session.evict(hl7InQueue);
+		}
+	}
+	
 	/**
 	 * @see org.openmrs.hl7.db.HL7DAO#deleteHL7InQueue(org.openmrs.hl7.HL7InQueue)
 	 */
@@ -222,6 +286,31 @@ public class HibernateHL7DAO implements HL7DAO {
 		return hl7InArchive;
 	}
 	
+	/**
+	 * @see org.openmrs.hl7.db.HL7DAO#saveHL7InArchives(List)
+	 */
+	@Override
+	public void saveHL7InArchives(List<HL7InArchive> hl7InArchives) throws DAOException {
+		if (hl7InArchives.isEmpty()) {
+			return;
+		}
+		sessionFactory.getCurrentSession().doWork(connection -> {
+			try (PreparedStatement ps = connection.prepareStatement("insert into hl7_in_archive "
+			        + "(hl7_source, hl7_source_key, hl7_data, message_state, date_created, uuid) values (?, ?, ?, ?, ?, ?)")) {
+				for (HL7InArchive hl7InArchive : hl7InArchives) {
+					ps.setInt(1, hl7InArchive.getHL7Source().getHL7SourceId());
+					ps.setString(2, hl7InArchive.getHL7SourceKey());
+					ps.setString(3, hl7InArchive.getHL7Data());
+					ps.setInt(4, hl7InArchive.getMessageState());
+					ps.setTimestamp(5, new Timestamp(hl7InArchive.getDateCreated().getTime()));
+					ps.setString(6, hl7InArchive.getUuid());
+					ps.addBatch();
+				}
+				ps.executeBatch();
+			}
+		});
+	}
+	
 	/**
 	 * @see org.openmrs.hl7.db.HL7DAO#getHL7InArchive(java.lang.Integer)
 	 */
@@ -299,6 +388,33 @@ public class HibernateHL7DAO implements HL7DAO {
 		return hl7InError;
 	}
 	
+	/**
+	 * @see org.openmrs.hl7.db.HL7DAO#saveHL7InErrors(List)
+	 */
+	@Override
+	public void saveHL7InErrors(List<HL7InError> hl7InErrors) throws DAOException {
+		if (hl7InErrors.isEmpty()) {
+			return;
+		}
+		sessionFactory.getCurrentSession().doWork(connection -> {
+			try (PreparedStatement ps = connection.prepareStatement("insert into hl7_in_error "
+			        + "(hl7_source, hl7_source_key, hl7_data, error, error_details, date_created, uuid) "
+			        + "values (?, ?, ?, ?, ?, ?, ?)")) {
+				for (HL7InError hl7InError : hl7InErrors) {
+					ps.setInt(1, hl7InError.getHL7Source().getHL7SourceId());
+					ps.setString(2, hl7InError.getHL7SourceKey());
+					ps.setString(3, hl7InError.getHL7Data());
+					ps.setString(4, hl7InError.getError());
+					ps.setString(5, hl7InError.getErrorDetails());
+					ps.setTimestamp(6, new Timestamp(hl7InError.getDateCreated().getTime()));
+					ps.setString(7, hl7InError.getUuid());
+					ps.addBatch();
+				}
+				ps.executeBatch();
+			}
+		});
+	}
+	
 	/**
 	 * @see org.openmrs.hl7.db.HL7DAO#getHL7InError(Integer)
 	 */
@@ -358,15 +474,45 @@ public class HibernateHL7DAO implements HL7DAO {
 	@Override
 	@SuppressWarnings("unchecked")
 	public List<HL7InArchive> getHL7InArchivesToMigrate() {
+		Criteria crit = getHL7InArchivesToMigrateCriteria(null);
+		crit.setMaxResults(HL7Constants.MIGRATION_MAX_BATCH_SIZE);
+		return crit.list();
+	}
+	
+	/**
+	 * @see org.openmrs.hl7.db.HL7DAO#getHL7InArchivesToMigrate(Integer, int)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<HL7InArchive> getHL7InArchivesToMigrate(Integer afterHL7InArchiveId, int batchSize) {
+		Criteria crit = getHL7InArchivesToMigrateCriteria(afterHL7InArchiveId);
+		crit.addOrder(Order.asc("HL7InArchiveId"));
+		crit.setMaxResults(batchSize);
+		return crit.list();
+	}
+	
+	/**
+	 * @see org.openmrs.hl7.db.HL7DAO#countHL7InArchivesToMigrate(Integer)
+	 */
+	@Override
+	public Long countHL7InArchivesToMigrate(Integer afterHL7InArchiveId) {
+		Criteria crit = getHL7InArchivesToMigrateCriteria(afterHL7InArchiveId);
+		crit.setProjection(Projections.rowCount());
+		return (Long) crit.uniqueResult();
+	}
+	
+	private Criteria getHL7InArchivesToMigrateCriteria(Integer afterHL7InArchiveId) {
 		Integer daysToKeep = Hl7InArchivesMigrateThread.getDaysKept();
 		Criteria crit = getHL7SearchCriteria(HL7InArchive.class, HL7Constants.HL7_STATUS_PROCESSED, null);
-		crit.setMaxResults(HL7Constants.MIGRATION_MAX_BATCH_SIZE);
 		if (daysToKeep != null) {
 			Calendar cal = Calendar.getInstance();
 			cal.add(Calendar.DATE, -1 * daysToKeep);
 			crit.add(Restrictions.lt("dateCreated", cal.getTime()));
 		}
-		return crit.list();
+		if (afterHL7InArchiveId != null) {
+			crit.add(Restrictions.gt("HL7InArchiveId", afterHL7InArchiveId));
+		}
+		return crit;
 	}
 	
 }
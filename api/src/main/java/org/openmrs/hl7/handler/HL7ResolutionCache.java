@@ -0,0 +1,185 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.hl7.handler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openmrs.GlobalProperty;
+import org.openmrs.api.GlobalPropertyListener;
+import org.openmrs.api.context.Context;
+import org.openmrs.util.OpenmrsConstants;
+
+/**
+ * Remembers what the codes found in inbound hl7 messages resolved to, so that the handlers don't
+ * have to repeat the same concept mapping, provider and location queries for every message. Only
+ * the ids of the resolved objects are kept, the objects themselves are loaded in the session of
+ * the message being processed.<br>
+ * <br>
+ * Each kind of lookup is kept in a bounded least recently used map. Concepts are forgotten when a
+ * concept or reference term is saved, providers when a provider is saved and locations when a
+ * location is saved, see {@link HL7ResolutionCacheSaveHandler}. The ids of the OBR concepts which
+ * don't get an obs group are cached until one of the global properties defining them changes.
+ *
+ * @since 2.5.0
+ * @see ORUR01Handler
+ */
+public class HL7ResolutionCache implements GlobalPropertyListener {
+
+	/**
+	 * The maximum number of entries kept per kind of lookup
+	 */
+	static final int MAX_ENTRIES = 1000;
+
+	private static final Map<String, Integer> conceptIds = newLruMap();
+
+	private static final Map<String, Integer> providerIds = newLruMap();
+
+	private static final Map<String, Integer> locationIds = newLruMap();
+
+	private static volatile List<Integer> ignoredObrConceptIds = null;
+
+	private static Map<String, Integer> newLruMap() {
+		return Collections.synchronizedMap(new LinkedHashMap<String, Integer>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+				return size() > MAX_ENTRIES;
+			}
+		});
+	}
+
+	private static String key(String... parts) {
+		return StringUtils.join(parts, '^');
+	}
+
+	static Integer getConceptId(String code, String codingSystem) {
+		return conceptIds.get(key(codingSystem, code));
+	}
+
+	static void putConceptId(String code, String codingSystem, Integer conceptId) {
+		conceptIds.put(key(codingSystem, code), conceptId);
+	}
+
+	static void removeConceptId(String code, String codingSystem) {
+		conceptIds.remove(key(codingSystem, code));
+	}
+
+	static Integer getProviderId(String id, String assigningAuthority, String idType) {
+		return providerIds.get(key(idType, assigningAuthority, id));
+	}
+
+	static void putProviderId(String id, String assigningAuthority, String idType, Integer providerId) {
+		providerIds.put(key(idType, assigningAuthority, id), providerId);
+	}
+
+	static void removeProviderId(String id, String assigningAuthority, String idType) {
+		providerIds.remove(key(idType, assigningAuthority, id));
+	}
+
+	static Integer getLocationId(String encodedLocation) {
+		return locationIds.get(encodedLocation);
+	}
+
+	static void putLocationId(String encodedLocation, Integer locationId) {
+		locationIds.put(encodedLocation, locationId);
+	}
+
+	static void removeLocationId(String encodedLocation) {
+		locationIds.remove(encodedLocation);
+	}
+
+	/**
+	 * Gets the ids of the concepts for which OBR segments are not turned into obs groups, as
+	 * configured by {@link OpenmrsConstants#GLOBAL_PROPERTY_MEDICAL_RECORD_OBSERVATIONS} and
+	 * {@link OpenmrsConstants#GLOBAL_PROPERTY_PROBLEM_LIST}
+	 *
+	 * @return the ignored concept ids
+	 */
+	static List<Integer> getIgnoredObrConceptIds() {
+		List<Integer> ids = ignoredObrConceptIds;
+		if (ids == null) {
+			ids = new ArrayList<>();
+			String obrConceptId = Context.getAdministrationService().getGlobalProperty(
+			    OpenmrsConstants.GLOBAL_PROPERTY_MEDICAL_RECORD_OBSERVATIONS, "1238");
+			if (StringUtils.isNotEmpty(obrConceptId)) {
+				ids.add(Integer.valueOf(obrConceptId));
+			}
+			String obrProblemListConceptId = Context.getAdministrationService().getGlobalProperty(
+			    OpenmrsConstants.GLOBAL_PROPERTY_PROBLEM_LIST, "1284");
+			if (StringUtils.isNotEmpty(obrProblemListConceptId)) {
+				ids.add(Integer.valueOf(obrProblemListConceptId));
+			}
+			ids = Collections.unmodifiableList(ids);
+			ignoredObrConceptIds = ids;
+		}
+		return ids;
+	}
+
+	/**
+	 * Forgets all resolved concepts
+	 */
+	public static void clearConcepts() {
+		conceptIds.clear();
+	}
+
+	/**
+	 * Forgets all resolved providers
+	 */
+	public static void clearProviders() {
+		providerIds.clear();
+	}
+
+	/**
+	 * Forgets all resolved locations
+	 */
+	public static void clearLocations() {
+		locationIds.clear();
+	}
+
+	/**
+	 * Forgets everything that has been resolved so far
+	 */
+	public static void clear() {
+		clearConcepts();
+		clearProviders();
+		clearLocations();
+		ignoredObrConceptIds = null;
+	}
+
+	/**
+	 * @see org.openmrs.api.GlobalPropertyListener#supportsPropertyName(java.lang.String)
+	 */
+	@Override
+	public boolean supportsPropertyName(String propertyName) {
+		return OpenmrsConstants.GLOBAL_PROPERTY_MEDICAL_RECORD_OBSERVATIONS.equals(propertyName)
+		        || OpenmrsConstants.GLOBAL_PROPERTY_PROBLEM_LIST.equals(propertyName);
+	}
+
+	/**
+	 * @see org.openmrs.api.GlobalPropertyListener#globalPropertyChanged(org.openmrs.GlobalProperty)
+	 */
+	@Override
+	public void globalPropertyChanged(GlobalProperty newValue) {
+		ignoredObrConceptIds = null;
+	}
+
+	/**
+	 * @see org.openmrs.api.GlobalPropertyListener#globalPropertyDeleted(java.lang.String)
+	 */
+	@Override
+	public void globalPropertyDeleted(String propertyName) {
+		ignoredObrConceptIds = null;
+	}
+}
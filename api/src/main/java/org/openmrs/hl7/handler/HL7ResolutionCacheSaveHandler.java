@@ -0,0 +1,105 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.hl7.handler;
+
+import java.util.Date;
+
+import org.openmrs.Concept;
+import org.openmrs.ConceptReferenceTerm;
+import org.openmrs.Location;
+import org.openmrs.OpenmrsObject;
+import org.openmrs.Provider;
+import org.openmrs.User;
+import org.openmrs.annotation.Handler;
+import org.openmrs.aop.RequiredDataAdvice;
+import org.openmrs.api.handler.SaveHandler;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Clears the parts of the {@link HL7ResolutionCache} that might be stale when concepts, reference
+ * terms, providers or locations are saved via a save* method in an Openmrs Service. The cache is
+ * cleared once the transaction is committed, so that messages processed concurrently cannot put
+ * back what they resolved from the data before the change. This handler is automatically called by
+ * the {@link RequiredDataAdvice} AOP class.
+ *
+ * @since 2.5.0
+ * @see HL7ResolutionCache
+ */
+@Handler(supports = { Concept.class, ConceptReferenceTerm.class, Provider.class, Location.class })
+public class HL7ResolutionCacheSaveHandler implements SaveHandler<OpenmrsObject> {
+
+	/**
+	 * @see org.openmrs.api.handler.SaveHandler#handle(org.openmrs.OpenmrsObject, org.openmrs.User,
+	 *      java.util.Date, java.lang.String)
+	 * <strong>Should</strong> clear resolved concepts when a concept is saved
+	 * <strong>Should</strong> clear resolved providers when a provider is saved
+	 * <strong>Should</strong> not clear anything before the transaction is committed
+	 */
+	@Override
+	public void handle(OpenmrsObject object, User creator, Date dateCreated, String other) {
+		ClearAfterCommit clearAfterCommit = getClearAfterCommit();
+		if (object instanceof Concept || object instanceof ConceptReferenceTerm) {
+			clearAfterCommit.concepts = true;
+		} else if (object instanceof Provider) {
+			clearAfterCommit.providers = true;
+		} else if (object instanceof Location) {
+			clearAfterCommit.locations = true;
+		}
+		
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			clearAfterCommit.afterCommit();
+		}
+	}
+	
+	private ClearAfterCommit getClearAfterCommit() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return new ClearAfterCommit();
+		}
+		ClearAfterCommit clearAfterCommit = (ClearAfterCommit) TransactionSynchronizationManager
+		        .getResource(ClearAfterCommit.class);
+		if (clearAfterCommit == null) {
+			clearAfterCommit = new ClearAfterCommit();
+			TransactionSynchronizationManager.bindResource(ClearAfterCommit.class, clearAfterCommit);
+			TransactionSynchronizationManager.registerSynchronization(clearAfterCommit);
+		}
+		return clearAfterCommit;
+	}
+	
+	/**
+	 * Clears the parts of the cache touched in the current transaction once it is committed
+	 */
+	static class ClearAfterCommit extends TransactionSynchronizationAdapter {
+		
+		private boolean concepts;
+		
+		private boolean providers;
+		
+		private boolean locations;
+		
+		@Override
+		public void afterCommit() {
+			if (concepts) {
+				HL7ResolutionCache.clearConcepts();
+			}
+			if (providers) {
+				HL7ResolutionCache.clearProviders();
+			}
+			if (locations) {
+				HL7ResolutionCache.clearLocations();
+			}
+		}
+		
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(ClearAfterCommit.class);
+		}
+	}
+}
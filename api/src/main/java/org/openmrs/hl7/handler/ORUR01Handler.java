@@ -13,8 +13,10 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
@@ -222,22 +224,13 @@ public class ORUR01Handler implements Application {
 		
 		// create observations
 		log.debug("Creating observations for message {}...", messageControlId);
-		// we ignore all MEDICAL_RECORD_OBSERVATIONS that are OBRs.  We do not
-		// create obs_groups for them
-		List<Integer> ignoredConceptIds = new ArrayList<>();
+		// we ignore all MEDICAL_RECORD_OBSERVATIONS and PROBLEM_LIST that are
+		// OBRs.  We do not create obs_groups for them
+		List<Integer> ignoredConceptIds = HL7ResolutionCache.getIgnoredObrConceptIds();
 		
-		String obrConceptId = Context.getAdministrationService().getGlobalProperty(
-		    OpenmrsConstants.GLOBAL_PROPERTY_MEDICAL_RECORD_OBSERVATIONS, "1238");
-		if (StringUtils.hasLength(obrConceptId)) {
-			ignoredConceptIds.add(Integer.valueOf(obrConceptId));
-		}
-		
-		// we also ignore all PROBLEM_LIST that are OBRs
-		String obrProblemListConceptId = Context.getAdministrationService().getGlobalProperty(
-		    OpenmrsConstants.GLOBAL_PROPERTY_PROBLEM_LIST, "1284");
-		if (StringUtils.hasLength(obrProblemListConceptId)) {
-			ignoredConceptIds.add(Integer.valueOf(obrProblemListConceptId));
-		}
+		// concepts resolved while processing this message, keyed by coding
+		// system and code so that repeated codes are only looked up once
+		Map<String, Concept> messageConcepts = new HashMap<>();
 		
 		ORU_R01_PATIENT_RESULT patientResult = oru.getPATIENT_RESULT();
 		int numObr = patientResult.getORDER_OBSERVATIONReps();
@@ -256,7 +249,7 @@ public class ORUR01Handler implements Application {
 			// if we're not ignoring this obs group, create an
 			// Obs grouper object that the underlying obs objects will use
 			Obs obsGrouper = null;
-			Concept obrConcept = getConcept(obr.getUniversalServiceIdentifier(), messageControlId);
+			Concept obrConcept = getConcept(obr.getUniversalServiceIdentifier(), messageControlId, messageConcepts);
 			if (obrConcept != null && !ignoredConceptIds.contains(obrConcept.getId())) {
 				// maybe check for a parent obs group from OBR-29 Parent ?
 				
@@ -305,7 +298,7 @@ public class ORUR01Handler implements Application {
 				OBX obx = orderObs.getOBSERVATION(j).getOBX();
 				try {
 					log.debug("Parsing observation");
-					Obs obs = parseObs(encounter, obx, obr, messageControlId);
+					Obs obs = parseObs(encounter, obx, obr, messageControlId, messageConcepts);
 					if (obs != null) {
 						
 						// if we're backfilling an encounter, don't use
@@ -584,6 +577,7 @@ public class ORUR01Handler implements Application {
 	 * @param obx The hl7 obx message
 	 * @param obr The parent hl7 or message
 	 * @param uid unique string for this message for any error reporting purposes
+	 * @param messageConcepts the concepts already resolved while processing this message
 	 * @return Obs pojo with all values filled in
 	 * @throws HL7Exception if there is a parsing exception
 	 * @throws ProposingConceptException if the answer to this obs is a proposed concept
@@ -591,7 +585,8 @@ public class ORUR01Handler implements Application {
 	 * <strong>Should</strong> add multiple comments for an observation as one comment
 	 * <strong>Should</strong> add comments to an observation group
 	 */
-	private Obs parseObs(Encounter encounter, OBX obx, OBR obr, String uid) throws HL7Exception, ProposingConceptException {
+	private Obs parseObs(Encounter encounter, OBX obx, OBR obr, String uid, Map<String, Concept> messageConcepts)
+	        throws HL7Exception, ProposingConceptException {
 		if (log.isDebugEnabled()) {
 			log.debug("parsing observation: " + obx);
 		}
@@ -606,7 +601,7 @@ public class ORUR01Handler implements Application {
 		if (log.isDebugEnabled()) {
 			log.debug("  datatype = " + hl7Datatype);
 		}
-		Concept concept = getConcept(obx.getObservationIdentifier(), uid);
+		Concept concept = getConcept(obx.getObservationIdentifier(), uid, messageConcepts);
 		if (log.isDebugEnabled()) {
 			log.debug("  concept = " + concept.getConceptId());
 		}
@@ -717,7 +712,7 @@ public class ORUR01Handler implements Application {
 			} else {
 				log.debug("    not proposal");
 				try {
-					Concept valueConcept = getConcept(value, uid);
+					Concept valueConcept = getConcept(value, uid, messageConcepts);
 					obs.setValueCoded(valueConcept);
 					if (HL7Constants.HL7_LOCAL_DRUG.equals(value.getNameOfAlternateCodingSystem().getValue())) {
 						Drug valueDrug = new Drug();
@@ -750,7 +745,7 @@ public class ORUR01Handler implements Application {
 				throw new ProposingConceptException(concept, valueName);
 			} else {
 				try {
-					obs.setValueCoded(getConcept(value, uid));
+					obs.setValueCoded(getConcept(value, uid, messageConcepts));
 					obs.setValueCodedName(getConceptName(value));
 				}
 				catch (NumberFormatException e) {
@@ -908,14 +903,15 @@ public class ORUR01Handler implements Application {
 	 *
 	 * @param codedElement ce to pull from
 	 * @param uid unique string for this message for any error reporting purposes
+	 * @param messageConcepts the concepts already resolved while processing this message
 	 * @return new Concept object
 	 * @throws HL7Exception if parsing errors occur
 	 */
-	private Concept getConcept(CE codedElement, String uid) throws HL7Exception {
+	private Concept getConcept(CE codedElement, String uid, Map<String, Concept> messageConcepts) throws HL7Exception {
 		String hl7ConceptId = codedElement.getIdentifier().getValue();
 		
 		String codingSystem = codedElement.getNameOfCodingSystem().getValue();
-		return getConcept(hl7ConceptId, codingSystem, uid);
+		return getConcept(hl7ConceptId, codingSystem, uid, messageConcepts);
 	}
 	
 	/**
@@ -923,14 +919,40 @@ public class ORUR01Handler implements Application {
 	 *
 	 * @param codedElement cwe to pull from
 	 * @param uid unique string for this message for any error reporting purposes
+	 * @param messageConcepts the concepts already resolved while processing this message
 	 * @return new Concept object
 	 * @throws HL7Exception if parsing errors occur
 	 */
-	private Concept getConcept(CWE codedElement, String uid) throws HL7Exception {
+	private Concept getConcept(CWE codedElement, String uid, Map<String, Concept> messageConcepts) throws HL7Exception {
 		String hl7ConceptId = codedElement.getIdentifier().getValue();
 		
 		String codingSystem = codedElement.getNameOfCodingSystem().getValue();
-		return getConcept(hl7ConceptId, codingSystem, uid);
+		return getConcept(hl7ConceptId, codingSystem, uid, messageConcepts);
+	}
+	
+	/**
+	 * Get the concept for the given code, reusing the concepts already resolved while processing
+	 * the current message
+	 *
+	 * @param hl7ConceptId the given hl7 conceptId
+	 * @param codingSystem the coding system for this conceptid (e.g. 99DCT)
+	 * @param uid unique string for this message for any error reporting purposes
+	 * @param messageConcepts the concepts already resolved while processing this message
+	 * @return a Concept object or null if no conceptId with given coding system found
+	 * @throws HL7Exception if parsing errors occur
+	 * @see #getConcept(String, String, String)
+	 */
+	private Concept getConcept(String hl7ConceptId, String codingSystem, String uid, Map<String, Concept> messageConcepts)
+	        throws HL7Exception {
+		String key = codingSystem + "^" + hl7ConceptId;
+		Concept concept = messageConcepts.get(key);
+		if (concept == null) {
+			concept = getConcept(hl7ConceptId, codingSystem, uid);
+			if (concept != null) {
+				messageConcepts.put(key, concept);
+			}
+		}
+		return concept;
 	}
 	
 	/**
@@ -959,8 +981,20 @@ public class ORUR01Handler implements Application {
 				    new Object[] { hl7ConceptId, uid }, null));
 			}
 		} else {
-			// the concept is not local, look it up in our mapping
-			return Context.getConceptService().getConceptByMapping(hl7ConceptId, codingSystem);
+			// the concept is not local, look it up in our mapping unless we already did
+			Integer conceptId = HL7ResolutionCache.getConceptId(hl7ConceptId, codingSystem);
+			if (conceptId != null) {
+				Concept concept = Context.getConceptService().getConcept(conceptId);
+				if (concept != null) {
+					return concept;
+				}
+				HL7ResolutionCache.removeConceptId(hl7ConceptId, codingSystem);
+			}
+			Concept concept = Context.getConceptService().getConceptByMapping(hl7ConceptId, codingSystem);
+			if (concept != null) {
+				HL7ResolutionCache.putConceptId(hl7ConceptId, codingSystem, concept.getConceptId());
+			}
+			return concept;
 		}
 	}
 	
@@ -1028,6 +1062,15 @@ public class ORUR01Handler implements Application {
 		String type = hl7Provider.getAssigningAuthority().getUniversalIDType().getValue();
 		String errorMessage;
 		if (StringUtils.hasText(id)) {
+			Integer providerId = HL7ResolutionCache.getProviderId(id, assignAuth, type);
+			if (providerId != null) {
+				provider = Context.getProviderService().getProvider(providerId);
+				if (provider != null) {
+					return provider;
+				}
+				HL7ResolutionCache.removeProviderId(id, assignAuth, type);
+			}
+			
 			String specificErrorMsg = "";
 			if (OpenmrsUtil.nullSafeEquals("L", type)) {
 				if (HL7Constants.PROVIDER_ASSIGNING_AUTH_PROV_ID.equalsIgnoreCase(assignAuth)) {
@@ -1068,6 +1111,7 @@ public class ORUR01Handler implements Application {
 			throw new HL7Exception(errorMessage);
 		}
 		
+		HL7ResolutionCache.putProviderId(id, assignAuth, type, provider.getProviderId());
 		return provider;
 	}
 	
@@ -1098,12 +1142,26 @@ public class ORUR01Handler implements Application {
 	
 	private Location getLocation(PV1 pv1) throws HL7Exception {
 		PL hl7Location = pv1.getAssignedPatientLocation();
-		Integer locationId = Context.getHL7Service().resolveLocationId(hl7Location);
+		String encodedLocation = hl7Location.encode();
+		Integer locationId = HL7ResolutionCache.getLocationId(encodedLocation);
+		if (locationId != null) {
+			Location location = Context.getLocationService().getLocation(locationId);
+			if (location != null) {
+				return location;
+			}
+			HL7ResolutionCache.removeLocationId(encodedLocation);
+		}
+		
+		locationId = Context.getHL7Service().resolveLocationId(hl7Location);
 		if (locationId == null) {
 			throw new HL7Exception(Context.getMessageSourceService().getMessage("ORUR01.error.UnresolvedLocation"));
 		}
 		
-		return Context.getLocationService().getLocation(locationId);
+		Location location = Context.getLocationService().getLocation(locationId);
+		if (location != null) {
+			HL7ResolutionCache.putLocationId(encodedLocation, locationId);
+		}
+		return location;
 	}
 	
 	/**
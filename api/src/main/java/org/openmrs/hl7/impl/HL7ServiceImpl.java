@@ -10,22 +10,20 @@
 package org.openmrs.hl7.impl;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
-import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -39,12 +37,17 @@ import org.openmrs.User;
 import org.openmrs.api.APIException;
 import org.openmrs.api.PatientIdentifierException;
 import org.openmrs.api.context.Context;
-import org.openmrs.api.db.DAOException;
 import org.openmrs.api.impl.BaseOpenmrsService;
+import org.openmrs.hl7.HL7ArchiveSegmentStore;
 import org.openmrs.hl7.HL7Constants;
+import org.openmrs.hl7.HL7FileImportResult;
+import org.openmrs.hl7.HL7FileImporter;
 import org.openmrs.hl7.HL7InArchive;
 import org.openmrs.hl7.HL7InError;
 import org.openmrs.hl7.HL7InQueue;
+import org.openmrs.hl7.HL7InQueueBatchResult;
+import org.openmrs.hl7.HL7InQueueProcessor;
+import org.openmrs.hl7.HL7InQueueProcessorMetrics;
 import org.openmrs.hl7.HL7QueueItem;
 import org.openmrs.hl7.HL7Service;
 import org.openmrs.hl7.HL7Source;
@@ -58,6 +61,7 @@ import org.openmrs.util.PrivilegeConstants;
 import org.openmrs.validator.PatientIdentifierValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import ca.uhn.hl7v2.HL7Exception;
@@ -311,6 +315,24 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 		return dao.getNextHL7InQueue();
 	}
 	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#getNextHL7InQueueBatch(Integer, int)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<HL7InQueue> getNextHL7InQueueBatch(Integer afterHL7InQueueId, int batchSize) throws APIException {
+		return dao.getNextHL7InQueueBatch(afterHL7InQueueId, batchSize);
+	}
+	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#getHL7InQueueProcessorMetrics()
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public HL7InQueueProcessorMetrics getHL7InQueueProcessorMetrics() throws APIException {
+		return HL7InQueueProcessor.getMetrics();
+	}
+	
 	/**
 	 * @see org.openmrs.hl7.HL7Service#getHL7InArchiveByState(java.lang.Integer)
 	 */
@@ -368,13 +390,6 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 		return dao.getHL7InArchive(hl7InArchiveId);
 	}
 	
-	/**
-	 * get a list of archives to be migrated to the filesystem
-	 */
-	private List<HL7InArchive> getHL7InArchivesToMigrate() {
-		return dao.getHL7InArchivesToMigrate();
-	}
-	
 	/**
 	 * @see org.openmrs.hl7.HL7Service#getAllHL7InErrors()
 	 */
@@ -739,20 +754,7 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 			Context.getHL7Service().purgeHL7InQueue(hl7InQueue);
 		}
 		catch (HL7Exception e) {
-			boolean skipError = false;
-			log.debug("Unable to process hl7inqueue: " + hl7InQueue.getHL7InQueueId(), e);
-			log.debug("Hl7inqueue source: " + hl7InQueue.getHL7Source());
-			log.debug("hl7_processor.ignore_missing_patient_non_local? "
-			        + Context.getAdministrationService().getGlobalProperty(
-			            OpenmrsConstants.GLOBAL_PROPERTY_IGNORE_MISSING_NONLOCAL_PATIENTS, "false"));
-			if (e.getCause() != null
-			        && "Could not resolve patient".equals(e.getCause().getMessage())
-			        && !"local".equals(hl7InQueue.getHL7Source().getName())
-			        && "true".equals(Context.getAdministrationService().getGlobalProperty(
-			            OpenmrsConstants.GLOBAL_PROPERTY_IGNORE_MISSING_NONLOCAL_PATIENTS, "false"))) {
-				skipError = true;
-			}
-			if (!skipError) {
+			if (!isIgnoredMissingPatient(hl7InQueue, e)) {
 				setFatalError(hl7InQueue, "Trouble parsing HL7 message (" + hl7InQueue.getHL7SourceKey() + ")", e);
 			}
 			
@@ -765,11 +767,172 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 		return hl7InQueue;
 	}
 	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#processPendingHL7InQueue(Integer)
+	 */
+	@Override
+	public HL7InQueue processPendingHL7InQueue(Integer hl7InQueueId) throws HL7Exception {
+		HL7InQueue hl7InQueue = dao.claimHL7InQueue(hl7InQueueId);
+		// the item was purged or another processor got to it first
+		if (hl7InQueue == null || !HL7Constants.HL7_STATUS_PENDING.equals(hl7InQueue.getMessageState())) {
+			return null;
+		}
+		// NOT making a direct call here so that AOP can happen around this method
+		return Context.getHL7Service().processHL7InQueue(hl7InQueue);
+	}
+	
+	/**
+	 * Checks whether the processing of the given queue item failed because its patient is unknown
+	 * and such messages from non-local sources are to be ignored, in which case the item neither
+	 * goes to the archive nor to the error table
+	 */
+	private boolean isIgnoredMissingPatient(HL7InQueue hl7InQueue, HL7Exception e) {
+		log.debug("Unable to process hl7inqueue: " + hl7InQueue.getHL7InQueueId(), e);
+		log.debug("Hl7inqueue source: " + hl7InQueue.getHL7Source());
+		log.debug("hl7_processor.ignore_missing_patient_non_local? "
+		        + Context.getAdministrationService().getGlobalProperty(
+		            OpenmrsConstants.GLOBAL_PROPERTY_IGNORE_MISSING_NONLOCAL_PATIENTS, "false"));
+		return e.getCause() != null
+		        && "Could not resolve patient".equals(e.getCause().getMessage())
+		        && !"local".equals(hl7InQueue.getHL7Source().getName())
+		        && "true".equals(Context.getAdministrationService().getGlobalProperty(
+		            OpenmrsConstants.GLOBAL_PROPERTY_IGNORE_MISSING_NONLOCAL_PATIENTS, "false"));
+	}
+	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#processNextHL7InQueueBatch(Integer, int)
+	 */
+	@Override
+	@Transactional(rollbackFor = HL7Exception.class)
+	public HL7InQueueBatchResult processNextHL7InQueueBatch(Integer afterHL7InQueueId, int batchSize)
+	        throws HL7Exception {
+		List<HL7InQueue> hl7InQueues = dao.claimHL7InQueueBatch(afterHL7InQueueId, batchSize);
+		List<HL7InArchive> hl7InArchives = new ArrayList<>(hl7InQueues.size());
+		List<HL7InError> hl7InErrors = new ArrayList<>();
+		List<HL7InQueue> finished = new ArrayList<>(hl7InQueues.size());
+		int ignored = 0;
+		Date now = new Date();
+		
+		for (HL7InQueue hl7InQueue : hl7InQueues) {
+			// mark this queue object as processing like processHL7InQueue does, ignored items stay that way
+			hl7InQueue.setMessageState(HL7Constants.HL7_STATUS_PROCESSING);
+			log.debug("Processing HL7 inbound queue (id={},key={})", hl7InQueue.getHL7InQueueId(),
+			    hl7InQueue.getHL7SourceKey());
+			
+			HL7InError hl7InError = null;
+			try {
+				// NOT making direct calls here so that AOP can happen around these methods
+				Message parsedMessage = Context.getHL7Service().parseHL7String(hl7InQueue.getHL7Data());
+				Context.getHL7Service().processHL7Message(parsedMessage);
+				
+				HL7InArchive hl7InArchive = new HL7InArchive(hl7InQueue);
+				hl7InArchive.setDateCreated(now);
+				hl7InArchives.add(hl7InArchive);
+			}
+			catch (HL7Exception e) {
+				if (isIgnoredMissingPatient(hl7InQueue, e)) {
+					ignored++;
+					continue;
+				}
+				hl7InError = createHL7InError(hl7InQueue, "Trouble parsing HL7 message (" + hl7InQueue.getHL7SourceKey()
+				        + ")", e);
+			}
+			catch (Exception e) {
+				hl7InError = createHL7InError(hl7InQueue, "Exception while attempting to process HL7 In Queue ("
+				        + hl7InQueue.getHL7SourceKey() + ")", e);
+			}
+			if (hl7InError != null) {
+				hl7InError.setDateCreated(now);
+				hl7InErrors.add(hl7InError);
+				log.info(hl7InError.getError());
+			}
+			finished.add(hl7InQueue);
+		}
+		
+		dao.saveHL7InArchives(hl7InArchives);
+		dao.saveHL7InErrors(hl7InErrors);
+		dao.deleteHL7InQueues(finished);
+		
+		Integer lastHL7InQueueId = hl7InQueues.isEmpty() ? null : hl7InQueues.get(hl7InQueues.size() - 1)
+		        .getHL7InQueueId();
+		return new HL7InQueueBatchResult(lastHL7InQueueId, hl7InArchives.size(), hl7InErrors.size(), ignored);
+	}
+	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#importHL7Messages(List)
+	 */
+	@Override
+	@Transactional(rollbackFor = HL7Exception.class)
+	public List<HL7InArchive> importHL7Messages(List<HL7InQueue> hl7InQueues) throws HL7Exception {
+		List<HL7InArchive> hl7InArchives = new ArrayList<>(hl7InQueues.size());
+		List<HL7InError> hl7InErrors = new ArrayList<>();
+		processHL7InQueues(hl7InQueues, hl7InArchives, hl7InErrors);
+		
+		dao.saveHL7InErrors(hl7InErrors);
+		
+		return hl7InArchives;
+	}
+	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#importHL7File(InputStream, HL7Source, boolean)
+	 */
+	@Override
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public HL7FileImportResult importHL7File(InputStream inputStream, HL7Source hl7Source, boolean archiveToFileSystem)
+	        throws APIException {
+		return new HL7FileImporter().importFile(inputStream, hl7Source, archiveToFileSystem);
+	}
+	
+	/**
+	 * Parses and routes the given queue items, collecting an archive item for each one that was
+	 * processed and an error item for each one that could not be parsed
+	 *
+	 * @param hl7InQueues the queue items to process
+	 * @param hl7InArchives the list to add the archive items to
+	 * @param hl7InErrors the list to add the error items to
+	 * @throws HL7Exception if one of the messages could not be routed
+	 */
+	private void processHL7InQueues(List<HL7InQueue> hl7InQueues, List<HL7InArchive> hl7InArchives,
+	        List<HL7InError> hl7InErrors) throws HL7Exception {
+		Date now = new Date();
+		
+		for (HL7InQueue hl7InQueue : hl7InQueues) {
+			log.debug("Processing HL7 inbound queue (id={},key={})", hl7InQueue.getHL7InQueueId(),
+			    hl7InQueue.getHL7SourceKey());
+			
+			Message parsedMessage;
+			try {
+				// NOT making a direct call here so that AOP can happen around this method
+				parsedMessage = Context.getHL7Service().parseHL7String(hl7InQueue.getHL7Data());
+			}
+			catch (HL7Exception e) {
+				HL7InError hl7InError = createHL7InError(hl7InQueue,
+				    "Trouble parsing HL7 message (" + hl7InQueue.getHL7SourceKey() + ")", e);
+				hl7InError.setDateCreated(now);
+				hl7InErrors.add(hl7InError);
+				continue;
+			}
+			
+			// any failure past this point rolls back the whole batch
+			Context.getHL7Service().processHL7Message(parsedMessage);
+			
+			HL7InArchive hl7InArchive = new HL7InArchive(hl7InQueue);
+			hl7InArchive.setDateCreated(now);
+			hl7InArchives.add(hl7InArchive);
+		}
+	}
+	
 	/**
 	 * Convenience method to respond to fatal errors by moving the queue entry into an error bin
 	 * prior to aborting
 	 */
 	private void setFatalError(HL7InQueue hl7InQueue, String error, Throwable cause) {
+		Context.getHL7Service().saveHL7InError(createHL7InError(hl7InQueue, error, cause));
+		Context.getHL7Service().purgeHL7InQueue(hl7InQueue);
+		log.info(error, cause);
+	}
+	
+	private HL7InError createHL7InError(HL7InQueue hl7InQueue, String error, Throwable cause) {
 		HL7InError hl7InError = new HL7InError(hl7InQueue);
 		hl7InError.setError(error);
 		if (cause == null) {
@@ -778,9 +941,7 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 			log.error("Fatal error", cause);
 			hl7InError.setErrorDetails(ExceptionUtils.getStackTrace(cause));
 		}
-		Context.getHL7Service().saveHL7InError(hl7InError);
-		Context.getHL7Service().purgeHL7InQueue(hl7InQueue);
-		log.info(error, cause);
+		return hl7InError;
 	}
 	
 	/**
@@ -1040,7 +1201,12 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 		}
 		
 		try {
-			archive.setHL7Data(OpenmrsUtil.getFileAsString(new File(new URI(archive.getHL7Data()))));
+			if (HL7ArchiveSegmentStore.isLocator(archive.getHL7Data())) {
+				archive.setHL7Data(HL7ArchiveSegmentStore.getInstance(HL7Util.getHl7ArchivesDirectory()).read(
+				    archive.getHL7Data()));
+			} else {
+				archive.setHL7Data(OpenmrsUtil.getFileAsString(new File(new URI(archive.getHL7Data()))));
+			}
 			archive.setLoaded(true);
 		}
 		catch (URISyntaxException e) {
@@ -1055,133 +1221,238 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 	 * @see org.openmrs.hl7.HL7Service#migrateHl7InArchivesToFileSystem(Map)
 	 */
 	@Override
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
 	public void migrateHl7InArchivesToFileSystem(Map<String, Integer> progressStatusMap) throws APIException {
-		int numberTransferred = 0;
-		int numberOfFailedTransfers = 0;
+		HL7Service hl7Service = Context.getHL7Service();
+		long startTime = System.currentTimeMillis();
+		int numberToMigrate = hl7Service.countHL7InArchivesToMigrate();
+		int numberProcessed = getNumberProcessed(progressStatusMap);
+		progressStatusMap.put(HL7Constants.NUMBER_REMAINING_KEY, numberToMigrate);
 		
-		// HL7Constants.HL7_STATUS_ARCHIVED indicates the HL7 has been archived to the filesystem
-		List<HL7InArchive> hl7InArchives = getHL7InArchivesToMigrate();
-		
-		// while we still we have any archives to be processed, process them
-		while (Hl7InArchivesMigrateThread.isActive() && Hl7InArchivesMigrateThread.getTransferStatus() == Status.RUNNING
-		        && hl7InArchives != null && !hl7InArchives.isEmpty()) {
-			
-			Iterator<HL7InArchive> iterator = hl7InArchives.iterator();
-			
+		// one pool for the whole run, the batches are written one after the other
+		ExecutorService executor = newHL7InArchiveMigrationExecutor();
+		try {
+			// each batch is committed along with the checkpoint to resume from
 			while (Hl7InArchivesMigrateThread.isActive() && Hl7InArchivesMigrateThread.getTransferStatus() == Status.RUNNING
-			        && iterator.hasNext()) {
-				HL7InArchive archive = iterator.next();
-				
-				try {
-					migrateHL7InArchive(archive);
-					progressStatusMap.put(HL7Constants.NUMBER_TRANSFERRED_KEY, numberTransferred++);
-				}
-				catch (DAOException e) {
-					progressStatusMap.put(HL7Constants.NUMBER_OF_FAILED_TRANSFERS_KEY, numberOfFailedTransfers++);
-				}
+			        && hl7Service.migrateNextHL7InArchiveBatch(progressStatusMap, executor) > 0) {
+				Context.clearSession();
+				updateMigrationThroughput(progressStatusMap, startTime, numberToMigrate + numberProcessed
+				        - getNumberProcessed(progressStatusMap));
+				log.debug("Migrated a batch of HL7 archives, {} transferred so far",
+				    progressStatusMap.get(HL7Constants.NUMBER_TRANSFERRED_KEY));
+			}
+		}
+		finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+			if (isSegmentStorage()) {
+				closeSegmentStore();
 			}
-			
-			// fetch more archives to be processed
-			hl7InArchives = getHL7InArchivesToMigrate();
 		}
 		
 		log.debug("Transfer of HL7 archives has completed or has been stopped");
 	}
 	
+	private int getNumberProcessed(Map<String, Integer> progressStatusMap) {
+		return progressStatusMap.getOrDefault(HL7Constants.NUMBER_TRANSFERRED_KEY, 0)
+		        + progressStatusMap.getOrDefault(HL7Constants.NUMBER_OF_FAILED_TRANSFERS_KEY, 0);
+	}
+	
+	private void updateMigrationThroughput(Map<String, Integer> progressStatusMap, long startTime, int numberRemaining) {
+		long elapsedMillis = Math.max(System.currentTimeMillis() - startTime, 1);
+		double transfersPerSecond = progressStatusMap.getOrDefault(HL7Constants.NUMBER_TRANSFERRED_KEY, 0) * 1000.0
+		        / elapsedMillis;
+		progressStatusMap.put(HL7Constants.NUMBER_REMAINING_KEY, Math.max(numberRemaining, 0));
+		progressStatusMap.put(HL7Constants.TRANSFERS_PER_SECOND_KEY, (int) Math.round(transfersPerSecond));
+		if (transfersPerSecond > 0) {
+			progressStatusMap.put(HL7Constants.ESTIMATED_SECONDS_REMAINING_KEY, (int) Math.ceil(Math.max(
+			    numberRemaining, 0) / transfersPerSecond));
+		}
+	}
+	
 	/**
-	 * moves data to the filesystem from an HL7InArchive
-	 *
-	 * @param archive
-	 * @throws APIException
+	 * @see org.openmrs.hl7.HL7Service#migrateNextHL7InArchiveBatch(Map)
 	 */
-	private void migrateHL7InArchive(HL7InArchive archive) throws APIException {
-		if (archive == null) {
-			throw new APIException("Hl7Service.migrate.null.archive", (Object[]) null);
+	@Override
+	public int migrateNextHL7InArchiveBatch(Map<String, Integer> progressStatusMap) throws APIException {
+		ExecutorService executor = newHL7InArchiveMigrationExecutor();
+		try {
+			return migrateNextHL7InArchiveBatch(progressStatusMap, executor);
 		}
-		
-		if (!OpenmrsUtil.nullSafeEquals(archive.getMessageState(), HL7Constants.HL7_STATUS_PROCESSED)) {
-			throw new APIException("Hl7Service.migrate.archive.state", (Object[]) null);
+		finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+		}
+	}
+	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#migrateNextHL7InArchiveBatch(Map, ExecutorService)
+	 */
+	@Override
+	public int migrateNextHL7InArchiveBatch(Map<String, Integer> progressStatusMap, ExecutorService executor)
+	        throws APIException {
+		// HL7Constants.HL7_STATUS_ARCHIVED indicates the HL7 has been archived to the filesystem
+		List<HL7InArchive> hl7InArchives = dao.getHL7InArchivesToMigrate(getHL7InArchiveMigrationCheckpoint(),
+		    HL7Constants.MIGRATION_MAX_BATCH_SIZE);
+		if (hl7InArchives.isEmpty()) {
+			return 0;
 		}
 		
-		try {
-			URI uri = writeHL7InArchiveToFileSystem(archive);
-			archive.setHL7Data(uri.toString());
+		File archivesDirectory = HL7Util.getHl7ArchivesDirectory();
+		HL7ArchiveSegmentStore segmentStore = isSegmentStorage() ? HL7ArchiveSegmentStore.getInstance(archivesDirectory)
+		        : null;
+		List<String> locations = writeHL7InArchives(hl7InArchives, archivesDirectory, segmentStore, executor);
+		
+		int numberTransferred = 0;
+		List<Integer> failedIds = new ArrayList<>();
+		for (int i = 0; i < hl7InArchives.size(); i++) {
+			HL7InArchive archive = hl7InArchives.get(i);
+			if (locations.get(i) == null) {
+				failedIds.add(archive.getHL7InArchiveId());
+				continue;
+			}
+			
+			archive.setHL7Data(locations.get(i));
 			archive.setMessageState(HL7Constants.HL7_STATUS_MIGRATED);
-			saveHL7InArchive(archive);
+			dao.saveHL7InArchive(archive);
+			numberTransferred++;
 		}
-		catch (APIException e) {
-			throw new APIException("Hl7Service.migrate.archive", null, e);
+		progressStatusMap.merge(HL7Constants.NUMBER_TRANSFERRED_KEY, numberTransferred, Integer::sum);
+		progressStatusMap.merge(HL7Constants.NUMBER_OF_FAILED_TRANSFERS_KEY, failedIds.size(), Integer::sum);
+		
+		// the checkpoint moves past the archives that could not be written, they stay in the database
+		// and are only looked at again once the checkpoint is reset
+		if (!failedIds.isEmpty()) {
+			log.warn("Could not migrate the hl7 archives with ids {}, reset the global property '{}' to retry them",
+			    failedIds, OpenmrsConstants.GP_HL7_ARCHIVE_MIGRATION_CHECKPOINT);
 		}
+		saveHL7InArchiveMigrationCheckpoint(hl7InArchives.get(hl7InArchives.size() - 1).getHL7InArchiveId());
 		
+		return hl7InArchives.size();
+	}
+	
+	/**
+	 * @see org.openmrs.hl7.HL7Service#countHL7InArchivesToMigrate()
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public Integer countHL7InArchivesToMigrate() throws APIException {
+		return dao.countHL7InArchivesToMigrate(getHL7InArchiveMigrationCheckpoint()).intValue();
 	}
 	
 	/**
-	 * writes a given hl7 archive to the file system
+	 * @return a pool with {@link OpenmrsConstants#GP_HL7_ARCHIVE_MIGRATION_THREADS} threads to write
+	 *         the archives with, null to write them on the migration thread
+	 */
+	private ExecutorService newHL7InArchiveMigrationExecutor() {
+		int threads = Context.getAdministrationService().getGlobalPropertyValue(
+		    OpenmrsConstants.GP_HL7_ARCHIVE_MIGRATION_THREADS, 1);
+		return threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+	}
+	
+	private boolean isSegmentStorage() {
+		return HL7Constants.HL7_ARCHIVE_STORAGE_SEGMENT.equals(Context.getAdministrationService().getGlobalProperty(
+		    OpenmrsConstants.GP_HL7_ARCHIVE_STORAGE, HL7Constants.HL7_ARCHIVE_STORAGE_FILE));
+	}
+	
+	/**
+	 * Releases the segment mappings and file handles held for the migration
+	 */
+	private void closeSegmentStore() {
+		try {
+			HL7ArchiveSegmentStore.getInstance(HL7Util.getHl7ArchivesDirectory()).close();
+		}
+		catch (IOException e) {
+			log.warn("Unable to close the hl7 archive segment store", e);
+		}
+	}
+	
+	private Integer getHL7InArchiveMigrationCheckpoint() {
+		return Context.getAdministrationService().getGlobalPropertyValue(
+		    OpenmrsConstants.GP_HL7_ARCHIVE_MIGRATION_CHECKPOINT, 0);
+	}
+	
+	private void saveHL7InArchiveMigrationCheckpoint(int checkpoint) {
+		try {
+			Context.addProxyPrivilege(PrivilegeConstants.MANAGE_GLOBAL_PROPERTIES);
+			Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GP_HL7_ARCHIVE_MIGRATION_CHECKPOINT,
+			    String.valueOf(checkpoint));
+		}
+		finally {
+			Context.removeProxyPrivilege(PrivilegeConstants.MANAGE_GLOBAL_PROPERTIES);
+		}
+	}
+	
+	/**
+	 * Writes the given archives to the file system, using the given executor if there is one
 	 *
-	 * @param hl7InArchive the hl7 archive to write to the file system
+	 * @param hl7InArchives the archives to write
+	 * @param archivesDirectory the hl7 archives directory
+	 * @param segmentStore the store to append the archives to, null to write one file per archive
+	 * @param executor the executor to write the archives with, null to write them on this thread
+	 * @return the location of each archive or null for the ones that could not be written
 	 */
-	private URI writeHL7InArchiveToFileSystem(HL7InArchive hl7InArchive) throws APIException {
+	private List<String> writeHL7InArchives(List<HL7InArchive> hl7InArchives, File archivesDirectory,
+	        HL7ArchiveSegmentStore segmentStore, ExecutorService executor) throws APIException {
+		// the writes only touch plain properties of the archives, never the session
+		List<Callable<String>> writes = new ArrayList<>(hl7InArchives.size());
+		for (HL7InArchive archive : hl7InArchives) {
+			writes.add(() -> {
+				if (segmentStore != null) {
+					return segmentStore.append(HL7ArchiveSegmentStore.compress(archive.getHL7Data()));
+				}
+				return HL7Util.writeHL7InArchiveToFileSystem(archive, archivesDirectory).toString();
+			});
+		}
 		
-		PrintWriter writer = null;
-		File destinationDir = HL7Util.getHl7ArchivesDirectory();
+		List<String> locations = new ArrayList<>(writes.size());
 		try {
-			// number formatter used to format month and day with zero padding
-			DecimalFormat df = new DecimalFormat("00");
-			
-			//write the archive to a separate file while grouping them according to
-			//the year, month and date of month when they were stored in the archives table
-			Calendar calendar = Calendar.getInstance(Context.getLocale());
-			calendar.setTime(hl7InArchive.getDateCreated());
-			
-			//resolve the year folder from the date of creation of the archive
-			File yearDir = new File(destinationDir, Integer.toString(calendar.get(Calendar.YEAR)));
-			if (!yearDir.isDirectory()) {
-				yearDir.mkdirs();
-			}
-			
-			//resolve the appropriate month folder
-			File monthDir = new File(yearDir, df.format(calendar.get(Calendar.MONTH) + 1));
-			if (!monthDir.isDirectory()) {
-				monthDir.mkdirs();
-			}
-			
-			//resolve the appropriate day of month folder
-			File dayDir = new File(monthDir, df.format(calendar.get(Calendar.DAY_OF_MONTH)));
-			if (!dayDir.isDirectory()) {
-				dayDir.mkdirs();
+			if (executor == null) {
+				for (int i = 0; i < writes.size(); i++) {
+					locations.add(writeHL7InArchive(hl7InArchives.get(i), writes.get(i)));
+				}
+			} else {
+				List<Future<String>> futures = executor.invokeAll(writes);
+				for (int i = 0; i < futures.size(); i++) {
+					locations.add(getHL7InArchiveLocation(hl7InArchives.get(i), futures.get(i)));
+				}
 			}
-			
-			//use the uuid, source id and source key(if present) to generate the file name
-			File fileToWriteTo = new File(dayDir, hl7InArchive.getUuid()
-			        + (StringUtils.isBlank(hl7InArchive.getHL7SourceKey()) ? "" : "_" + hl7InArchive.getHL7SourceKey())
-			        + ".txt");
-			
-			//write the hl7 data to the file
-			writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(fileToWriteTo), StandardCharsets.UTF_8));
-			writer.write(hl7InArchive.getHL7Data());
-			
-			//check if there was an error while writing to the current file
-			if (writer.checkError()) {
-				log.warn("An Error occured while writing hl7 archive with id '" + hl7InArchive.getHL7InArchiveId()
-				        + "' to the file system");
-				throw new APIException("Hl7Service.write.no.error", (Object[]) null);
+			if (segmentStore != null) {
+				// the segments have to be on disk before the archives point to them
+				segmentStore.flush();
 			}
-			
-			// hand back the URI for the file
-			return fileToWriteTo.toURI();
-			
 		}
-		catch (FileNotFoundException e) {
-			log
-			        .warn("Failed to write hl7 archive with id '" + hl7InArchive.getHL7InArchiveId()
-			                + "' to the file system ", e);
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new APIException("Hl7Service.migrate.archive", null, e);
+		}
+		catch (IOException e) {
 			throw new APIException("Hl7Service.write.error", null, e);
-			
 		}
-		finally {
-			if (writer != null) {
-				writer.close();
-			}
+		
+		return locations;
+	}
+	
+	private String writeHL7InArchive(HL7InArchive archive, Callable<String> write) {
+		try {
+			return write.call();
+		}
+		catch (Exception e) {
+			log.warn("Failed to write hl7 archive with id '" + archive.getHL7InArchiveId() + "' to the file system", e);
+			return null;
+		}
+	}
+	
+	private String getHL7InArchiveLocation(HL7InArchive archive, Future<String> write) throws InterruptedException {
+		try {
+			return write.get();
+		}
+		catch (ExecutionException e) {
+			log.warn("Failed to write hl7 archive with id '" + archive.getHL7InArchiveId() + "' to the file system",
+			    e.getCause());
+			return null;
 		}
 	}
 	
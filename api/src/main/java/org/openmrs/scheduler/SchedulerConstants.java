@@ -33,6 +33,91 @@ public class SchedulerConstants {
 	/** Scheduler admin email property - Used to email administrator if a task fails */
 	public static final String SCHEDULER_ADMIN_EMAIL_PROPERTY = "scheduler.admin_email";
 	
+	/**
+	 * Runtime property selecting the scheduler service implementation, either
+	 * {@link #SCHEDULER_IMPLEMENTATION_TIMER} (the default) or
+	 * {@link #SCHEDULER_IMPLEMENTATION_EXECUTOR}
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String SCHEDULER_IMPLEMENTATION_RUNTIME_PROPERTY = "scheduler.implementation";
+	
+	/**
+	 * Scheduler running every task on its own {@link java.util.Timer} thread
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String SCHEDULER_IMPLEMENTATION_TIMER = "timer";
+	
+	/**
+	 * Scheduler running all tasks on one bounded thread pool with fixed delay semantics
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String SCHEDULER_IMPLEMENTATION_EXECUTOR = "executor";
+	
+	/**
+	 * Runtime property for the number of threads shared by all tasks of the executor scheduler
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String SCHEDULER_THREAD_POOL_SIZE_RUNTIME_PROPERTY = "scheduler.thread_pool_size";
+	
+	/**
+	 * The number of threads shared by all tasks of the executor scheduler if not configured
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final int SCHEDULER_DEFAULT_THREAD_POOL_SIZE = 4;
+	
+	/**
+	 * Task definition property limiting how many executions of the task may run at the same time,
+	 * defaults to 1. Only honored by the executor scheduler.
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String TASK_MAX_CONCURRENT_EXECUTIONS_PROPERTY = "scheduler.maxConcurrentExecutions";
+	
+	/**
+	 * Task definition property telling the executor scheduler what to do when an execution of the
+	 * task was missed while it was not scheduled, see
+	 * {@link org.openmrs.scheduler.executor.ExecutorSchedulerServiceImpl.MissedRunPolicy}
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String TASK_MISSED_RUN_POLICY_PROPERTY = "scheduler.missedRunPolicy";
+	
+	/**
+	 * Global property enabling the task leases that keep the nodes of a cluster from executing the
+	 * same task at the same time
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String SCHEDULER_TASK_LEASES_ENABLED_PROPERTY = "scheduler.task_leases_enabled";
+	
+	/**
+	 * Global property for the number of seconds a task lease outlasts the task's repeat interval,
+	 * another node takes the task over once the lease holder missed an execution by this long
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String SCHEDULER_TASK_LEASE_GRACE_PERIOD_PROPERTY = "scheduler.task_lease_grace_period";
+	
+	/**
+	 * The default grace period of task leases in seconds
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final int SCHEDULER_DEFAULT_TASK_LEASE_GRACE_PERIOD = 300;
+	
+	/**
+	 * Runtime property naming this node in task leases, defaults to the host name followed by a
+	 * random suffix
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String SCHEDULER_NODE_ID_RUNTIME_PROPERTY = "scheduler.node_id";
+	
 	private SchedulerConstants() {
 	}
 	
@@ -31,6 +31,46 @@ public interface SchedulerService extends OpenmrsService {
 	@Authorized( { "Manage Scheduler" })
 	public String getStatus(Integer id);
 	
+	/**
+	 * Gets the execution counters of a scheduled task
+	 * 
+	 * @param id the identifier of the task
+	 * @return the counters of the task, null if the task is not scheduled
+	 * @since 2.5.0
+	 */
+	@Authorized( { "Manage Scheduler" })
+	public TaskExecutionMetrics getTaskExecutionMetrics(Integer id);
+	
+	/**
+	 * Acquires the lease on the given task for this node, or renews it if this node already holds
+	 * it, so that only one node of a cluster executes the task. The lease lasts for the task's
+	 * repeat interval plus the {@link SchedulerConstants#SCHEDULER_TASK_LEASE_GRACE_PERIOD_PROPERTY}
+	 * and is taken over by another node once it expired, it is renewed every half grace period while
+	 * the task executes so that long running executions keep it. If task leases are not enabled by the
+	 * {@link SchedulerConstants#SCHEDULER_TASK_LEASES_ENABLED_PROPERTY} global property every node
+	 * may execute every task.
+	 * 
+	 * @param task the task about to be executed
+	 * @return true if this node may execute the task
+	 * @since 2.5.0
+	 * <strong>Should</strong> always succeed if task leases are not enabled
+	 * <strong>Should</strong> not acquire a lease held by another node
+	 * <strong>Should</strong> take over an expired lease
+	 */
+	@Authorized( { "Manage Scheduler" })
+	public boolean acquireTaskLease(TaskDefinition task);
+	
+	/**
+	 * Releases this node's lease on the given task so that another node can take the task over
+	 * right away
+	 * 
+	 * @param task the task no longer executed by this node
+	 * @since 2.5.0
+	 * <strong>Should</strong> let another node acquire the lease
+	 */
+	@Authorized( { "Manage Scheduler" })
+	public void releaseTaskLease(TaskDefinition task);
+	
 	/**
 	 * Start all tasks that are scheduled to run on startup.
 	 */
@@ -9,14 +9,20 @@
  */
 package org.openmrs.scheduler;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Map;
 import java.util.Properties;
+import java.util.UUID;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.openmrs.api.APIException;
 import org.openmrs.api.context.Context;
+import org.openmrs.scheduler.executor.ExecutorSchedulerServiceImpl;
+import org.openmrs.scheduler.timer.TimerSchedulerServiceImpl;
 import org.openmrs.util.PrivilegeConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,6 +34,8 @@ public class SchedulerUtil {
 	
 	private static final Logger log = LoggerFactory.getLogger(SchedulerUtil.class);
 	
+	private static String nodeId = null;
+	
 	/**
 	 * Start the scheduler given the following start up properties.
 	 * 
@@ -95,6 +103,59 @@ public class SchedulerUtil {
 		
 	}
 	
+	/**
+	 * Creates the scheduler service implementation selected by the
+	 * {@link SchedulerConstants#SCHEDULER_IMPLEMENTATION_RUNTIME_PROPERTY} runtime property, this
+	 * is the factory method of the scheduler service bean.
+	 * 
+	 * @return the scheduler service
+	 * @since 2.5.0
+	 * <strong>Should</strong> create the timer scheduler by default
+	 * <strong>Should</strong> create the executor scheduler if configured to
+	 */
+	public static SchedulerService newSchedulerService() {
+		String implementation = Context.getRuntimeProperties().getProperty(
+		    SchedulerConstants.SCHEDULER_IMPLEMENTATION_RUNTIME_PROPERTY, SchedulerConstants.SCHEDULER_IMPLEMENTATION_TIMER);
+		if (SchedulerConstants.SCHEDULER_IMPLEMENTATION_EXECUTOR.equalsIgnoreCase(implementation.trim())) {
+			log.info("Using the executor scheduler");
+			return new ExecutorSchedulerServiceImpl();
+		}
+		if (!SchedulerConstants.SCHEDULER_IMPLEMENTATION_TIMER.equalsIgnoreCase(implementation.trim())) {
+			log.warn("Unknown scheduler implementation {}, using the timer scheduler", implementation);
+		}
+		return new TimerSchedulerServiceImpl();
+	}
+	
+	/**
+	 * Gets the name of this node in task leases, which is the
+	 * {@link SchedulerConstants#SCHEDULER_NODE_ID_RUNTIME_PROPERTY} runtime property or the host
+	 * name followed by a random suffix that is fixed for the lifetime of the application
+	 * 
+	 * @return the node id
+	 * @since 2.5.0
+	 * @see TaskLease
+	 */
+	public static synchronized String getNodeId() {
+		if (nodeId == null) {
+			String configured = Context.getRuntimeProperties().getProperty(
+			    SchedulerConstants.SCHEDULER_NODE_ID_RUNTIME_PROPERTY);
+			if (StringUtils.isNotBlank(configured)) {
+				nodeId = configured.trim();
+			} else {
+				String hostName;
+				try {
+					hostName = InetAddress.getLocalHost().getHostName();
+				}
+				catch (UnknownHostException e) {
+					hostName = "unknown";
+				}
+				nodeId = hostName + "-" + UUID.randomUUID();
+			}
+			nodeId = StringUtils.left(nodeId, 255);
+		}
+		return nodeId;
+	}
+	
 	/**
 	 * Sends an email with system information and the given exception
 	 * 
@@ -0,0 +1,115 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Execution counters of a scheduled task. The counters cover all executions since the task was
+ * last scheduled and are updated by the scheduler's threads.
+ *
+ * @since 2.5.0
+ * @see SchedulerService#getTaskExecutionMetrics(Integer)
+ */
+public class TaskExecutionMetrics {
+	
+	private final AtomicLong executions = new AtomicLong();
+	
+	private final AtomicLong failedExecutions = new AtomicLong();
+	
+	private final AtomicLong skippedExecutions = new AtomicLong();
+	
+	private final AtomicLong executionTimeNanos = new AtomicLong();
+	
+	private final AtomicLong maxExecutionTimeNanos = new AtomicLong();
+	
+	private volatile long lastExecutionTimeNanos = 0;
+	
+	/**
+	 * Records a completed execution of the task, this is meant to be called by the scheduler
+	 *
+	 * @param nanos the time the execution took
+	 * @param failed whether the execution ended with an exception
+	 */
+	public void executionCompleted(long nanos, boolean failed) {
+		executions.incrementAndGet();
+		if (failed) {
+			failedExecutions.incrementAndGet();
+		}
+		executionTimeNanos.addAndGet(nanos);
+		maxExecutionTimeNanos.accumulateAndGet(nanos, Math::max);
+		lastExecutionTimeNanos = nanos;
+	}
+	
+	/**
+	 * Records an execution that was skipped because the task was already running the maximum
+	 * number of times, this is meant to be called by the scheduler
+	 */
+	public void executionSkipped() {
+		skippedExecutions.incrementAndGet();
+	}
+	
+	/**
+	 * @return the number of completed executions, including failed ones
+	 */
+	public long getExecutions() {
+		return executions.get();
+	}
+	
+	/**
+	 * @return the number of executions that ended with an exception
+	 */
+	public long getFailedExecutions() {
+		return failedExecutions.get();
+	}
+	
+	/**
+	 * @return the number of executions skipped because the task was already running
+	 */
+	public long getSkippedExecutions() {
+		return skippedExecutions.get();
+	}
+	
+	/**
+	 * @return the time in milliseconds the last execution took
+	 */
+	public long getLastExecutionTimeMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(lastExecutionTimeNanos);
+	}
+	
+	/**
+	 * @return the time in milliseconds the longest execution took
+	 */
+	public long getMaxExecutionTimeMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(maxExecutionTimeNanos.get());
+	}
+	
+	/**
+	 * @return the average time in milliseconds an execution took
+	 */
+	public double getAverageExecutionTimeMillis() {
+		long count = executions.get();
+		if (count == 0) {
+			return 0;
+		}
+		return executionTimeNanos.get() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+	
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "TaskExecutionMetrics[executions=" + getExecutions() + ", failed=" + getFailedExecutions() + ", skipped="
+		        + getSkippedExecutions() + ", averageMillis=" + getAverageExecutionTimeMillis() + ", maxMillis="
+		        + getMaxExecutionTimeMillis() + "]";
+	}
+}
@@ -0,0 +1,105 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler;
+
+import java.util.Date;
+
+/**
+ * Records which node of a cluster may execute a task until the lease expires. The node holding
+ * the lease renews it every time it executes the task, another node only takes the task over once
+ * the lease has expired.
+ *
+ * @since 2.5.0
+ * @see SchedulerService#acquireTaskLease(TaskDefinition)
+ */
+public class TaskLease {
+	
+	/**
+	 * The id of the leased task's definition
+	 */
+	private Integer taskId;
+	
+	/**
+	 * The node holding the lease
+	 */
+	private String owner;
+	
+	/**
+	 * The time the lease expires
+	 */
+	private Date expires;
+	
+	/**
+	 * Default no-arg public constructor
+	 */
+	public TaskLease() {
+	}
+	
+	/**
+	 * @param taskId the id of the leased task's definition
+	 * @param owner the node holding the lease
+	 * @param expires the time the lease expires
+	 */
+	public TaskLease(Integer taskId, String owner, Date expires) {
+		this.taskId = taskId;
+		this.owner = owner;
+		this.expires = expires;
+	}
+	
+	/**
+	 * @return the id of the leased task's definition
+	 */
+	public Integer getTaskId() {
+		return taskId;
+	}
+	
+	/**
+	 * @param taskId the id of the leased task's definition
+	 */
+	public void setTaskId(Integer taskId) {
+		this.taskId = taskId;
+	}
+	
+	/**
+	 * @return the node holding the lease
+	 */
+	public String getOwner() {
+		return owner;
+	}
+	
+	/**
+	 * @param owner the node holding the lease
+	 */
+	public void setOwner(String owner) {
+		this.owner = owner;
+	}
+	
+	/**
+	 * @return the time the lease expires
+	 */
+	public Date getExpires() {
+		return expires;
+	}
+	
+	/**
+	 * @param expires the time the lease expires
+	 */
+	public void setExpires(Date expires) {
+		this.expires = expires;
+	}
+	
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "TaskLease[taskId=" + taskId + ", owner=" + owner + ", expires=" + expires + "]";
+	}
+}
@@ -9,11 +9,13 @@
  */
 package org.openmrs.scheduler.db;
 
+import java.util.Date;
 import java.util.List;
 
 import org.openmrs.api.db.DAOException;
 import org.openmrs.scheduler.Schedule;
 import org.openmrs.scheduler.TaskDefinition;
+import org.openmrs.scheduler.TaskLease;
 
 /**
  * Scheduler-related database methods.
@@ -94,4 +96,43 @@ public interface SchedulerDAO {
 	 * @throws DAOException
 	 */
 	public TaskDefinition getTaskByName(String name) throws DAOException;
+	
+	/**
+	 * Acquires the lease on a task for the given node or renews it if the node already holds it.
+	 * The lease is only acquired if no other node holds it or the other node's lease has expired,
+	 * this is decided by the database so that concurrent attempts of several nodes cannot all
+	 * succeed. Expiry is measured against the clock of the database, which all nodes share, and not
+	 * against the clocks of the nodes.
+	 * 
+	 * @param taskId the id of the task's definition
+	 * @param owner the node acquiring the lease
+	 * @param leaseSeconds the number of seconds after the current time of the database the acquired
+	 *            lease expires
+	 * @return true if the node holds the lease for the given number of seconds, false if another
+	 *         node holds it
+	 * @throws DAOException if the lease could not be written, e.g. because another node created it
+	 *             at the same time
+	 * @since 2.5.0
+	 */
+	public boolean acquireTaskLease(Integer taskId, String owner, long leaseSeconds) throws DAOException;
+	
+	/**
+	 * Releases the lease on a task if the given node holds it
+	 * 
+	 * @param taskId the id of the task's definition
+	 * @param owner the node releasing the lease
+	 * @throws DAOException
+	 * @since 2.5.0
+	 */
+	public void releaseTaskLease(Integer taskId, String owner) throws DAOException;
+	
+	/**
+	 * Gets the lease on a task
+	 * 
+	 * @param taskId the id of the task's definition
+	 * @return the lease or null if no node ever acquired it
+	 * @throws DAOException
+	 * @since 2.5.0
+	 */
+	public TaskLease getTaskLease(Integer taskId) throws DAOException;
 }
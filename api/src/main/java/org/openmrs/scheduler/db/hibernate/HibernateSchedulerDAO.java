@@ -9,14 +9,19 @@
  */
 package org.openmrs.scheduler.db.hibernate;
 
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Date;
 import java.util.List;
-
+import java.util.concurrent.TimeUnit;
 import org.hibernate.Criteria;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.Restrictions;
 import org.openmrs.api.db.DAOException;
+import org.openmrs.api.db.hibernate.HibernateUtil;
 import org.openmrs.scheduler.Schedule;
 import org.openmrs.scheduler.TaskDefinition;
+import org.openmrs.scheduler.TaskLease;
 import org.openmrs.scheduler.db.SchedulerDAO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -145,6 +150,8 @@ public class HibernateSchedulerDAO implements SchedulerDAO {
 	 */
 	@Override
 	public void deleteTask(TaskDefinition taskConfig) throws DAOException {
+		sessionFactory.getCurrentSession().createQuery("delete from TaskLease where taskId = :taskId").setParameter(
+		    "taskId", taskConfig.getId()).executeUpdate();
 		sessionFactory.getCurrentSession().delete(taskConfig);
 	}
 	
@@ -175,4 +182,61 @@ public class HibernateSchedulerDAO implements SchedulerDAO {
 		return (TaskDefinition) sessionFactory.getCurrentSession()
 				.createQuery("from TaskDefinition o where o.uuid = :uuid").setString("uuid", uuid).uniqueResult();
 	}
+	
+	/**
+	 * @see org.openmrs.scheduler.db.SchedulerDAO#acquireTaskLease(Integer, String, long)
+	 */
+	@Override
+	public boolean acquireTaskLease(Integer taskId, String owner, long leaseSeconds) throws DAOException {
+		// HQL cannot add an interval to current_timestamp(), so the expiry is computed from the time
+		// of the database as well instead of the time of this node
+		String selectNow = HibernateUtil.getDialect(sessionFactory).getCurrentTimestampSelectString();
+		Date now = sessionFactory.getCurrentSession().doReturningWork(connection -> {
+			try (Statement statement = connection.createStatement();
+			        ResultSet resultSet = statement.executeQuery(selectNow)) {
+				resultSet.next();
+				return resultSet.getTimestamp(1);
+			}
+		});
+		Date expires = new Date(now.getTime() + TimeUnit.SECONDS.toMillis(leaseSeconds));
+		
+		// a single conditional update, so that only one of several nodes can take over an expired lease
+		int renewed = sessionFactory.getCurrentSession().createQuery(
+		    "update TaskLease set owner = :owner, expires = :expires "
+		            + "where taskId = :taskId and (owner = :owner or expires < current_timestamp())")
+		        .setParameter("owner", owner).setParameter("expires", expires).setParameter("taskId", taskId)
+		        .executeUpdate();
+		if (renewed > 0) {
+			return true;
+		}
+		
+		Long existing = (Long) sessionFactory.getCurrentSession().createQuery(
+		    "select count(*) from TaskLease where taskId = :taskId").setParameter("taskId", taskId).uniqueResult();
+		if (existing > 0) {
+			log.debug("Task {} is leased by another node", taskId);
+			return false;
+		}
+		
+		// the primary key lets only one node create the lease, the others fail on flush
+		sessionFactory.getCurrentSession().save(new TaskLease(taskId, owner, expires));
+		sessionFactory.getCurrentSession().flush();
+		return true;
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.db.SchedulerDAO#releaseTaskLease(Integer, String)
+	 */
+	@Override
+	public void releaseTaskLease(Integer taskId, String owner) throws DAOException {
+		sessionFactory.getCurrentSession().createQuery("delete from TaskLease where taskId = :taskId and owner = :owner")
+		        .setParameter("taskId", taskId).setParameter("owner", owner).executeUpdate();
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.db.SchedulerDAO#getTaskLease(Integer)
+	 */
+	@Override
+	public TaskLease getTaskLease(Integer taskId) throws DAOException {
+		return sessionFactory.getCurrentSession().get(TaskLease.class, taskId);
+	}
 }
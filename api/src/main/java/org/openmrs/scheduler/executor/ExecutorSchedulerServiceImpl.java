@@ -0,0 +1,287 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.executor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.EnumUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.openmrs.api.context.Context;
+import org.openmrs.scheduler.SchedulerConstants;
+import org.openmrs.scheduler.SchedulerException;
+import org.openmrs.scheduler.SchedulerUtil;
+import org.openmrs.scheduler.Task;
+import org.openmrs.scheduler.TaskDefinition;
+import org.openmrs.scheduler.TaskExecutionMetrics;
+import org.openmrs.scheduler.TaskFactory;
+import org.openmrs.scheduler.timer.TimerSchedulerServiceImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Scheduler service that runs all tasks on one shared, bounded pool of
+ * {@link SchedulerConstants#SCHEDULER_THREAD_POOL_SIZE_RUNTIME_PROPERTY} threads instead of a
+ * {@link java.util.Timer} thread per task. Repeating tasks are executed with a fixed delay, so a
+ * slow execution postpones the next one rather than piling up catch-up executions. The task
+ * definition properties {@link SchedulerConstants#TASK_MAX_CONCURRENT_EXECUTIONS_PROPERTY} and
+ * {@link SchedulerConstants#TASK_MISSED_RUN_POLICY_PROPERTY} tune each task. Everything but the
+ * scheduling itself is inherited from the {@link TimerSchedulerServiceImpl}.<br>
+ * <br>
+ * This implementation is used if the
+ * {@link SchedulerConstants#SCHEDULER_IMPLEMENTATION_RUNTIME_PROPERTY} runtime property is set to
+ * {@link SchedulerConstants#SCHEDULER_IMPLEMENTATION_EXECUTOR}.
+ *
+ * @since 2.5.0
+ * @see SchedulerUtil#newSchedulerService()
+ */
+@Transactional
+public class ExecutorSchedulerServiceImpl extends TimerSchedulerServiceImpl {
+	
+	private static final Logger log = LoggerFactory.getLogger(ExecutorSchedulerServiceImpl.class);
+	
+	/**
+	 * What to do when a repeating task missed an execution while it was not scheduled, e.g. while
+	 * the server was down
+	 */
+	public enum MissedRunPolicy {
+		/**
+		 * Wait for the next regular execution, this is what the timer scheduler does
+		 */
+		SKIP,
+		/**
+		 * Execute the task once right away and continue with the regular executions after it
+		 */
+		RUN_ONCE
+	}
+	
+	/**
+	 * Scheduled tasks by the id of their definition
+	 */
+	private final Map<Integer, ExecutorSchedulerTask> scheduledTasks = new ConcurrentHashMap<>();
+	
+	/**
+	 * The number of running executions by task definition id, this outlives the scheduled tasks so
+	 * that an execution still running when its task is rescheduled counts against the limit
+	 */
+	private final Map<Integer, AtomicInteger> runningExecutions = new ConcurrentHashMap<>();
+	
+	private ScheduledThreadPoolExecutor executor;
+	
+	/**
+	 * Gets the thread pool shared by all tasks, it is created on first use and again after the
+	 * service was shut down
+	 */
+	private synchronized ScheduledThreadPoolExecutor getExecutor() {
+		if (executor == null) {
+			int poolSize = Math.max(NumberUtils.toInt(Context.getRuntimeProperties().getProperty(
+			    SchedulerConstants.SCHEDULER_THREAD_POOL_SIZE_RUNTIME_PROPERTY),
+			    SchedulerConstants.SCHEDULER_DEFAULT_THREAD_POOL_SIZE), 1);
+			log.debug("Starting scheduler thread pool with {} threads", poolSize);
+			
+			AtomicInteger threadNumber = new AtomicInteger();
+			executor = new ScheduledThreadPoolExecutor(poolSize, runnable -> {
+				Thread thread = new Thread(runnable, "OpenMRS-Scheduler-" + threadNumber.incrementAndGet());
+				// like the timer threads, the pool must not prolong the lifetime of the application
+				thread.setDaemon(true);
+				return thread;
+			});
+			executor.setRemoveOnCancelPolicy(true);
+			executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+		}
+		return executor;
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.timer.TimerSchedulerServiceImpl#onShutdown()
+	 */
+	@Override
+	public void onShutdown() {
+		try {
+			super.onShutdown();
+		}
+		finally {
+			scheduledTasks.clear();
+			synchronized (this) {
+				if (executor != null) {
+					executor.shutdownNow();
+					executor = null;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.timer.TimerSchedulerServiceImpl#scheduleTask(org.openmrs.scheduler.TaskDefinition)
+	 */
+	@Override
+	public Task scheduleTask(TaskDefinition taskDefinition) throws SchedulerException {
+		Task clientTask = null;
+		if (taskDefinition != null) {
+			
+			// Cancel any existing executions of the same task definition
+			ExecutorSchedulerTask schedulerTask = taskDefinition.getId() == null ? null : scheduledTasks
+			        .remove(taskDefinition.getId());
+			if (schedulerTask != null) {
+				log.info("Shutting down the existing instance of this task to avoid conflicts!!");
+				schedulerTask.shutdown();
+			}
+			
+			try {
+				
+				// Create new task from task definition 
+				clientTask = TaskFactory.getInstance().createInstance(taskDefinition);
+				
+				// if we were unable to get a class, just quit
+				if (clientTask != null) {
+					
+					// the task is tracked by the id of its definition
+					if (taskDefinition.getId() == null) {
+						saveTaskDefinition(taskDefinition);
+					}
+					
+					schedulerTask = new ExecutorSchedulerTask(clientTask, runningExecutions.computeIfAbsent(
+					    taskDefinition.getId(), id -> new AtomicInteger()), getMaxConcurrentExecutions(taskDefinition));
+					taskDefinition.setTaskInstance(clientTask);
+					
+					long repeatInterval = 0;
+					if (taskDefinition.getRepeatInterval() != null) {
+						repeatInterval = taskDefinition.getRepeatInterval() * SchedulerConstants.SCHEDULER_MILLIS_PER_SECOND;
+					}
+					long initialDelay = getInitialDelay(taskDefinition, repeatInterval);
+					log.info("Starting task ... the task will execute for the first time at "
+					        + new Date(System.currentTimeMillis() + initialDelay));
+					
+					ScheduledFuture<?> future;
+					if (repeatInterval > 0) {
+						future = getExecutor().scheduleWithFixedDelay(schedulerTask, initialDelay, repeatInterval,
+						    TimeUnit.MILLISECONDS);
+					} else {
+						future = getExecutor().schedule(schedulerTask, initialDelay, TimeUnit.MILLISECONDS);
+					}
+					schedulerTask.setFuture(future);
+					scheduledTasks.put(taskDefinition.getId(), schedulerTask);
+					
+					// Update the task status in the database
+					taskDefinition.setStarted(true);
+					saveTaskDefinition(taskDefinition);
+				}
+			}
+			catch (Exception e) {
+				log.error("Failed to schedule task " + taskDefinition.getName(), e);
+				throw new SchedulerException("Failed to schedule task", e);
+			}
+		}
+		return clientTask;
+	}
+	
+	/**
+	 * Gets the delay in milliseconds before the first execution of the given task
+	 */
+	private long getInitialDelay(TaskDefinition taskDefinition, long repeatInterval) {
+		long now = System.currentTimeMillis();
+		if (repeatInterval > 0 && getMissedRunPolicy(taskDefinition) == MissedRunPolicy.RUN_ONCE) {
+			Date lastRun = taskDefinition.getLastExecutionTime() != null ? taskDefinition.getLastExecutionTime()
+			        : taskDefinition.getStartTime();
+			if (lastRun != null && lastRun.getTime() + repeatInterval < now) {
+				log.info("Task {} missed an execution while it was not scheduled, executing it right away",
+				    taskDefinition.getName());
+				return 0;
+			}
+		}
+		
+		if (taskDefinition.getStartTime() != null) {
+			// the start time is most likely in the past, so continue with the next regular execution
+			return Math.max(SchedulerUtil.getNextExecution(taskDefinition).getTime() - now, 0);
+		}
+		return SchedulerConstants.SCHEDULER_DEFAULT_DELAY;
+	}
+	
+	private int getMaxConcurrentExecutions(TaskDefinition taskDefinition) {
+		return Math.max(NumberUtils.toInt(taskDefinition
+		        .getProperty(SchedulerConstants.TASK_MAX_CONCURRENT_EXECUTIONS_PROPERTY), 1), 1);
+	}
+	
+	private MissedRunPolicy getMissedRunPolicy(TaskDefinition taskDefinition) {
+		String policy = taskDefinition.getProperty(SchedulerConstants.TASK_MISSED_RUN_POLICY_PROPERTY);
+		return EnumUtils.getEnum(MissedRunPolicy.class, policy, MissedRunPolicy.SKIP);
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.timer.TimerSchedulerServiceImpl#shutdownTask(org.openmrs.scheduler.TaskDefinition)
+	 */
+	@Override
+	public void shutdownTask(TaskDefinition taskDefinition) throws SchedulerException {
+		if (taskDefinition != null) {
+			
+			// Remove the task from the scheduled tasks and cancel its executions
+			ExecutorSchedulerTask schedulerTask = taskDefinition.getId() == null ? null : scheduledTasks
+			        .remove(taskDefinition.getId());
+			if (schedulerTask != null) {
+				schedulerTask.shutdown();
+			}
+			
+			// Let another node take the task over
+			releaseTaskLease(taskDefinition);
+			
+			// Update task that has been started
+			taskDefinition.setStarted(false);
+			saveTaskDefinition(taskDefinition);
+		}
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.timer.TimerSchedulerServiceImpl#getScheduledTasks()
+	 */
+	@Override
+	public Collection<TaskDefinition> getScheduledTasks() {
+		List<TaskDefinition> list = new ArrayList<>();
+		for (Integer id : scheduledTasks.keySet()) {
+			list.add(getTask(id));
+		}
+		return list;
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.timer.TimerSchedulerServiceImpl#getStatus(java.lang.Integer)
+	 */
+	@Override
+	public String getStatus(Integer id) {
+		ExecutorSchedulerTask scheduledTask = id == null ? null : scheduledTasks.get(id);
+		if (scheduledTask != null) {
+			if (scheduledTask.getTask().isExecuting()) {
+				return "Currently executing";
+			}
+			long nextExecutionTime = scheduledTask.getNextExecutionTime();
+			if (nextExecutionTime > 0) {
+				return "Scheduled to execute at " + new Date(nextExecutionTime);
+			}
+		}
+		return "Not Running";
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.timer.TimerSchedulerServiceImpl#getTaskExecutionMetrics(java.lang.Integer)
+	 */
+	@Override
+	public TaskExecutionMetrics getTaskExecutionMetrics(Integer id) {
+		ExecutorSchedulerTask scheduledTask = id == null ? null : scheduledTasks.get(id);
+		return scheduledTask == null ? null : scheduledTask.getMetrics();
+	}
+}
@@ -0,0 +1,134 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.executor;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openmrs.api.context.Daemon;
+import org.openmrs.scheduler.SchedulerUtil;
+import org.openmrs.scheduler.Task;
+import org.openmrs.scheduler.TaskExecutionMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a {@link Task} on a thread of the {@link ExecutorSchedulerServiceImpl}'s pool. An execution
+ * is skipped if the task is already running as many times as it may run at once.
+ *
+ * @since 2.5.0
+ */
+public class ExecutorSchedulerTask implements Runnable {
+	
+	private static final Logger log = LoggerFactory.getLogger(ExecutorSchedulerTask.class);
+	
+	/** The task that will be executed by the scheduler */
+	private final Task task;
+	
+	/** The number of executions of the task currently running, shared by all instances for the task */
+	private final AtomicInteger runningExecutions;
+	
+	/** The maximum number of executions of the task that may run at the same time */
+	private final int maxConcurrentExecutions;
+	
+	/** The execution counters of the task */
+	private final TaskExecutionMetrics metrics = new TaskExecutionMetrics();
+	
+	private volatile ScheduledFuture<?> future;
+	
+	/**
+	 * @param task the task to execute
+	 * @param runningExecutions the number of executions of the task currently running
+	 * @param maxConcurrentExecutions the maximum number of executions that may run at the same time
+	 */
+	public ExecutorSchedulerTask(Task task, AtomicInteger runningExecutions, int maxConcurrentExecutions) {
+		this.task = task;
+		this.runningExecutions = runningExecutions;
+		this.maxConcurrentExecutions = maxConcurrentExecutions;
+	}
+	
+	/**
+	 * Executes the task unless it is already running the maximum number of times
+	 * 
+	 * @see java.lang.Runnable#run()
+	 * <strong>Should</strong> skip the execution if the task is already running the maximum number of times
+	 */
+	@Override
+	public void run() {
+		if (runningExecutions.incrementAndGet() > maxConcurrentExecutions) {
+			runningExecutions.decrementAndGet();
+			metrics.executionSkipped();
+			log.warn("Skipping an execution of task [{}] because it is already running", task.getClass());
+			return;
+		}
+		
+		long start = System.nanoTime();
+		boolean failed = false;
+		try {
+			Daemon.executeScheduledTaskInCurrentThread(task);
+		}
+		catch (Exception t) {
+			// an exception escaping from here would cancel all further executions of the task
+			failed = true;
+			log.error(
+			    "FATAL ERROR: Task [" + task.getClass() + "] failed due to exception [" + t.getClass().getName() + "]", t);
+			SchedulerUtil.sendSchedulerError(t);
+		}
+		finally {
+			runningExecutions.decrementAndGet();
+			metrics.executionCompleted(System.nanoTime() - start, failed);
+		}
+	}
+	
+	void setFuture(ScheduledFuture<?> future) {
+		this.future = future;
+	}
+	
+	/**
+	 * @return the time of the next execution in milliseconds since the epoch, 0 if the task will
+	 *         not execute again
+	 */
+	public long getNextExecutionTime() {
+		ScheduledFuture<?> scheduled = future;
+		if (scheduled == null || scheduled.isDone()) {
+			return 0;
+		}
+		return System.currentTimeMillis() + scheduled.getDelay(TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * @return the task executed by this scheduler task
+	 */
+	public Task getTask() {
+		return task;
+	}
+	
+	/**
+	 * @return the execution counters of the task
+	 */
+	public TaskExecutionMetrics getMetrics() {
+		return metrics;
+	}
+	
+	/**
+	 * Cancels further executions and invokes the task's shutdown() callback method, an execution
+	 * that is running is allowed to finish.
+	 * 
+	 * <strong>Should</strong> cancel further executions and shut the task down
+	 */
+	public void shutdown() {
+		ScheduledFuture<?> scheduled = future;
+		if (scheduled != null) {
+			scheduled.cancel(false);
+		}
+		task.shutdown();
+	}
+}
@@ -23,6 +23,7 @@ import java.util.TreeMap;
 import java.util.WeakHashMap;
 
 import org.openmrs.api.APIException;
+import org.openmrs.api.context.Context;
 import org.openmrs.api.impl.BaseOpenmrsService;
 import org.openmrs.scheduler.SchedulerConstants;
 import org.openmrs.scheduler.SchedulerException;
@@ -30,6 +31,7 @@ import org.openmrs.scheduler.SchedulerService;
 import org.openmrs.scheduler.SchedulerUtil;
 import org.openmrs.scheduler.Task;
 import org.openmrs.scheduler.TaskDefinition;
+import org.openmrs.scheduler.TaskExecutionMetrics;
 import org.openmrs.scheduler.TaskFactory;
 import org.openmrs.scheduler.db.SchedulerDAO;
 import org.openmrs.util.OpenmrsMemento;
@@ -295,6 +297,9 @@ public class TimerSchedulerServiceImpl extends BaseOpenmrsService implements Sch
 				schedulerTask.shutdown(); // Stops the timer and tells the timer task to release its resources 
 			}
 			
+			// Let another node take the task over
+			releaseTaskLease(taskDefinition);
+			
 			// Update task that has been started
 			taskDefinition.setStarted(false);
 			saveTaskDefinition(taskDefinition);
@@ -519,6 +524,59 @@ public class TimerSchedulerServiceImpl extends BaseOpenmrsService implements Sch
 		return "Not Running";
 	}
 	
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#getTaskExecutionMetrics(java.lang.Integer)
+	 */
+	@Override
+	public TaskExecutionMetrics getTaskExecutionMetrics(Integer id) {
+		TimerSchedulerTask scheduledTask = scheduledTasks.get(id);
+		return scheduledTask == null ? null : scheduledTask.getMetrics();
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#acquireTaskLease(org.openmrs.scheduler.TaskDefinition)
+	 */
+	@Override
+	public boolean acquireTaskLease(TaskDefinition taskDefinition) {
+		if (taskDefinition.getId() == null || !isTaskLeasingEnabled()) {
+			return true;
+		}
+		
+		long leaseSeconds = Context.getAdministrationService().getGlobalPropertyValue(
+		    SchedulerConstants.SCHEDULER_TASK_LEASE_GRACE_PERIOD_PROPERTY,
+		    SchedulerConstants.SCHEDULER_DEFAULT_TASK_LEASE_GRACE_PERIOD);
+		if (taskDefinition.getRepeatInterval() != null && taskDefinition.getRepeatInterval() > 0) {
+			leaseSeconds += taskDefinition.getRepeatInterval();
+		}
+		boolean acquired = getSchedulerDAO().acquireTaskLease(taskDefinition.getId(), SchedulerUtil.getNodeId(),
+		    leaseSeconds);
+		if (acquired) {
+			log.debug("Lease on task {} acquired", taskDefinition.getName());
+		} else {
+			log.info("Not executing task {} on this node, its lease is held by another node", taskDefinition.getName());
+		}
+		return acquired;
+	}
+	
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#releaseTaskLease(org.openmrs.scheduler.TaskDefinition)
+	 */
+	@Override
+	public void releaseTaskLease(TaskDefinition taskDefinition) {
+		if (taskDefinition.getId() != null && isTaskLeasingEnabled()) {
+			getSchedulerDAO().releaseTaskLease(taskDefinition.getId(), SchedulerUtil.getNodeId());
+		}
+	}
+	
+	/**
+	 * @return true if nodes have to hold the lease on a task to execute it, see
+	 *         {@link SchedulerConstants#SCHEDULER_TASK_LEASES_ENABLED_PROPERTY}
+	 */
+	static boolean isTaskLeasingEnabled() {
+		return Boolean.parseBoolean(Context.getAdministrationService().getGlobalProperty(
+		    SchedulerConstants.SCHEDULER_TASK_LEASES_ENABLED_PROPERTY, "false"));
+	}
+	
 	@Override
 	public void scheduleIfNotRunning(TaskDefinition taskDef) {
 		Task task = taskDef.getTaskInstance();
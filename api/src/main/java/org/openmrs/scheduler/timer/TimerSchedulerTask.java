@@ -11,13 +11,17 @@ package org.openmrs.scheduler.timer;
 
 import java.util.Date;
 import java.util.TimerTask;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.openmrs.api.context.Context;
 import org.openmrs.api.context.Daemon;
+import org.openmrs.scheduler.SchedulerConstants;
 import org.openmrs.scheduler.SchedulerService;
 import org.openmrs.scheduler.SchedulerUtil;
 import org.openmrs.scheduler.Task;
 import org.openmrs.scheduler.TaskDefinition;
+import org.openmrs.scheduler.TaskExecutionMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,6 +30,9 @@ public class TimerSchedulerTask extends TimerTask {
 	/** The task that will be executed by the JDK timer. */
 	private Task task;
 	
+	/** The execution counters of the task */
+	private final TaskExecutionMetrics metrics = new TaskExecutionMetrics();
+	
 	/** Logger */
 	private static final Logger log = LoggerFactory.getLogger(TimerSchedulerTask.class);
 	
@@ -41,16 +48,30 @@ public class TimerSchedulerTask extends TimerTask {
 	 */
 	@Override
 	public void run() {
+		long start = System.nanoTime();
+		boolean failed = false;
 		try {
 			Daemon.executeScheduledTask(task);
 		}
 		catch (Exception t) {
+			failed = true;
 			// Fix #862: IllegalStateException: Timer already cancelled.
 			// Suppress error in order to keep the scheduler's Timer from completely failing.
 			log.error(
 			    "FATAL ERROR: Task [" + task.getClass() + "] failed due to exception [" + t.getClass().getName() + "]", t);
 			SchedulerUtil.sendSchedulerError(t);
 		}
+		finally {
+			metrics.executionCompleted(System.nanoTime() - start, failed);
+		}
+	}
+	
+	/**
+	 * @return the execution counters of the task
+	 * @since 2.5.0
+	 */
+	public TaskExecutionMetrics getMetrics() {
+		return metrics;
 	}
 	
 	/**
@@ -91,7 +112,76 @@ public class TimerSchedulerTask extends TimerTask {
 	 * Executes the given task.
 	 */
 	public static void execute(Task task) {
-		task.execute();
+		TaskDefinition taskDefinition = task.getTaskDefinition();
+		if (taskDefinition != null && !acquireTaskLease(taskDefinition)) {
+			log.debug("Skipping task {} because another node holds its lease", taskDefinition.getName());
+			return;
+		}
+		
+		CountDownLatch executed = new CountDownLatch(1);
+		if (taskDefinition != null) {
+			startLeaseRenewal(taskDefinition, executed);
+		}
+		try {
+			task.execute();
+		}
+		finally {
+			executed.countDown();
+		}
 		saveLastExecutionTime(task);
+		
+		// renew the lease so that it covers the wait for the next execution
+		if (taskDefinition != null) {
+			acquireTaskLease(taskDefinition);
+		}
+	}
+	
+	/**
+	 * Acquires the lease on the task, a failure to write the lease means another node got it first
+	 */
+	private static boolean acquireTaskLease(TaskDefinition taskDefinition) {
+		try {
+			return Context.getSchedulerService().acquireTaskLease(taskDefinition);
+		}
+		catch (Exception e) {
+			log.warn("Unable to acquire the lease on task " + taskDefinition.getName(), e);
+			return false;
+		}
+	}
+	
+	/**
+	 * Keeps renewing the lease on the task every half grace period until the task was executed, so
+	 * that the lease does not run out and another node starts the task while it is still running
+	 * here. Tasks may run for longer than their repeat interval, so the lease cannot be sized up
+	 * front.
+	 *
+	 * @param taskDefinition the task being executed
+	 * @param executed counted down once the task was executed
+	 */
+	private static void startLeaseRenewal(TaskDefinition taskDefinition, CountDownLatch executed) {
+		// the renewals need a daemon thread of their own, which only a daemon thread may start
+		if (!Daemon.isDaemonThread() || taskDefinition.getId() == null
+		        || !TimerSchedulerServiceImpl.isTaskLeasingEnabled()) {
+			return;
+		}
+		int gracePeriod = Context.getAdministrationService().getGlobalPropertyValue(
+		    SchedulerConstants.SCHEDULER_TASK_LEASE_GRACE_PERIOD_PROPERTY,
+		    SchedulerConstants.SCHEDULER_DEFAULT_TASK_LEASE_GRACE_PERIOD);
+		long renewalMillis = TimeUnit.SECONDS.toMillis(Math.max(gracePeriod / 2, 1));
+		
+		Daemon.runInNewDaemonThread(() -> {
+			try {
+				while (!executed.await(renewalMillis, TimeUnit.MILLISECONDS)) {
+					if (!acquireTaskLease(taskDefinition)) {
+						log.warn("Lost the lease on task {} while executing it", taskDefinition.getName());
+						return;
+					}
+					log.debug("Renewed the lease on task {} while executing it", taskDefinition.getName());
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
 	}
 }
@@ -252,6 +252,31 @@ public final class OpenmrsConstants {
 	
 	public static final String GLOBAL_PROPERTY_HL7_ARCHIVE_DIRECTORY = "hl7_archive.dir";
 	
+	/**
+	 * Global property name for how migrated hl7 archives are stored, either one file per archive
+	 * ({@link HL7Constants#HL7_ARCHIVE_STORAGE_FILE}) or appended to compressed segment files
+	 * ({@link HL7Constants#HL7_ARCHIVE_STORAGE_SEGMENT})
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String GP_HL7_ARCHIVE_STORAGE = "hl7_archive.storage";
+	
+	/**
+	 * Global property name for the number of threads used to write hl7 archives to the file system
+	 * when migrating them
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String GP_HL7_ARCHIVE_MIGRATION_THREADS = "hl7_archive.migration_threads";
+	
+	/**
+	 * Global property name for the id of the last hl7 archive migrated to the file system, the
+	 * migration resumes after it
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String GP_HL7_ARCHIVE_MIGRATION_CHECKPOINT = "hl7_archive.migration_checkpoint";
+	
 	public static final String GLOBAL_PROPERTY_DEFAULT_THEME = "default_theme";
 	
 	public static final String GLOBAL_PROPERTY_APPLICATION_NAME = "application.name";
@@ -348,6 +373,32 @@ public final class OpenmrsConstants {
 	
 	public static final String GLOBAL_PROPERTY_IGNORE_MISSING_NONLOCAL_PATIENTS = "hl7_processor.ignore_missing_patient_non_local";
 	
+	/**
+	 * Global property name for the number of threads the hl7 in queue processor uses, a value of 1
+	 * processes the queue one message at a time
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String GP_HL7_PROCESSOR_WORKER_THREADS = "hl7_processor.worker_threads";
+	
+	/**
+	 * Global property name for the number of queue entries the hl7 in queue processor claims at a
+	 * time, with a single worker thread each batch is processed in one transaction if
+	 * {@link #GP_HL7_PROCESSOR_BATCH_TRANSACTIONS} is enabled
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String GP_HL7_PROCESSOR_BATCH_SIZE = "hl7_processor.batch_size";
+	
+	/**
+	 * Global property name for whether the hl7 in queue processor with a single worker thread
+	 * processes a batch of queue entries in one transaction instead of each entry in a transaction
+	 * of its own
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String GP_HL7_PROCESSOR_BATCH_TRANSACTIONS = "hl7_processor.batch_transactions";
+	
 	public static final String GLOBAL_PROPERTY_TRUE_CONCEPT = "concept.true";
 	
 	public static final String GLOBAL_PROPERTY_FALSE_CONCEPT = "concept.false";
@@ -513,6 +564,14 @@ public final class OpenmrsConstants {
 	 */
 	public static final String GP_DEFAULT_CONCEPT_MAP_TYPE = "concept.defaultConceptMapType";
 	
+	/**
+	 * Global property name for whether concepts are looked up by uuid, name and mapping in an
+	 * in-memory snapshot of the concept dictionary instead of the database
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String GP_CONCEPT_DICTIONARY_SNAPSHOT_ENABLED = "concept.dictionarySnapshot.enabled";
+	
 	/**
 	 * Global property name of the allowed concept classes for the dosage form field of the concept drug management form.
 	 */
@@ -561,6 +620,14 @@ public final class OpenmrsConstants {
 	 */
 	public static final String GP_VISIT_TYPES_TO_AUTO_CLOSE = "visits.autoCloseVisitType";
 	
+	/**
+	 * Global property name for the number of visits stopped by each update when automatically
+	 * closing visits
+	 * 
+	 * @since 2.5.0
+	 */
+	public static final String GP_VISIT_AUTO_CLOSE_BATCH_SIZE = "visits.autoCloseBatchSize";
+	
 	/**
 	 * The name of the scheduled task that automatically stops the active visits
 	 */
@@ -606,7 +673,7 @@ public final class OpenmrsConstants {
 	 * 
 	 * @since 1.11
 	 */
-	public static final Integer SEARCH_INDEX_VERSION = 7;
+	public static final Integer SEARCH_INDEX_VERSION = 8;
 
 	/**
 	 * @since 1.12
@@ -735,6 +802,12 @@ public final class OpenmrsConstants {
 		        "Username for the OpenMRS user that will perform the scheduler activities"));
 		props.add(new GlobalProperty("scheduler.password", SchedulerConstants.SCHEDULER_DEFAULT_PASSWORD,
 		        "Password for the OpenMRS user that will perform the scheduler activities"));
+		props.add(new GlobalProperty(SchedulerConstants.SCHEDULER_TASK_LEASES_ENABLED_PROPERTY, "false",
+		        "Set to true when several OpenMRS nodes share the database, so that each scheduled task is only executed by the node holding its lease",
+		        BooleanDatatype.class, null));
+		props.add(new GlobalProperty(SchedulerConstants.SCHEDULER_TASK_LEASE_GRACE_PERIOD_PROPERTY, String
+		        .valueOf(SchedulerConstants.SCHEDULER_DEFAULT_TASK_LEASE_GRACE_PERIOD),
+		        "Number of seconds a task lease outlasts the task's repeat interval, another node takes the task over once the lease holder missed an execution by this long"));
 		
 		props.add(new GlobalProperty(GLOBAL_PROPERTY_CONCEPTS_LOCKED, "false", "if true, do not allow editing concepts",
 		        BooleanDatatype.class, null));
@@ -881,6 +954,16 @@ public final class OpenmrsConstants {
 		        "If true, hl7 messages for patients that are not found and are non-local will silently be dropped/ignored",
 		        BooleanDatatype.class, null));
 		
+		props.add(new GlobalProperty(GP_HL7_PROCESSOR_WORKER_THREADS, "1",
+		        "Number of threads used to process the hl7 in queue, messages about the same patient are always processed in the order they were received"));
+		
+		props.add(new GlobalProperty(GP_HL7_PROCESSOR_BATCH_SIZE, "100",
+		        "Number of hl7 in queue entries claimed at a time by the worker threads, or processed in one transaction if hl7_processor.batch_transactions is enabled"));
+		
+		props.add(new GlobalProperty(GP_HL7_PROCESSOR_BATCH_TRANSACTIONS, "false",
+		        "If true and a single thread processes the hl7 in queue, a batch of entries is processed in one transaction instead of each entry in a transaction of its own",
+		        BooleanDatatype.class, null));
+		
 		props
 		        .add(new GlobalProperty(
 		                GLOBAL_PROPERTY_SHOW_PATIENT_NAME,
@@ -894,6 +977,15 @@ public final class OpenmrsConstants {
 		props.add(new GlobalProperty(GLOBAL_PROPERTY_HL7_ARCHIVE_DIRECTORY, HL7Constants.HL7_ARCHIVE_DIRECTORY_NAME,
 		        "The default name or absolute path for the folder where to write the hl7_in_archives."));
 		
+		props.add(new GlobalProperty(GP_HL7_ARCHIVE_STORAGE, HL7Constants.HL7_ARCHIVE_STORAGE_FILE,
+		        "How hl7_in_archives migrated to the file system are stored, 'file' writes one file per archive, 'segment' appends them to compressed segment files"));
+		
+		props.add(new GlobalProperty(GP_HL7_ARCHIVE_MIGRATION_THREADS, "1",
+		        "Number of threads used to write hl7_in_archives to the file system when migrating them"));
+		
+		props.add(new GlobalProperty(GP_HL7_ARCHIVE_MIGRATION_CHECKPOINT, "0",
+		        "Id of the last hl7_in_archive migrated to the file system, the migration resumes after it. Set to 0 to look at all archives again"));
+		
 		props.add(new GlobalProperty(GLOBAL_PROPERTY_REPORT_BUG_URL, "http://errors.openmrs.org/scrap",
 		        "The openmrs url where to submit bug reports"));
 		
@@ -974,12 +1066,19 @@ public final class OpenmrsConstants {
 		props.add(new GlobalProperty(GP_VISIT_TYPES_TO_AUTO_CLOSE, "",
 		        "comma-separated list of the visit type(s) to automatically close"));
 		
+		props.add(new GlobalProperty(GP_VISIT_AUTO_CLOSE_BATCH_SIZE, "1000",
+		        "Number of visits stopped by each update when automatically closing visits"));
+		
 		props.add(new GlobalProperty(GP_ALLOWED_FAILED_LOGINS_BEFORE_LOCKOUT, "7",
 		        "Maximum number of failed logins allowed after which username is locked out"));
 		
 		props.add(new GlobalProperty(GP_DEFAULT_CONCEPT_MAP_TYPE, "NARROWER-THAN",
 		        "Default concept map type which is used when no other is set"));
 		
+		props.add(new GlobalProperty(GP_CONCEPT_DICTIONARY_SNAPSHOT_ENABLED, "false",
+		        "Set to true to look concepts up by uuid, name and mapping in an in-memory copy of the concept dictionary. The copy is read again whenever this property is saved, which is needed after concepts were changed without going through the concept service",
+		        BooleanDatatype.class, null));
+		
 		props
 		        .add(new GlobalProperty(GP_CONCEPT_DRUG_DOSAGE_FORM_CONCEPT_CLASSES, "",
 		                "A comma-separated list of the allowed concept classes for the dosage form field of the concept drug management form."));
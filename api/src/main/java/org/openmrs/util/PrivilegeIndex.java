@@ -0,0 +1,183 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openmrs.Privilege;
+import org.openmrs.Role;
+import org.openmrs.User;
+
+/**
+ * Numbers privilege names so that the privileges of a {@link Role} or {@link User} can be kept as a
+ * bit set, which turns a privilege check into a single bit test. Privilege names are compared case
+ * insensitively, every spelling of a name gets the number of its lower case form.<br>
+ * <br>
+ * The computed privilege sets are valid until {@link #invalidate()} is called, which the user
+ * service does whenever a role, privilege or user is saved or purged.
+ *
+ * @since 2.5.0
+ * @see Role#hasPrivilege(String)
+ * @see User#hasPrivilege(String)
+ */
+public final class PrivilegeIndex {
+
+	private static final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+
+	private static final Map<String, Integer> idsByLowerCaseName = new ConcurrentHashMap<>();
+
+	private static final AtomicInteger nextId = new AtomicInteger();
+
+	private static final AtomicLong version = new AtomicLong();
+
+	private PrivilegeIndex() {
+	}
+
+	/**
+	 * Gets the number of the given privilege name, numbering it if it wasn't seen before
+	 *
+	 * @param privilegeName the name of the privilege
+	 * @return the number of the privilege
+	 * <strong>Should</strong> give all spellings of a name the same number
+	 * <strong>Should</strong> give different names different numbers
+	 */
+	public static int getId(String privilegeName) {
+		Integer id = idsByName.get(privilegeName);
+		if (id == null) {
+			id = idsByLowerCaseName.computeIfAbsent(privilegeName.toLowerCase(), name -> nextId.getAndIncrement());
+			idsByName.put(privilegeName, id);
+		}
+		return id;
+	}
+
+	/**
+	 * @return the current version of the privilege model, a privilege set computed for an older
+	 *         version is stale
+	 */
+	public static long getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * Marks all privilege sets computed so far as stale, they are computed again the next time they
+	 * are used
+	 */
+	public static void invalidate() {
+		version.incrementAndGet();
+	}
+
+	/**
+	 * Creates the set of privileges granted by the given role and its parent roles
+	 *
+	 * @param role the role to collect the privileges of
+	 * @return the privilege set
+	 * <strong>Should</strong> include the privileges of parent roles
+	 * <strong>Should</strong> contain all privileges for the super user role
+	 */
+	public static PrivilegeSet createPrivilegeSet(Role role) {
+		long currentVersion = getVersion();
+		BitSet ids = new BitSet();
+		boolean all = addPrivileges(role, ids);
+		for (Role parent : role.getAllParentRoles()) {
+			all |= addPrivileges(parent, ids);
+		}
+		return new PrivilegeSet(currentVersion, ids, all);
+	}
+
+	/**
+	 * Combines the privilege sets of several roles
+	 *
+	 * @param version the version the sets were computed for, as returned by {@link #getVersion()}
+	 *            before computing them
+	 * @param privilegeSets the sets to combine
+	 * @return the privilege set
+	 */
+	public static PrivilegeSet union(long version, Collection<PrivilegeSet> privilegeSets) {
+		BitSet ids = new BitSet();
+		boolean all = false;
+		for (PrivilegeSet privilegeSet : privilegeSets) {
+			ids.or(privilegeSet.ids);
+			all |= privilegeSet.all;
+		}
+		return new PrivilegeSet(version, ids, all);
+	}
+
+	/**
+	 * @return true if the role is the super user role, which has all privileges
+	 */
+	private static boolean addPrivileges(Role role, BitSet ids) {
+		Collection<Privilege> privileges = role.getPrivileges();
+		if (privileges != null) {
+			for (Privilege privilege : privileges) {
+				if (privilege.getPrivilege() != null) {
+					ids.set(getId(privilege.getPrivilege()));
+				}
+			}
+		}
+		return RoleConstants.SUPERUSER.equalsIgnoreCase(role.getRole());
+	}
+
+	/**
+	 * An immutable set of privileges as computed by {@link PrivilegeIndex#createPrivilegeSet(Role)}
+	 */
+	public static final class PrivilegeSet {
+
+		private final long version;
+
+		private final BitSet ids;
+
+		private final boolean all;
+
+		private PrivilegeSet(long version, BitSet ids, boolean all) {
+			this.version = version;
+			this.ids = ids;
+			this.all = all;
+		}
+
+		/**
+		 * @return false if the set was computed before the last call to {@link PrivilegeIndex#invalidate()}
+		 */
+		public boolean isCurrent() {
+			return version == PrivilegeIndex.getVersion();
+		}
+
+		/**
+		 * @return true if the set was computed from the super user role and contains all privileges
+		 */
+		public boolean containsAll() {
+			return all;
+		}
+
+		/**
+		 * @param privilegeName the name of a privilege
+		 * @return true if the privilege is in this set
+		 */
+		public boolean contains(String privilegeName) {
+			if (all) {
+				return true;
+			}
+			if (privilegeName == null) {
+				return false;
+			}
+
+			Integer id = idsByName.get(privilegeName);
+			if (id == null) {
+				// a name that was never seen in any spelling can't be in the set
+				id = idsByLowerCaseName.get(privilegeName.toLowerCase());
+			}
+			return id != null && ids.get(id);
+		}
+	}
+}
@@ -11,6 +11,7 @@ package org.openmrs.validator;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 
@@ -18,6 +19,7 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.openmrs.Concept;
 import org.openmrs.ConceptAnswer;
+import org.openmrs.ConceptAttributeType;
 import org.openmrs.ConceptMap;
 import org.openmrs.ConceptName;
 import org.openmrs.annotation.Handler;
@@ -172,7 +174,7 @@ public class ConceptValidator extends BaseCustomizableValidator implements Valid
 				}
 				
 				//find duplicate names for a non-retired concept
-				if (Context.getConceptService().isConceptNameDuplicate(nameInLocale)) {
+				if (isConceptNameDuplicate(nameInLocale)) {
 					throw new DuplicateConceptNameException("'" + nameInLocale.getName()
 					        + "' is a duplicate name in locale '" + conceptNameLocale.toString() + "'");
 				}
@@ -249,6 +251,26 @@ public class ConceptValidator extends BaseCustomizableValidator implements Valid
 			}
 		}
 		ValidateUtil.validateFieldLengths(errors, obj.getClass(), "version", "retireReason");
-		super.validateAttributes(conceptToValidate, errors, Context.getConceptService().getAllConceptAttributeTypes());
+		super.validateAttributes(conceptToValidate, errors, getConceptAttributeTypes());
+	}
+	
+	/**
+	 * Checks whether the given name is the default name of another non-retired concept in the same
+	 * locale. Subclasses validating many concepts at once may answer this from memory.
+	 * 
+	 * @param name the name to check
+	 * @return true if the name is a duplicate
+	 * @since 2.5.0
+	 */
+	protected boolean isConceptNameDuplicate(ConceptName name) {
+		return Context.getConceptService().isConceptNameDuplicate(name);
+	}
+	
+	/**
+	 * @return the attribute types to validate the attributes of the concept against
+	 * @since 2.5.0
+	 */
+	protected List<ConceptAttributeType> getConceptAttributeTypes() {
+		return Context.getConceptService().getAllConceptAttributeTypes();
 	}
 }
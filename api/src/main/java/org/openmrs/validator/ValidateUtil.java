@@ -22,6 +22,7 @@ import org.springframework.validation.BindException;
 import org.springframework.validation.Errors;
 import org.springframework.validation.FieldError;
 import org.springframework.validation.ObjectError;
+import org.springframework.validation.Validator;
 
 /**
  * This class should be used in the *Services to validate objects before saving them. <br>
@@ -69,6 +70,37 @@ public class ValidateUtil {
 		
 		Context.getAdministrationService().validate(obj, errors);
 		
+		throwIfErrors(obj, errors);
+	}
+	
+	/**
+	 * Test the given object against the given validator and then against all validators that are
+	 * registered as compatible with the object class
+	 *
+	 * @param obj the object to validate
+	 * @param validator the validator to use in addition to the registered ones
+	 * @throws ValidationException thrown if a binding exception occurs
+	 * <strong>Should</strong> throw ValidationException if the validator finds errors
+	 * <strong>Should</strong> throw ValidationException if the registered validators find errors
+	 * <strong>Should</strong> return immediately if validation is disabled
+	 * @since 2.5.0
+	 */
+	public static void validate(Object obj, Validator validator) throws ValidationException {
+		if (disableValidation) {
+			return;
+		}
+		
+		obj = HibernateUtil.getRealObjectFromProxy(obj);
+		
+		Errors errors = new BindException(obj, "");
+		
+		validator.validate(obj, errors);
+		Context.getAdministrationService().validate(obj, errors);
+		
+		throwIfErrors(obj, errors);
+	}
+	
+	private static void throwIfErrors(Object obj, Errors errors) throws ValidationException {
 		if (errors.hasErrors()) {
 			Set<String> uniqueErrorMessages = new LinkedHashSet<>();
 			for (Object objerr : errors.getAllErrors()) {
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 
+import org.hibernate.proxy.HibernateProxy;
 import org.junit.jupiter.api.Test;
 import org.openmrs.api.APIException;
 import org.openmrs.api.ConceptNameType;
@@ -1209,4 +1210,107 @@ public class ConceptTest extends BaseContextSensitiveTest {
 		assertThat(concept.getSetMembers(), hasItem(setMember3));
 		assertThat(concept.getSetMembers().size(), is(3));
 	}
+	
+	/**
+	 * @see Concept#getPreferredName(Locale)
+	 */
+	@Test
+	public void getPreferredName_shouldReturnTheNameMarkedAsPreferredAfterItWasLookedUp() {
+		Concept concept = new Concept();
+		ConceptName fullySpecifiedName = createConceptName(1, "intravenous", Locale.ENGLISH,
+		    ConceptNameType.FULLY_SPECIFIED, false);
+		ConceptName synonym = createConceptName(2, "into the vein", Locale.ENGLISH, null, false);
+		concept.addName(fullySpecifiedName);
+		concept.addName(synonym);
+		assertEquals(fullySpecifiedName, concept.getPreferredName(Locale.ENGLISH));
+		
+		synonym.setLocalePreferred(true);
+		
+		assertEquals(synonym, concept.getPreferredName(Locale.ENGLISH));
+		assertEquals(synonym, concept.getSynonyms(Locale.ENGLISH).iterator().next());
+	}
+	
+	/**
+	 * @see Concept#getFullySpecifiedName(Locale)
+	 */
+	@Test
+	public void getFullySpecifiedName_shouldNotReturnANameVoidedAfterItWasLookedUp() {
+		Concept concept = new Concept();
+		ConceptName fullySpecifiedName = createConceptName(1, "intravenous", Locale.ENGLISH,
+		    ConceptNameType.FULLY_SPECIFIED, false);
+		concept.addName(fullySpecifiedName);
+		concept.addName(createConceptName(2, "into the vein", Locale.ENGLISH, null, false));
+		assertEquals(fullySpecifiedName, concept.getFullySpecifiedName(Locale.ENGLISH));
+		
+		fullySpecifiedName.setVoided(true);
+		
+		assertNull(concept.getFullySpecifiedName(Locale.ENGLISH));
+		assertEquals(1, concept.getNames(Locale.ENGLISH).size());
+	}
+	
+	/**
+	 * @see Concept#getShortNameInLocale(Locale)
+	 */
+	@Test
+	public void getShortNameInLocale_shouldNotReturnANameRemovedAfterItWasLookedUp() {
+		Concept concept = createConcept(1, Locale.ENGLISH);
+		ConceptName shortName = concept.getShortNameInLocale(Locale.UK);
+		assertEquals("IV", shortName.getName());
+		
+		concept.removeName(shortName);
+		
+		assertNull(concept.getShortNameInLocale(Locale.UK));
+	}
+	
+	/**
+	 * @see Concept#getFullySpecifiedName(Locale)
+	 */
+	@Test
+	public void getFullySpecifiedName_shouldNotReturnANameVoidedThroughAProxyOfItsConcept() {
+		Context.flushSession();
+		Context.clearSession();
+		ConceptName fullySpecifiedName = Context.getConceptService().getConceptName(1847);
+		Concept concept = fullySpecifiedName.getConcept();
+		assertTrue(concept instanceof HibernateProxy);
+		assertEquals(fullySpecifiedName, concept.getFullySpecifiedName(Locale.UK));
+		
+		fullySpecifiedName.setVoided(true);
+		
+		assertNull(concept.getFullySpecifiedName(Locale.UK));
+	}
+	
+	/**
+	 * Resolves the names of a concept with 60 names in 15 locales the way a page rendering many
+	 * observations does and logs how long the lookups took
+	 */
+	@Test
+	public void getName_shouldResolveTheNamesOfAConceptWithManyLocales() {
+		Concept concept = new Concept(1);
+		List<Locale> locales = new ArrayList<>();
+		int id = 0;
+		for (String language : new String[] { "en", "fr", "es", "pt", "sw" }) {
+			for (String country : new String[] { "", "GB", "KE" }) {
+				Locale locale = new Locale(language, country);
+				locales.add(locale);
+				concept.addName(createConceptName(++id, "name " + locale, locale, ConceptNameType.FULLY_SPECIFIED, false));
+				ConceptName shortName = createConceptName(++id, "n " + locale, locale, null, false);
+				ConceptName preferredName = createConceptName(++id, "preferred " + locale, locale, null, false);
+				concept.addName(shortName);
+				concept.addName(preferredName);
+				concept.addName(createConceptName(++id, "synonym " + locale, locale, null, false));
+				// adding them with their type and flag set would unmark those of the broader locale
+				shortName.setConceptNameType(ConceptNameType.SHORT);
+				preferredName.setLocalePreferred(true);
+			}
+		}
+		assertEquals(60, concept.getNames().size());
+		
+		for (Locale locale : locales) {
+			assertEquals("preferred " + locale, concept.getName(locale, true).getName());
+			assertEquals("preferred " + locale, concept.getPreferredName(locale).getName());
+			assertEquals("name " + locale, concept.getFullySpecifiedName(locale).getName());
+			assertEquals("n " + locale, concept.getShortNameInLocale(locale).getName());
+			assertEquals("preferred " + locale, concept.getSynonyms(locale).iterator().next().getName());
+		}
+	}
 }
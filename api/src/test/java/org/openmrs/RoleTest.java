@@ -123,6 +123,43 @@ public class RoleTest {
 		assertEquals(role.getName(), RoleConstants.SUPERUSER);
 	}
 	
+	/**
+	 * @see Role#getEffectivePrivileges()
+	 */
+	@Test
+	public void getEffectivePrivileges_shouldContainThePrivilegesOfInheritedRoles() {
+		Role grandParent = new Role("grand parent");
+		grandParent.addPrivilege(new Privilege("grand parent privilege"));
+		Role parent = new Role("parent");
+		parent.getInheritedRoles().add(grandParent);
+		Role child = new Role("child");
+		child.addPrivilege(new Privilege("child privilege"));
+		child.getInheritedRoles().add(parent);
+		
+		assertTrue(child.getEffectivePrivileges().contains("Child Privilege"));
+		assertTrue(child.getEffectivePrivileges().contains("grand parent privilege"));
+		assertFalse(child.getEffectivePrivileges().contains("some other privilege"));
+		assertFalse(grandParent.getEffectivePrivileges().contains("child privilege"));
+	}
+	
+	/**
+	 * @see Role#getEffectivePrivileges()
+	 */
+	@Test
+	public void getEffectivePrivileges_shouldContainAddedPrivileges() {
+		Role parent = new Role("parent");
+		Role child = new Role("child");
+		child.getInheritedRoles().add(parent);
+		assertFalse(child.getEffectivePrivileges().contains("added privilege"));
+		
+		Privilege privilege = new Privilege("added privilege");
+		parent.addPrivilege(privilege);
+		assertTrue(child.getEffectivePrivileges().contains("added privilege"));
+		
+		parent.removePrivilege(privilege);
+		assertFalse(child.getEffectivePrivileges().contains("added privilege"));
+	}
+	
 	/**
 	 * @see Role#getAllParentRoles()
 	 */
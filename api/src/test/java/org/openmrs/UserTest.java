@@ -32,6 +32,37 @@ public class UserTest {
 		user.addRole(new Role("Some Role", "This is a test role"));
 	}
 	
+	@Test
+	public void hasPrivilege_shouldHaveThePrivilegesOfInheritedRoles() {
+		Role parent = new Role("Parent Role");
+		parent.addPrivilege(new Privilege("Parent Privilege"));
+		Role role = new Role("Child Role");
+		role.getInheritedRoles().add(parent);
+		
+		assertFalse(user.hasPrivilege("Parent Privilege"));
+		user.addRole(role);
+		assertTrue(user.hasPrivilege("parent privilege"));
+		assertFalse(user.hasPrivilege("Other Privilege"));
+	}
+	
+	@Test
+	public void hasPrivilege_shouldHaveAnyPrivilegeWhenSuperUser() {
+		assertFalse(user.hasPrivilege("Some Privilege"));
+		user.addRole(new Role(RoleConstants.SUPERUSER));
+		assertTrue(user.hasPrivilege("Some Privilege"));
+	}
+	
+	@Test
+	public void hasPrivilege_shouldNotHaveThePrivilegesOfRemovedRoles() {
+		Role role = new Role("Other Role");
+		role.addPrivilege(new Privilege("Other Privilege"));
+		user.addRole(role);
+		assertTrue(user.hasPrivilege("Other Privilege"));
+		
+		user.removeRole(role);
+		assertFalse(user.hasPrivilege("Other Privilege"));
+	}
+	
 	@Test
 	public void hasRole_shouldHaveRole() {
 		assertTrue(user.hasRole("Some Role"));
@@ -16,6 +16,7 @@ package org.openmrs.aop;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import javax.annotation.Resource;
@@ -98,4 +99,12 @@ public class AuthorizationAdviceTest extends BaseContextSensitiveTest {
 		assertThrows(APIAuthenticationException.class, () -> Context.getConceptService().getConcept(3));
 	}
 	
+	@Test
+	public void before_shouldCheckPrivilegesAgainOnRepeatedCallsOfTheSameMethod() {
+		assertNotNull(Context.getConceptService().getConcept(3));
+		
+		Context.getUserContext().logout();
+		assertThrows(APIAuthenticationException.class, () -> Context.getConceptService().getConcept(3));
+	}
+	
 }
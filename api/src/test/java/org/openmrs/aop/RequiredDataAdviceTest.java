@@ -9,6 +9,7 @@
  */
 package org.openmrs.aop;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -25,6 +26,7 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -637,6 +639,39 @@ public class RequiredDataAdviceTest extends BaseContextMockTest {
 		
 	}
 	
+	/**
+	 * @see RequiredDataAdvice#recursivelyHandle(Class, OpenmrsObject, org.openmrs.User, Date, String, List)
+	 */
+	@Test
+	public void recursivelyHandle_shouldHandleEachObjectOnlyOnce() {
+		
+		Map<String, VoidHandler> voidHandlers = new HashMap<>();
+		voidHandlers.put("voidHandler", voidHandler);
+		when(applicationContext.getBeansOfType(VoidHandler.class)).thenReturn(voidHandlers);
+		
+		ClassWithDisableHandlersAnnotation openmrsObject = new ClassWithDisableHandlersAnnotation();
+		List<Person> persons = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			persons.add(new Person());
+		}
+		Person handledPerson = persons.get(0);
+		Person duplicatePerson = persons.get(1);
+		persons.add(duplicatePerson);
+		openmrsObject.setNotAnnotatedPersons(persons);
+		List<OpenmrsObject> alreadyHandled = new ArrayList<>();
+		alreadyHandled.add(handledPerson);
+		
+		RequiredDataAdvice.recursivelyHandle(VoidHandler.class, openmrsObject, null, new Date(), "void reason",
+		    alreadyHandled);
+		
+		verify(voidHandler, never()).handle(eq(handledPerson), Matchers.anyObject(), Matchers.anyObject(), anyString());
+		verify(voidHandler, times(1)).handle(eq(duplicatePerson), Matchers.anyObject(), Matchers.anyObject(),
+		    anyString());
+		verify(voidHandler, times(1)).handle(eq(persons.get(999)), Matchers.anyObject(), Matchers.anyObject(),
+		    anyString());
+		assertEquals(1001, alreadyHandled.size());
+	}
+	
 	class SomeOpenmrsData extends BaseOpenmrsData {
 		
 		@Override
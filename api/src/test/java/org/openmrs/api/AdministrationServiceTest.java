@@ -23,11 +23,14 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.mock;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
@@ -35,8 +38,11 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.openmrs.GlobalProperty;
 import org.openmrs.ImplementationId;
+import org.openmrs.Patient;
 import org.openmrs.User;
 import org.openmrs.api.context.Context;
+import org.openmrs.api.db.SearchIndexOptions;
+import org.openmrs.api.db.SearchIndexProgress;
 import org.openmrs.customdatatype.datatype.BooleanDatatype;
 import org.openmrs.customdatatype.datatype.DateDatatype;
 import org.openmrs.messagesource.MutableMessageSource;
@@ -488,6 +494,59 @@ public class AdministrationServiceTest extends BaseContextSensitiveTest {
 		assertEquals(orig, noprop);
 	}
 	
+	@Test
+	public void getGlobalProperty_shouldReturnTheNewValueOfASavedProperty() {
+		executeDataSet("org/openmrs/api/include/AdministrationServiceTest-globalproperties.xml");
+		assertEquals("correct-value", adminService.getGlobalProperty("a_valid_gp_key"));
+		
+		adminService.setGlobalProperty("a_valid_gp_key", "new-value");
+		assertEquals("new-value", adminService.getGlobalProperty("a_valid_gp_key"));
+		
+		adminService.purgeGlobalProperty(adminService.getGlobalPropertyObject("a_valid_gp_key"));
+		assertNull(adminService.getGlobalProperty("a_valid_gp_key"));
+	}
+	
+	/**
+	 * @see AdministrationService#evictCachedGlobalProperty(String)
+	 */
+	@Test
+	public void evictCachedGlobalProperty_shouldReadTheEvictedPropertyFromTheDatabaseAgain() throws SQLException {
+		executeDataSet("org/openmrs/api/include/AdministrationServiceTest-globalproperties.xml");
+		assertEquals("correct-value", adminService.getGlobalProperty("a_valid_gp_key"));
+		
+		updateGlobalPropertyBehindTheServicesBack("a_valid_gp_key", "new-value");
+		assertEquals("correct-value", adminService.getGlobalProperty("a_valid_gp_key"));
+		
+		adminService.evictCachedGlobalProperty("A_VALID_GP_KEY");
+		assertEquals("new-value", adminService.getGlobalProperty("a_valid_gp_key"));
+	}
+	
+	/**
+	 * @see AdministrationService#evictCachedGlobalProperties()
+	 */
+	@Test
+	public void evictCachedGlobalProperties_shouldReadAllPropertiesFromTheDatabaseAgain() throws SQLException {
+		executeDataSet("org/openmrs/api/include/AdministrationServiceTest-globalproperties.xml");
+		assertEquals("correct-value", adminService.getGlobalProperty("a_valid_gp_key"));
+		assertEquals("anothervalue", adminService.getGlobalProperty("another-global-property"));
+		
+		updateGlobalPropertyBehindTheServicesBack("a_valid_gp_key", "new-value");
+		updateGlobalPropertyBehindTheServicesBack("another-global-property", "another-new-value");
+		
+		adminService.evictCachedGlobalProperties();
+		assertEquals("new-value", adminService.getGlobalProperty("a_valid_gp_key"));
+		assertEquals("another-new-value", adminService.getGlobalProperty("another-global-property"));
+	}
+	
+	private void updateGlobalPropertyBehindTheServicesBack(String property, String value) throws SQLException {
+		try (PreparedStatement statement = getConnection().prepareStatement(
+		    "update global_property set property_value = ? where property = ?")) {
+			statement.setString(1, value);
+			statement.setString(2, property);
+			assertEquals(1, statement.executeUpdate());
+		}
+	}
+	
 	@Test
 	public void saveGlobalProperty_shouldNotAllowDifferentPropertiesToHaveTheSameStringWithDifferentCase() {
 		executeDataSet("org/openmrs/api/include/AdministrationServiceTest-globalproperties.xml");
@@ -809,4 +868,31 @@ public class AdministrationServiceTest extends BaseContextSensitiveTest {
 	private List<Locale> getCachedSearchLocalesForCurrentUser() {
 		return (List<Locale>) getCacheForCurrentUser().get();
 	}
+
+	@Test
+	public void getSearchIndexProgress_shouldReportTheCountsOfAFinishedRebuild() throws Exception {
+		SearchIndexOptions options = new SearchIndexOptions();
+		options.setBatchSize(2);
+		options.setThreads(3);
+		SearchIndexOptions patientOptions = new SearchIndexOptions();
+		patientOptions.setBatchSize(1);
+		patientOptions.setIdFetchSize(1);
+		options.setTypeOptions(Patient.class, patientOptions);
+		
+		adminService.updateSearchIndexAsync(options).get(1, TimeUnit.MINUTES);
+		
+		SearchIndexProgress progress = adminService.getSearchIndexProgress();
+		assertTrue(progress.isDone());
+		assertNull(progress.getError());
+		assertNotNull(progress.getFinished());
+		assertThat(progress.getTypes(), hasItem(Patient.class));
+		long indexed = 0;
+		for (Class<?> type : progress.getTypes()) {
+			assertEquals(progress.getTotalCount(type), progress.getIndexedCount(type), type.getName());
+			indexed += progress.getIndexedCount(type);
+		}
+		assertTrue(progress.getIndexedCount(Patient.class) > 0);
+		assertEquals(indexed, progress.getIndexedCount());
+		assertTrue(progress.getDocumentsPerSecond() > 0);
+	}
 }
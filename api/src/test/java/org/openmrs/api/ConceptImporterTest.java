@@ -0,0 +1,82 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.openmrs.Concept;
+import org.openmrs.ConceptName;
+import org.openmrs.api.context.Context;
+import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+
+/**
+ * Tests methods on the {@link ConceptImporter} class
+ */
+public class ConceptImporterTest extends BaseContextSensitiveTest {
+
+	private Concept newConcept(String name) {
+		ConceptService conceptService = Context.getConceptService();
+		Concept concept = new Concept();
+		concept.addName(new ConceptName(name, Locale.ENGLISH));
+		concept.setDatatype(conceptService.getConceptDatatype(4));
+		concept.setConceptClass(conceptService.getConceptClass(1));
+		return concept;
+	}
+
+	/**
+	 * @see ConceptImporter#importConcepts(Stream)
+	 */
+	@Test
+	public void importConcepts_shouldImportAllConcepts() {
+		int imported = new ConceptImporter(2).importConcepts(Stream.of(newConcept("Imported one"),
+		    newConcept("Imported two"), newConcept("Imported three")));
+
+		assertEquals(3, imported);
+		ConceptService conceptService = Context.getConceptService();
+		assertNotNull(conceptService.getConceptByName("Imported one"));
+		assertNotNull(conceptService.getConceptByName("Imported two"));
+		assertNotNull(conceptService.getConceptByName("Imported three"));
+	}
+
+	/**
+	 * @see ConceptImporter#importConcepts(Stream)
+	 */
+	@Test
+	public void importConcepts_shouldAddTheNamesOfTheImportedConceptsToTheSearchIndex() {
+		Concept concept = newConcept("Bulk imported concept");
+
+		new ConceptImporter(10).importConcepts(Stream.of(concept));
+
+		assertEquals(1, Context.getConceptService().getConceptsByName("Bulk imported concept", Locale.ENGLISH, false)
+		        .size());
+	}
+
+	/**
+	 * @see ConceptImporter#importConcepts(Stream)
+	 */
+	@Test
+	public void importConcepts_shouldKeepTheChunksImportedBeforeAChunkFailed() {
+		Stream<Concept> concepts = Stream.of(newConcept("Imported one"), newConcept("Imported two"), newConcept(
+		    "Imported one"));
+
+		assertThrows(DuplicateConceptNameException.class, () -> new ConceptImporter(2).importConcepts(concepts));
+
+		ConceptService conceptService = Context.getConceptService();
+		assertNotNull(conceptService.getConceptByName("Imported one"));
+		assertNotNull(conceptService.getConceptByName("Imported two"));
+		assertEquals(1, conceptService.getConceptsByName("Imported two", Locale.ENGLISH, false).size());
+	}
+}
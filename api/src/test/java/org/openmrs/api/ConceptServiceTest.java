@@ -435,6 +435,181 @@ public class ConceptServiceTest extends BaseContextSensitiveTest {
 		assertEquals(numberofconcepts, iteratorCount);
 	}
 	
+	/**
+	 * @see ConceptService#conceptIterator(int)
+	 */
+	@Test
+	public void conceptIterator_shouldIterateOverAllConceptsInTheOrderOfTheirIds() {
+		List<Integer> conceptIds = new ArrayList<>();
+		Iterator<Concept> iterator = Context.getConceptService().conceptIterator(2);
+		while (iterator.hasNext()) {
+			conceptIds.add(iterator.next().getConceptId());
+		}
+		
+		assertEquals(getAllConceptIdsInOrder(), conceptIds);
+	}
+	
+	/**
+	 * @see ConceptService#forEachConcept(int, int, java.util.function.Consumer)
+	 */
+	@Test
+	public void forEachConcept_shouldPassAllConceptsToTheConsumerInTheOrderOfTheirIds() {
+		List<Integer> conceptIds = new ArrayList<>();
+		Context.getConceptService().forEachConcept(3, 1, c -> conceptIds.add(c.getConceptId()));
+		
+		assertEquals(getAllConceptIdsInOrder(), conceptIds);
+	}
+	
+	/**
+	 * @see ConceptService#forEachConcept(int, int, java.util.function.Consumer)
+	 */
+	@Test
+	public void forEachConcept_shouldPassAllConceptsToTheConsumerOnceIfConsumingInParallel() {
+		List<Integer> conceptIds = Collections.synchronizedList(new ArrayList<>());
+		Context.getConceptService().forEachConcept(4, 3, c -> {
+			// the names were loaded with the batch
+			c.getNames().size();
+			conceptIds.add(c.getConceptId());
+		});
+		
+		Collections.sort(conceptIds);
+		assertEquals(getAllConceptIdsInOrder(), conceptIds);
+	}
+	
+	/**
+	 * @see ConceptService#forEachConcept(int, int, java.util.function.Consumer)
+	 */
+	@Test
+	public void forEachConcept_shouldLetTheConsumerLoadDataOfTheConceptsIfConsumingInParallel() {
+		List<Integer> conceptIds = Collections.synchronizedList(new ArrayList<>());
+		List<User> users = Collections.synchronizedList(new ArrayList<>());
+		Context.getConceptService().forEachConcept(4, 3, c -> {
+			// neither loaded with the batch nor shared with the calling thread
+			c.getDescriptions().size();
+			c.getConceptSets().size();
+			users.add(Context.getAuthenticatedUser());
+			conceptIds.add(c.getConceptId());
+		});
+		
+		Collections.sort(conceptIds);
+		assertEquals(getAllConceptIdsInOrder(), conceptIds);
+		assertEquals(conceptIds.size(), users.size());
+		for (User user : users) {
+			assertEquals(Context.getAuthenticatedUser(), user);
+		}
+	}
+	
+	/**
+	 * @see ConceptService#forEachConcept(int, int, java.util.function.Consumer)
+	 */
+	@Test
+	public void forEachConcept_shouldRethrowTheExceptionThrownByTheConsumer() {
+		APIException exception = assertThrows(APIException.class, () -> Context.getConceptService().forEachConcept(4, 2,
+		    c -> {
+			    throw new APIException("consumer failed");
+		    }));
+		assertEquals("consumer failed", exception.getMessage());
+	}
+	
+	private List<Integer> getAllConceptIdsInOrder() {
+		List<Integer> conceptIds = new ArrayList<>();
+		for (Concept concept : Context.getConceptService().getAllConcepts()) {
+			conceptIds.add(concept.getConceptId());
+		}
+		Collections.sort(conceptIds);
+		return conceptIds;
+	}
+	
+	/**
+	 * @see ConceptService#importConceptBatch(List)
+	 */
+	@Test
+	public void importConceptBatch_shouldSaveTheConceptsWithTheirNamesMappingsAnswersAndSetMembers() {
+		Concept question = newImportedConcept("Imported question", 2);
+		question.addAnswer(new ConceptAnswer(conceptService.getConcept(7)));
+		question.addConceptMapping(new ConceptMap(conceptService.getConceptReferenceTerm(1), null));
+		Concept set = newImportedConcept("Imported set", 4);
+		set.addSetMember(conceptService.getConcept(8));
+		
+		conceptService.importConceptBatch(Arrays.asList(question, set));
+		Context.flushSession();
+		Context.clearSession();
+		
+		question = conceptService.getConcept(question.getConceptId());
+		assertEquals("Imported question", question.getName(Locale.ENGLISH).getName());
+		assertTrue(question.getName(Locale.ENGLISH).getLocalePreferred());
+		assertEquals(conceptService.getConcept(7), question.getAnswers().iterator().next().getAnswerConcept());
+		ConceptMap mapping = question.getConceptMappings().iterator().next();
+		assertEquals(conceptService.getConceptReferenceTerm(1), mapping.getConceptReferenceTerm());
+		assertEquals(conceptService.getDefaultConceptMapType(), mapping.getConceptMapType());
+		set = conceptService.getConcept(set.getConceptId());
+		assertTrue(set.getSet());
+		assertThat(set.getSetMembers(), contains(conceptService.getConcept(8)));
+	}
+	
+	/**
+	 * @see ConceptService#importConceptBatch(List)
+	 */
+	@Test
+	public void importConceptBatch_shouldSaveConceptsBeforeTheConceptsOfTheBatchThatReferenceThem() {
+		Concept question = newImportedConcept("Imported question", 2);
+		Concept set = newImportedConcept("Imported set", 4);
+		Concept answer = newImportedConcept("Imported answer", 4);
+		question.addAnswer(new ConceptAnswer(answer));
+		set.addSetMember(question);
+		
+		conceptService.importConceptBatch(Arrays.asList(set, question, answer));
+		Context.flushSession();
+		Context.clearSession();
+		
+		question = conceptService.getConcept(question.getConceptId());
+		assertEquals(answer, question.getAnswers().iterator().next().getAnswerConcept());
+		assertThat(conceptService.getConcept(set.getConceptId()).getSetMembers(), contains(question));
+	}
+	
+	/**
+	 * @see ConceptService#importConceptBatch(List)
+	 */
+	@Test
+	public void importConceptBatch_shouldFailIfANameDuplicatesTheNameOfAStoredConcept() {
+		Concept concept = new Concept();
+		concept.addName(new ConceptName("cd4 count", new Locale("en", "GB")));
+		concept.setDatatype(conceptService.getConceptDatatype(4));
+		concept.setConceptClass(conceptService.getConceptClass(1));
+		
+		assertThrows(DuplicateConceptNameException.class, () -> conceptService.importConceptBatch(Collections
+		        .singletonList(concept)));
+	}
+	
+	/**
+	 * @see ConceptService#importConceptBatch(List)
+	 */
+	@Test
+	public void importConceptBatch_shouldFailIfANameDuplicatesTheNameOfAnotherConceptInTheBatch() {
+		List<Concept> concepts = Arrays.asList(newImportedConcept("Imported concept", 4), newImportedConcept(
+		    "IMPORTED CONCEPT", 4));
+		
+		assertThrows(DuplicateConceptNameException.class, () -> conceptService.importConceptBatch(concepts));
+	}
+	
+	/**
+	 * @see ConceptService#importConceptBatch(List)
+	 */
+	@Test
+	public void importConceptBatch_shouldFailIfAConceptIsInvalid() {
+		List<Concept> concepts = Arrays.asList(newImportedConcept("Imported concept", 4), newImportedConcept(" ", 4));
+		
+		assertThrows(ValidationException.class, () -> conceptService.importConceptBatch(concepts));
+	}
+	
+	private Concept newImportedConcept(String name, int datatypeId) {
+		Concept concept = new Concept();
+		concept.addName(new ConceptName(name, Locale.ENGLISH));
+		concept.setDatatype(conceptService.getConceptDatatype(datatypeId));
+		concept.setConceptClass(conceptService.getConceptClass(1));
+		return concept;
+	}
+	
 	/**
 	 * @see ConceptService#saveConcept(Concept)
 	 */
@@ -710,6 +885,54 @@ public class ConceptServiceTest extends BaseContextSensitiveTest {
 		assertEquals(5089, concept.getId().intValue());
 	}
 	
+	@Test
+	public void getConceptsByMapping_shouldFindConceptsInTheDictionarySnapshot() {
+		enableDictionarySnapshot();
+		
+		assertEquals(5089, conceptService.getConceptByMapping("wgt234", "sstrm").getId().intValue());
+		assertEquals(5089, conceptService.getConceptByMapping("WGT234", "Some Standardized Terminology").getId()
+		        .intValue());
+		List<Concept> concepts = conceptService.getConceptsByMapping("766554", "SSTRM", true);
+		assertEquals(2, concepts.size());
+		assertEquals(16, concepts.get(0).getId().intValue());
+		assertEquals(24, concepts.get(1).getId().intValue());
+		assertEquals(1, conceptService.getConceptsByMapping("766554", "SSTRM", false).size());
+		assertThat(conceptService.getConceptsByMapping("A random concept code", "SSTRM"), is(empty()));
+		assertEquals(5089, conceptService.getConceptByUuid("c607c80f-1ea9-4da3-bb88-6276ce8868dd").getId().intValue());
+		assertNull(conceptService.getConceptByUuid("some invalid uuid"));
+	}
+	
+	@Test
+	public void saveConcept_shouldFindTheSavedConceptWhileTheDictionarySnapshotIsEnabled() {
+		enableDictionarySnapshot();
+		ConceptReferenceTerm term = conceptService.saveConceptReferenceTerm(new ConceptReferenceTerm(conceptService
+		        .getConceptSource(1), "SNAPSHOT-1", null));
+		assertNull(conceptService.getConceptByName("Snapshot concept"));
+		
+		Concept concept = new Concept();
+		concept.addName(new ConceptName("Snapshot concept", Locale.ENGLISH));
+		concept.addDescription(new ConceptDescription("A concept added to the snapshot", Locale.ENGLISH));
+		concept.setDatatype(conceptService.getConceptDatatype(4));
+		concept.setConceptClass(conceptService.getConceptClass(1));
+		concept.addConceptMapping(new ConceptMap(term, conceptService.getConceptMapType(2)));
+		conceptService.saveConcept(concept);
+		
+		assertEquals(concept, conceptService.getConceptByName("snapshot concept"));
+		assertEquals(concept, conceptService.getConceptByUuid(concept.getUuid()));
+		assertEquals(concept, conceptService.getConceptByMapping("SNAPSHOT-1", "SSTRM"));
+		
+		conceptService.retireConcept(concept, "testing");
+		
+		assertNull(conceptService.getConceptByName("Snapshot concept"));
+		assertThat(conceptService.getConceptsByMapping("SNAPSHOT-1", "SSTRM", false), is(empty()));
+		assertEquals(concept, conceptService.getConceptByMapping("SNAPSHOT-1", "SSTRM", true));
+	}
+	
+	private void enableDictionarySnapshot() {
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(OpenmrsConstants.GP_CONCEPT_DICTIONARY_SNAPSHOT_ENABLED, "true"));
+	}
+	
 	/**
 	 * @see ConceptService#getConceptAnswerByUuid(String)
 	 */
@@ -38,6 +38,8 @@ import java.util.TreeSet;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.Test;
 import org.openmrs.CodedOrFreeText;
 import org.openmrs.Cohort;
@@ -1696,6 +1698,101 @@ public class EncounterServiceTest extends BaseContextSensitiveTest {
 		assertEquals(3, allEncounters.get(7).size());
 	}
 	
+	/**
+	 * @see EncounterService#forEachPatientEncounters(Cohort, int, java.util.function.BiConsumer)
+	 */
+	@Test
+	public void forEachPatientEncounters_shouldPassTheEncountersOfEachPatientOfTheCohort() {
+		Cohort cohort = new Cohort();
+		cohort.addMember(7);
+		Map<Integer, List<Encounter>> passed = new HashMap<>();
+		
+		Context.getEncounterService().forEachPatientEncounters(cohort, 100, passed::put);
+		
+		assertEquals(1, passed.size());
+		List<Encounter> encounters = passed.get(7);
+		assertEquals(3, encounters.size());
+		for (int i = 1; i < encounters.size(); i++) {
+			assertFalse(encounters.get(i).getEncounterDatetime().after(encounters.get(i - 1).getEncounterDatetime()));
+		}
+	}
+	
+	/**
+	 * @see EncounterService#forEachPatientEncounters(Cohort, int, java.util.function.BiConsumer)
+	 */
+	@Test
+	public void forEachPatientEncounters_shouldPassEachPatientOnceAcrossChunks() {
+		Map<Integer, List<Encounter>> expected = Context.getEncounterService().getAllEncounters(null);
+		Cohort cohort = new Cohort(expected.keySet());
+		Map<Integer, Integer> passedCounts = new HashMap<>();
+		
+		Context.getEncounterService().forEachPatientEncounters(cohort, 1,
+		    (patientId, encounters) -> assertNull(passedCounts.put(patientId, encounters.size())));
+		
+		assertEquals(expected.size(), passedCounts.size());
+		for (Map.Entry<Integer, List<Encounter>> entry : expected.entrySet()) {
+			assertEquals(entry.getValue().size(), (int) passedCounts.get(entry.getKey()));
+		}
+	}
+	
+	/**
+	 * @see EncounterService#forEachPatientEncounters(Cohort, int, java.util.function.BiConsumer)
+	 */
+	@Test
+	public void forEachPatientEncounters_shouldPassTheEncountersOfAllPatientsIfNoCohortIsGiven() {
+		Map<Integer, List<Encounter>> expected = Context.getEncounterService().getAllEncounters(null);
+		Map<Integer, Integer> passedCounts = new HashMap<>();
+		
+		Context.getEncounterService().forEachPatientEncounters(null, 2,
+		    (patientId, encounters) -> passedCounts.put(patientId, encounters.size()));
+		
+		assertEquals(expected.keySet(), passedCounts.keySet());
+	}
+	
+	/**
+	 * @see EncounterService#forEachPatientEncounters(Cohort, int, java.util.function.BiConsumer)
+	 */
+	@Test
+	public void forEachPatientEncounters_shouldPassThePatientsInAscendingOrder() {
+		List<Integer> passedPatientIds = new ArrayList<>();
+		
+		Context.getEncounterService().forEachPatientEncounters(null, 100,
+		    (patientId, encounters) -> passedPatientIds.add(patientId));
+		
+		assertTrue(passedPatientIds.size() > 1);
+		for (int i = 1; i < passedPatientIds.size(); i++) {
+			assertTrue(passedPatientIds.get(i - 1) < passedPatientIds.get(i));
+		}
+	}
+	
+	/**
+	 * @see EncounterService#forEachPatientEncounters(Cohort, int, java.util.function.BiConsumer)
+	 */
+	@Test
+	public void forEachPatientEncounters_shouldKeepTheObjectsLoadedBeforeAttachedToTheSession() {
+		Context.flushSession();
+		Context.clearSession();
+		Encounter loadedBefore = Context.getEncounterService().getEncounter(3);
+		Cohort cohort = new Cohort();
+		cohort.addMember(2);
+		cohort.addMember(7);
+		List<Encounter> passed = new ArrayList<>();
+		
+		Context.getEncounterService().forEachPatientEncounters(cohort, 1, (patientId, encounters) -> passed.addAll(
+		    encounters));
+		
+		Session session = applicationContext.getBean("sessionFactory", SessionFactory.class).getCurrentSession();
+		assertTrue(session.contains(loadedBefore));
+		assertTrue(session.contains(loadedBefore.getPatient()));
+		assertTrue(passed.stream().anyMatch(encounter -> encounter == loadedBefore));
+		assertTrue(passed.size() > 1);
+		for (Encounter encounter : passed) {
+			if (encounter != loadedBefore) {
+				assertFalse(session.contains(encounter));
+			}
+		}
+	}
+	
 	/**
 	 * @see EncounterService#getEncounters(Patient, Location, Date, Date, java.util.Collection,
 	 *      java.util.Collection, java.util.Collection, java.util.Collection, java.util.Collection,
@@ -59,6 +59,7 @@ import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
 import org.openmrs.PatientIdentifierType.UniquenessBehavior;
 import org.openmrs.PatientProgram;
+import org.openmrs.PatientSearchDocument;
 import org.openmrs.Person;
 import org.openmrs.PersonAddress;
 import org.openmrs.PersonAttribute;
@@ -2840,6 +2841,42 @@ public class PatientServiceTest extends BaseContextSensitiveTest {
 		assertThat(patients, is(empty()));
 	}
 	
+	/**
+	 * @see PatientService#getPatientSearchDocuments(String, boolean, Integer, Integer)
+	 */
+	@Test
+	public void getPatientSearchDocuments_shouldFindPatientsByNameAndIdentifier() {
+		List<PatientSearchDocument> documents = patientService.getPatientSearchDocuments("6TS-4", false, 0, 10);
+		
+		assertEquals(1, documents.size());
+		assertEquals(Integer.valueOf(7), documents.get(0).getPatientId());
+		assertEquals("5946f880-b197-400b-9caa-a3c661d23041", documents.get(0).getUuid());
+		
+		documents = patientService.getPatientSearchDocuments("horn", false, 0, 10);
+		assertTrue(documents.stream().anyMatch(document -> document.getPatientId().equals(2)));
+	}
+	
+	/**
+	 * @see PatientService#getPatientSearchDocuments(String, boolean, Integer, Integer)
+	 */
+	@Test
+	public void getPatientSearchDocuments_shouldNotFindVoidedPatientsUnlessAskedTo() {
+		assertThat(patientService.getPatientSearchDocuments("QWE", false, 0, 10), is(empty()));
+		
+		List<PatientSearchDocument> documents = patientService.getPatientSearchDocuments("QWE", true, 0, 10);
+		assertEquals(1, documents.size());
+		assertEquals(Integer.valueOf(432), documents.get(0).getPatientId());
+	}
+	
+	/**
+	 * @see PatientService#getPatientSearchDocuments(String, boolean, Integer, Integer)
+	 */
+	@Test
+	public void getPatientSearchDocuments_shouldReturnAnEmptyListForABlankQuery() {
+		assertThat(patientService.getPatientSearchDocuments(" ", true, 0, 10), is(empty()));
+		assertThat(patientService.getPatientSearchDocuments(null, true, 0, 10), is(empty()));
+	}
+	
 	/**
 	 * @see PatientService#isIdentifierInUseByAnotherPatient(PatientIdentifier)
 	 */
@@ -19,9 +19,11 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.sql.SQLException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
@@ -853,25 +855,107 @@ public class VisitServiceTest extends BaseContextSensitiveTest {
 		assertNotNull(attribute.getDateVoided());
 	}
 	
+	/**
+	 * The visits are stopped in transactions of their own which do not see the data of the test
+	 * transaction, so it is committed and has to be deleted after the test
+	 */
+	private void executeCommittedDataSet(String datasetFilename) throws SQLException {
+		executeDataSet(datasetFilename);
+		Context.flushSession();
+		getConnection().commit();
+	}
+	
+	private String getOpenVisitsToAutoCloseQuery() {
+		String[] visitTypeNames = StringUtils.stripAll(StringUtils.split(Context.getAdministrationService()
+		        .getGlobalProperty(OpenmrsConstants.GP_VISIT_TYPES_TO_AUTO_CLOSE), ","));
+		return "SELECT visit_id FROM visit WHERE voided = 0 AND date_stopped IS NULL AND visit_type_id IN (SELECT visit_type_id FROM visit_type WHERE NAME IN ('"
+		        + StringUtils.join(visitTypeNames, "','") + "')) ORDER BY visit_id";
+	}
+	
+	@Test
+	public void stopVisits_shouldCloseAllUnvoidedActiveVisitMatchingTheSpecifiedVisitTypes() throws SQLException {
+		executeCommittedDataSet("org/openmrs/api/include/VisitServiceTest-includeVisitsAndTypeToAutoClose.xml");
+		try {
+			String openVisitsQuery = getOpenVisitsToAutoCloseQuery();
+			int activeVisitCount = Context.getAdministrationService().executeSQL(openVisitsQuery, true).size();
+			//sanity check
+			assertTrue(activeVisitCount > 0, "There should be some active visits for this test to be valid");
+			
+			//close any unvoided open visits
+			visitService.stopVisits(null);
+			
+			activeVisitCount = Context.getAdministrationService().executeSQL(openVisitsQuery, true).size();
+			
+			//all active unvoided visits should have been closed
+			assertTrue(activeVisitCount == 0, "Not all active unvoided vists were closed");
+		}
+		finally {
+			deleteAllData();
+		}
+	}
+	
+	@Test
+	public void stopVisits_shouldSetTheAuditFieldsOfTheStoppedVisits() throws SQLException {
+		// stop the visits one at a time to go through several chunks
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GP_VISIT_AUTO_CLOSE_BATCH_SIZE, "1");
+		executeCommittedDataSet("org/openmrs/api/include/VisitServiceTest-includeVisitsAndTypeToAutoClose.xml");
+		try {
+			List<List<Object>> openVisits = Context.getAdministrationService().executeSQL(
+			    getOpenVisitsToAutoCloseQuery(), true);
+			assertTrue(openVisits.size() > 1, "There should be several active visits for this test to be valid");
+			
+			visitService.stopVisits(null);
+			
+			for (List<Object> row : openVisits) {
+				Visit visit = visitService.getVisit(((Number) row.get(0)).intValue());
+				assertNotNull(visit.getStopDatetime());
+				assertEquals(Context.getAuthenticatedUser(), visit.getChangedBy());
+				assertEquals(visit.getStopDatetime(), visit.getDateChanged());
+			}
+		}
+		finally {
+			deleteAllData();
+		}
+	}
+	
+	/**
+	 * @see VisitService#stopNextVisits(Integer, Collection, Date, Date, int)
+	 */
 	@Test
-	public void stopVisits_shouldCloseAllUnvoidedActiveVisitMatchingTheSpecifiedVisitTypes() {
+	public void stopNextVisits_shouldStopTheActiveVisitsFollowingTheGivenVisitId() throws SQLException {
+		executeCommittedDataSet("org/openmrs/api/include/VisitServiceTest-includeVisitsAndTypeToAutoClose.xml");
+		try {
+			List<VisitType> visitTypes = Collections.singletonList(visitService.getVisitType(4));
+			
+			List<Integer> stopped = visitService.stopNextVisits(103, visitTypes, null, new Date(), 2);
+			
+			assertEquals(Arrays.asList(104, 105), stopped);
+			Context.clearSession();
+			assertNotNull(visitService.getVisit(104).getStopDatetime());
+			assertNotNull(visitService.getVisit(105).getStopDatetime());
+			assertNull(visitService.getVisit(106).getStopDatetime());
+		}
+		finally {
+			deleteAllData();
+		}
+	}
+	
+	/**
+	 * @see VisitService#getVisitCountToStop(Date)
+	 */
+	@Test
+	public void getVisitCountToStop_shouldCountTheUnvoidedActiveVisitsMatchingTheSpecifiedVisitTypes() {
 		executeDataSet("org/openmrs/api/include/VisitServiceTest-includeVisitsAndTypeToAutoClose.xml");
-		String[] visitTypeNames = StringUtils.split(Context.getAdministrationService().getGlobalProperty(
-		    OpenmrsConstants.GP_VISIT_TYPES_TO_AUTO_CLOSE), ",");
-		
 		String openVisitsQuery = "SELECT visit_id FROM visit WHERE voided = 0 AND date_stopped IS NULL AND visit_type_id IN (SELECT visit_type_id FROM visit_type WHERE NAME IN ('"
-		        + StringUtils.join(visitTypeNames, "','") + "'))";
+		        + StringUtils.join(StringUtils.stripAll(StringUtils.split(Context.getAdministrationService()
+		                .getGlobalProperty(OpenmrsConstants.GP_VISIT_TYPES_TO_AUTO_CLOSE), ",")), "','") + "'))";
 		int activeVisitCount = Context.getAdministrationService().executeSQL(openVisitsQuery, true).size();
-		//sanity check
 		assertTrue(activeVisitCount > 0, "There should be some active visits for this test to be valid");
 		
-		//close any unvoided open visits
-		visitService.stopVisits(null);
-		
-		activeVisitCount = Context.getAdministrationService().executeSQL(openVisitsQuery, true).size();
+		assertEquals(activeVisitCount, visitService.getVisitCountToStop(null));
 		
-		//all active unvoided visits should have been closed
-		assertTrue(activeVisitCount == 0, "Not all active unvoided vists were closed");
+		// counting does not stop anything
+		assertEquals(activeVisitCount, Context.getAdministrationService().executeSQL(openVisitsQuery, true).size());
 	}
 	
 	/**
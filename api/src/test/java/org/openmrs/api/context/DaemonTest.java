@@ -18,8 +18,12 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
@@ -29,6 +33,7 @@ import org.openmrs.User;
 import org.openmrs.api.APIAuthenticationException;
 import org.openmrs.api.APIException;
 import org.openmrs.scheduler.Task;
+import org.openmrs.scheduler.executor.ExecutorSchedulerTask;
 import org.openmrs.scheduler.tasks.AbstractTask;
 import org.openmrs.scheduler.tasks.HelloWorldTask;
 import org.openmrs.scheduler.timer.TimerSchedulerTask;
@@ -67,6 +72,40 @@ public class DaemonTest extends BaseContextSensitiveTest {
 		assertTrue(new PrivateSchedulerTask(task).runTheTest());
 	}
 	
+	/**
+	 * @see Daemon#executeScheduledTaskInCurrentThread(Task)
+	 */
+	@Test
+	public void executeScheduledTaskInCurrentThread_shouldNotBeCalledFromOtherClassesThanExecutorSchedulerTask() {
+		APIException exception = assertThrows(APIException.class,
+		    () -> Daemon.executeScheduledTaskInCurrentThread(new HelloWorldTask()));
+		assertThat(exception.getMessage(), is(Context.getMessageSourceService().getMessage("Scheduler.executor.task.only",
+		    new Object[] { this.getClass().getName() }, null)));
+	}
+	
+	/**
+	 * @see Daemon#executeScheduledTaskInCurrentThread(Task)
+	 */
+	@Test
+	public void executeScheduledTaskInCurrentThread_shouldExecuteTheTaskInTheCallingThreadAsADaemonThread() {
+		List<Thread> threads = new ArrayList<>();
+		List<Boolean> daemonThreads = new ArrayList<>();
+		Task task = new AbstractTask() {
+			
+			@Override
+			public void execute() {
+				threads.add(Thread.currentThread());
+				daemonThreads.add(Daemon.isDaemonThread());
+			}
+		};
+		
+		new ExecutorSchedulerTask(task, new AtomicInteger(), 1).run();
+		
+		assertEquals(Collections.singletonList(Thread.currentThread()), threads);
+		assertEquals(Collections.singletonList(true), daemonThreads);
+		assertFalse(Daemon.isDaemonThread());
+	}
+	
 	@Test 
 	public void createUser_shouldThrowWhenCalledOutsideContextDAO() throws Throwable {
 		// verif
@@ -0,0 +1,101 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.context;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.openmrs.api.PatientService;
+import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests {@link ServiceContext}
+ */
+public class ServiceContextTest extends BaseContextSensitiveTest {
+
+	private static final Logger log = LoggerFactory.getLogger(ServiceContextTest.class);
+
+	private static final int THREADS = 200;
+
+	private static final int LOOKUPS_PER_THREAD = 10000;
+
+	/**
+	 * @see ServiceContext#getService(Class)
+	 */
+	@Test
+	public void getService_shouldReturnTheSameServiceToConcurrentCallers() throws Exception {
+		ServiceContext serviceContext = ServiceContext.getInstance();
+		PatientService expected = serviceContext.getService(PatientService.class);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					boolean same = true;
+					for (int j = 0; j < LOOKUPS_PER_THREAD; j++) {
+						same &= serviceContext.getService(PatientService.class) == expected;
+					}
+					return same;
+				}));
+			}
+
+			long startTime = System.nanoTime();
+			start.countDown();
+			for (Future<Boolean> result : results) {
+				assertTrue(result.get());
+			}
+			log.info("{} threads looked up a service {} times each in {} ms", THREADS, LOOKUPS_PER_THREAD,
+			    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * @see ServiceContext#getService(Class)
+	 */
+	@Test
+	public void getService_shouldWaitWhileTheContextIsRefreshing() throws Exception {
+		ServiceContext serviceContext = ServiceContext.getInstance();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			serviceContext.startRefreshingContext();
+			Future<PatientService> result;
+			try {
+				result = executor.submit(() -> serviceContext.getService(PatientService.class));
+				Thread.sleep(200);
+				assertFalse(result.isDone());
+			}
+			finally {
+				serviceContext.doneRefreshingContext();
+			}
+
+			assertSame(serviceContext.getService(PatientService.class), result.get(10, TimeUnit.SECONDS));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,189 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+import org.openmrs.Concept;
+import org.openmrs.ConceptAnswer;
+import org.openmrs.ConceptMap;
+import org.openmrs.ConceptMapType;
+import org.openmrs.ConceptName;
+import org.openmrs.ConceptReferenceTerm;
+import org.openmrs.ConceptSource;
+import org.openmrs.api.ConceptNameType;
+import org.openmrs.api.db.ConceptDictionarySnapshot.Entry;
+import org.openmrs.api.db.ConceptDictionarySnapshot.Mapping;
+import org.openmrs.api.db.ConceptDictionarySnapshot.Name;
+
+/**
+ * Tests {@link ConceptDictionarySnapshot}
+ */
+public class ConceptDictionarySnapshotTest {
+
+	private static final Locale GERMANY = Locale.GERMANY;
+
+	private static Entry entry(int conceptId, boolean retired, List<Name> names, List<Mapping> mappings) {
+		return new Entry(conceptId, "uuid-" + conceptId, retired, 1, 1, names, mappings, Collections.emptyList(),
+		        Collections.emptyList());
+	}
+
+	private static Name name(String name, Locale locale) {
+		return new Name(name, locale, ConceptNameType.FULLY_SPECIFIED, true);
+	}
+
+	private static ConceptDictionarySnapshot snapshot() {
+		return ConceptDictionarySnapshot.of(Arrays.asList(
+		    entry(1, false, Arrays.asList(name("Weight", Locale.ENGLISH), name("Gewicht", Locale.GERMAN)),
+		        Collections.singletonList(new Mapping("WGT234", "Some Standardized Terminology", "SSTRM"))),
+		    entry(2, true, Collections.singletonList(name("Height", Locale.ENGLISH)),
+		        Collections.singletonList(new Mapping("766554", "Some Standardized Terminology", "SSTRM"))),
+		    entry(3, false, Collections.singletonList(name("Height", Locale.UK)),
+		        Collections.singletonList(new Mapping("766554", "Some Standardized Terminology", "SSTRM"))),
+		    entry(4, false, Collections.singletonList(name("Height", GERMANY)), Collections.emptyList()),
+		    entry(5, false, Collections.singletonList(name("Pulse", Locale.UK)), Collections.emptyList()),
+		    entry(6, false, Collections.singletonList(name("Pulse", Locale.US)), Collections.emptyList())));
+	}
+
+	/**
+	 * @see ConceptDictionarySnapshot#getConceptIdsByMapping(String, String, boolean)
+	 */
+	@Test
+	public void getConceptIdsByMapping_shouldFindConceptsBySourceNameOrHl7CodeIgnoringCase() {
+		ConceptDictionarySnapshot snapshot = snapshot();
+
+		assertEquals(Collections.singletonList(1), snapshot.getConceptIdsByMapping("WGT234", "SSTRM", true));
+		assertEquals(Collections.singletonList(1), snapshot.getConceptIdsByMapping("wgt234",
+		    "some standardized terminology", true));
+		assertTrue(snapshot.getConceptIdsByMapping("WGT234", "Another source", true).isEmpty());
+	}
+
+	/**
+	 * @see ConceptDictionarySnapshot#getConceptIdsByMapping(String, String, boolean)
+	 */
+	@Test
+	public void getConceptIdsByMapping_shouldPutRetiredConceptsLastOrLeaveThemOut() {
+		ConceptDictionarySnapshot snapshot = snapshot();
+
+		assertEquals(Arrays.asList(3, 2), snapshot.getConceptIdsByMapping("766554", "SSTRM", true));
+		assertEquals(Collections.singletonList(3), snapshot.getConceptIdsByMapping("766554", "SSTRM", false));
+	}
+
+	/**
+	 * @see ConceptDictionarySnapshot#getConceptIdByName(String, Locale)
+	 */
+	@Test
+	public void getConceptIdByName_shouldFindANonRetiredConceptByNameInTheLanguageOfTheLocale() {
+		ConceptDictionarySnapshot snapshot = snapshot();
+
+		assertEquals(1, snapshot.getConceptIdByName("weight", Locale.UK).intValue());
+		assertEquals(1, snapshot.getConceptIdByName("GEWICHT", GERMANY).intValue());
+		assertEquals(3, snapshot.getConceptIdByName("Height", Locale.ENGLISH).intValue());
+		assertNull(snapshot.getConceptIdByName("Weight", Locale.FRENCH));
+	}
+
+	/**
+	 * @see ConceptDictionarySnapshot#getConceptIdByName(String, Locale)
+	 */
+	@Test
+	public void getConceptIdByName_shouldPreferTheConceptNamedInTheExactLocaleIfSeveralMatch() {
+		ConceptDictionarySnapshot snapshot = snapshot();
+
+		assertEquals(6, snapshot.getConceptIdByName("pulse", Locale.US).intValue());
+		assertEquals(5, snapshot.getConceptIdByName("pulse", Locale.UK).intValue());
+		assertNull(snapshot.getConceptIdByName("pulse", Locale.ENGLISH));
+	}
+
+	/**
+	 * @see ConceptDictionarySnapshot#put(Entry)
+	 */
+	@Test
+	public void put_shouldReplaceTheIndexedNamesAndMappingsOfTheConcept() {
+		ConceptDictionarySnapshot snapshot = snapshot();
+
+		snapshot.put(entry(1, false, Arrays.asList(name("Body weight", Locale.ENGLISH), name("Gewicht", Locale.GERMAN)),
+		    Collections.singletonList(new Mapping("WGT235", "Another source", null))));
+
+		assertNull(snapshot.getConceptIdByName("Weight", Locale.ENGLISH));
+		assertEquals(1, snapshot.getConceptIdByName("Body weight", Locale.ENGLISH).intValue());
+		assertEquals(1, snapshot.getConceptIdByName("Gewicht", GERMANY).intValue());
+		assertTrue(snapshot.getConceptIdsByMapping("WGT234", "SSTRM", true).isEmpty());
+		assertEquals(Collections.singletonList(1), snapshot.getConceptIdsByMapping("WGT235", "Another source", true));
+		assertEquals(1, snapshot.getConceptIdByUuid("uuid-1").intValue());
+		assertEquals(6, snapshot.size());
+	}
+
+	/**
+	 * @see ConceptDictionarySnapshot#put(Entry)
+	 */
+	@Test
+	public void put_shouldNotChangeTheIndexesOfOtherConcepts() {
+		ConceptDictionarySnapshot snapshot = snapshot();
+
+		snapshot.put(entry(3, true, Collections.emptyList(), Collections.emptyList()));
+
+		assertEquals(Collections.singletonList(2), snapshot.getConceptIdsByMapping("766554", "SSTRM", true));
+		assertEquals(4, snapshot.getConceptIdByName("Height", GERMANY).intValue());
+		assertEquals(1, snapshot.getConceptIdByName("Weight", Locale.ENGLISH).intValue());
+		assertEquals(6, snapshot.size());
+	}
+
+	/**
+	 * @see ConceptDictionarySnapshot#remove(Integer)
+	 */
+	@Test
+	public void remove_shouldRemoveTheConceptFromAllIndexes() {
+		ConceptDictionarySnapshot snapshot = snapshot();
+
+		snapshot.remove(1);
+
+		assertNull(snapshot.getEntry(1));
+		assertNull(snapshot.getConceptIdByUuid("uuid-1"));
+		assertNull(snapshot.getConceptIdByName("Weight", Locale.ENGLISH));
+		assertTrue(snapshot.getConceptIdsByMapping("WGT234", "SSTRM", true).isEmpty());
+		assertEquals(5, snapshot.size());
+	}
+
+	/**
+	 * @see Entry#of(Concept)
+	 */
+	@Test
+	public void of_shouldCopyTheUnvoidedNamesMappingsSetMembersAndAnswers() {
+		Concept concept = new Concept(7);
+		concept.addName(new ConceptName("Weight", Locale.ENGLISH));
+		ConceptName voided = new ConceptName("Mass", Locale.ENGLISH);
+		voided.setVoided(true);
+		concept.addName(voided);
+		ConceptSource source = new ConceptSource();
+		source.setName("Some Standardized Terminology");
+		source.setHl7Code("SSTRM");
+		concept.addConceptMapping(new ConceptMap(new ConceptReferenceTerm(source, "WGT234", null), new ConceptMapType(2)));
+		concept.addSetMember(new Concept(8));
+		concept.addAnswer(new ConceptAnswer(new Concept(9)));
+
+		Entry entry = Entry.of(concept);
+
+		assertEquals(7, entry.getConceptId().intValue());
+		assertEquals(1, entry.getNames().size());
+		assertEquals("Weight", entry.getNames().get(0).getName());
+		assertEquals("SSTRM", entry.getMappings().get(0).getSourceHl7Code());
+		assertEquals("WGT234", entry.getMappings().get(0).getCode());
+		assertEquals(Collections.singletonList(8), entry.getSetMemberIds());
+		assertEquals(Collections.singletonList(9), entry.getAnswerIds());
+	}
+}
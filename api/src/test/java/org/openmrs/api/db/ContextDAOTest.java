@@ -22,9 +22,11 @@ import java.util.LinkedHashSet;
 import java.util.Properties;
 import java.util.Set;
 
+import org.apache.lucene.search.MatchAllDocsQuery;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.openmrs.PersonName;
 import org.openmrs.User;
 import org.openmrs.UserSessionListener;
 import org.openmrs.api.UserService;
@@ -403,4 +405,30 @@ public class ContextDAOTest extends BaseContextSensitiveTest {
 				contains("admin:LOGOUT:SUCCESS"));
 		assertThat(testUserSessionListener.logins, empty());
 	}
+	
+	@Test
+	public void updateSearchIndexForType_shouldReplaceTheDocumentsOfTheType() {
+		dao.updateSearchIndexForType(PersonName.class);
+		int documents = countDocuments(PersonName.class);
+		
+		dao.updateSearchIndexForType(PersonName.class);
+		
+		assertEquals(documents, countDocuments(PersonName.class));
+	}
+	
+	@Test
+	public void updateSearchIndexForType_shouldPurgeTheDocumentsOfObjectsWhichNoLongerExist() {
+		dao.updateSearchIndexForType(PersonName.class);
+		int documents = countDocuments(PersonName.class);
+		Context.getAdministrationService().executeSQL("delete from person_name where person_name_id = 15", false);
+		
+		dao.updateSearchIndexForType(PersonName.class);
+		
+		assertEquals(documents - 1, countDocuments(PersonName.class));
+	}
+	
+	private int countDocuments(Class<?> type) {
+		return Context.getRegisteredComponent("fullTextSessionFactory", FullTextSessionFactory.class).getFullTextSession()
+		        .createFullTextQuery(new MatchAllDocsQuery(), type).getResultSize();
+	}
 }
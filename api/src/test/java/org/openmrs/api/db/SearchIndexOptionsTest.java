@@ -0,0 +1,55 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.openmrs.ConceptName;
+import org.openmrs.Patient;
+
+/**
+ * Tests {@link SearchIndexOptions}
+ */
+public class SearchIndexOptionsTest {
+
+	/**
+	 * @see SearchIndexOptions#getTypeOptions(Class)
+	 */
+	@Test
+	public void getTypeOptions_shouldReturnTheOptionsSetForTheType() {
+		SearchIndexOptions options = new SearchIndexOptions();
+		SearchIndexOptions patientOptions = new SearchIndexOptions();
+		patientOptions.setThreads(8);
+		options.setTypeOptions(Patient.class, patientOptions);
+
+		assertSame(patientOptions, options.getTypeOptions(Patient.class));
+		assertEquals(8, options.getTypeOptions(Patient.class).getThreads());
+	}
+
+	/**
+	 * @see SearchIndexOptions#getTypeOptions(Class)
+	 */
+	@Test
+	public void getTypeOptions_shouldReturnTheseOptionsForOtherTypes() {
+		SearchIndexOptions options = new SearchIndexOptions();
+		options.setTypeOptions(Patient.class, new SearchIndexOptions());
+
+		assertSame(options, options.getTypeOptions(ConceptName.class));
+		assertEquals(SearchIndexOptions.DEFAULT_BATCH_SIZE, options.getTypeOptions(ConceptName.class).getBatchSize());
+	}
+
+	@Test
+	public void setBatchSize_shouldRejectSizesBelowOne() {
+		assertThrows(IllegalArgumentException.class, () -> new SearchIndexOptions().setBatchSize(0));
+	}
+}
@@ -9,9 +9,11 @@
  */
 package org.openmrs.api.db.hibernate;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import org.apache.commons.lang3.StringUtils;
 import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -148,4 +150,33 @@ public class HibernateAdministrationDAOTest extends BaseContextSensitiveTest {
 		dao.validate(role, errors);
 		assertFalse(errors.hasFieldErrors("role"));
 	}
+	
+	/**
+	 * @see HibernateAdministrationDAO#validate(Object,Errors)
+	 */
+	@Test
+	public void validate_shouldFailValidationIfFieldLengthsAreNotCorrectForAClassValidatedBefore() {
+		Role role = new Role();
+		role.setRole("Bowling race car driver");
+		role.setDescription("description");
+		dao.validate(role, new BindException(role, "type"));
+		
+		role.setDescription(StringUtils.repeat("too long text ", 20));
+		Errors errors = new BindException(role, "type");
+		dao.validate(role, errors);
+		
+		assertFalse(errors.hasFieldErrors("role"));
+		assertEquals("error.exceededMaxLengthOfField", errors.getFieldError("description").getCode());
+		assertEquals(dao.getMaximumPropertyLength(Role.class, "description"),
+		    errors.getFieldError("description").getArguments()[0]);
+	}
+	
+	/**
+	 * @see HibernateAdministrationDAO#getMaximumPropertyLength(Class,String)
+	 */
+	@Test
+	public void getMaximumPropertyLength_shouldReturnMinusOneForAPropertyWithoutAColumn() {
+		assertEquals(-1, dao.getMaximumPropertyLength(Role.class, "noSuchProperty"));
+		assertEquals(-1, dao.getMaximumPropertyLength(Role.class, "noSuchProperty"));
+	}
 }
@@ -10,9 +10,15 @@
 package org.openmrs.api.db.hibernate;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 
@@ -22,6 +28,7 @@ import org.openmrs.Concept;
 import org.openmrs.ConceptAttributeType;
 import org.openmrs.ConceptClass;
 import org.openmrs.ConceptDatatype;
+import org.openmrs.ConceptMap;
 import org.openmrs.ConceptName;
 import org.openmrs.Drug;
 import org.openmrs.api.ConceptNameType;
@@ -44,6 +51,135 @@ public class HibernateConceptDAOTest extends BaseContextSensitiveTest {
 		updateSearchIndex();
 	}
 	
+	/**
+	 * @see HibernateConceptDAO#getConceptBatch(Integer, int)
+	 */
+	@Test
+	public void getConceptBatch_shouldReturnTheConceptsAfterTheGivenIdOrderedById() {
+		List<Concept> concepts = dao.getConceptBatch(3, 3);
+		
+		assertEquals(3, concepts.size());
+		Integer previousConceptId = 3;
+		for (Concept concept : concepts) {
+			assertThat(concept.getConceptId() > previousConceptId, is(true));
+			previousConceptId = concept.getConceptId();
+		}
+		assertEquals(dao.getNextConcept(dao.getConcept(3)), concepts.get(0));
+	}
+	
+	/**
+	 * @see HibernateConceptDAO#getConceptBatch(Integer, int)
+	 */
+	@Test
+	public void getConceptBatch_shouldStartWithTheSmallestConceptIdIfNoIdIsGiven() {
+		List<Concept> concepts = dao.getConceptBatch(null, 1);
+		
+		assertEquals(1, concepts.size());
+		assertEquals(dao.getMinConceptId(), concepts.get(0).getConceptId());
+	}
+	
+	/**
+	 * @see HibernateConceptDAO#getConceptBatch(Integer, int)
+	 */
+	@Test
+	public void getConceptBatch_shouldLoadTheNamesMappingsAndAnswersOfTheConcepts() {
+		List<Concept> concepts = dao.getConceptBatch(null, 1000);
+		// the collections must not need the session anymore
+		Context.clearSession();
+		
+		int names = 0;
+		int mappings = 0;
+		int answers = 0;
+		for (Concept concept : concepts) {
+			names += concept.getNames().size();
+			for (ConceptMap mapping : concept.getConceptMappings()) {
+				mappings++;
+				assertNotNull(mapping.getConceptReferenceTerm().getConceptSource().getName());
+			}
+			answers += concept.getAnswers().size();
+		}
+		assertThat(names > 0, is(true));
+		assertThat(mappings > 0, is(true));
+		assertThat(answers > 0, is(true));
+	}
+	
+	/**
+	 * @see HibernateConceptDAO#getConceptIdBatch(Integer, int)
+	 */
+	@Test
+	public void getConceptIdBatch_shouldReturnTheConceptIdsAfterTheGivenIdInAscendingOrder() {
+		List<Concept> concepts = dao.getConceptBatch(3, 3);
+		List<Integer> conceptIds = dao.getConceptIdBatch(3, 3);
+		
+		assertEquals(3, conceptIds.size());
+		for (int i = 0; i < conceptIds.size(); i++) {
+			assertEquals(concepts.get(i).getConceptId(), conceptIds.get(i));
+		}
+	}
+	
+	/**
+	 * @see HibernateConceptDAO#getConceptBatch(java.util.Collection)
+	 */
+	@Test
+	public void getConceptBatch_shouldReturnTheConceptsWithTheGivenIdsOrderedById() {
+		List<Concept> concepts = dao.getConceptBatch(Arrays.asList(7, 3, 5089));
+		
+		assertEquals(3, concepts.size());
+		assertEquals(3, concepts.get(0).getConceptId().intValue());
+		assertEquals(7, concepts.get(1).getConceptId().intValue());
+		assertEquals(5089, concepts.get(2).getConceptId().intValue());
+	}
+	
+	/**
+	 * @see HibernateConceptDAO#forEachConceptInNewSession(java.util.Collection, java.util.function.Consumer)
+	 */
+	@Test
+	public void forEachConceptInNewSession_shouldPassTheConceptsToTheConsumerWhileTheirSessionIsOpen() throws Exception {
+		List<Integer> conceptIds = new ArrayList<>();
+		List<Integer> descriptions = new ArrayList<>();
+		// the calling thread must not have a session bound yet
+		Thread thread = new Thread(() -> dao.forEachConceptInNewSession(Arrays.asList(7, 3), c -> {
+			conceptIds.add(c.getConceptId());
+			descriptions.add(c.getDescriptions().size());
+		}));
+		thread.start();
+		thread.join();
+		
+		assertEquals(Arrays.asList(3, 7), conceptIds);
+		assertEquals(2, descriptions.size());
+	}
+	
+	/**
+	 * @see HibernateConceptDAO#getConceptsHavingAnyName(java.util.Collection)
+	 */
+	@Test
+	public void getConceptsHavingAnyName_shouldReturnTheConceptsHavingOneOfTheNamesIgnoringCase() {
+		List<Concept> concepts = dao.getConceptsHavingAnyName(Arrays.asList("cd4 count", "Yes", "no such name"));
+		
+		assertThat(concepts, containsInAnyOrder(dao.getConcept(5497), dao.getConcept(7)));
+		assertThat(concepts.get(0).getNames().isEmpty(), is(false));
+	}
+	
+	/**
+	 * @see HibernateConceptDAO#getConceptsHavingAnyName(java.util.Collection)
+	 */
+	@Test
+	public void getConceptsHavingAnyName_shouldNotReturnRetiredConcepts() {
+		Concept concept = dao.getConcept(5497);
+		concept.setRetired(true);
+		dao.saveConcept(concept);
+		
+		assertThat(dao.getConceptsHavingAnyName(Collections.singletonList("CD4 COUNT")), is(empty()));
+	}
+	
+	/**
+	 * @see HibernateConceptDAO#getConceptsHavingAnyName(java.util.Collection)
+	 */
+	@Test
+	public void getConceptsHavingAnyName_shouldReturnAnEmptyListIfNoNamesAreGiven() {
+		assertThat(dao.getConceptsHavingAnyName(Collections.emptyList()), is(empty()));
+	}
+	
 	/**
 	 * @see HibernateConceptDAO#getDrugs(String,Concept,boolean,boolean,boolean,Integer,Integer)
 	 */
@@ -14,16 +14,25 @@ import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasItems;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
+import org.openmrs.PatientSearchDocument;
+import org.openmrs.PersonName;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.db.FullTextSessionFactory;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
 
 public class HibernatePatientDAOTest extends BaseContextSensitiveTest {
@@ -63,4 +72,99 @@ public class HibernatePatientDAOTest extends BaseContextSensitiveTest {
 		assertThat(identifierIds, hasItems(3, 4));
 	}
 
+	@Test
+	public void getPatients_shouldReturnPatientsWithTheirNamesInSearchOrder() {
+		List<Patient> expected = new ArrayList<>();
+		for (int start = 0; start < 3; start++) {
+			List<Patient> page = hibernatePatientDao.getPatients("Test", false, start, 1);
+			if (!page.isEmpty()) {
+				expected.add(page.get(0));
+			}
+		}
+		Context.flushSession();
+		Context.clearSession();
+
+		List<Patient> patients = hibernatePatientDao.getPatients("Test", false, 0, 3);
+
+		assertEquals(expected.stream().map(Patient::getPatientId).collect(Collectors.toList()),
+				patients.stream().map(Patient::getPatientId).collect(Collectors.toList()));
+		assertTrue(patients.size() > 1);
+		for (Patient patient : patients) {
+			assertTrue(Hibernate.isInitialized(patient.getNames()));
+		}
+	}
+
+	@Test
+	public void getCountOfPatients_shouldCountThePatientsMatchedByIdentifiersNamesAndAttributes() {
+		List<Patient> patients = hibernatePatientDao.getPatients("Hornblower", false, 0, null);
+
+		assertTrue(patients.size() > 0);
+		assertEquals(Long.valueOf(patients.size()), hibernatePatientDao.getCountOfPatients("Hornblower"));
+		assertEquals(patients.size(), patients.stream().map(Patient::getPatientId).distinct().count());
+	}
+
+	@Test
+	public void getPatientSearchDocuments_shouldFindPatientsByNameAndIdentifierWithoutLoadingThem() {
+		List<PatientSearchDocument> documents = hibernatePatientDao.getPatientSearchDocuments("6TS-4", false, 0, 10);
+
+		assertEquals(1, documents.size());
+		PatientSearchDocument document = documents.get(0);
+		assertEquals(Integer.valueOf(7), document.getPatientId());
+		assertEquals("5946f880-b197-400b-9caa-a3c661d23041", document.getUuid());
+		assertEquals("F", document.getGender());
+		assertEquals("1976-08-25", document.getBirthdate());
+		assertTrue(document.getBirthdateEstimated());
+		assertEquals("6TS-4", document.getIdentifiers().get(0));
+		assertEquals(Integer.valueOf(1), document.getIdentifierTypeIds().get(0));
+		assertFalse(document.getNames().isEmpty());
+
+		documents = hibernatePatientDao.getPatientSearchDocuments("horn", false, 0, 10);
+		assertThat(documents.stream().map(PatientSearchDocument::getPatientId).collect(Collectors.toList()), hasItems(2));
+	}
+
+	@Test
+	public void getPatientSearchDocuments_shouldNotFindVoidedPatientsUnlessAskedTo() {
+		assertTrue(hibernatePatientDao.getPatientSearchDocuments("QWE", false, 0, 10).isEmpty());
+
+		List<PatientSearchDocument> documents = hibernatePatientDao.getPatientSearchDocuments("QWE", true, 0, 10);
+		assertEquals(1, documents.size());
+		assertEquals(Integer.valueOf(432), documents.get(0).getPatientId());
+		assertTrue(documents.get(0).getVoided());
+	}
+
+	@Test
+	public void getPatientSearchDocuments_shouldFindPatientsByANameAddedAfterIndexing() {
+		assertTrue(hibernatePatientDao.getPatientSearchDocuments("Zanzibar", false, 0, 10).isEmpty());
+
+		Patient patient = hibernatePatientDao.getPatient(7);
+		PersonName name = new PersonName("Zanzibar", null, "Kipkorir");
+		patient.addName(name);
+		Context.getPersonService().savePersonName(name);
+		Context.flushSession();
+		((FullTextSessionFactory) applicationContext.getBean("fullTextSessionFactory")).getFullTextSession()
+				.flushToIndexes();
+
+		List<PatientSearchDocument> documents = hibernatePatientDao.getPatientSearchDocuments("zanzi kipk", false, 0, 10);
+		assertEquals(1, documents.size());
+		assertEquals(Integer.valueOf(7), documents.get(0).getPatientId());
+	}
+
+	@Test
+	public void getPatients_shouldLoadTheIdentifiersOfAllReturnedPatientsTogether() {
+		Context.flushSession();
+		Context.clearSession();
+
+		List<Patient> patients = hibernatePatientDao.getPatients("Test", false, 0, 3);
+		assertTrue(patients.size() > 1);
+		for (Patient patient : patients) {
+			assertFalse(Hibernate.isInitialized(patient.getIdentifiers()));
+		}
+
+		Hibernate.initialize(patients.get(0).getIdentifiers());
+
+		for (Patient patient : patients) {
+			assertTrue(Hibernate.isInitialized(patient.getIdentifiers()));
+		}
+	}
+
 }
@@ -0,0 +1,120 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link PatientIdentifierQueryTransformer}
+ */
+public class PatientIdentifierQueryTransformerTest {
+
+	private static final String SEARCH_PATTERN = "@SEARCH@,0@SEARCH@,@SEARCH-1@-@CHECKDIGIT@,0@SEARCH-1@-@CHECKDIGIT@";
+
+	/**
+	 * @see PatientIdentifierQueryTransformer#removePadding(String)
+	 */
+	@Test
+	public void removePadding_shouldRemoveThePaddingAllowedByTheIdentifierRegex() {
+		PatientIdentifierQueryTransformer transformer = new PatientIdentifierQueryTransformer("^0*@SEARCH@([A-Z]+)$", "");
+		assertEquals("12MT", transformer.removePadding("00012MT"));
+		assertEquals("12MT", transformer.removePadding("12MT"));
+	}
+
+	/**
+	 * @see PatientIdentifierQueryTransformer#removePadding(String)
+	 */
+	@Test
+	public void removePadding_shouldLeaveTheQueryAloneIfTheRegexAllowsNoPadding() {
+		assertEquals("00012MT", new PatientIdentifierQueryTransformer("", "").removePadding("00012MT"));
+		assertEquals("00012MT", new PatientIdentifierQueryTransformer("^@SEARCH@$", "").removePadding("00012MT"));
+	}
+
+	/**
+	 * @see PatientIdentifierQueryTransformer#tokenize(String)
+	 */
+	@Test
+	public void tokenize_shouldReturnTheQueryIfNoSearchPatternIsConfigured() {
+		assertEquals(Collections.singletonList("12MT"), new PatientIdentifierQueryTransformer("", "").tokenize("12MT"));
+		assertEquals(Collections.singletonList("12MT"), new PatientIdentifierQueryTransformer("", " ").tokenize("12MT"));
+	}
+
+	/**
+	 * @see PatientIdentifierQueryTransformer#tokenize(String)
+	 */
+	@Test
+	public void tokenize_shouldPutTheQueryAndItsCheckDigitIntoEverySearchPattern() {
+		PatientIdentifierQueryTransformer transformer = new PatientIdentifierQueryTransformer("", SEARCH_PATTERN);
+		assertEquals(Arrays.asList("1234", "01234", "123-4", "0123-4"), transformer.tokenize("1234"));
+		assertEquals(Arrays.asList("1", "01", "-", "0-"), transformer.tokenize("1"));
+	}
+
+	/**
+	 * @see PatientIdentifierQueryTransformer#isFor(String, String)
+	 */
+	@Test
+	public void isFor_shouldMatchOnlyTheGlobalPropertyValuesItWasCreatedFor() {
+		PatientIdentifierQueryTransformer transformer = new PatientIdentifierQueryTransformer("^0*@SEARCH@$", SEARCH_PATTERN);
+		assertTrue(transformer.isFor("^0*@SEARCH@$", SEARCH_PATTERN));
+		assertFalse(transformer.isFor("^0*@SEARCH@$", ""));
+		assertFalse(transformer.isFor("", SEARCH_PATTERN));
+	}
+
+	/**
+	 * Replays the queries sent while identifiers are typed into a search box and checks that the
+	 * transformer produces the same queries as compiling the patterns for every search did
+	 */
+	@Test
+	public void tokenize_shouldMatchPerSearchCompilationForATypeaheadStream() {
+		String identifierRegex = "^0*@SEARCH@([A-Z]+)$";
+		PatientIdentifierQueryTransformer transformer = new PatientIdentifierQueryTransformer(identifierRegex,
+		        SEARCH_PATTERN);
+		for (String identifier : Arrays.asList("00012MT", "6TS-4")) {
+			for (int length = 1; length <= identifier.length(); length++) {
+				String query = identifier.substring(0, length);
+				assertEquals(compileEachTime(identifierRegex, SEARCH_PATTERN, query), transformer.tokenize(transformer
+				        .removePadding(query)), query);
+			}
+		}
+	}
+
+	/**
+	 * The way identifier queries were transformed before patterns were precompiled
+	 */
+	private static List<String> compileEachTime(String identifierRegex, String searchPattern, String query) {
+		if (Pattern.matches("^\\^.{1}\\*.*$", identifierRegex)) {
+			String padding = identifierRegex.substring(identifierRegex.indexOf("^") + 1, identifierRegex.indexOf("*"));
+			query = Pattern.compile("^" + padding + "+").matcher(query).replaceFirst("");
+		}
+		List<String> queries = new ArrayList<>();
+		for (String pattern : searchPattern.split(",")) {
+			String result = pattern.replaceAll("@SEARCH@", query);
+			if (query.length() > 1) {
+				result = result.replaceAll("@SEARCH-1@", query.substring(0, query.length() - 1));
+				result = result.replaceAll("@CHECKDIGIT@", query.substring(query.length() - 1));
+			} else {
+				result = result.replaceAll("@SEARCH-1@", "");
+				result = result.replaceAll("@CHECKDIGIT@", "");
+			}
+			queries.add(result);
+		}
+		return queries;
+	}
+}
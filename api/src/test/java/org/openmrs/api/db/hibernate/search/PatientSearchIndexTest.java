@@ -0,0 +1,49 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.junit.jupiter.api.Test;
+
+public class PatientSearchIndexTest {
+
+	/**
+	 * @see PatientSearchIndex#getWords(String)
+	 */
+	@Test
+	public void getWords_shouldLowerCaseWordsAndRemoveAccents() {
+		assertEquals(Arrays.asList("jose", "muller", "101-6"),
+		    new ArrayList<>(PatientSearchIndex.getWords(" José  MÜLLER 101-6 josé")));
+	}
+
+	/**
+	 * @see PatientSearchIndex#newQuery(String, boolean)
+	 */
+	@Test
+	public void newQuery_shouldMatchEveryWordOfThePhrase() {
+		BooleanQuery query = (BooleanQuery) PatientSearchIndex.newQuery("John Doe", false);
+
+		assertEquals(3, query.clauses().size());
+		int required = 0;
+		for (BooleanClause clause : query.clauses()) {
+			if (clause.getOccur() == Occur.MUST) {
+				required++;
+			}
+		}
+		assertEquals(2, required);
+	}
+}
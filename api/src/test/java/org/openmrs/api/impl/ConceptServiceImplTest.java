@@ -41,11 +41,15 @@ import org.openmrs.ConceptSearchResult;
 import org.openmrs.ConceptSet;
 import org.openmrs.ConceptSource;
 import org.openmrs.Drug;
+import org.openmrs.GlobalProperty;
 import org.openmrs.api.APIException;
 import org.openmrs.api.ConceptNameType;
 import org.openmrs.api.ConceptService;
 import org.openmrs.api.context.Context;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.openmrs.util.OpenmrsConstants;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Unit tests for methods that are specific to the {@link ConceptServiceImpl}. General tests that
@@ -897,4 +901,75 @@ public class ConceptServiceImplTest extends BaseContextSensitiveTest {
 		assertNotNull(conceptNameTag);
 		assertEquals(conceptNameTag, conceptService.getConceptNameTagByName(conceptNameTag.getTag()));
 	}
+
+	/**
+	 * @see ConceptServiceImpl#saveConcept(Concept)
+	 */
+	@Test
+	public void saveConcept_shouldUpdateTheDictionarySnapshotOnceTheTransactionIsCommitted() {
+		enableDictionarySnapshot();
+		assertNull(conceptService.getConceptByName("Snapshot concept"));
+		Concept concept = newConcept("Snapshot concept");
+		conceptService.saveConcept(concept);
+		
+		completeDictionarySnapshotChanges(TransactionSynchronization.STATUS_COMMITTED);
+		
+		assertEquals(concept, conceptService.getConceptByName("snapshot concept"));
+		assertEquals(concept, conceptService.getConceptByUuid(concept.getUuid()));
+		
+		conceptService.retireConcept(concept, "testing");
+		completeDictionarySnapshotChanges(TransactionSynchronization.STATUS_COMMITTED);
+		
+		assertNull(conceptService.getConceptByName("Snapshot concept"));
+	}
+	
+	/**
+	 * @see ConceptServiceImpl#saveConcept(Concept)
+	 */
+	@Test
+	public void saveConcept_shouldNotUpdateTheDictionarySnapshotIfTheTransactionIsRolledBack() {
+		enableDictionarySnapshot();
+		assertNull(conceptService.getConceptByName("Snapshot concept"));
+		Concept concept = newConcept("Snapshot concept");
+		conceptService.saveConcept(concept);
+		// the transaction itself finds the concept in the database
+		assertEquals(concept, conceptService.getConceptByName("Snapshot concept"));
+		
+		completeDictionarySnapshotChanges(TransactionSynchronization.STATUS_ROLLED_BACK);
+		
+		assertNull(conceptService.getConceptByName("Snapshot concept"));
+	}
+	
+	private void enableDictionarySnapshot() {
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(OpenmrsConstants.GP_CONCEPT_DICTIONARY_SNAPSHOT_ENABLED, "true"));
+	}
+	
+	private Concept newConcept(String name) {
+		Concept concept = new Concept();
+		concept.addName(new ConceptName(name, Locale.ENGLISH));
+		concept.addDescription(new ConceptDescription("A concept in the snapshot", Locale.ENGLISH));
+		concept.setDatatype(conceptService.getConceptDatatype(4));
+		concept.setConceptClass(conceptService.getConceptClass(1));
+		return concept;
+	}
+	
+	/**
+	 * Lets the dictionary snapshot changes of the test transaction go through a commit or rollback,
+	 * the test transaction itself is always rolled back
+	 */
+	private void completeDictionarySnapshotChanges(int status) {
+		ConceptServiceImpl.DictionarySnapshotChanges changes = null;
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			if (synchronization instanceof ConceptServiceImpl.DictionarySnapshotChanges) {
+				changes = (ConceptServiceImpl.DictionarySnapshotChanges) synchronization;
+			}
+		}
+		assertNotNull(changes);
+		if (status == TransactionSynchronization.STATUS_COMMITTED) {
+			changes.beforeCommit(false);
+			changes.afterCommit();
+		}
+		changes.afterCompletion(status);
+	}
 }
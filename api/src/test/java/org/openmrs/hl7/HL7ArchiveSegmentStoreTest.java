@@ -0,0 +1,110 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.hl7;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests methods on the {@link HL7ArchiveSegmentStore} class
+ */
+public class HL7ArchiveSegmentStoreTest {
+
+	private static final String ORU_R01 = "MSH|^~\\&|FORMENTRY|AMRS.ELD|HL7LISTENER|AMRS.ELD|20080226102656||ORU^R01|%s|P|2.5|1\r"
+	        + "PID|||3^^^^||John3^Doe^||\rOBX|1|NM|5497^CD4, BY FACS^99DCT||450|||||||||20080206\r";
+
+	@TempDir
+	public File tempDir;
+
+	private static String segmentOf(String locator) {
+		return StringUtils.substringBetween(locator, HL7ArchiveSegmentStore.LOCATOR_SCHEME, "#");
+	}
+
+	/**
+	 * @see HL7ArchiveSegmentStore#read(String)
+	 */
+	@Test
+	public void read_shouldReadBackAppendedMessages() throws IOException {
+		HL7ArchiveSegmentStore store = new HL7ArchiveSegmentStore(tempDir, HL7ArchiveSegmentStore.MAX_SEGMENT_SIZE);
+
+		String first = store.append(HL7ArchiveSegmentStore.compress(String.format(ORU_R01, "msg1")));
+		String second = store.append(HL7ArchiveSegmentStore.compress(String.format(ORU_R01, "msg2")));
+		store.flush();
+		String third = store.append(HL7ArchiveSegmentStore.compress(String.format(ORU_R01, "msg3")));
+
+		assertTrue(HL7ArchiveSegmentStore.isLocator(first));
+		assertEquals(segmentOf(first), segmentOf(third));
+		assertEquals(String.format(ORU_R01, "msg2"), store.read(second));
+		assertEquals(String.format(ORU_R01, "msg1"), store.read(first));
+		assertEquals(String.format(ORU_R01, "msg3"), store.read(third));
+	}
+
+	/**
+	 * @see HL7ArchiveSegmentStore#read(String)
+	 */
+	@Test
+	public void read_shouldFailForAMalformedLocator() {
+		HL7ArchiveSegmentStore store = new HL7ArchiveSegmentStore(tempDir, HL7ArchiveSegmentStore.MAX_SEGMENT_SIZE);
+
+		assertThrows(IOException.class, () -> store.read("file:/tmp/archive.txt"));
+		assertThrows(IOException.class, () -> store.read("hl7segment:segment-000001.dat#12"));
+		assertThrows(IOException.class, () -> store.read("hl7segment:../segment-000001.dat#0,12"));
+		assertThrows(IOException.class, () -> store.read("hl7segment:segment-000001.dat#0,12"));
+	}
+
+	/**
+	 * @see HL7ArchiveSegmentStore#append(byte[])
+	 */
+	@Test
+	public void append_shouldStartANewSegmentOnceTheCurrentOneIsFull() throws IOException {
+		byte[] compressed = HL7ArchiveSegmentStore.compress(String.format(ORU_R01, "msg1"));
+		HL7ArchiveSegmentStore store = new HL7ArchiveSegmentStore(tempDir, compressed.length * 2);
+
+		String first = store.append(compressed);
+		String second = store.append(compressed);
+		String third = store.append(compressed);
+
+		assertEquals(segmentOf(first), segmentOf(second));
+		assertNotEquals(segmentOf(second), segmentOf(third));
+		assertEquals(String.format(ORU_R01, "msg1"), store.read(third));
+
+		// a new store continues after the segments that were already written
+		String fourth = new HL7ArchiveSegmentStore(tempDir, compressed.length * 2).append(compressed);
+		assertEquals(segmentOf(third), segmentOf(fourth));
+		assertEquals(2, tempDir.list().length);
+	}
+
+	/**
+	 * @see HL7ArchiveSegmentStore#close()
+	 */
+	@Test
+	public void close_shouldKeepTheStoreUsable() throws IOException {
+		HL7ArchiveSegmentStore store = new HL7ArchiveSegmentStore(tempDir, HL7ArchiveSegmentStore.MAX_SEGMENT_SIZE);
+		String first = store.append(HL7ArchiveSegmentStore.compress(String.format(ORU_R01, "msg1")));
+		assertEquals(String.format(ORU_R01, "msg1"), store.read(first));
+
+		store.close();
+		String second = store.append(HL7ArchiveSegmentStore.compress(String.format(ORU_R01, "msg2")));
+
+		assertEquals(segmentOf(first), segmentOf(second));
+		assertEquals(String.format(ORU_R01, "msg1"), store.read(first));
+		assertEquals(String.format(ORU_R01, "msg2"), store.read(second));
+		store.close();
+	}
+}
@@ -0,0 +1,74 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.hl7;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests methods on the {@link HL7BatchReader} class
+ */
+public class HL7BatchReaderTest {
+
+	private static final String MSH = "MSH|^~\\&|FORMENTRY|AMRS.ELD|HL7LISTENER|AMRS.ELD|20080226102656||ORU^R01|";
+
+	/**
+	 * @see HL7BatchReader#nextMessage()
+	 */
+	@Test
+	public void nextMessage_shouldReadConsecutiveMessages() throws IOException {
+		HL7BatchReader reader = new HL7BatchReader(new StringReader(MSH + "1|P|2.5\r\nPID|||3^^^^\r\n" + MSH
+		        + "2|P|2.5\nPID|||7^^^^\nOBX|1|NM|5497^CD4^99DCT||450\n"));
+
+		assertEquals(MSH + "1|P|2.5\rPID|||3^^^^\r", reader.nextMessage());
+		assertEquals(MSH + "2|P|2.5\rPID|||7^^^^\rOBX|1|NM|5497^CD4^99DCT||450\r", reader.nextMessage());
+		assertNull(reader.nextMessage());
+	}
+
+	/**
+	 * @see HL7BatchReader#nextMessage()
+	 */
+	@Test
+	public void nextMessage_shouldSkipBatchHeaderAndTrailerSegments() throws IOException {
+		HL7BatchReader reader = new HL7BatchReader(new StringReader("FHS|^~\\&|FORMENTRY\rBHS|^~\\&|FORMENTRY\r" + MSH
+		        + "1|P|2.5\rPID|||3^^^^\rBTS|1\rBHS|^~\\&|FORMENTRY\r" + MSH + "2|P|2.5\rBTS|1\rFTS|2\r"));
+
+		assertEquals(MSH + "1|P|2.5\rPID|||3^^^^\r", reader.nextMessage());
+		assertEquals(MSH + "2|P|2.5\r", reader.nextMessage());
+		assertNull(reader.nextMessage());
+	}
+
+	/**
+	 * @see HL7BatchReader#nextMessage()
+	 */
+	@Test
+	public void nextMessage_shouldStripMllpFramingCharacters() throws IOException {
+		HL7BatchReader reader = new HL7BatchReader(new StringReader("\u000b" + MSH + "1|P|2.5\rPID|||3^^^^\r\u001c\r"
+		        + "\u000b" + MSH + "2|P|2.5\r\u001c\r"));
+
+		assertEquals(MSH + "1|P|2.5\rPID|||3^^^^\r", reader.nextMessage());
+		assertEquals(MSH + "2|P|2.5\r", reader.nextMessage());
+		assertNull(reader.nextMessage());
+	}
+
+	/**
+	 * @see HL7BatchReader#nextMessage()
+	 */
+	@Test
+	public void nextMessage_shouldReturnNullAtTheEndOfTheStream() throws IOException {
+		assertNull(new HL7BatchReader(new StringReader("")).nextMessage());
+		assertNull(new HL7BatchReader(new StringReader("\r\n\r\nFHS|^~\\&|FORMENTRY\rFTS|0\r")).nextMessage());
+	}
+}
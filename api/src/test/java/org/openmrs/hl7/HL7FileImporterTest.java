@@ -0,0 +1,123 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.hl7;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openmrs.GlobalProperty;
+import org.openmrs.api.context.Context;
+import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.openmrs.util.OpenmrsConstants;
+
+/**
+ * Tests methods on the {@link HL7FileImporter} class
+ */
+public class HL7FileImporterTest extends BaseContextSensitiveTest {
+
+	private static final String ORU_R01 = "MSH|^~\\&|FORMENTRY|AMRS.ELD|HL7LISTENER|AMRS.ELD|20080226102656||ORU^R01|%s|P|2.5|1||||||||16^AMRS.ELD.FORMID\r"
+	        + "PID|||%s^^^^||John3^Doe^||\r"
+	        + "PV1||O|1^Unknown Location||||1^Super User (1-8)|||||||||||||||||||||||||||||||||||||20080212|||||||V\r"
+	        + "ORC|RE||||||||20080226102537|1^Super User\r"
+	        + "OBR|1|||1238^MEDICAL RECORD OBSERVATIONS^99DCT\r"
+	        + "OBX|1|NM|5497^CD4, BY FACS^99DCT||450|||||||||20080206\r";
+
+	@TempDir
+	public Path tempDir;
+
+	@BeforeEach
+	public void runBeforeEachTest() {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+	}
+
+	private InputStream writeBatchFile(String... messageControlIdsAndPatients) throws IOException {
+		StringBuilder batch = new StringBuilder("FHS|^~\\&|FORMENTRY\rBHS|^~\\&|FORMENTRY\r");
+		for (int i = 0; i < messageControlIdsAndPatients.length; i += 2) {
+			batch.append(String.format(ORU_R01, messageControlIdsAndPatients[i], messageControlIdsAndPatients[i + 1]));
+		}
+		batch.append("BTS|").append(messageControlIdsAndPatients.length / 2).append("\rFTS|1\r");
+
+		Path file = tempDir.resolve("batch.hl7");
+		Files.write(file, batch.toString().getBytes(StandardCharsets.UTF_8));
+		return Files.newInputStream(file);
+	}
+
+	/**
+	 * @see HL7FileImporter#importFile(InputStream, HL7Source, boolean)
+	 */
+	@Test
+	public void importFile_shouldImportAllMessagesOfABatchFile() throws IOException {
+		int encounters = Context.getEncounterService().getEncountersByPatientId(3).size();
+
+		HL7FileImportResult result;
+		try (InputStream inputStream = writeBatchFile("msg1", "3", "msg2", "3")) {
+			result = new HL7FileImporter().importFile(inputStream, Context.getHL7Service().getHL7Source(1), false);
+		}
+
+		assertEquals(2, result.getMessagesImported());
+		assertEquals(0, result.getMessagesFailed());
+		assertEquals(encounters + 2, Context.getEncounterService().getEncountersByPatientId(3).size());
+		assertEquals(0, Context.getHL7Service().getAllHL7InArchives().size());
+		assertEquals(0, Context.getHL7Service().getAllHL7InErrors().size());
+	}
+
+	/**
+	 * @see HL7FileImporter#importFile(InputStream, HL7Source, boolean)
+	 */
+	@Test
+	public void importFile_shouldWriteMessagesThatCannotBeProcessedToTheErrorTable() throws IOException {
+		HL7FileImportResult result;
+		try (InputStream inputStream = writeBatchFile("msg1", "3", "msg2", "8675309")) {
+			result = new HL7FileImporter().importFile(inputStream, Context.getHL7Service().getHL7Source(1), false);
+		}
+
+		assertEquals(1, result.getMessagesImported());
+		assertEquals(1, result.getMessagesFailed());
+		List<HL7InError> errors = Context.getHL7Service().getAllHL7InErrors();
+		assertEquals(1, errors.size());
+		assertEquals("msg2", errors.get(0).getHL7SourceKey());
+	}
+
+	/**
+	 * @see HL7FileImporter#importFile(InputStream, HL7Source, boolean)
+	 */
+	@Test
+	public void importFile_shouldWriteProcessedMessagesToTheArchivesDirectoryIfRequested() throws IOException {
+		File archiveDir = tempDir.resolve("hl7_archives").toFile();
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_HL7_ARCHIVE_DIRECTORY, archiveDir.getAbsolutePath()));
+
+		try (InputStream inputStream = writeBatchFile("msg1", "3")) {
+			new HL7FileImporter().importFile(inputStream, Context.getHL7Service().getHL7Source(1), true);
+		}
+
+		try (Stream<Path> files = Files.walk(archiveDir.toPath())) {
+			List<Path> archives = files.filter(Files::isRegularFile).collect(Collectors.toList());
+			assertEquals(1, archives.size());
+			assertTrue(archives.get(0).getFileName().toString().endsWith("_msg1.txt"));
+			assertEquals(String.format(ORU_R01, "msg1", "3"), new String(Files.readAllBytes(archives.get(0)),
+			        StandardCharsets.UTF_8));
+		}
+		assertEquals(0, Context.getHL7Service().getAllHL7InArchives().size());
+	}
+}
@@ -0,0 +1,98 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.hl7;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests methods on the {@link HL7InQueueProcessor} class
+ */
+public class HL7InQueueProcessorTest {
+
+	private static final String MSH = "MSH|^~\\&|FORMENTRY|AMRS.ELD|HL7LISTENER|AMRS.ELD|20080226102656||ORU^R01|JqnfhKKtouEz8kzTk6Zo|P|2.5|1\r";
+
+	private HL7InQueue queueItem(int id, String hl7Data) {
+		HL7InQueue hl7InQueue = new HL7InQueue();
+		hl7InQueue.setHL7InQueueId(id);
+		hl7InQueue.setHL7Data(hl7Data);
+		return hl7InQueue;
+	}
+
+	/**
+	 * @see HL7InQueueProcessor#partitionByPatient(List)
+	 */
+	@Test
+	public void partitionByPatient_shouldGroupEntriesByPatientIdentifierPreservingTheirOrder() {
+		List<List<Integer>> partitions = HL7InQueueProcessor.partitionByPatient(Arrays.asList(
+		    queueItem(1, MSH + "PID|||3^^^^||John3^Doe^"),
+		    queueItem(2, MSH + "PID|||7^^^^||Jane^Doe^"),
+		    queueItem(3, MSH + "PID|||3^^^^||John3^Doe^"),
+		    queueItem(4, MSH + "PID|||7^^^^||Jane^Doe^"),
+		    queueItem(5, MSH + "PID|||3^^^^||John3^Doe^")));
+
+		assertEquals(2, partitions.size());
+		assertEquals(Arrays.asList(1, 3, 5), partitions.get(0));
+		assertEquals(Arrays.asList(2, 4), partitions.get(1));
+	}
+
+	/**
+	 * @see HL7InQueueProcessor#partitionByPatient(List)
+	 */
+	@Test
+	public void partitionByPatient_shouldGroupEntriesWithoutPatientIdentifiersTogether() {
+		List<List<Integer>> partitions = HL7InQueueProcessor.partitionByPatient(Arrays.asList(
+		    queueItem(1, "a malformed hl7 message"),
+		    queueItem(2, MSH + "PID|||3^^^^||John3^Doe^"),
+		    queueItem(3, MSH)));
+
+		assertEquals(2, partitions.size());
+		assertEquals(Arrays.asList(1, 3), partitions.get(0));
+		assertEquals(Arrays.asList(2), partitions.get(1));
+	}
+
+	/**
+	 * @see HL7InQueueProcessor#partitionByPatient(List)
+	 */
+	@Test
+	public void partitionByPatient_shouldGroupEntriesListingTheIdentifiersOfAPatientInADifferentOrder() {
+		List<List<Integer>> partitions = HL7InQueueProcessor.partitionByPatient(Arrays.asList(
+		    queueItem(1, MSH + "PID|||3^^^^~7TU-8^^^^OpenMRS Identification Number||John3^Doe^"),
+		    queueItem(2, MSH + "PID|||9^^^^||Jane^Doe^"),
+		    queueItem(3, MSH + "PID|||7TU-8^^^^OpenMRS Identification Number~3^^^^||John3^Doe^"),
+		    queueItem(4, MSH + "PID|||7TU-8^^^^OpenMRS Identification Number||John3^Doe^"),
+		    queueItem(5, MSH + "PID|||3^^^^||John3^Doe^")));
+
+		assertEquals(2, partitions.size());
+		assertEquals(Arrays.asList(1, 3, 4, 5), partitions.get(0));
+		assertEquals(Arrays.asList(2), partitions.get(1));
+	}
+
+	/**
+	 * @see HL7InQueueProcessor#partitionByPatient(List)
+	 */
+	@Test
+	public void partitionByPatient_shouldMergeThePartitionsOfIdentifiersListedTogetherLater() {
+		List<List<Integer>> partitions = HL7InQueueProcessor.partitionByPatient(Arrays.asList(
+		    queueItem(1, MSH + "PID|||7TU-8^^^^OpenMRS Identification Number||John3^Doe^"),
+		    queueItem(2, MSH + "PID|||3^^^^||John3^Doe^"),
+		    queueItem(3, MSH + "PID|||9^^^^||Jane^Doe^"),
+		    queueItem(4, MSH + "PID|||3^^^^~7TU-8^^^^OpenMRS Identification Number||John3^Doe^")));
+
+		assertEquals(2, partitions.size());
+		assertEquals(Arrays.asList(1, 2, 4), partitions.get(0));
+		assertEquals(Arrays.asList(3), partitions.get(1));
+	}
+
+}
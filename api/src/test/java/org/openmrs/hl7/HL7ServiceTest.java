@@ -21,9 +21,12 @@ import static org.openmrs.util.OpenmrsUtil.deleteDirectory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import ca.uhn.hl7v2.HL7Exception;
@@ -43,6 +46,7 @@ import org.openmrs.GlobalProperty;
 import org.openmrs.Obs;
 import org.openmrs.Patient;
 import org.openmrs.Person;
+import org.openmrs.api.AdministrationService;
 import org.openmrs.api.context.Context;
 import org.openmrs.hl7.handler.ORUR01Handler;
 import org.openmrs.hl7.impl.HL7ServiceImpl;
@@ -139,6 +143,375 @@ public class HL7ServiceTest extends BaseContextSensitiveTest {
 		assertThrows(HL7Exception.class, () -> hl7service.processHL7InQueue(queueItem));
 	}
 	
+	/**
+	 * @see HL7Service#getNextHL7InQueueBatch(Integer, int)
+	 */
+	@Test
+	public void getNextHL7InQueueBatch_shouldReturnPendingQueueItemsOrderedById() {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		
+		List<HL7InQueue> batch = Context.getHL7Service().getNextHL7InQueueBatch(null, 10);
+		assertEquals(2, batch.size());
+		assertEquals(1, batch.get(0).getHL7InQueueId().intValue());
+		assertEquals(2, batch.get(1).getHL7InQueueId().intValue());
+	}
+	
+	/**
+	 * @see HL7Service#getNextHL7InQueueBatch(Integer, int)
+	 */
+	@Test
+	public void getNextHL7InQueueBatch_shouldOnlyReturnQueueItemsAfterTheGivenId() {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		
+		List<HL7InQueue> batch = Context.getHL7Service().getNextHL7InQueueBatch(1, 10);
+		assertEquals(1, batch.size());
+		assertEquals(2, batch.get(0).getHL7InQueueId().intValue());
+	}
+	
+	/**
+	 * @see HL7Service#getNextHL7InQueueBatch(Integer, int)
+	 */
+	@Test
+	public void getNextHL7InQueueBatch_shouldNotReturnMoreItemsThanTheBatchSize() {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		
+		List<HL7InQueue> batch = Context.getHL7Service().getNextHL7InQueueBatch(null, 1);
+		assertEquals(1, batch.size());
+		assertEquals(1, batch.get(0).getHL7InQueueId().intValue());
+	}
+	
+	/**
+	 * @see HL7Service#processPendingHL7InQueue(Integer)
+	 */
+	@Test
+	public void processPendingHL7InQueue_shouldProcessAPendingQueueItem() throws HL7Exception {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		HL7Service hl7service = Context.getHL7Service();
+		int archives = hl7service.getAllHL7InArchives().size();
+		
+		assertNotNull(hl7service.processPendingHL7InQueue(1));
+		
+		assertNull(hl7service.getHL7InQueue(1));
+		assertEquals(archives + 1, hl7service.getAllHL7InArchives().size());
+	}
+	
+	/**
+	 * @see HL7Service#processPendingHL7InQueue(Integer)
+	 */
+	@Test
+	public void processPendingHL7InQueue_shouldProcessAQueueItemReadByAProcessorThatStoppedBeforeProcessingIt()
+	        throws HL7Exception {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		HL7Service hl7service = Context.getHL7Service();
+		// a processor reads the next batch to hand it to its workers and stops before they process it
+		List<HL7InQueue> abandoned = hl7service.getNextHL7InQueueBatch(null, 10);
+		assertEquals(2, abandoned.size());
+		Context.flushSession();
+		Context.clearSession();
+		
+		// reading the batch claimed nothing, so the next run still finds and processes the items
+		List<HL7InQueue> batch = hl7service.getNextHL7InQueueBatch(null, 10);
+		assertEquals(2, batch.size());
+		assertEquals(HL7Constants.HL7_STATUS_PENDING, batch.get(0).getMessageState());
+		assertNotNull(hl7service.processPendingHL7InQueue(batch.get(0).getHL7InQueueId()));
+		assertNull(hl7service.getHL7InQueue(batch.get(0).getHL7InQueueId()));
+	}
+	
+	/**
+	 * @see HL7Service#processPendingHL7InQueue(Integer)
+	 */
+	@Test
+	public void processPendingHL7InQueue_shouldNotProcessAQueueItemThatIsNotPending() throws HL7Exception {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		HL7Service hl7service = Context.getHL7Service();
+		HL7InQueue hl7InQueue = hl7service.getHL7InQueue(1);
+		hl7InQueue.setMessageState(HL7Constants.HL7_STATUS_PROCESSING);
+		hl7service.saveHL7InQueue(hl7InQueue);
+		int archives = hl7service.getAllHL7InArchives().size();
+		
+		assertNull(hl7service.processPendingHL7InQueue(1));
+		assertNull(hl7service.processPendingHL7InQueue(999));
+		
+		assertNotNull(hl7service.getHL7InQueue(1));
+		assertEquals(archives, hl7service.getAllHL7InArchives().size());
+	}
+	
+	/**
+	 * @see HL7Service#processNextHL7InQueueBatch(Integer, int)
+	 */
+	@Test
+	public void processNextHL7InQueueBatch_shouldArchiveProcessedItemsAndDeleteThemFromTheQueue() throws HL7Exception {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		HL7Service hl7service = Context.getHL7Service();
+		
+		HL7InQueueBatchResult result = hl7service.processNextHL7InQueueBatch(null, 10);
+		
+		assertEquals(1, result.getArchived());
+		assertEquals(1, result.getErrored());
+		assertEquals(2, result.getLastHL7InQueueId().intValue());
+		assertEquals(0, hl7service.getAllHL7InQueues().size());
+		List<HL7InArchive> archives = hl7service.getAllHL7InArchives();
+		assertEquals(1, archives.size());
+		assertEquals(HL7Constants.HL7_STATUS_PROCESSED, archives.get(0).getMessageState());
+		assertNotNull(archives.get(0).getUuid());
+	}
+	
+	/**
+	 * @see HL7Service#processNextHL7InQueueBatch(Integer, int)
+	 */
+	@Test
+	public void processNextHL7InQueueBatch_shouldMoveItemsThatCannotBeParsedToTheErrorTable() throws HL7Exception {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		HL7Service hl7service = Context.getHL7Service();
+		
+		HL7InQueueBatchResult result = hl7service.processNextHL7InQueueBatch(1, 10);
+		
+		assertEquals(0, result.getArchived());
+		assertEquals(1, result.getErrored());
+		List<HL7InError> errors = hl7service.getAllHL7InErrors();
+		assertEquals(1, errors.size());
+		assertEquals("a malformed hl7 message", errors.get(0).getHL7Data());
+		assertEquals("Trouble parsing HL7 message (asdf)", errors.get(0).getError());
+		assertNull(hl7service.getHL7InQueue(2));
+		assertNotNull(hl7service.getHL7InQueue(1));
+	}
+	
+	/**
+	 * @see HL7Service#processNextHL7InQueueBatch(Integer, int)
+	 */
+	@Test
+	public void processNextHL7InQueueBatch_shouldMoveItemsThatCannotBeRoutedToTheErrorTable() throws HL7Exception {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		HL7Service hl7service = Context.getHL7Service();
+		HL7InQueue unknownPatient = new HL7InQueue();
+		unknownPatient.setHL7Source(hl7service.getHL7Source(1));
+		unknownPatient.setHL7SourceKey("unknown patient");
+		unknownPatient.setHL7Data(hl7service.getHL7InQueue(1).getHL7Data().replace("PID|||3^^^^", "PID|||8675309^^^^"));
+		hl7service.saveHL7InQueue(unknownPatient);
+		
+		HL7InQueueBatchResult result = hl7service.processNextHL7InQueueBatch(null, 10);
+		
+		assertEquals(1, result.getArchived());
+		assertEquals(2, result.getErrored());
+		assertEquals(0, hl7service.getAllHL7InQueues().size());
+		assertEquals(1, hl7service.getAllHL7InArchives().size());
+		List<HL7InError> errors = hl7service.getAllHL7InErrors();
+		assertEquals(2, errors.size());
+		assertTrue(errors.stream().anyMatch(error -> "Trouble parsing HL7 message (unknown patient)".equals(error
+		        .getError())));
+	}
+	
+	/**
+	 * @see HL7Service#processNextHL7InQueueBatch(Integer, int)
+	 */
+	@Test
+	public void processNextHL7InQueueBatch_shouldClaimNoItemsIfThereAreNoPendingItems() throws HL7Exception {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		
+		HL7InQueueBatchResult result = Context.getHL7Service().processNextHL7InQueueBatch(2, 10);
+		
+		assertEquals(0, result.getClaimed());
+		assertNull(result.getLastHL7InQueueId());
+	}
+	
+	/**
+	 * @see HL7Service#migrateHl7InArchivesToFileSystem(Map)
+	 */
+	@Test
+	public void migrateHl7InArchivesToFileSystem_shouldAppendArchivesToSegmentFilesIfConfiguredTo() throws Exception {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		File tempDir = new File(System.getProperty("java.io.tmpdir"), "hl7_segment_archives_test");
+		if (tempDir.exists()) {
+			assertTrue(deleteDirectory(tempDir));
+		}
+		AdministrationService as = Context.getAdministrationService();
+		as.saveGlobalProperty(new GlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_HL7_ARCHIVE_DIRECTORY, tempDir
+		        .getAbsolutePath()));
+		as.saveGlobalProperty(new GlobalProperty(OpenmrsConstants.GP_HL7_ARCHIVE_STORAGE,
+		        HL7Constants.HL7_ARCHIVE_STORAGE_SEGMENT));
+		as.saveGlobalProperty(new GlobalProperty(OpenmrsConstants.GP_HL7_ARCHIVE_MIGRATION_THREADS, "2"));
+		
+		HL7Service hl7service = Context.getHL7Service();
+		Calendar twoYearsAgo = Calendar.getInstance();
+		twoYearsAgo.add(Calendar.YEAR, -2);
+		for (int i = 0; i < 3; i++) {
+			HL7InArchive archive = new HL7InArchive(hl7service.getHL7InQueue(1));
+			archive.setHL7SourceKey("key" + i);
+			archive.setDateCreated(twoYearsAgo.getTime());
+			hl7service.saveHL7InArchive(archive);
+		}
+		String hl7Data = hl7service.getHL7InQueue(1).getHL7Data();
+		// the batches are committed in transactions of their own which do not see the test transaction
+		Context.flushSession();
+		getConnection().commit();
+		
+		Map<String, Integer> progressStatusMap = new HashMap<>();
+		Hl7InArchivesMigrateThread.setActive(true);
+		Hl7InArchivesMigrateThread.setTransferStatus(Hl7InArchivesMigrateThread.Status.RUNNING);
+		try {
+			hl7service.migrateHl7InArchivesToFileSystem(progressStatusMap);
+			
+			assertEquals(3, progressStatusMap.get(HL7Constants.NUMBER_TRANSFERRED_KEY).intValue());
+			assertEquals(0, progressStatusMap.get(HL7Constants.NUMBER_REMAINING_KEY).intValue());
+			Context.clearSession();
+			List<HL7InArchive> archives = hl7service.getHL7InArchiveByState(HL7Constants.HL7_STATUS_MIGRATED);
+			assertEquals(3, archives.size());
+			for (HL7InArchive archive : archives) {
+				assertTrue(HL7ArchiveSegmentStore.isLocator(archive.getHL7Data()));
+				hl7service.loadHL7InArchiveData(archive);
+				assertEquals(hl7Data, archive.getHL7Data());
+			}
+			assertEquals(1, new File(tempDir, HL7ArchiveSegmentStore.SEGMENTS_DIRECTORY_NAME).list().length);
+		}
+		finally {
+			Hl7InArchivesMigrateThread.stopMigration();
+			Hl7InArchivesMigrateThread.setTransferStatus(Hl7InArchivesMigrateThread.Status.NONE);
+			deleteAllData();
+		}
+		assertTrue(deleteDirectory(tempDir));
+	}
+	
+	/**
+	 * @see HL7Service#migrateNextHL7InArchiveBatch(Map)
+	 */
+	@Test
+	public void migrateNextHL7InArchiveBatch_shouldMigrateArchivesInTheOrderOfTheirIdsAndAdvanceTheCheckpoint()
+	        throws Exception {
+		File tempDir = new File(System.getProperty("java.io.tmpdir"), "hl7_checkpoint_archives_test");
+		List<HL7InArchive> archives = createHL7InArchivesToMigrate(tempDir, 3);
+		HL7Service hl7service = Context.getHL7Service();
+		assertEquals(3, hl7service.countHL7InArchivesToMigrate().intValue());
+		
+		Map<String, Integer> progressStatusMap = new HashMap<>();
+		assertEquals(3, hl7service.migrateNextHL7InArchiveBatch(progressStatusMap));
+		
+		assertEquals(3, progressStatusMap.get(HL7Constants.NUMBER_TRANSFERRED_KEY).intValue());
+		assertEquals(0, progressStatusMap.get(HL7Constants.NUMBER_OF_FAILED_TRANSFERS_KEY).intValue());
+		for (HL7InArchive archive : archives) {
+			assertEquals(HL7Constants.HL7_STATUS_MIGRATED, archive.getMessageState());
+		}
+		assertEquals(String.valueOf(archives.get(2).getHL7InArchiveId()), Context.getAdministrationService()
+		        .getGlobalProperty(OpenmrsConstants.GP_HL7_ARCHIVE_MIGRATION_CHECKPOINT));
+		assertEquals(0, hl7service.countHL7InArchivesToMigrate().intValue());
+		assertEquals(0, hl7service.migrateNextHL7InArchiveBatch(progressStatusMap));
+		assertTrue(deleteDirectory(tempDir));
+	}
+	
+	/**
+	 * @see HL7Service#migrateNextHL7InArchiveBatch(Map)
+	 */
+	@Test
+	public void migrateNextHL7InArchiveBatch_shouldResumeAfterTheCheckpoint() throws Exception {
+		File tempDir = new File(System.getProperty("java.io.tmpdir"), "hl7_checkpoint_archives_test");
+		List<HL7InArchive> archives = createHL7InArchivesToMigrate(tempDir, 3);
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GP_HL7_ARCHIVE_MIGRATION_CHECKPOINT,
+		    String.valueOf(archives.get(1).getHL7InArchiveId()));
+		HL7Service hl7service = Context.getHL7Service();
+		assertEquals(1, hl7service.countHL7InArchivesToMigrate().intValue());
+		
+		Map<String, Integer> progressStatusMap = new HashMap<>();
+		assertEquals(1, hl7service.migrateNextHL7InArchiveBatch(progressStatusMap));
+		
+		assertEquals(1, progressStatusMap.get(HL7Constants.NUMBER_TRANSFERRED_KEY).intValue());
+		assertEquals(HL7Constants.HL7_STATUS_PROCESSED, archives.get(0).getMessageState());
+		assertEquals(HL7Constants.HL7_STATUS_PROCESSED, archives.get(1).getMessageState());
+		assertEquals(HL7Constants.HL7_STATUS_MIGRATED, archives.get(2).getMessageState());
+		assertTrue(deleteDirectory(tempDir));
+	}
+	
+	/**
+	 * @see HL7Service#migrateNextHL7InArchiveBatch(Map)
+	 */
+	@Test
+	public void migrateNextHL7InArchiveBatch_shouldSkipArchivesThatCannotBeWrittenAndAdvanceTheCheckpointPastThem()
+	        throws Exception {
+		File tempDir = new File(System.getProperty("java.io.tmpdir"), "hl7_checkpoint_archives_test");
+		List<HL7InArchive> archives = createHL7InArchivesToMigrate(tempDir, 3);
+		// a file where the directory of the year the archives were created in should go
+		Calendar created = Calendar.getInstance();
+		created.setTime(archives.get(0).getDateCreated());
+		assertTrue(tempDir.mkdirs());
+		assertTrue(new File(tempDir, Integer.toString(created.get(Calendar.YEAR))).createNewFile());
+		HL7Service hl7service = Context.getHL7Service();
+		
+		Map<String, Integer> progressStatusMap = new HashMap<>();
+		assertEquals(3, hl7service.migrateNextHL7InArchiveBatch(progressStatusMap));
+		
+		assertEquals(0, progressStatusMap.get(HL7Constants.NUMBER_TRANSFERRED_KEY).intValue());
+		assertEquals(3, progressStatusMap.get(HL7Constants.NUMBER_OF_FAILED_TRANSFERS_KEY).intValue());
+		for (HL7InArchive archive : archives) {
+			assertEquals(HL7Constants.HL7_STATUS_PROCESSED, archive.getMessageState());
+		}
+		assertEquals(String.valueOf(archives.get(2).getHL7InArchiveId()), Context.getAdministrationService()
+		        .getGlobalProperty(OpenmrsConstants.GP_HL7_ARCHIVE_MIGRATION_CHECKPOINT));
+		assertEquals(0, hl7service.countHL7InArchivesToMigrate().intValue());
+		assertTrue(deleteDirectory(tempDir));
+	}
+	
+	private List<HL7InArchive> createHL7InArchivesToMigrate(File archivesDir, int count) throws Exception {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		if (archivesDir.exists()) {
+			assertTrue(deleteDirectory(archivesDir));
+		}
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_HL7_ARCHIVE_DIRECTORY,
+		    archivesDir.getAbsolutePath());
+		
+		HL7Service hl7service = Context.getHL7Service();
+		Calendar twoYearsAgo = Calendar.getInstance();
+		twoYearsAgo.add(Calendar.YEAR, -2);
+		List<HL7InArchive> archives = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			HL7InArchive archive = new HL7InArchive(hl7service.getHL7InQueue(1));
+			archive.setHL7SourceKey("key" + i);
+			archive.setDateCreated(twoYearsAgo.getTime());
+			archives.add(hl7service.saveHL7InArchive(archive));
+		}
+		return archives;
+	}
+	
+	/**
+	 * @see HL7Service#importHL7Messages(List)
+	 */
+	@Test
+	public void importHL7Messages_shouldProcessTheMessagesWithoutAddingThemToTheQueueOrArchiveTables() throws HL7Exception {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		HL7Service hl7service = Context.getHL7Service();
+		HL7InQueue message = new HL7InQueue();
+		message.setHL7Source(hl7service.getHL7Source(1));
+		message.setHL7SourceKey("JqnfhKKtouEz8kzTk6Zo");
+		message.setHL7Data(hl7service.getHL7InQueue(1).getHL7Data());
+		int encounters = Context.getEncounterService().getEncountersByPatientId(3).size();
+		
+		List<HL7InArchive> archives = hl7service.importHL7Messages(Collections.singletonList(message));
+		
+		assertEquals(1, archives.size());
+		assertEquals("JqnfhKKtouEz8kzTk6Zo", archives.get(0).getHL7SourceKey());
+		assertEquals(encounters + 1, Context.getEncounterService().getEncountersByPatientId(3).size());
+		assertEquals(2, hl7service.getAllHL7InQueues().size());
+		assertEquals(0, hl7service.getAllHL7InArchives().size());
+		assertEquals(0, hl7service.getAllHL7InErrors().size());
+	}
+	
+	/**
+	 * @see HL7Service#importHL7Messages(List)
+	 */
+	@Test
+	public void importHL7Messages_shouldMoveMessagesThatCannotBeParsedToTheErrorTable() throws HL7Exception {
+		executeDataSet("org/openmrs/hl7/include/ORUTest-initialData.xml");
+		HL7Service hl7service = Context.getHL7Service();
+		HL7InQueue message = new HL7InQueue();
+		message.setHL7Source(hl7service.getHL7Source(1));
+		message.setHL7SourceKey("malformed");
+		message.setHL7Data("a malformed hl7 message");
+		
+		assertTrue(hl7service.importHL7Messages(Collections.singletonList(message)).isEmpty());
+		
+		List<HL7InError> errors = hl7service.getAllHL7InErrors();
+		assertEquals(1, errors.size());
+		assertEquals("a malformed hl7 message", errors.get(0).getHL7Data());
+		assertEquals("Trouble parsing HL7 message (malformed)", errors.get(0).getError());
+	}
+	
 	/**
 	 * @throws HL7Exception
 	 * @see HL7Service#processHL7Message(Message)
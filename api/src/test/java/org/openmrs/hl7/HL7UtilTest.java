@@ -10,11 +10,15 @@
 package org.openmrs.hl7;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.TimeZone;
+import java.util.TreeSet;
 
 import ca.uhn.hl7v2.HL7Exception;
 import org.junit.jupiter.api.Test;
@@ -96,4 +100,93 @@ public class HL7UtilTest {
 		TimeZone.setDefault(originalTimeZone);
 	}
 	
+	/**
+	 * @see HL7Util#getPatientIdentifierList(String)
+	 */
+	@Test
+	public void getPatientIdentifierList_shouldReturnThePatientIdentifierListOfThePIDSegment() {
+		String hl7 = "MSH|^~\\&|FORMENTRY|AMRS.ELD|HL7LISTENER|AMRS.ELD|20080226102656||ORU^R01|JqnfhKKtouEz8kzTk6Zo|P|2.5|1\r"
+		        + "PID|||3^^^^~7TU-8^^^^OpenMRS Identification Number||John3^Doe^\r"
+		        + "PV1||O|1^Unknown Location||||1^Super User (1-8)|||||||||||||||||||||||||||||||||||||20080212|||||||V";
+		assertEquals("3^^^^~7TU-8^^^^OpenMRS Identification Number", HL7Util.getPatientIdentifierList(hl7));
+	}
+	
+	/**
+	 * @see HL7Util#getPatientIdentifierList(String)
+	 */
+	@Test
+	public void getPatientIdentifierList_shouldUseTheFieldSeparatorDeclaredInTheMSHSegment() {
+		String hl7 = "MSH#^~\\&#FORMENTRY#AMRS.ELD#HL7LISTENER#AMRS.ELD#20080226102656##ORU^R01#JqnfhKKtouEz8kzTk6Zo#P#2.5#1\n"
+		        + "PID###3^^^^##John3^Doe^";
+		assertEquals("3^^^^", HL7Util.getPatientIdentifierList(hl7));
+	}
+	
+	/**
+	 * @see HL7Util#getPatientIdentifierList(String)
+	 */
+	@Test
+	public void getPatientIdentifierList_shouldReturnNullIfThereIsNoPIDSegment() {
+		assertNull(HL7Util.getPatientIdentifierList("MSH|^~\\&|FORMENTRY|AMRS.ELD|HL7LISTENER|AMRS.ELD|20080226102656"));
+		assertNull(HL7Util.getPatientIdentifierList("a malformed hl7 message"));
+	}
+	
+	/**
+	 * @see HL7Util#getPatientIdentifierList(String)
+	 */
+	@Test
+	public void getPatientIdentifierList_shouldReturnNullForABlankMessage() {
+		assertNull(HL7Util.getPatientIdentifierList(null));
+		assertNull(HL7Util.getPatientIdentifierList(" "));
+	}
+	
+	/**
+	 * @see HL7Util#getPatientIdentifiers(String)
+	 */
+	@Test
+	public void getPatientIdentifiers_shouldReturnTheIdAssigningAuthorityAndTypeOfEachRepetition() {
+		String hl7 = "MSH|^~\\&|FORMENTRY|AMRS.ELD|HL7LISTENER|AMRS.ELD|20080226102656||ORU^R01|JqnfhKKtouEz8kzTk6Zo|P|2.5|1\r"
+		        + "PID|||3^^^^~7TU-8^^^AMRS^OpenMRS Identification Number~^^^^Old Identification Number||John3^Doe^";
+		assertEquals(new TreeSet<>(Arrays.asList("3^^", "7TU-8^AMRS^OpenMRS Identification Number")),
+		    HL7Util.getPatientIdentifiers(hl7));
+	}
+	
+	/**
+	 * @see HL7Util#getPatientIdentifiers(String)
+	 */
+	@Test
+	public void getPatientIdentifiers_shouldIgnoreTheOrderOfTheRepetitionsAndTheOtherComponents() {
+		String msh = "MSH#$*\\&#FORMENTRY#AMRS.ELD#HL7LISTENER#AMRS.ELD#20080226102656##ORU^R01#JqnfhKKtouEz8kzTk6Zo#P#2.5#1\r";
+		assertEquals(HL7Util.getPatientIdentifiers(msh + "PID###3$$$$*7TU-8$$$AMRS$OpenMRS Identification Number##John3$Doe$"),
+		    HL7Util.getPatientIdentifiers(msh + "PID###7TU-8$5$M10$AMRS$OpenMRS Identification Number* 3 ##John3$Doe$"));
+	}
+	
+	/**
+	 * @see HL7Util#getPatientIdentifiers(String)
+	 */
+	@Test
+	public void getPatientIdentifiers_shouldReturnAnEmptySetIfThereIsNoPIDSegment() {
+		assertTrue(HL7Util.getPatientIdentifiers("MSH|^~\\&|FORMENTRY|AMRS.ELD|HL7LISTENER|AMRS.ELD|20080226102656").isEmpty());
+		assertTrue(HL7Util.getPatientIdentifiers("a malformed hl7 message").isEmpty());
+		assertTrue(HL7Util.getPatientIdentifiers(null).isEmpty());
+	}
+	
+	/**
+	 * @see HL7Util#getMessageControlId(String)
+	 */
+	@Test
+	public void getMessageControlId_shouldReturnTheMessageControlIdOfTheMSHSegment() {
+		String hl7 = "MSH|^~\\&|FORMENTRY|AMRS.ELD|HL7LISTENER|AMRS.ELD|20080226102656||ORU^R01|JqnfhKKtouEz8kzTk6Zo|P|2.5|1\r"
+		        + "PID|||3^^^^||John3^Doe^";
+		assertEquals("JqnfhKKtouEz8kzTk6Zo", HL7Util.getMessageControlId(hl7));
+	}
+	
+	/**
+	 * @see HL7Util#getMessageControlId(String)
+	 */
+	@Test
+	public void getMessageControlId_shouldReturnNullForABlankMessage() {
+		assertNull(HL7Util.getMessageControlId(null));
+		assertNull(HL7Util.getMessageControlId(" "));
+	}
+	
 }
@@ -0,0 +1,90 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.hl7.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+import org.openmrs.Concept;
+import org.openmrs.Provider;
+import org.openmrs.api.context.Context;
+import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tests for the {@link HL7ResolutionCacheSaveHandler} class
+ */
+public class HL7ResolutionCacheSaveHandlerTest extends BaseContextSensitiveTest {
+	
+	/**
+	 * Runs what the cache save handler registered to be done once the test transaction is committed,
+	 * the test transaction itself is rolled back
+	 */
+	private void afterCommit() {
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			if (synchronization instanceof HL7ResolutionCacheSaveHandler.ClearAfterCommit) {
+				synchronization.afterCommit();
+			}
+		}
+	}
+	
+	/**
+	 * @see HL7ResolutionCacheSaveHandler#handle(org.openmrs.OpenmrsObject, org.openmrs.User,
+	 *      java.util.Date, String)
+	 */
+	@Test
+	public void handle_shouldClearResolvedConceptsWhenAConceptIsSaved() {
+		HL7ResolutionCache.putConceptId("WGT234", "SSTRM", 5089);
+		HL7ResolutionCache.putProviderId("1", "PROVIDER.ID", "L", 1);
+		
+		Concept concept = Context.getConceptService().getConcept(5089);
+		concept.setVersion("2");
+		Context.getConceptService().saveConcept(concept);
+		afterCommit();
+		
+		assertNull(HL7ResolutionCache.getConceptId("WGT234", "SSTRM"));
+		assertEquals(1, HL7ResolutionCache.getProviderId("1", "PROVIDER.ID", "L").intValue());
+	}
+	
+	/**
+	 * @see HL7ResolutionCacheSaveHandler#handle(org.openmrs.OpenmrsObject, org.openmrs.User,
+	 *      java.util.Date, String)
+	 */
+	@Test
+	public void handle_shouldClearResolvedProvidersWhenAProviderIsSaved() {
+		HL7ResolutionCache.putConceptId("WGT234", "SSTRM", 5089);
+		HL7ResolutionCache.putProviderId("1", "PROVIDER.ID", "L", 1);
+		
+		Provider provider = Context.getProviderService().getProvider(1);
+		provider.setIdentifier("a new identifier");
+		Context.getProviderService().saveProvider(provider);
+		afterCommit();
+		
+		assertNull(HL7ResolutionCache.getProviderId("1", "PROVIDER.ID", "L"));
+		assertEquals(5089, HL7ResolutionCache.getConceptId("WGT234", "SSTRM").intValue());
+	}
+	
+	/**
+	 * @see HL7ResolutionCacheSaveHandler#handle(org.openmrs.OpenmrsObject, org.openmrs.User,
+	 *      java.util.Date, String)
+	 */
+	@Test
+	public void handle_shouldNotClearAnythingBeforeTheTransactionIsCommitted() {
+		HL7ResolutionCache.putConceptId("WGT234", "SSTRM", 5089);
+		
+		Concept concept = Context.getConceptService().getConcept(5089);
+		concept.setVersion("2");
+		Context.getConceptService().saveConcept(concept);
+		
+		assertEquals(5089, HL7ResolutionCache.getConceptId("WGT234", "SSTRM").intValue());
+	}
+}
@@ -396,6 +396,30 @@ public class ORUR01HandlerTest extends BaseContextSensitiveTest {
 		assertNull(new ORUR01Handler().getConcept("93939434834", "SSTRM", "xcjk23h89gn34k234"));
 	}
 	
+	/**
+	 * @see ORUR01Handler#getConcept(String,String,String)
+	 */
+	@Test
+	public void getConcept_shouldRememberTheConceptAMappingResolvedTo() throws Exception {
+		assertNull(HL7ResolutionCache.getConceptId("WGT234", "SSTRM"));
+		
+		new ORUR01Handler().getConcept("WGT234", "SSTRM", "23498343sdnm3");
+		
+		assertEquals(5089, HL7ResolutionCache.getConceptId("WGT234", "SSTRM").intValue());
+		assertEquals(5089, new ORUR01Handler().getConcept("WGT234", "SSTRM", "23498343sdnm3").getId().intValue());
+	}
+	
+	/**
+	 * @see ORUR01Handler#getConcept(String,String,String)
+	 */
+	@Test
+	public void getConcept_shouldLookUpTheMappingAgainIfTheRememberedConceptNoLongerExists() throws Exception {
+		HL7ResolutionCache.putConceptId("WGT234", "SSTRM", 987654);
+		
+		assertEquals(5089, new ORUR01Handler().getConcept("WGT234", "SSTRM", "23498343sdnm3").getId().intValue());
+		assertEquals(5089, HL7ResolutionCache.getConceptId("WGT234", "SSTRM").intValue());
+	}
+	
 	/**
 	 * @see ORUR01Handler#processMessage(Message)
 	 */
@@ -13,8 +13,12 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Properties;
 
 import org.junit.jupiter.api.Test;
+import org.openmrs.api.context.Context;
+import org.openmrs.scheduler.executor.ExecutorSchedulerServiceImpl;
+import org.openmrs.scheduler.timer.TimerSchedulerServiceImpl;
 
 public class SchedulerUtilTest {
 	
@@ -48,4 +52,43 @@ public class SchedulerUtilTest {
 		
 	}
 	
+	/**
+	 * @see SchedulerUtil#newSchedulerService()
+	 */
+	@Test
+	public void newSchedulerService_shouldCreateTheTimerSchedulerByDefault() {
+		Properties runtimeProperties = Context.getRuntimeProperties();
+		try {
+			Properties props = new Properties();
+			props.putAll(runtimeProperties);
+			props.remove(SchedulerConstants.SCHEDULER_IMPLEMENTATION_RUNTIME_PROPERTY);
+			Context.setRuntimeProperties(props);
+			
+			assertEquals(TimerSchedulerServiceImpl.class, SchedulerUtil.newSchedulerService().getClass());
+		}
+		finally {
+			Context.setRuntimeProperties(runtimeProperties);
+		}
+	}
+	
+	/**
+	 * @see SchedulerUtil#newSchedulerService()
+	 */
+	@Test
+	public void newSchedulerService_shouldCreateTheExecutorSchedulerIfConfiguredTo() {
+		Properties runtimeProperties = Context.getRuntimeProperties();
+		try {
+			Properties props = new Properties();
+			props.putAll(runtimeProperties);
+			props.setProperty(SchedulerConstants.SCHEDULER_IMPLEMENTATION_RUNTIME_PROPERTY,
+			    SchedulerConstants.SCHEDULER_IMPLEMENTATION_EXECUTOR);
+			Context.setRuntimeProperties(props);
+			
+			assertEquals(ExecutorSchedulerServiceImpl.class, SchedulerUtil.newSchedulerService().getClass());
+		}
+		finally {
+			Context.setRuntimeProperties(runtimeProperties);
+		}
+	}
+	
 }
@@ -0,0 +1,81 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Calendar;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openmrs.api.context.Context;
+import org.openmrs.scheduler.SchedulerException;
+import org.openmrs.scheduler.TaskDefinition;
+import org.openmrs.scheduler.db.SchedulerDAO;
+import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Tests methods in ExecutorSchedulerServiceImpl
+ */
+public class ExecutorSchedulerServiceImplTest extends BaseContextSensitiveTest {
+	
+	@Autowired
+	private SchedulerDAO schedulerDAO;
+	
+	private ExecutorSchedulerServiceImpl schedulerService;
+	
+	@BeforeEach
+	public void setUp() {
+		schedulerService = new ExecutorSchedulerServiceImpl();
+		schedulerService.setSchedulerDAO(schedulerDAO);
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		schedulerService.onShutdown();
+	}
+	
+	/**
+	 * @see ExecutorSchedulerServiceImpl#scheduleTask(TaskDefinition)
+	 */
+	@Test
+	public void scheduleTask_shouldScheduleTheTaskOnTheSharedPool() throws SchedulerException {
+		Calendar startTime = Calendar.getInstance();
+		startTime.add(Calendar.HOUR, 1);
+		
+		TaskDefinition taskDefinition = new TaskDefinition();
+		taskDefinition.setName("TestTask");
+		taskDefinition.setTaskClass("org.openmrs.scheduler.tasks.TestTask");
+		taskDefinition.setStartTime(startTime.getTime());
+		taskDefinition.setRepeatInterval(60L);
+		taskDefinition.setStartOnStartup(false);
+		
+		assertNotNull(schedulerService.scheduleTask(taskDefinition));
+		Context.flushSession();
+		
+		Integer id = taskDefinition.getId();
+		assertNotNull(id);
+		assertTrue(taskDefinition.getStarted());
+		assertTrue(schedulerService.getStatus(id).startsWith("Scheduled to execute at"));
+		assertEquals(0, schedulerService.getTaskExecutionMetrics(id).getExecutions());
+		assertEquals(1, schedulerService.getScheduledTasks().size());
+		
+		schedulerService.shutdownTask(taskDefinition);
+		
+		assertEquals("Not Running", schedulerService.getStatus(id));
+		assertNull(schedulerService.getTaskExecutionMetrics(id));
+		assertTrue(schedulerService.getScheduledTasks().isEmpty());
+	}
+}
@@ -0,0 +1,57 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.openmrs.scheduler.Task;
+
+public class ExecutorSchedulerTaskTest {
+	
+	/**
+	 * @see ExecutorSchedulerTask#run()
+	 */
+	@Test
+	public void run_shouldSkipTheExecutionIfTheTaskIsAlreadyRunningTheMaximumNumberOfTimes() {
+		Task task = mock(Task.class);
+		AtomicInteger runningExecutions = new AtomicInteger(1);
+		ExecutorSchedulerTask schedulerTask = new ExecutorSchedulerTask(task, runningExecutions, 1);
+		
+		schedulerTask.run();
+		
+		verify(task, never()).execute();
+		assertEquals(1, runningExecutions.get());
+		assertEquals(1, schedulerTask.getMetrics().getSkippedExecutions());
+		assertEquals(0, schedulerTask.getMetrics().getExecutions());
+	}
+	
+	/**
+	 * @see ExecutorSchedulerTask#shutdown()
+	 */
+	@Test
+	public void shutdown_shouldCancelFurtherExecutionsAndShutTheTaskDown() {
+		Task task = mock(Task.class);
+		ScheduledFuture<?> future = mock(ScheduledFuture.class);
+		ExecutorSchedulerTask schedulerTask = new ExecutorSchedulerTask(task, new AtomicInteger(), 1);
+		schedulerTask.setFuture(future);
+		
+		schedulerTask.shutdown();
+		
+		verify(future).cancel(false);
+		verify(task).shutdown();
+	}
+}
@@ -9,22 +9,39 @@
  */
 package org.openmrs.scheduler.timer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Calendar;
 
 import org.junit.jupiter.api.Test;
+import org.openmrs.GlobalProperty;
 import org.openmrs.api.context.Context;
+import org.openmrs.scheduler.SchedulerConstants;
 import org.openmrs.scheduler.SchedulerException;
+import org.openmrs.scheduler.SchedulerService;
+import org.openmrs.scheduler.SchedulerUtil;
 import org.openmrs.scheduler.Task;
 import org.openmrs.scheduler.TaskDefinition;
+import org.openmrs.scheduler.db.SchedulerDAO;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * Tests methods in TimerSchedulerServiceImpl
  */
 public class TimerSchedulerServiceImplTest extends BaseContextSensitiveTest {
 	
+	private static final String OTHER_NODE = "other-node";
+	
+	private static final long ONE_HOUR = 3600;
+	
+	@Autowired
+	private SchedulerDAO schedulerDAO;
+	
 	/**
 	 * Tests whether the TimerScheduler schedules tasks even if the repeatInterval is zero.
 	 * 
@@ -64,4 +81,80 @@ public class TimerSchedulerServiceImplTest extends BaseContextSensitiveTest {
 		assertNotNull(clientTask, "The clientTask variable is null, so either the TimerSchedulerServiceImpl.scheduleTask method hasn't finished or didn't get run");
 	}
 	
+	/**
+	 * @see TimerSchedulerServiceImpl#acquireTaskLease(TaskDefinition)
+	 */
+	@Test
+	public void acquireTaskLease_shouldAlwaysSucceedIfTaskLeasesAreNotEnabled() {
+		TaskDefinition taskDefinition = createTaskDefinition();
+		schedulerDAO.acquireTaskLease(taskDefinition.getId(), OTHER_NODE, ONE_HOUR);
+		
+		assertTrue(Context.getSchedulerService().acquireTaskLease(taskDefinition));
+		assertEquals(OTHER_NODE, schedulerDAO.getTaskLease(taskDefinition.getId()).getOwner());
+	}
+	
+	/**
+	 * @see TimerSchedulerServiceImpl#acquireTaskLease(TaskDefinition)
+	 */
+	@Test
+	public void acquireTaskLease_shouldNotAcquireALeaseHeldByAnotherNode() {
+		enableTaskLeases();
+		TaskDefinition taskDefinition = createTaskDefinition();
+		assertTrue(schedulerDAO.acquireTaskLease(taskDefinition.getId(), OTHER_NODE, ONE_HOUR));
+		
+		assertFalse(Context.getSchedulerService().acquireTaskLease(taskDefinition));
+		assertEquals(OTHER_NODE, schedulerDAO.getTaskLease(taskDefinition.getId()).getOwner());
+	}
+	
+	/**
+	 * @see TimerSchedulerServiceImpl#acquireTaskLease(TaskDefinition)
+	 */
+	@Test
+	public void acquireTaskLease_shouldTakeOverAnExpiredLease() {
+		enableTaskLeases();
+		TaskDefinition taskDefinition = createTaskDefinition();
+		// a lease which expired an hour ago
+		assertTrue(schedulerDAO.acquireTaskLease(taskDefinition.getId(), OTHER_NODE, -ONE_HOUR));
+		
+		SchedulerService schedulerService = Context.getSchedulerService();
+		assertTrue(schedulerService.acquireTaskLease(taskDefinition));
+		// renewing a held lease succeeds as well
+		assertTrue(schedulerService.acquireTaskLease(taskDefinition));
+		
+		Context.clearSession();
+		assertEquals(SchedulerUtil.getNodeId(), schedulerDAO.getTaskLease(taskDefinition.getId()).getOwner());
+		assertFalse(schedulerDAO.acquireTaskLease(taskDefinition.getId(), OTHER_NODE, ONE_HOUR));
+	}
+	
+	/**
+	 * @see TimerSchedulerServiceImpl#releaseTaskLease(TaskDefinition)
+	 */
+	@Test
+	public void releaseTaskLease_shouldLetAnotherNodeAcquireTheLease() {
+		enableTaskLeases();
+		TaskDefinition taskDefinition = createTaskDefinition();
+		SchedulerService schedulerService = Context.getSchedulerService();
+		assertTrue(schedulerService.acquireTaskLease(taskDefinition));
+		
+		schedulerService.releaseTaskLease(taskDefinition);
+		
+		Context.clearSession();
+		assertNull(schedulerDAO.getTaskLease(taskDefinition.getId()));
+		assertTrue(schedulerDAO.acquireTaskLease(taskDefinition.getId(), OTHER_NODE, ONE_HOUR));
+	}
+	
+	private void enableTaskLeases() {
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(SchedulerConstants.SCHEDULER_TASK_LEASES_ENABLED_PROPERTY, "true"));
+	}
+	
+	private TaskDefinition createTaskDefinition() {
+		TaskDefinition taskDefinition = new TaskDefinition();
+		taskDefinition.setName("LeasedTask");
+		taskDefinition.setTaskClass("org.openmrs.scheduler.tasks.TestTask");
+		taskDefinition.setRepeatInterval(60L);
+		taskDefinition.setStartOnStartup(false);
+		Context.getSchedulerService().saveTaskDefinition(taskDefinition);
+		return taskDefinition;
+	}
 }
@@ -74,6 +74,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.openmrs.ConceptName;
 import org.openmrs.Drug;
+import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PersonAttribute;
 import org.openmrs.PersonName;
@@ -84,6 +85,7 @@ import org.openmrs.api.context.ContextAuthenticationException;
 import org.openmrs.api.context.ContextMockHelper;
 import org.openmrs.api.context.Credentials;
 import org.openmrs.api.context.UsernamePasswordCredentials;
+import org.openmrs.hl7.handler.HL7ResolutionCache;
 import org.openmrs.module.ModuleConstants;
 import org.openmrs.util.DatabaseUtil;
 import org.openmrs.util.OpenmrsClassLoader;
@@ -822,6 +824,9 @@ public abstract class BaseContextSensitiveTest extends AbstractJUnit4SpringConte
 			//Do the actual update/insert:
 			//insert new rows, update existing rows, and leave others alone
 			DatabaseOperation.REFRESH.execute(dbUnitConn, dataset);
+			
+			// the dataset may have changed global properties
+			Context.getAdministrationService().evictCachedGlobalProperties();
 		}
 		catch (DatabaseUnitException | SQLException e) {
 			throw new DatabaseUnitRuntimeException(e);
@@ -874,6 +879,8 @@ public abstract class BaseContextSensitiveTest extends AbstractJUnit4SpringConte
 			
 			updateSearchIndex();
 			
+			Context.getAdministrationService().evictCachedGlobalProperties();
+			
 			isBaseSetup = false;
 		}
 		catch (SQLException | DatabaseUnitException e) {
@@ -889,6 +896,8 @@ public abstract class BaseContextSensitiveTest extends AbstractJUnit4SpringConte
 		SessionFactory sf = (SessionFactory) applicationContext.getBean("sessionFactory");
 		sf.getCache().evictCollectionRegions();
 		sf.getCache().evictEntityRegions();
+		// hl7 handlers remember the ids codes resolved to, which differ between test datasets
+		HL7ResolutionCache.clear();
 	}
 	
 	/**
@@ -950,7 +959,7 @@ public abstract class BaseContextSensitiveTest extends AbstractJUnit4SpringConte
 	
 	public Class<?>[] getIndexedTypes() {
 		return new Class<?>[] { ConceptName.class, Drug.class, PersonName.class, PersonAttribute.class,
-				PatientIdentifier.class};
+				PatientIdentifier.class, Patient.class };
 	}
 	
 	/**
@@ -969,6 +978,9 @@ public abstract class BaseContextSensitiveTest extends AbstractJUnit4SpringConte
 		// clear the session to make sure nothing is cached, etc
 		Context.clearSession();
 		
+		// global properties inserted by datasets are rolled back with the test
+		Context.getAdministrationService().evictCachedGlobalProperties();
+		
 		// needed because the authenticatedUser is the only object that sticks
 		// around after tests and the clearSession call
 		if (Context.isSessionOpen())
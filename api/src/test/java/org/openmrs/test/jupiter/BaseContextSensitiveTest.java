@@ -64,6 +64,7 @@ import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.openmrs.ConceptName;
 import org.openmrs.Drug;
+import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PersonAttribute;
 import org.openmrs.PersonName;
@@ -74,6 +75,7 @@ import org.openmrs.api.context.ContextAuthenticationException;
 import org.openmrs.api.context.ContextMockHelper;
 import org.openmrs.api.context.Credentials;
 import org.openmrs.api.context.UsernamePasswordCredentials;
+import org.openmrs.hl7.handler.HL7ResolutionCache;
 import org.openmrs.module.ModuleConstants;
 import org.openmrs.test.SkipBaseSetup;
 import org.openmrs.test.SkipBaseSetupAnnotationExecutionListener;
@@ -810,6 +812,9 @@ public abstract class BaseContextSensitiveTest {
 			//Do the actual update/insert:
 			//insert new rows, update existing rows, and leave others alone
 			DatabaseOperation.REFRESH.execute(dbUnitConn, dataset);
+			
+			// the dataset may have changed global properties
+			Context.getAdministrationService().evictCachedGlobalProperties();
 		}
 		catch (DatabaseUnitException | SQLException e) {
 			throw new DatabaseUnitRuntimeException(e);
@@ -862,6 +867,8 @@ public abstract class BaseContextSensitiveTest {
 			
 			updateSearchIndex();
 			
+			Context.getAdministrationService().evictCachedGlobalProperties();
+			
 			isBaseSetup = false;
 		}
 		catch (SQLException | DatabaseUnitException e) {
@@ -877,6 +884,8 @@ public abstract class BaseContextSensitiveTest {
 		SessionFactory sf = (SessionFactory) applicationContext.getBean("sessionFactory");
 		sf.getCache().evictCollectionRegions();
 		sf.getCache().evictEntityRegions();
+		// hl7 handlers remember the ids codes resolved to, which differ between test datasets
+		HL7ResolutionCache.clear();
 	}
 	
 	/**
@@ -938,7 +947,7 @@ public abstract class BaseContextSensitiveTest {
 	
 	public Class<?>[] getIndexedTypes() {
 		return new Class<?>[] { ConceptName.class, Drug.class, PersonName.class, PersonAttribute.class,
-				PatientIdentifier.class};
+				PatientIdentifier.class, Patient.class };
 	}
 	
 	/**
@@ -957,6 +966,9 @@ public abstract class BaseContextSensitiveTest {
 		// clear the session to make sure nothing is cached, etc
 		Context.clearSession();
 		
+		// global properties inserted by datasets are rolled back with the test
+		Context.getAdministrationService().evictCachedGlobalProperties();
+		
 		// needed because the authenticatedUser is the only object that sticks
 		// around after tests and the clearSession call
 		if (Context.isSessionOpen())
@@ -0,0 +1,75 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.openmrs.Privilege;
+import org.openmrs.Role;
+import org.openmrs.util.PrivilegeIndex.PrivilegeSet;
+
+public class PrivilegeIndexTest {
+
+	/**
+	 * @see PrivilegeIndex#getId(String)
+	 */
+	@Test
+	public void getId_shouldGiveAllSpellingsOfANameTheSameNumber() {
+		int id = PrivilegeIndex.getId("Get Index Test Things");
+		assertEquals(id, PrivilegeIndex.getId("get index test things"));
+		assertEquals(id, PrivilegeIndex.getId("GET INDEX TEST THINGS"));
+	}
+
+	/**
+	 * @see PrivilegeIndex#getId(String)
+	 */
+	@Test
+	public void getId_shouldGiveDifferentNamesDifferentNumbers() {
+		assertNotEquals(PrivilegeIndex.getId("Get Index Test Things"), PrivilegeIndex.getId("Edit Index Test Things"));
+	}
+
+	/**
+	 * @see PrivilegeIndex#createPrivilegeSet(Role)
+	 */
+	@Test
+	public void createPrivilegeSet_shouldIncludeThePrivilegesOfParentRoles() {
+		Role parent = new Role("parent");
+		parent.addPrivilege(new Privilege("Parent Index Test Privilege"));
+		Role role = new Role("role");
+		role.addPrivilege(new Privilege("Index Test Privilege"));
+		role.getInheritedRoles().add(parent);
+
+		PrivilegeSet privileges = PrivilegeIndex.createPrivilegeSet(role);
+
+		assertTrue(privileges.contains("Index Test Privilege"));
+		assertTrue(privileges.contains("Parent Index Test Privilege"));
+		assertFalse(privileges.contains("Other Index Test Privilege"));
+		assertFalse(privileges.containsAll());
+		assertTrue(privileges.isCurrent());
+
+		PrivilegeIndex.invalidate();
+		assertFalse(privileges.isCurrent());
+	}
+
+	/**
+	 * @see PrivilegeIndex#createPrivilegeSet(Role)
+	 */
+	@Test
+	public void createPrivilegeSet_shouldContainAllPrivilegesForTheSuperUserRole() {
+		PrivilegeSet privileges = PrivilegeIndex.createPrivilegeSet(new Role(RoleConstants.SUPERUSER));
+
+		assertTrue(privileges.containsAll());
+		assertTrue(privileges.contains("Some Privilege Nobody Has"));
+	}
+}
@@ -25,6 +25,7 @@ import org.openmrs.api.ValidationException;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
 import org.springframework.validation.BindException;
 import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
 
 /**
  * Tests methods on the {@link ValidateUtil} class.
@@ -73,6 +74,49 @@ public class ValidateUtilTest extends BaseContextSensitiveTest {
 		ValidateUtil.setDisableValidation(prevVal);
 	}
 	
+	/**
+	 * @see ValidateUtil#validate(Object, org.springframework.validation.Validator)
+	 */
+	@Test
+	public void validate_shouldThrowValidationExceptionIfTheValidatorFindsErrors() {
+		assertThrows(ValidationException.class, () -> ValidateUtil.validate(new Location(), new LocationValidator()));
+	}
+	
+	/**
+	 * @see ValidateUtil#validate(Object, org.springframework.validation.Validator)
+	 */
+	@Test
+	public void validate_shouldThrowValidationExceptionIfTheRegisteredValidatorsFindErrors() {
+		Validator acceptingValidator = new Validator() {
+			
+			@Override
+			public boolean supports(Class<?> c) {
+				return true;
+			}
+			
+			@Override
+			public void validate(Object obj, Errors errors) {
+			}
+		};
+		
+		assertThrows(ValidationException.class, () -> ValidateUtil.validate(new Location(), acceptingValidator));
+	}
+	
+	/**
+	 * @see ValidateUtil#validate(Object, org.springframework.validation.Validator)
+	 */
+	@Test
+	public void validate_shouldReturnImmediatelyIfValidationIsDisabledForTheGivenValidator() {
+		Boolean prevVal = ValidateUtil.getDisableValidation();
+		ValidateUtil.setDisableValidation(true);
+		try {
+			ValidateUtil.validate(new Location(), new LocationValidator());
+		}
+		finally {
+			ValidateUtil.setDisableValidation(prevVal);
+		}
+	}
+	
 	/**
 	 * @see ValidateUtil#validateFieldLengths(org.springframework.validation.Errors, Class, String...)
 	 */